@@ -2,8 +2,6 @@ package com.tracking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 /**
  * Main application class for the Tracking Number Generator API.
@@ -11,10 +9,11 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
  * This Spring Boot application provides a RESTful API for generating
  * unique parcel tracking numbers with support for concurrent access
  * and horizontal scaling.
+ * 
+ * JPA repositories and transaction management are enabled by Spring Boot
+ * auto-configuration, which keeps web slice tests free of JPA infrastructure.
  */
 @SpringBootApplication
-@EnableJpaRepositories
-@EnableTransactionManagement
 public class TrackingNumberGeneratorApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,35 @@
+package com.tracking.analytics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Tracking numbers issued on a lane or for a customer within a window.
+ *
+ * @param key the lane ({@code origin-destination}) or customer slug
+ * @param count number of tracking numbers issued
+ * @param totalWeight total package weight in kg
+ * @param weightP50 median package weight in kg
+ * @param weightP90 90th percentile package weight in kg
+ * @param weightP99 99th percentile package weight in kg
+ */
+public record AggregateSnapshot(
+
+    @JsonProperty("key")
+    String key,
+
+    @JsonProperty("count")
+    long count,
+
+    @JsonProperty("total_weight")
+    double totalWeight,
+
+    @JsonProperty("weight_p50")
+    double weightP50,
+
+    @JsonProperty("weight_p90")
+    double weightP90,
+
+    @JsonProperty("weight_p99")
+    double weightP99
+) {
+}
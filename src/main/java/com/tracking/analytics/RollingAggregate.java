@@ -0,0 +1,125 @@
+package com.tracking.analytics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count, total weight and weight distribution of one lane or customer over
+ * the last hour and the last day.
+ *
+ * Each window is a ring of time buckets: twelve five-minute buckets for the
+ * hour and twenty-four one-hour buckets for the day. A bucket is replaced
+ * when its slot comes round again, so old data expires without a cleanup
+ * task; windows therefore cover between 55 and 60 minutes (23 and 24 hours)
+ * depending on the position within the current bucket. Counts and weights
+ * are striped {@link LongAdder}/{@link DoubleAdder}s, and each bucket keeps
+ * one {@link WeightSketch} per stripe of recording threads, created on first
+ * use and merged when a snapshot is taken, so threads recording the same key
+ * rarely share a lock. A value recorded by a thread racing a bucket
+ * replacement may be lost.
+ */
+final class RollingAggregate {
+
+    private static final int SKETCH_STRIPES =
+            Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final Window hour = new Window(12, TimeUnit.MINUTES.toMillis(5));
+    private final Window day = new Window(24, TimeUnit.HOURS.toMillis(1));
+
+    void record(double weight, long epochMillis) {
+        hour.record(weight, epochMillis);
+        day.record(weight, epochMillis);
+    }
+
+    /**
+     * @param window the window to summarize
+     * @param key the lane or customer this aggregate belongs to
+     * @param nowMillis the current time
+     * @return the summary, with a count of zero if nothing was recorded in the window
+     */
+    AggregateSnapshot snapshot(TrafficAggregates.Window window, String key, long nowMillis) {
+        return (window == TrafficAggregates.Window.HOUR ? hour : day).snapshot(key, nowMillis);
+    }
+
+    private static final class Window {
+
+        private final AtomicReferenceArray<Bucket> buckets;
+        private final long bucketMillis;
+
+        private Window(int bucketCount, long bucketMillis) {
+            this.buckets = new AtomicReferenceArray<>(bucketCount);
+            this.bucketMillis = bucketMillis;
+        }
+
+        private void record(double weight, long epochMillis) {
+            long slot = epochMillis / bucketMillis;
+            int index = (int) (slot % buckets.length());
+            Bucket bucket = buckets.get(index);
+            while (bucket == null || bucket.slot != slot) {
+                if (bucket != null && bucket.slot > slot) {
+                    // Older than the window
+                    return;
+                }
+                Bucket fresh = new Bucket(slot);
+                if (buckets.compareAndSet(index, bucket, fresh)) {
+                    bucket = fresh;
+                } else {
+                    bucket = buckets.get(index);
+                }
+            }
+            bucket.count.increment();
+            bucket.weight.add(weight);
+            bucket.sketch().add(weight);
+        }
+
+        private AggregateSnapshot snapshot(String key, long nowMillis) {
+            long newest = nowMillis / bucketMillis;
+            long oldest = newest - buckets.length() + 1;
+            long count = 0;
+            double weight = 0;
+            WeightSketch merged = new WeightSketch();
+            for (int i = 0; i < buckets.length(); i++) {
+                Bucket bucket = buckets.get(i);
+                if (bucket != null && bucket.slot >= oldest && bucket.slot <= newest) {
+                    count += bucket.count.sum();
+                    weight += bucket.weight.sum();
+                    for (int stripe = 0; stripe < SKETCH_STRIPES; stripe++) {
+                        WeightSketch sketch = bucket.sketches.get(stripe);
+                        if (sketch != null) {
+                            sketch.mergeInto(merged);
+                        }
+                    }
+                }
+            }
+            return new AggregateSnapshot(key, count, weight,
+                    merged.quantile(0.5), merged.quantile(0.9), merged.quantile(0.99));
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long slot;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder weight = new DoubleAdder();
+        private final AtomicReferenceArray<WeightSketch> sketches = new AtomicReferenceArray<>(SKETCH_STRIPES);
+
+        private Bucket(long slot) {
+            this.slot = slot;
+        }
+
+        /**
+         * @return the sketch of the calling thread's stripe
+         */
+        private WeightSketch sketch() {
+            int stripe = (int) Thread.currentThread().threadId() & (SKETCH_STRIPES - 1);
+            WeightSketch sketch = sketches.get(stripe);
+            if (sketch == null) {
+                sketches.compareAndSet(stripe, null, new WeightSketch());
+                sketch = sketches.get(stripe);
+            }
+            return sketch;
+        }
+    }
+}
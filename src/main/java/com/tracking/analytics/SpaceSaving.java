@@ -0,0 +1,185 @@
+package com.tracking.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy hitter summary (Metwally et al.) over a fixed number
+ * of counters.
+ *
+ * A key that is not tracked while all counters are in use takes over the
+ * counter with the smallest count and inherits that count as its error, so
+ * a count over-estimates the key's true count by at most its error, and
+ * every key whose true count exceeds {@code total / capacity} is tracked.
+ * Counters are kept in a min-heap, so recording costs a map lookup and
+ * {@code O(log capacity)} heap moves. Failures and latency are only known
+ * for the requests recorded since the key took over its counter.
+ *
+ * Summaries can be merged: a key a summary does not track counts as the
+ * summary's smallest count, which bounds its true count there, so merged
+ * counts keep the same guarantee over the combined requests. Not
+ * thread-safe.
+ */
+final class SpaceSaving {
+
+    /**
+     * A tracked key.
+     *
+     * @param key the key
+     * @param count estimated number of requests, at most {@code error} too high
+     * @param error maximum over-estimation of {@code count}
+     * @param observed requests recorded since the key took over its counter
+     * @param failures failed requests among {@code observed}
+     * @param latencyNanos total latency of {@code observed}
+     */
+    record Counter(String key, long count, long error, long observed, long failures, long latencyNanos) {
+    }
+
+    private static final class Slot {
+
+        private String key;
+        private long count;
+        private long error;
+        private long failures;
+        private long latencyNanos;
+        private int heapIndex;
+    }
+
+    private final Map<String, Slot> slots = new HashMap<>();
+    private final Slot[] heap;
+    private int size;
+    private long total;
+    private long totalFailures;
+    private long totalLatencyNanos;
+
+    SpaceSaving(int capacity) {
+        this.heap = new Slot[capacity];
+    }
+
+    void record(String key, boolean failed, long latencyNanos) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            if (size < heap.length) {
+                slot = new Slot();
+                slot.heapIndex = size;
+                heap[size++] = slot;
+            } else {
+                slot = heap[0];
+                slots.remove(slot.key);
+                slot.error = slot.count;
+                slot.failures = 0;
+                slot.latencyNanos = 0;
+            }
+            slot.key = key;
+            slots.put(key, slot);
+        }
+        slot.count++;
+        total++;
+        if (failed) {
+            slot.failures++;
+            totalFailures++;
+        }
+        slot.latencyNanos += latencyNanos;
+        totalLatencyNanos += latencyNanos;
+        siftDown(slot.heapIndex);
+    }
+
+    /**
+     * @return number of requests recorded
+     */
+    long total() {
+        return total;
+    }
+
+    /**
+     * @return number of failed requests recorded
+     */
+    long totalFailures() {
+        return totalFailures;
+    }
+
+    /**
+     * @return total latency of the requests recorded
+     */
+    long totalLatencyNanos() {
+        return totalLatencyNanos;
+    }
+
+    /**
+     * Forgets every key and total, keeping the allocated heap.
+     */
+    void clear() {
+        slots.clear();
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        total = 0;
+        totalFailures = 0;
+        totalLatencyNanos = 0;
+    }
+
+    /**
+     * @param limit maximum number of keys to return
+     * @return the keys with the highest counts, highest first
+     */
+    List<Counter> top(int limit) {
+        return top(List.of(this), limit);
+    }
+
+    /**
+     * Merges summaries of disjoint requests.
+     *
+     * @param summaries the summaries to merge
+     * @param limit maximum number of keys to return
+     * @return the keys with the highest merged counts, highest first
+     */
+    static List<Counter> top(List<SpaceSaving> summaries, int limit) {
+        long floor = 0;
+        Map<String, long[]> merged = new HashMap<>();
+        for (SpaceSaving summary : summaries) {
+            // Every key this summary does not track was recorded here at most this often
+            long summaryFloor = summary.size == summary.heap.length ? summary.heap[0].count : 0;
+            floor += summaryFloor;
+            for (int i = 0; i < summary.size; i++) {
+                Slot slot = summary.heap[i];
+                long[] sums = merged.computeIfAbsent(slot.key, key -> new long[5]);
+                sums[0] += slot.count - summaryFloor;
+                sums[1] += slot.error - summaryFloor;
+                sums[2] += slot.count - slot.error;
+                sums[3] += slot.failures;
+                sums[4] += slot.latencyNanos;
+            }
+        }
+        List<Counter> counters = new ArrayList<>(merged.size());
+        for (Map.Entry<String, long[]> entry : merged.entrySet()) {
+            long[] sums = entry.getValue();
+            counters.add(new Counter(entry.getKey(), floor + sums[0], floor + sums[1], sums[2], sums[3], sums[4]));
+        }
+        counters.sort(Comparator.comparingLong(Counter::count).reversed().thenComparing(Counter::key));
+        return counters.size() > limit ? counters.subList(0, limit) : counters;
+    }
+
+    private void siftDown(int index) {
+        Slot slot = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (heap[child].count >= slot.count) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].heapIndex = index;
+            index = child;
+        }
+        heap[index] = slot;
+        slot.heapIndex = index;
+    }
+}
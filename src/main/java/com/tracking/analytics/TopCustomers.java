@@ -0,0 +1,173 @@
+package com.tracking.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Requests, failures and latency of the busiest customers, with bounded
+ * metric cardinality.
+ *
+ * Every generation request is counted per customer slug in a
+ * {@link SpaceSaving} summary of {@code app.analytics.top-customers.capacity}
+ * counters. Requests are striped over several summaries by thread, each with
+ * its own lock, so request threads rarely wait for each other. Every
+ * {@code publish-interval-ms} the publisher swaps in empty summaries, merges
+ * the full ones and publishes the {@code size} customers with the most
+ * requests in that interval as gauges tagged {@code customer}; everything
+ * else is reported under {@code customer=other}, so at most {@code size + 1}
+ * series exist per gauge. Published counts are estimates: a customer's count
+ * may be too high by at most the interval's requests divided by the capacity.
+ */
+@Component
+public class TopCustomers implements SmartLifecycle {
+
+    static final String OTHER = "other";
+
+    private final Stripe[] stripes;
+    private final SpaceSaving[] published;
+    private final int size;
+    private final long publishIntervalMillis;
+    private final MultiGauge requestGauge;
+    private final MultiGauge failureGauge;
+    private final MultiGauge latencyGauge;
+
+    private ScheduledExecutorService publisher;
+
+    public TopCustomers(MeterRegistry meterRegistry,
+                        @Value("${app.analytics.top-customers.capacity:1000}") int capacity,
+                        @Value("${app.analytics.top-customers.size:10}") int size,
+                        @Value("${app.analytics.top-customers.publish-interval-ms:10000}") long publishIntervalMillis) {
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+        this.stripes = new Stripe[stripeCount];
+        this.published = new SpaceSaving[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(new SpaceSaving(capacity));
+            published[i] = new SpaceSaving(capacity);
+        }
+        this.size = size;
+        this.publishIntervalMillis = publishIntervalMillis;
+        this.requestGauge = MultiGauge.builder("tracking.customer.top.requests")
+                .description("Estimated generation requests in the last publish interval of the busiest customers")
+                .register(meterRegistry);
+        this.failureGauge = MultiGauge.builder("tracking.customer.top.failures")
+                .description("Failed generation requests in the last publish interval of the busiest customers")
+                .register(meterRegistry);
+        this.latencyGauge = MultiGauge.builder("tracking.customer.top.latency.mean")
+                .description("Mean generation latency in the last publish interval of the busiest customers")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a finished generation request.
+     *
+     * @param customerSlug the customer slug of the request
+     * @param failed whether generation failed
+     * @param latencyNanos how long generation took
+     */
+    public void record(String customerSlug, boolean failed, long latencyNanos) {
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & (stripes.length - 1)];
+        synchronized (stripe) {
+            stripe.summary.record(customerSlug, failed, latencyNanos);
+        }
+    }
+
+    /**
+     * Replaces the published gauges with the top customers recorded since
+     * the previous call, and starts a new interval.
+     */
+    synchronized void publish() {
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[i];
+            SpaceSaving empty = published[i];
+            empty.clear();
+            synchronized (stripe) {
+                published[i] = stripe.summary;
+                stripe.summary = empty;
+            }
+        }
+        List<MultiGauge.Row<?>> requestRows = new ArrayList<>();
+        List<MultiGauge.Row<?>> failureRows = new ArrayList<>();
+        List<MultiGauge.Row<?>> latencyRows = new ArrayList<>();
+        long otherRequests = 0;
+        long otherFailures = 0;
+        long otherLatencyNanos = 0;
+        for (SpaceSaving summary : published) {
+            otherRequests += summary.total();
+            otherFailures += summary.totalFailures();
+            otherLatencyNanos += summary.totalLatencyNanos();
+        }
+        long otherObserved = otherRequests;
+        for (SpaceSaving.Counter counter : SpaceSaving.top(Arrays.asList(published), size)) {
+            Tags tags = Tags.of("customer", counter.key());
+            requestRows.add(MultiGauge.Row.of(tags, counter.count()));
+            failureRows.add(MultiGauge.Row.of(tags, counter.failures()));
+            latencyRows.add(MultiGauge.Row.of(tags, meanSeconds(counter.latencyNanos(), counter.observed())));
+            otherRequests -= counter.count();
+            otherObserved -= counter.observed();
+            otherFailures -= counter.failures();
+            otherLatencyNanos -= counter.latencyNanos();
+        }
+        Tags other = Tags.of("customer", OTHER);
+        requestRows.add(MultiGauge.Row.of(other, Math.max(0, otherRequests)));
+        failureRows.add(MultiGauge.Row.of(other, Math.max(0, otherFailures)));
+        latencyRows.add(MultiGauge.Row.of(other, meanSeconds(otherLatencyNanos, otherObserved)));
+        requestGauge.register(requestRows, true);
+        failureGauge.register(failureRows, true);
+        latencyGauge.register(latencyRows, true);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (publisher != null) {
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("top-customers-");
+        threadFactory.setDaemon(true);
+        publisher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        publisher.scheduleWithFixedDelay(this::publish, 0, publishIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (publisher != null) {
+            publisher.shutdownNow();
+            publisher = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return publisher != null;
+    }
+
+    private static double meanSeconds(long totalNanos, long count) {
+        return count > 0 && totalNanos > 0 ? totalNanos / 1e9 / count : 0;
+    }
+
+    /**
+     * The summary request threads of one stripe record into, guarded by the
+     * stripe's monitor.
+     */
+    private static final class Stripe {
+
+        private SpaceSaving summary;
+
+        private Stripe(SpaceSaving summary) {
+            this.summary = summary;
+        }
+    }
+}
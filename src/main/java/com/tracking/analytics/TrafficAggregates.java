@@ -0,0 +1,142 @@
+package com.tracking.analytics;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.lang.Nullable;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-lane and per-customer aggregates of issued tracking numbers over the
+ * last hour and day, maintained incrementally as numbers are issued.
+ *
+ * Recording costs two map lookups and a few striped counter updates per
+ * number; queries merge at most 24 time buckets per key. At most
+ * {@code maxKeys} lanes and customers each are tracked; numbers for further
+ * keys are counted as dropped until idle keys are evicted, which happens
+ * when a summary finds a key with nothing recorded in the last day.
+ */
+public class TrafficAggregates {
+
+    /**
+     * What aggregates are keyed by.
+     */
+    public enum Dimension {
+        LANE, CUSTOMER
+    }
+
+    /**
+     * Time window of a summary.
+     */
+    public enum Window {
+        HOUR, DAY;
+
+        /**
+         * @param value a request parameter such as {@code hour}
+         * @return the window, or null if the value names no window
+         */
+        @Nullable
+        public static Window fromParameter(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private final Map<String, RollingAggregate> lanes = new ConcurrentHashMap<>();
+    private final Map<String, RollingAggregate> customers = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final int maxKeys;
+    private final Counter droppedCounter;
+
+    public TrafficAggregates(Clock clock, int maxKeys, MeterRegistry meterRegistry) {
+        this.clock = clock;
+        this.maxKeys = maxKeys;
+        this.droppedCounter = Counter.builder("tracking.analytics.dropped")
+                .description("Issued tracking numbers not aggregated because too many lanes or customers are tracked")
+                .register(meterRegistry);
+        Gauge.builder("tracking.analytics.keys", lanes, Map::size)
+                .description("Number of lanes or customers with aggregates")
+                .tag("dimension", "lane")
+                .register(meterRegistry);
+        Gauge.builder("tracking.analytics.keys", customers, Map::size)
+                .description("Number of lanes or customers with aggregates")
+                .tag("dimension", "customer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a tracking number issued now.
+     *
+     * @param originCountryId the origin country ISO code
+     * @param destinationCountryId the destination country ISO code
+     * @param customerSlug the customer slug
+     * @param weight the package weight in kg
+     */
+    public void record(String originCountryId, String destinationCountryId, String customerSlug, double weight) {
+        record(originCountryId, destinationCountryId, customerSlug, weight, clock.millis());
+    }
+
+    /**
+     * Records a tracking number issued at the given time; numbers older than
+     * a day are ignored.
+     *
+     * @param originCountryId the origin country ISO code
+     * @param destinationCountryId the destination country ISO code
+     * @param customerSlug the customer slug
+     * @param weight the package weight in kg
+     * @param epochMillis when the number was issued
+     */
+    public void record(String originCountryId, String destinationCountryId, String customerSlug, double weight,
+                       long epochMillis) {
+        recordIn(lanes, originCountryId + "-" + destinationCountryId, weight, epochMillis);
+        recordIn(customers, customerSlug, weight, epochMillis);
+    }
+
+    /**
+     * Summarizes a window, busiest keys first.
+     *
+     * @param dimension whether to summarize lanes or customers
+     * @param window the window to summarize
+     * @param limit maximum number of keys to return
+     * @return summaries of keys with tracking numbers in the window
+     */
+    public List<AggregateSnapshot> snapshot(Dimension dimension, Window window, int limit) {
+        Map<String, RollingAggregate> aggregates = dimension == Dimension.LANE ? lanes : customers;
+        long now = clock.millis();
+        List<AggregateSnapshot> snapshots = new ArrayList<>();
+        aggregates.forEach((key, aggregate) -> {
+            AggregateSnapshot snapshot = aggregate.snapshot(window, key, now);
+            if (snapshot.count() > 0) {
+                snapshots.add(snapshot);
+            } else if (window == Window.DAY || aggregate.snapshot(Window.DAY, key, now).count() == 0) {
+                aggregates.remove(key, aggregate);
+            }
+        });
+        snapshots.sort(Comparator.comparingLong(AggregateSnapshot::count).reversed()
+                .thenComparing(AggregateSnapshot::key));
+        return snapshots.size() > limit ? snapshots.subList(0, limit) : snapshots;
+    }
+
+    private void recordIn(Map<String, RollingAggregate> aggregates, String key, double weight, long epochMillis) {
+        RollingAggregate aggregate = aggregates.get(key);
+        if (aggregate == null) {
+            if (aggregates.size() >= maxKeys) {
+                droppedCounter.increment();
+                return;
+            }
+            aggregate = aggregates.computeIfAbsent(key, k -> new RollingAggregate());
+        }
+        aggregate.record(weight, epochMillis);
+    }
+}
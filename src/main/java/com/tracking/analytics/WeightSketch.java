@@ -0,0 +1,119 @@
+package com.tracking.analytics;
+
+/**
+ * Mergeable quantile sketch for package weights.
+ *
+ * Values are counted in logarithmic buckets whose bounds grow by a factor
+ * of {@code (1 + a) / (1 - a)}, so every quantile is estimated within a
+ * relative error of {@code a} = {@value #RELATIVE_ACCURACY} (as in
+ * DDSketch). Only the range of buckets actually hit is stored, and two
+ * sketches merge by adding bucket counts, which lets time buckets be
+ * combined into hour and day windows without losing accuracy.
+ *
+ * Methods synchronize on the sketch; {@link RollingAggregate} gives each
+ * stripe of recording threads its own sketch so that they rarely contend.
+ */
+final class WeightSketch {
+
+    static final double RELATIVE_ACCURACY = 0.02;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final double MIN_VALUE = 1e-9;
+    private static final int INITIAL_BUCKETS = 16;
+
+    private long[] counts = new long[0];
+    private int offset;
+    private long total;
+
+    synchronized void add(double value) {
+        int index = index(value);
+        ensureCovers(index, index);
+        counts[index - offset]++;
+        total++;
+    }
+
+    /**
+     * Adds the counts of this sketch to another sketch.
+     *
+     * @param target the sketch to merge into
+     */
+    void mergeInto(WeightSketch target) {
+        long[] snapshot;
+        int snapshotOffset;
+        synchronized (this) {
+            if (total == 0) {
+                return;
+            }
+            snapshot = counts.clone();
+            snapshotOffset = offset;
+        }
+        target.addCounts(snapshot, snapshotOffset);
+    }
+
+    synchronized long count() {
+        return total;
+    }
+
+    /**
+     * @param quantile the quantile, between 0 and 1
+     * @return the estimated value at the quantile, or 0 if the sketch is empty
+     */
+    synchronized double quantile(double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        double rank = quantile * (total - 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return 2 * Math.pow(GAMMA, i + offset) / (GAMMA + 1);
+            }
+        }
+        return 2 * Math.pow(GAMMA, counts.length - 1 + offset) / (GAMMA + 1);
+    }
+
+    private synchronized void addCounts(long[] other, int otherOffset) {
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < other.length; i++) {
+            if (other[i] != 0) {
+                first = first < 0 ? i : first;
+                last = i;
+            }
+        }
+        if (first < 0) {
+            return;
+        }
+        ensureCovers(first + otherOffset, last + otherOffset);
+        for (int i = first; i <= last; i++) {
+            counts[i + otherOffset - offset] += other[i];
+            total += other[i];
+        }
+    }
+
+    private void ensureCovers(int min, int max) {
+        if (counts.length == 0) {
+            counts = new long[Math.max(INITIAL_BUCKETS, max - min + 1)];
+            offset = min - (counts.length - (max - min + 1)) / 2;
+            return;
+        }
+        if (min >= offset && max < offset + counts.length) {
+            return;
+        }
+        int newMin = Math.min(min, offset);
+        int newMax = Math.max(max, offset + counts.length - 1);
+        int length = Math.max(counts.length * 2, newMax - newMin + 1);
+        // Leave room on the side that grew so that slowly drifting values do not resize every time
+        int newOffset = min < offset ? newMax - length + 1 : newMin;
+        long[] grown = new long[length];
+        System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+        counts = grown;
+        offset = newOffset;
+    }
+
+    private static int index(double value) {
+        return (int) Math.ceil(Math.log(Math.max(value, MIN_VALUE)) / LOG_GAMMA);
+    }
+}
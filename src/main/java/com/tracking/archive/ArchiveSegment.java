@@ -0,0 +1,412 @@
+package com.tracking.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable archive file of tracking number rows sorted by tracking
+ * number.
+ *
+ * Rows are stored in blocks of a fixed number of rows, each compressed
+ * with Deflate. After the blocks follow a sparse index holding the first
+ * tracking number and file position of every block, a Bloom filter over
+ * all tracking numbers, and the number of rows per tracking number length.
+ * A fixed-size footer points at the index. Opening a segment reads the
+ * index and Bloom filter into memory; a lookup that passes the filter
+ * reads and decompresses a single block.
+ *
+ * Files are named after their zero-padded sequence number, written under a
+ * temporary name, forced to disk and then renamed, so a segment file is
+ * either complete or absent.
+ */
+final class ArchiveSegment implements Closeable {
+
+    private static final String SUFFIX = ".archive";
+    private static final String TEMPORARY_SUFFIX = ".archive.tmp";
+    private static final int MAGIC = 0x544E4152;
+    private static final int VERSION = 1;
+    private static final int FOOTER_BYTES = 24;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final long id;
+    private final FileChannel channel;
+    private final String[] firstKeys;
+    private final long[] blockOffsets;
+    private final int[] compressedLengths;
+    private final int[] uncompressedLengths;
+    private final String lastKey;
+    private final BloomFilter bloomFilter;
+    private final long rowCount;
+    private final Map<Integer, Long> rowsByLength;
+
+    private ArchiveSegment(long id, FileChannel channel, String[] firstKeys, long[] blockOffsets,
+                           int[] compressedLengths, int[] uncompressedLengths, String lastKey,
+                           BloomFilter bloomFilter, long rowCount, Map<Integer, Long> rowsByLength) {
+        this.id = id;
+        this.channel = channel;
+        this.firstKeys = firstKeys;
+        this.blockOffsets = blockOffsets;
+        this.compressedLengths = compressedLengths;
+        this.uncompressedLengths = uncompressedLengths;
+        this.lastKey = lastKey;
+        this.bloomFilter = bloomFilter;
+        this.rowCount = rowCount;
+        this.rowsByLength = rowsByLength;
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < FOOTER_BYTES) {
+                throw new IOException("Archive segment " + path + " is truncated");
+            }
+            ByteBuffer footer = read(channel, size - FOOTER_BYTES, FOOTER_BYTES);
+            long indexOffset = footer.getLong();
+            long rowCount = footer.getLong();
+            int version = footer.getInt();
+            if (footer.getInt() != MAGIC || version != VERSION) {
+                throw new IOException("Archive segment " + path + " has an unknown format");
+            }
+            ByteBuffer index = read(channel, indexOffset, Math.toIntExact(size - FOOTER_BYTES - indexOffset));
+            DataInputStream input = new DataInputStream(
+                    new ByteArrayInputStream(index.array(), index.arrayOffset(), index.remaining()));
+            int blockCount = input.readInt();
+            String[] firstKeys = new String[blockCount];
+            long[] blockOffsets = new long[blockCount];
+            int[] compressedLengths = new int[blockCount];
+            int[] uncompressedLengths = new int[blockCount];
+            for (int i = 0; i < blockCount; i++) {
+                firstKeys[i] = input.readUTF();
+                blockOffsets[i] = input.readLong();
+                compressedLengths[i] = input.readInt();
+                uncompressedLengths[i] = input.readInt();
+            }
+            String lastKey = input.readUTF();
+            BloomFilter bloomFilter = BloomFilter.readFrom(input);
+            Map<Integer, Long> rowsByLength = new HashMap<>();
+            for (int i = input.readInt(); i > 0; i--) {
+                rowsByLength.put(input.readInt(), input.readLong());
+            }
+            return new ArchiveSegment(idOf(path), channel, firstKeys, blockOffsets, compressedLengths,
+                    uncompressedLengths, lastKey, bloomFilter, rowCount, rowsByLength);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(SUFFIX) && name.length() == 20 + SUFFIX.length();
+    }
+
+    static boolean isTemporary(Path path) {
+        return path.getFileName().toString().endsWith(TEMPORARY_SUFFIX);
+    }
+
+    static long idOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    long id() {
+        return id;
+    }
+
+    long rowCount() {
+        return rowCount;
+    }
+
+    Map<Integer, Long> rowsByLength() {
+        return rowsByLength;
+    }
+
+    /**
+     * @param trackingNumber the tracking number to look up
+     * @param hash {@link BloomFilter#hash(String)} of the tracking number
+     * @return whether the Bloom filter admits the tracking number
+     */
+    boolean mightContain(String trackingNumber, long hash) {
+        return firstKeys.length > 0
+                && trackingNumber.compareTo(firstKeys[0]) >= 0
+                && trackingNumber.compareTo(lastKey) <= 0
+                && bloomFilter.mightContain(hash);
+    }
+
+    /**
+     * Reads the block that would hold a tracking number.
+     *
+     * @param trackingNumber the tracking number to look up
+     * @return the archived row, or empty if this segment does not hold it
+     * @throws IOException if the block cannot be read
+     */
+    Optional<ArchivedTrackingNumber> find(String trackingNumber) throws IOException {
+        int block = Arrays.binarySearch(firstKeys, trackingNumber);
+        if (block < 0) {
+            block = -block - 2;
+            if (block < 0) {
+                return Optional.empty();
+            }
+        }
+        byte[] rows = inflate(read(channel, blockOffsets[block], compressedLengths[block]),
+                uncompressedLengths[block]);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(rows));
+        while (input.available() > 0) {
+            ArchivedTrackingNumber row = readRow(input);
+            int comparison = row.trackingNumber().compareTo(trackingNumber);
+            if (comparison == 0) {
+                return Optional.of(row);
+            }
+            if (comparison > 0) {
+                break;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reads every block and passes each tracking number to the consumer, in
+     * tracking number order.
+     *
+     * @param consumer receives each tracking number
+     * @throws IOException if a block cannot be read
+     */
+    void forEachTrackingNumber(Consumer<String> consumer) throws IOException {
+        for (int block = 0; block < firstKeys.length; block++) {
+            byte[] rows = inflate(read(channel, blockOffsets[block], compressedLengths[block]),
+                    uncompressedLengths[block]);
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(rows));
+            while (input.available() > 0) {
+                consumer.accept(readRow(input).trackingNumber());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of archive segment");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static byte[] inflate(ByteBuffer compressed, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] rows = new byte[length];
+            int inflated = 0;
+            while (inflated < length && !inflater.finished()) {
+                inflated += inflater.inflate(rows, inflated, length - inflated);
+                if (inflater.needsInput()) {
+                    break;
+                }
+            }
+            if (inflated != length) {
+                throw new IOException("Corrupt archive block");
+            }
+            return rows;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ArchivedTrackingNumber readRow(DataInputStream input) throws IOException {
+        String trackingNumber = input.readUTF();
+        String originCountryId = input.readUTF();
+        String destinationCountryId = input.readUTF();
+        double weight = input.readDouble();
+        UUID customerId = new UUID(input.readLong(), input.readLong());
+        String customerName = input.readUTF();
+        String customerSlug = input.readUTF();
+        UUID requestId = input.readBoolean() ? new UUID(input.readLong(), input.readLong()) : null;
+        Instant instant = Instant.ofEpochSecond(input.readLong(), input.readInt());
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(input.readInt());
+        return new ArchivedTrackingNumber(trackingNumber, originCountryId, destinationCountryId, weight,
+                customerId, customerName, customerSlug, requestId, OffsetDateTime.ofInstant(instant, offset));
+    }
+
+    private static void writeRow(DataOutputStream output, ArchivedTrackingNumber row) throws IOException {
+        output.writeUTF(row.trackingNumber());
+        output.writeUTF(row.originCountryId());
+        output.writeUTF(row.destinationCountryId());
+        output.writeDouble(row.weight());
+        output.writeLong(row.customerId().getMostSignificantBits());
+        output.writeLong(row.customerId().getLeastSignificantBits());
+        output.writeUTF(row.customerName());
+        output.writeUTF(row.customerSlug());
+        output.writeBoolean(row.requestId() != null);
+        if (row.requestId() != null) {
+            output.writeLong(row.requestId().getMostSignificantBits());
+            output.writeLong(row.requestId().getLeastSignificantBits());
+        }
+        output.writeLong(row.createdAt().toEpochSecond());
+        output.writeInt(row.createdAt().getNano());
+        output.writeInt(row.createdAt().getOffset().getTotalSeconds());
+    }
+
+    /**
+     * Writes a new segment from rows added in ascending tracking number order.
+     * Closing an unfinished writer deletes the temporary file.
+     */
+    static final class Writer implements Closeable {
+
+        private final Path temporaryPath;
+        private final Path path;
+        private final int blockRows;
+        private final FileChannel channel;
+        private final DataOutputStream file;
+        private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+        private final DataOutputStream block = new DataOutputStream(blockBytes);
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final Map<Integer, Long> rowsByLength = new HashMap<>();
+        private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        private final DataOutputStream indexOutput = new DataOutputStream(index);
+        private long[] hashes = new long[1024];
+        private long rowCount;
+        private int blockCount;
+        private int rowsInBlock;
+        private String blockFirstKey;
+        private String lastKey;
+        private long position;
+        private boolean finished;
+
+        Writer(Path directory, long id, int blockRows) throws IOException {
+            String name = String.format("%020d", id);
+            this.temporaryPath = directory.resolve(name + TEMPORARY_SUFFIX);
+            this.path = directory.resolve(name + SUFFIX);
+            this.blockRows = blockRows;
+            this.channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.file = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+        }
+
+        void add(ArchivedTrackingNumber row) throws IOException {
+            if (lastKey != null && row.trackingNumber().compareTo(lastKey) <= 0) {
+                throw new IllegalArgumentException("Rows must be added in ascending tracking number order, got "
+                        + row.trackingNumber() + " after " + lastKey);
+            }
+            if (rowsInBlock == 0) {
+                blockFirstKey = row.trackingNumber();
+            }
+            writeRow(block, row);
+            rowsInBlock++;
+            lastKey = row.trackingNumber();
+            rowsByLength.merge(lastKey.length(), 1L, Long::sum);
+            if (rowCount == hashes.length) {
+                hashes = Arrays.copyOf(hashes, hashes.length * 2);
+            }
+            hashes[(int) rowCount++] = BloomFilter.hash(lastKey);
+            if (rowsInBlock == blockRows) {
+                flushBlock();
+            }
+        }
+
+        long rowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Completes the file, forces it to disk and links it into place.
+         * Linking fails if a segment with the same id exists, so a published
+         * segment is never replaced.
+         *
+         * @return the finished segment, opened for lookups
+         * @throws java.nio.file.FileAlreadyExistsException if the segment id is taken
+         */
+        ArchiveSegment finish() throws IOException {
+            if (rowsInBlock > 0) {
+                flushBlock();
+            }
+            long indexOffset = position;
+            file.writeInt(blockCount);
+            file.write(index.toByteArray());
+            file.writeUTF(lastKey == null ? "" : lastKey);
+            BloomFilter bloomFilter = BloomFilter.create(rowCount, FALSE_POSITIVE_RATE);
+            for (int i = 0; i < rowCount; i++) {
+                bloomFilter.put(hashes[i]);
+            }
+            bloomFilter.writeTo(file);
+            file.writeInt(rowsByLength.size());
+            for (Map.Entry<Integer, Long> entry : rowsByLength.entrySet()) {
+                file.writeInt(entry.getKey());
+                file.writeLong(entry.getValue());
+            }
+            file.writeLong(indexOffset);
+            file.writeLong(rowCount);
+            file.writeInt(VERSION);
+            file.writeInt(MAGIC);
+            file.flush();
+            channel.force(true);
+            file.close();
+            deflater.end();
+            Files.createLink(path, temporaryPath);
+            Files.delete(temporaryPath);
+            finished = true;
+            return open(path);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                deflater.end();
+                file.close();
+                Files.deleteIfExists(temporaryPath);
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            byte[] rows = blockBytes.toByteArray();
+            deflater.reset();
+            deflater.setInput(rows);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(rows.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                compressed.write(buffer, 0, length);
+            }
+            indexOutput.writeUTF(blockFirstKey);
+            indexOutput.writeLong(position);
+            indexOutput.writeInt(compressed.size());
+            indexOutput.writeInt(rows.length);
+            compressed.writeTo(file);
+            position += compressed.size();
+            blockCount++;
+            blockBytes.reset();
+            rowsInBlock = 0;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.tracking.archive;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A tracking number row moved from {@code tracking_numbers} into an
+ * archive segment.
+ *
+ * @param trackingNumber the tracking number
+ * @param originCountryId the origin country ISO code
+ * @param destinationCountryId the destination country ISO code
+ * @param weight the package weight in kg
+ * @param customerId the customer ID
+ * @param customerName the customer name
+ * @param customerSlug the customer slug
+ * @param requestId the request ID, if one was recorded
+ * @param createdAt when the tracking number was issued
+ */
+public record ArchivedTrackingNumber(
+    String trackingNumber,
+    String originCountryId,
+    String destinationCountryId,
+    double weight,
+    UUID customerId,
+    String customerName,
+    String customerSlug,
+    @Nullable UUID requestId,
+    OffsetDateTime createdAt
+) {
+}
@@ -0,0 +1,99 @@
+package com.tracking.archive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Fixed-size Bloom filter over tracking numbers.
+ *
+ * Positions are derived from one 64-bit hash per key by double hashing
+ * (Kirsch and Mitzenmacher), so adding or testing a key hashes it once.
+ * Not thread-safe.
+ */
+public final class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    private BloomFilter(long[] bits, int hashCount) {
+        this.bits = bits;
+        this.bitCount = (long) bits.length * Long.SIZE;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * @param expectedKeys number of keys that will be added
+     * @param falsePositiveRate target probability that an absent key tests positive
+     * @return an empty filter sized for the given keys and rate
+     */
+    public static BloomFilter create(long expectedKeys, double falsePositiveRate) {
+        long keys = Math.max(1, expectedKeys);
+        long optimalBits = (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE);
+        int hashCount = (int) Math.max(1, Math.round((double) words * Long.SIZE / keys * Math.log(2)));
+        return new BloomFilter(new long[words], hashCount);
+    }
+
+    static BloomFilter readFrom(DataInput input) throws IOException {
+        int hashCount = input.readInt();
+        long[] bits = new long[input.readInt()];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = input.readLong();
+        }
+        return new BloomFilter(bits, hashCount);
+    }
+
+    void writeTo(DataOutput output) throws IOException {
+        output.writeInt(hashCount);
+        output.writeInt(bits.length);
+        for (long word : bits) {
+            output.writeLong(word);
+        }
+    }
+
+    public void put(long hash) {
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(long hash) {
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param key a tracking number
+     * @return the 64-bit hash the filter is queried with
+     */
+    public static long hash(String key) {
+        // FNV-1a followed by a MurmurHash3 finalizer to spread the short keys
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,439 @@
+package com.tracking.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cold storage for tracking numbers older than {@code app.archive.max-age-days}.
+ *
+ * An archival job moves aged rows out of {@code tracking_numbers} into
+ * immutable {@link ArchiveSegment} files of at most
+ * {@code app.archive.max-rows-per-segment} rows each. Rows are read in
+ * tracking number order, each segment continuing after the last key of the
+ * one before, written to a new segment that is forced to disk and
+ * published, and only then deleted from the table, so every number is in
+ * the table, in a segment, or both. Rows that are already archived, for
+ * example after a crash between writing a segment and deleting its rows,
+ * are deleted without being archived again.
+ *
+ * Uniqueness checks and lookups fall through to the segments, newest
+ * first, when the table does not hold a number. Each segment's Bloom
+ * filter rejects almost all absent numbers without reading its file.
+ *
+ * Instances sharing a database must share the directory. Any of them may
+ * run the job ({@code app.archive.job.enabled}), but each segment is
+ * written under the {@code archive} lease in {@code job_locks}, after
+ * reopening the directory, so its id is always new; a segment that would
+ * still replace an existing one fails instead. Every instance picks up new
+ * segments every {@code app.archive.refresh-interval-ms}; rows are deleted
+ * {@code app.archive.delete-delay-ms} after their segment is published,
+ * which must exceed the refresh interval so no instance considers an
+ * archived number unissued.
+ */
+@Component
+@ConditionalOnProperty(name = "app.archive.enabled", havingValue = "true")
+public class ColdArchive implements SmartLifecycle, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColdArchive.class);
+
+    private static final String AGED_SQL = "SELECT t.id, t.tracking_number, t.origin_country_id, "
+            + "t.destination_country_id, t.weight, t.customer_id, c.customer_name, c.customer_slug, t.request_id, "
+            + "t.created_at FROM tracking_numbers t JOIN customers c ON c.customer_id = t.customer_id "
+            + "WHERE t.created_at < ? AND t.tracking_number > ? ORDER BY t.tracking_number LIMIT ?";
+    private static final String DELETE_SQL = "DELETE FROM tracking_numbers WHERE id = ?";
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final Path directory;
+    private final JdbcTemplate jdbcTemplate;
+    private final JobLock jobLock;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Clock clock;
+    private final Duration maxAge;
+    private final int maxRowsPerSegment;
+    private final int blockRows;
+    private final boolean jobEnabled;
+    private final long jobIntervalMillis;
+    private final long refreshIntervalMillis;
+    private final long deleteDelayMillis;
+    private final Counter archivedCounter;
+    private final Counter blockReadCounter;
+
+    // Newest segment first; replaced, never modified
+    private volatile List<ArchiveSegment> segments = List.of();
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ColdArchive(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.archive.directory:./archive}") String directory,
+                       @Value("${app.archive.max-age-days:90}") int maxAgeDays,
+                       @Value("${app.archive.max-rows-per-segment:1000000}") int maxRowsPerSegment,
+                       @Value("${app.archive.block-rows:256}") int blockRows,
+                       @Value("${app.archive.fetch-size:1000}") int fetchSize,
+                       @Value("${app.archive.job.enabled:true}") boolean jobEnabled,
+                       @Value("${app.archive.job.interval-ms:3600000}") long jobIntervalMillis,
+                       @Value("${app.archive.job.lock-timeout-ms:3600000}") long lockTimeoutMillis,
+                       @Value("${app.archive.refresh-interval-ms:30000}") long refreshIntervalMillis,
+                       @Value("${app.archive.delete-delay-ms:60000}") long deleteDelayMillis) {
+        this(jdbcTemplate, transactionManager, meterRegistry, Clock.systemUTC(), Path.of(directory),
+                Duration.ofDays(maxAgeDays), maxRowsPerSegment, blockRows, fetchSize, jobEnabled, jobIntervalMillis,
+                lockTimeoutMillis, refreshIntervalMillis, deleteDelayMillis);
+    }
+
+    ColdArchive(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                MeterRegistry meterRegistry, Clock clock, Path directory, Duration maxAge, int maxRowsPerSegment,
+                int blockRows, int fetchSize, boolean jobEnabled, long jobIntervalMillis, long lockTimeoutMillis,
+                long refreshIntervalMillis, long deleteDelayMillis) {
+        this.directory = directory;
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.jobLock = new JobLock(jdbcTemplate, clock, "archive", Duration.ofMillis(lockTimeoutMillis));
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.clock = clock;
+        this.maxAge = maxAge;
+        this.maxRowsPerSegment = maxRowsPerSegment;
+        this.blockRows = blockRows;
+        this.jobEnabled = jobEnabled;
+        this.jobIntervalMillis = jobIntervalMillis;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.deleteDelayMillis = deleteDelayMillis;
+        try {
+            Files.createDirectories(directory);
+            refresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open tracking number archive in " + directory, e);
+        }
+        this.archivedCounter = Counter.builder("tracking.archive.archived")
+                .description("Total number of tracking numbers moved from the database to archive segments")
+                .register(meterRegistry);
+        this.blockReadCounter = Counter.builder("tracking.archive.block.reads")
+                .description("Total number of archive blocks read by uniqueness checks and lookups")
+                .register(meterRegistry);
+        Gauge.builder("tracking.archive.segments", this, archive -> archive.segments.size())
+                .description("Number of archive segments")
+                .register(meterRegistry);
+        Gauge.builder("tracking.archive.rows", this, ColdArchive::rowCount)
+                .description("Number of tracking numbers in archive segments")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param trackingNumber the tracking number to check
+     * @return true if a segment holds the tracking number
+     */
+    public boolean contains(String trackingNumber) {
+        return find(trackingNumber).isPresent();
+    }
+
+    /**
+     * @param trackingNumber the tracking number to look up
+     * @return the archived row, or empty if no segment holds the tracking number
+     * @throws UncheckedIOException if a segment cannot be read
+     */
+    public Optional<ArchivedTrackingNumber> find(String trackingNumber) {
+        long hash = BloomFilter.hash(trackingNumber);
+        for (ArchiveSegment segment : segments) {
+            if (!segment.mightContain(trackingNumber, hash)) {
+                continue;
+            }
+            blockReadCounter.increment();
+            try {
+                Optional<ArchivedTrackingNumber> row = segment.find(trackingNumber);
+                if (row.isPresent()) {
+                    return row;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read archive segment " + segment.id(), e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reads every segment and passes each archived tracking number to the
+     * consumer. Reads the whole archive, so only meant for background work.
+     *
+     * @param consumer receives each archived tracking number
+     * @throws UncheckedIOException if a segment cannot be read
+     */
+    public void forEachTrackingNumber(Consumer<String> consumer) {
+        for (ArchiveSegment segment : segments) {
+            try {
+                segment.forEachTrackingNumber(consumer);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read archive segment " + segment.id(), e);
+            }
+        }
+    }
+
+    /**
+     * @return number of archived tracking numbers per tracking number length
+     */
+    public Map<Integer, Long> issuedByLength() {
+        Map<Integer, Long> issuedByLength = new HashMap<>();
+        for (ArchiveSegment segment : segments) {
+            segment.rowsByLength().forEach((length, rows) -> issuedByLength.merge(length, rows, Long::sum));
+        }
+        return issuedByLength;
+    }
+
+    /**
+     * @return number of archived tracking numbers
+     */
+    public long rowCount() {
+        return segments.stream().mapToLong(ArchiveSegment::rowCount).sum();
+    }
+
+    /**
+     * Opens segments published since the last refresh, for example by the
+     * instance running the archival job.
+     *
+     * @throws IOException if the directory or a new segment cannot be read
+     */
+    public synchronized void refresh() throws IOException {
+        List<ArchiveSegment> current = segments;
+        long newestId = current.isEmpty() ? -1 : current.get(0).id();
+        List<ArchiveSegment> opened = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(ArchiveSegment::isSegment).toList()) {
+                if (ArchiveSegment.idOf(path) > newestId) {
+                    opened.add(ArchiveSegment.open(path));
+                }
+            }
+        }
+        if (!opened.isEmpty()) {
+            publish(opened);
+            logger.info("Opened {} archive segments from {}", opened.size(), directory);
+        }
+    }
+
+    /**
+     * Moves up to one segment's worth of rows older than the maximum age
+     * from the database into a new segment.
+     *
+     * @return number of rows deleted from the database, 0 if another instance
+     *         holds the job or if interrupted before deleting
+     * @throws IOException if the segment cannot be written
+     * @throws DataAccessException if the rows cannot be read or deleted
+     */
+    public int archive() throws IOException {
+        return archiveAfter("").rows();
+    }
+
+    private synchronized Batch archiveAfter(String afterKey) throws IOException {
+        if (!jobLock.tryAcquire()) {
+            logger.debug("Archive job is running on another instance");
+            return new Batch(0, afterKey);
+        }
+        try {
+            deleteTemporaryFiles();
+            refresh();
+            return archiveLocked(afterKey);
+        } finally {
+            jobLock.release();
+        }
+    }
+
+    private Batch archiveLocked(String afterKey) throws IOException {
+        Timestamp cutoff = Timestamp.from(Instant.now(clock).minus(maxAge));
+        List<ArchiveSegment> current = segments;
+        long id = current.isEmpty() ? 0 : current.get(0).id() + 1;
+        long[][] ids = {new long[1024]};
+        int[] selected = new int[1];
+        String[] lastKey = {afterKey};
+        ArchiveSegment segment = null;
+        try (ArchiveSegment.Writer writer = new ArchiveSegment.Writer(directory, id, blockRows)) {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(AGED_SQL, rs -> {
+                ArchivedTrackingNumber row = readRow(rs);
+                lastKey[0] = row.trackingNumber();
+                if (!contains(row.trackingNumber())) {
+                    try {
+                        writer.add(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                if (selected[0] == ids[0].length) {
+                    ids[0] = Arrays.copyOf(ids[0], ids[0].length * 2);
+                }
+                ids[0][selected[0]++] = rs.getLong("id");
+            }, cutoff, afterKey, maxRowsPerSegment));
+            if (writer.rowCount() > 0) {
+                segment = writer.finish();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (segment != null) {
+            publish(List.of(segment));
+            logger.info("Archived {} tracking numbers issued before {} into segment {}", segment.rowCount(),
+                    cutoff.toInstant(), segment.id());
+            if (!awaitDeleteDelay()) {
+                // Rows stay in the database; the next run deletes them without archiving them again
+                return new Batch(0, lastKey[0]);
+            }
+        }
+        for (int from = 0; from < selected[0]; from += DELETE_BATCH_SIZE) {
+            long[] batch = Arrays.copyOfRange(ids[0], from, Math.min(selected[0], from + DELETE_BATCH_SIZE));
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(DELETE_SQL,
+                    Arrays.stream(batch).mapToObj(rowId -> new Object[] {rowId}).toList()));
+        }
+        archivedCounter.increment(selected[0]);
+        return new Batch(selected[0], lastKey[0]);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("archive-");
+        threadFactory.setDaemon(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        // Segments may be written by any instance running the job, including this one
+        scheduler.scheduleWithFixedDelay(this::tryRefresh, refreshIntervalMillis, refreshIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        if (jobEnabled) {
+            scheduler.scheduleWithFixedDelay(this::tryArchive, jobIntervalMillis, jobIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (ArchiveSegment segment : segments) {
+            segment.close();
+        }
+        segments = List.of();
+    }
+
+    private void publish(List<ArchiveSegment> added) {
+        List<ArchiveSegment> updated = new ArrayList<>(segments);
+        updated.addAll(added);
+        updated.sort(Comparator.comparingLong(ArchiveSegment::id).reversed());
+        segments = List.copyOf(updated);
+    }
+
+    private boolean awaitDeleteDelay() {
+        if (deleteDelayMillis > 0) {
+            try {
+                Thread.sleep(deleteDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void tryArchive() {
+        try {
+            Batch batch = new Batch(0, "");
+            do {
+                batch = archiveAfter(batch.lastKey());
+            } while (batch.rows() == maxRowsPerSegment && !Thread.currentThread().isInterrupted());
+        } catch (IOException e) {
+            logger.error("Unable to write archive segment, retrying in {} ms: {}", jobIntervalMillis,
+                    e.getMessage());
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("Unable to archive aged tracking numbers, retrying in {} ms: {}", jobIntervalMillis,
+                    e.getMessage());
+        }
+    }
+
+    private void tryRefresh() {
+        try {
+            refresh();
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Unable to open new archive segments, keeping {}: {}", segments.size(), e.getMessage());
+        }
+    }
+
+    private void deleteTemporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(ArchiveSegment::isTemporary).toList()) {
+                if (Files.deleteIfExists(path)) {
+                    logger.info("Deleted incomplete archive segment {}", path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rows deleted by one archive run and the last tracking number it read,
+     * after which the next run of the same pass continues.
+     */
+    private record Batch(int rows, String lastKey) {
+    }
+
+    private static ArchivedTrackingNumber readRow(ResultSet rs) throws SQLException {
+        return new ArchivedTrackingNumber(
+                rs.getString("tracking_number"),
+                rs.getString("origin_country_id"),
+                rs.getString("destination_country_id"),
+                rs.getDouble("weight"),
+                rs.getObject("customer_id", UUID.class),
+                rs.getString("customer_name"),
+                rs.getString("customer_slug"),
+                rs.getObject("request_id", UUID.class),
+                rs.getObject("created_at", OffsetDateTime.class));
+    }
+}
@@ -0,0 +1,54 @@
+package com.tracking.archive;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Lease on a row of {@code job_locks}, so only one instance sharing the
+ * database runs a job at a time.
+ *
+ * Acquiring sets {@code locked_until} to now plus the lease if it has
+ * passed; releasing sets it back to now. An instance that dies while
+ * holding the lease blocks the job until the lease runs out, so the lease
+ * must exceed the longest run.
+ */
+class JobLock {
+
+    private static final String ACQUIRE_SQL = "UPDATE job_locks SET locked_until = ?, locked_at = ?, locked_by = ? "
+            + "WHERE name = ? AND locked_until <= ?";
+    private static final String RELEASE_SQL = "UPDATE job_locks SET locked_until = ? "
+            + "WHERE name = ? AND locked_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final String name;
+    private final Duration lease;
+    private final String owner;
+
+    JobLock(JdbcTemplate jdbcTemplate, Clock clock, String name, Duration lease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.name = name;
+        this.lease = lease;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * @return true if this instance now holds the lease
+     */
+    boolean tryAcquire() {
+        Instant now = Instant.now(clock);
+        return jdbcTemplate.update(ACQUIRE_SQL, Timestamp.from(now.plus(lease)), Timestamp.from(now), owner, name,
+                Timestamp.from(now)) == 1;
+    }
+
+    void release() {
+        jdbcTemplate.update(RELEASE_SQL, Timestamp.from(Instant.now(clock)), name, owner);
+    }
+}
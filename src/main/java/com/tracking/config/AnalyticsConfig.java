@@ -0,0 +1,29 @@
+package com.tracking.config;
+
+import java.time.Clock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.tracking.analytics.TrafficAggregates;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Lane and customer aggregates of issued tracking numbers.
+ *
+ * The aggregates only live in memory; {@link TrafficAggregatesFeed}
+ * rebuilds them from the last day of {@code tracking_numbers} once the
+ * application is ready and keeps them up to date from the change feed.
+ */
+@Configuration(proxyBeanMethods = false)
+public class AnalyticsConfig {
+
+    @Bean
+    public TrafficAggregates trafficAggregates(
+            @Value("${app.analytics.max-keys:10000}") int maxKeys,
+            MeterRegistry meterRegistry) {
+        return new TrafficAggregates(Clock.systemUTC(), maxKeys, meterRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.tracking.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.tracking.repository.ConnectionHoldTimeDataSource;
+
+/**
+ * Wraps the application data source so that services can measure how long
+ * a unit of work holds database connections.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ConnectionHoldTimeConfig {
+
+    private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor connectionHoldTimeDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN_NAME.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ConnectionHoldTimeDataSource)) {
+                    return new ConnectionHoldTimeDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
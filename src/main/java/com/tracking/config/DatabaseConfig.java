@@ -1,60 +0,0 @@
-package com.tracking.config;
-
-import java.net.URI;
-import java.net.URISyntaxException;
-
-import javax.sql.DataSource;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Primary;
-
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
-
-@Configuration
-public class DatabaseConfig {
-
-    private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
-
-    @Value("${DATABASE_URL:}")
-    private String databaseUrl;
-
-    @Bean
-    @Primary
-    @ConditionalOnProperty(name = "DATABASE_URL")
-    public DataSource dataSource() throws URISyntaxException {
-        logger.info("DATABASE_URL found, parsing: {}", databaseUrl);
-        
-        if (databaseUrl != null && !databaseUrl.isEmpty()) {
-            URI dbUri = new URI(databaseUrl);
-            
-            String username = dbUri.getUserInfo().split(":")[0];
-            String password = dbUri.getUserInfo().split(":")[1];
-            String dbUrl = "jdbc:postgresql://" + dbUri.getHost() + ':' + dbUri.getPort() + dbUri.getPath();
-            
-            logger.info("Parsed database URL: {}", dbUrl);
-            logger.info("Username: {}", username);
-            
-            HikariConfig config = new HikariConfig();
-            config.setJdbcUrl(dbUrl);
-            config.setUsername(username);
-            config.setPassword(password);
-            config.setAutoCommit(false);
-            config.setMaximumPoolSize(20);
-            config.setMinimumIdle(5);
-            config.setConnectionTimeout(30000);
-            config.setIdleTimeout(600000);
-            config.setMaxLifetime(1800000);
-            config.setLeakDetectionThreshold(60000);
-            config.setConnectionTestQuery("SELECT 1");
-            
-            return new HikariDataSource(config);
-        }
-        return null;
-    }
-}
@@ -0,0 +1,36 @@
+package com.tracking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.tracking.service.KeyspaceOccupancyTracker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keyspace occupancy tracking for tracking number generation.
+ *
+ * The tracker is seeded with the stored numbers per length by
+ * {@link KeyspaceOccupancySeed} once the application is ready, so that
+ * fill ratios survive restarts without delaying startup. Until then new
+ * numbers use the longest length.
+ */
+@Configuration(proxyBeanMethods = false)
+public class KeyspaceConfig {
+
+    @Bean
+    public KeyspaceOccupancyTracker keyspaceOccupancyTracker(
+            @Value("${app.tracking.min-length:8}") int minLength,
+            @Value("${app.tracking.max-length:16}") int maxLength,
+            @Value("${app.tracking.check-character.enabled:false}") boolean checkCharacterEnabled,
+            @Value("${app.tracking.keyspace.fill-threshold:0.001}") double fillThreshold,
+            @Value("${app.tracking.keyspace.max-expected-retries:0.01}") double maxExpectedRetries,
+            @Value("${app.tracking.keyspace.seed-from-database:true}") boolean seedFromDatabase,
+            MeterRegistry meterRegistry) {
+        KeyspaceOccupancyTracker tracker = new KeyspaceOccupancyTracker(
+                minLength, maxLength, checkCharacterEnabled, fillThreshold, maxExpectedRetries, meterRegistry);
+        tracker.setSeeding(seedFromDatabase);
+        return tracker;
+    }
+}
@@ -0,0 +1,86 @@
+package com.tracking.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import com.tracking.archive.ColdArchive;
+import com.tracking.repository.TrackingNumberRepository;
+import com.tracking.service.KeyspaceOccupancyTracker;
+
+/**
+ * Seeds the {@link KeyspaceOccupancyTracker} with the stored numbers per
+ * length, counted from {@code tracking_numbers} and the cold archive
+ * segments.
+ *
+ * The count scans the whole table, so it runs on a background thread once
+ * the application is ready; until it finishes new numbers use the longest
+ * length. If the database is unreachable (for example while running with
+ * the local journal) counting starts from zero and relies on observed
+ * collisions until the next restart.
+ */
+@Component
+public class KeyspaceOccupancySeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyspaceOccupancySeed.class);
+
+    private final KeyspaceOccupancyTracker tracker;
+    private final TrackingNumberRepository trackingNumberRepository;
+    private final ColdArchive coldArchive;
+    private final boolean seedFromDatabase;
+
+    public KeyspaceOccupancySeed(KeyspaceOccupancyTracker tracker,
+                                 TrackingNumberRepository trackingNumberRepository,
+                                 @Nullable ColdArchive coldArchive,
+                                 @Value("${app.tracking.keyspace.seed-from-database:true}") boolean seedFromDatabase) {
+        this.tracker = tracker;
+        this.trackingNumberRepository = trackingNumberRepository;
+        this.coldArchive = coldArchive;
+        this.seedFromDatabase = seedFromDatabase;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!seedFromDatabase) {
+            return;
+        }
+        Thread thread = new Thread(this::seed, "keyspace-seed");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Adds the stored numbers per length to the tracker and lets it use
+     * every length again.
+     */
+    void seed() {
+        long started = System.nanoTime();
+        try {
+            Map<Integer, Long> issuedByLength = new HashMap<>();
+            for (Object[] row : trackingNumberRepository.countByTrackingNumberLength()) {
+                issuedByLength.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+            }
+            if (coldArchive != null) {
+                coldArchive.issuedByLength()
+                        .forEach((length, issued) -> issuedByLength.merge(length, issued, Long::sum));
+            }
+            tracker.seed(issuedByLength);
+            logger.info("Seeded keyspace occupancy with {} tracking number lengths in {} ms",
+                    issuedByLength.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("Unable to count stored tracking numbers per length, starting from zero: {}",
+                    e.getMessage());
+        } finally {
+            tracker.setSeeding(false);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.tracking.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Data sources for primary/replica routing.
+ *
+ * Enabled with {@code app.datasource.replica.enabled=true}. The primary pool
+ * is built from the usual {@code spring.datasource.*} properties and the
+ * replica pool from {@code app.datasource.replica.*}, each with its own
+ * Hikari settings. Both pools are registered as beans so that Spring Boot
+ * publishes {@code hikaricp.*} metrics per pool, tagged {@code pool=primary}
+ * and {@code pool=replica}. The {@code @Primary} data source used by JPA
+ * routes read-only transactions to the replica.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:}") String username,
+                                              @Value("${app.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        // Start without a connection so an unreachable replica does not fail startup
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 @Value("${app.datasource.replica.retry-interval-ms:10000}") long retryIntervalMillis,
+                                 MeterRegistry meterRegistry) {
+        ReadReplicaRoutingDataSource routingDataSource = new ReadReplicaRoutingDataSource(
+                primaryDataSource, replicaDataSource, retryIntervalMillis, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,120 @@
+package com.tracking.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Routes connections for read-only transactions to a replica pool.
+ *
+ * Work inside {@code @Transactional(readOnly = true)} is sent to the replica,
+ * everything else to the primary. The read-only flag is only known once the
+ * transaction has been set up, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * which defers fetching the physical connection until the first statement.
+ *
+ * If the replica cannot hand out a connection, the request falls back to the
+ * primary and the replica is skipped for the configured retry interval.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    /**
+     * Lookup keys of the routing targets.
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long retryIntervalNanos;
+    private final Counter fallbackCounter;
+
+    private volatile long replicaDownUntil;
+    private volatile boolean replicaDown;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, long retryIntervalMillis,
+                                        MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.retryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(retryIntervalMillis);
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.fallbackCounter = Counter.builder("tracking.datasource.replica.fallbacks")
+                .description("Number of read-only connections served by the primary because the replica was unavailable")
+                .register(meterRegistry);
+        Gauge.builder("tracking.datasource.replica.available", this, ds -> ds.replicaDown ? 0 : 1)
+                .description("Whether read-only work is currently routed to the replica (1) or the primary (0)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && isReplicaAvailable()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Route.REPLICA) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (determineCurrentLookupKey() == Route.REPLICA) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    private boolean isReplicaAvailable() {
+        if (!replicaDown) {
+            return true;
+        }
+        if (System.nanoTime() - replicaDownUntil >= 0) {
+            // Let the next read-only request probe the replica again
+            replicaDown = false;
+            logger.info("Retrying read replica");
+            return true;
+        }
+        return false;
+    }
+
+    private void markReplicaDown(SQLException e) {
+        fallbackCounter.increment();
+        replicaDownUntil = System.nanoTime() + retryIntervalNanos;
+        if (!replicaDown) {
+            replicaDown = true;
+            logger.warn("Read replica unavailable, routing read-only work to the primary for {} ms: {}",
+                    TimeUnit.NANOSECONDS.toMillis(retryIntervalNanos), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.tracking.config;
+
+import java.time.Clock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.tracking.id.RequestIdGenerator;
+import com.tracking.id.TimeOrderedRequestIdGenerator;
+
+/**
+ * Request ID generation.
+ *
+ * {@code app.request-id.generator} selects {@code time-ordered} (UUIDv7,
+ * the default) or {@code random} ({@link java.util.UUID#randomUUID()}).
+ */
+@Configuration(proxyBeanMethods = false)
+public class RequestIdConfig {
+
+    @Bean
+    public RequestIdGenerator requestIdGenerator(
+            @Value("${app.request-id.generator:time-ordered}") String generator) {
+        return switch (generator) {
+            case "time-ordered" -> new TimeOrderedRequestIdGenerator(Clock.systemUTC());
+            case "random" -> RequestIdGenerator.RANDOM;
+            default -> throw new IllegalArgumentException(
+                    "app.request-id.generator must be time-ordered or random, was: " + generator);
+        };
+    }
+}
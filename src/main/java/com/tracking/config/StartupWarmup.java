@@ -0,0 +1,89 @@
+package com.tracking.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.tracking.domain.TrackingNumberResponse;
+import com.tracking.service.TrackingNumberService;
+import com.tracking.validation.RequestFieldParser;
+import com.tracking.web.TrackingNumberResponseMessageConverter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Exercises the request hot path once the application context is ready.
+ *
+ * Runs request field validation, tracking number generation and check
+ * character validation, and response serialization in a loop, without
+ * persisting anything, so these paths are class-loaded and JIT-compiled
+ * before the replica takes traffic. Spring Boot only marks the readiness
+ * state as accepting traffic after all {@link ApplicationReadyEvent}
+ * listeners return, so the readiness probe stays down until warm-up ends.
+ */
+@Component
+@ConditionalOnProperty(name = "app.startup.warmup.enabled", havingValue = "true")
+public class StartupWarmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final String CREATED_AT = "2018-11-20T19:29:32+08:00";
+    private static final String CUSTOMER_ID = "de619854-b59b-425e-9db4-943979e1bd49";
+    private static final String CUSTOMER_NAME = "RedBox Logistics";
+    private static final String CUSTOMER_SLUG = "redbox-logistics";
+
+    private final TrackingNumberService trackingNumberService;
+    private final TrackingNumberResponseMessageConverter converter = new TrackingNumberResponseMessageConverter();
+    private final Timer warmupTimer;
+    private final int iterations;
+
+    public StartupWarmup(TrackingNumberService trackingNumberService,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.startup.warmup.iterations:20000}") int iterations) {
+        this.trackingNumberService = trackingNumberService;
+        this.iterations = iterations;
+        this.warmupTimer = Timer.builder("tracking.startup.warmup.duration")
+                .description("Duration of the startup warm-up phase")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        logger.info("Warming up request path with {} iterations", iterations);
+        long start = System.nanoTime();
+
+        int validated = 0;
+        OutputStream sink = OutputStream.nullOutputStream();
+        for (int i = 0; i < iterations; i++) {
+            OffsetDateTime createdAt = RequestFieldParser.parseTimestamp(CREATED_AT);
+            UUID customerId = UUID.fromString(CUSTOMER_ID);
+            if (RequestFieldParser.validate("MY", "ID", 1.234, CUSTOMER_NAME, CUSTOMER_SLUG) == null) {
+                validated++;
+            }
+            validated += trackingNumberService.warmUp(1);
+            TrackingNumberResponse response = TrackingNumberResponse.of(
+                    "WARMUP" + (i % 10_000), createdAt, UUID.randomUUID(), customerId, CUSTOMER_NAME);
+            try {
+                converter.write(response, sink);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        warmupTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Warm-up completed in {} ms ({} checks passed)", TimeUnit.NANOSECONDS.toMillis(elapsed), validated);
+    }
+}
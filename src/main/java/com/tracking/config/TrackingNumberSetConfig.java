@@ -0,0 +1,103 @@
+package com.tracking.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tracking.repository.MappedTrackingNumberSet;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Memory-mapped set of issued tracking numbers used for uniqueness checks
+ * instead of the database.
+ *
+ * Enabled with {@code app.uniqueness.mapped-set.enabled=true}. The set is
+ * seeded from {@code tracking_numbers} before the service starts, so
+ * numbers issued before the mode was enabled are not issued again. Once
+ * the seed is complete and flushed a {@code seeded} marker is written next
+ * to the set; until it is present the seed runs again on every start, so a
+ * crash part way through never leaves the set partial. Numbers already in
+ * the set are skipped. The set is local to one instance; instances sharing
+ * a database must not use it.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.uniqueness.mapped-set.enabled", havingValue = "true")
+public class TrackingNumberSetConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingNumberSetConfig.class);
+
+    private static final int SEED_FETCH_SIZE = 10_000;
+    private static final String SEEDED_MARKER = "seeded";
+
+    @Bean(destroyMethod = "close")
+    public MappedTrackingNumberSet mappedTrackingNumberSet(
+            @Value("${app.uniqueness.mapped-set.directory:./uniqueness}") String directory,
+            @Value("${app.uniqueness.mapped-set.initial-capacity:1048576}") long initialCapacity,
+            @Value("${app.uniqueness.mapped-set.max-load-factor:0.75}") double maxLoadFactor,
+            @Value("${app.uniqueness.mapped-set.seed-from-database:true}") boolean seedFromDatabase,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        MappedTrackingNumberSet set = MappedTrackingNumberSet.open(Path.of(directory), initialCapacity, maxLoadFactor);
+        Path marker = Path.of(directory, SEEDED_MARKER);
+        if (seedFromDatabase && !Files.exists(marker)) {
+            seed(set, jdbcTemplate, transactionManager);
+            markSeeded(set, marker);
+        }
+        Gauge.builder("tracking.uniqueness.set.size", set, MappedTrackingNumberSet::size)
+                .description("Number of tracking numbers in the memory-mapped uniqueness set")
+                .register(meterRegistry);
+        Gauge.builder("tracking.uniqueness.set.capacity", set, MappedTrackingNumberSet::capacity)
+                .description("Number of slots in the memory-mapped uniqueness set")
+                .register(meterRegistry);
+        FunctionCounter.builder("tracking.uniqueness.set.resizes", set, MappedTrackingNumberSet::resizeCount)
+                .description("Number of times the memory-mapped uniqueness set has been doubled")
+                .register(meterRegistry);
+        return set;
+    }
+
+    /**
+     * Adds every stored tracking number, read through a cursor: PostgreSQL
+     * only honours the fetch size inside a transaction.
+     */
+    private static void seed(MappedTrackingNumberSet set, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager) {
+        long started = System.nanoTime();
+        long[] added = new long[1];
+        JdbcTemplate seedTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        seedTemplate.setFetchSize(SEED_FETCH_SIZE);
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.executeWithoutResult(status ->
+                seedTemplate.query("SELECT tracking_number FROM tracking_numbers", rs -> {
+                    if (set.add(rs.getString(1))) {
+                        added[0]++;
+                    }
+                }));
+        logger.info("Seeded tracking number set with {} new numbers ({} in total) in {} ms", added[0], set.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static void markSeeded(MappedTrackingNumberSet set, Path marker) {
+        set.force();
+        try {
+            Files.writeString(marker, "");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to mark tracking number set as seeded: " + marker, e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.tracking.config;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tracking.analytics.TrafficAggregates;
+import com.tracking.feed.ChangeFeed;
+import com.tracking.feed.TrackingNumberEvent;
+import com.tracking.feed.TrackingNumberListener;
+
+/**
+ * Feeds the lane and customer aggregates from the {@link ChangeFeed}, so
+ * every instance aggregates the numbers issued by all of them and serves
+ * the same figures.
+ *
+ * Once the application is ready, this registers with the change feed and
+ * rebuilds the aggregates from the last day of {@code tracking_numbers} up
+ * to the feed's position at that moment; the feed delivers every row after
+ * it, so none is counted twice. The rows are read through a cursor in a
+ * read-only transaction on a background thread, so readiness does not wait
+ * for a day of rows. Until the rebuild finishes, and for a day if it fails,
+ * the aggregates are incomplete.
+ */
+@Component
+public class TrafficAggregatesFeed implements TrackingNumberListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficAggregatesFeed.class);
+
+    private static final String REBUILD_SQL = "SELECT t.origin_country_id, t.destination_country_id, "
+            + "c.customer_slug, t.weight, t.created_at FROM tracking_numbers t "
+            + "JOIN customers c ON c.customer_id = t.customer_id WHERE t.id <= ? AND t.created_at >= ?";
+
+    private final TrafficAggregates aggregates;
+    private final ChangeFeed changeFeed;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean rebuildEnabled;
+
+    public TrafficAggregatesFeed(TrafficAggregates aggregates,
+                                 ChangeFeed changeFeed,
+                                 DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.analytics.rebuild-from-database:true}") boolean rebuildEnabled,
+                                 @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.aggregates = aggregates;
+        this.changeFeed = changeFeed;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildEnabled = rebuildEnabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long throughId = changeFeed.listen(this);
+        if (!rebuildEnabled) {
+            return;
+        }
+        Instant since = Instant.now().minus(Duration.ofDays(1));
+        Thread thread = new Thread(() -> rebuild(throughId, since), "analytics-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void onCommitted(TrackingNumberEvent event) {
+        aggregates.record(event.originCountryId(), event.destinationCountryId(), event.customerSlug(),
+                event.weight(), event.createdAt().toInstant().toEpochMilli());
+    }
+
+    /**
+     * Records the tracking numbers up to the given id that were created
+     * since the given time.
+     *
+     * @param throughId the highest id to read
+     * @param since the oldest creation time to read
+     * @return number of tracking numbers recorded
+     */
+    long rebuild(long throughId, Instant since) {
+        long started = System.nanoTime();
+        long[] rows = new long[1];
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(REBUILD_SQL, rs -> {
+                aggregates.record(rs.getString("origin_country_id"), rs.getString("destination_country_id"),
+                        rs.getString("customer_slug"), rs.getDouble("weight"),
+                        rs.getTimestamp("created_at").getTime());
+                rows[0]++;
+            }, throughId, Timestamp.from(since)));
+            logger.info("Rebuilt lane and customer aggregates from {} tracking numbers in {} ms", rows[0],
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("Unable to rebuild lane and customer aggregates after {} tracking numbers: {}",
+                    rows[0], e.getMessage());
+        }
+        return rows[0];
+    }
+}
@@ -1,13 +1,21 @@
 package com.tracking.config;
 
+import java.util.List;
+
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.tracking.web.TrackingNumberRequestArgumentResolver;
+import com.tracking.web.TrackingNumberResponseMessageConverter;
+
 /**
  * Web configuration for the tracking number API.
  * 
- * Configures CORS, content negotiation, and other web-related settings.
+ * Configures CORS, content negotiation, request argument resolution,
+ * response message conversion, and other web-related settings.
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -21,4 +29,15 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true)
                 .maxAge(3600);
     }
+    
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new TrackingNumberRequestArgumentResolver());
+    }
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Ahead of the Jackson converter so TrackingNumberResponse bypasses reflection-based serialization
+        converters.add(0, new TrackingNumberResponseMessageConverter());
+    }
 }
@@ -0,0 +1,64 @@
+package com.tracking.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tracking.analytics.AggregateSnapshot;
+import com.tracking.analytics.TrafficAggregates;
+
+/**
+ * REST controller serving lane and customer aggregates of issued tracking
+ * numbers from memory, without querying the database.
+ */
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    private final TrafficAggregates trafficAggregates;
+
+    public AnalyticsController(TrafficAggregates trafficAggregates) {
+        this.trafficAggregates = trafficAggregates;
+    }
+
+    /**
+     * Summarizes origin-destination lanes.
+     *
+     * @param window {@code hour} or {@code day}
+     * @param limit maximum number of lanes to return, busiest first
+     * @return the lane summaries, or 400 for an unknown window
+     */
+    @GetMapping("/lanes")
+    public ResponseEntity<List<AggregateSnapshot>> lanes(
+            @RequestParam(name = "window", defaultValue = "hour") String window,
+            @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        return snapshot(TrafficAggregates.Dimension.LANE, window, limit);
+    }
+
+    /**
+     * Summarizes customers.
+     *
+     * @param window {@code hour} or {@code day}
+     * @param limit maximum number of customers to return, busiest first
+     * @return the customer summaries, or 400 for an unknown window
+     */
+    @GetMapping("/customers")
+    public ResponseEntity<List<AggregateSnapshot>> customers(
+            @RequestParam(name = "window", defaultValue = "hour") String window,
+            @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        return snapshot(TrafficAggregates.Dimension.CUSTOMER, window, limit);
+    }
+
+    private ResponseEntity<List<AggregateSnapshot>> snapshot(TrafficAggregates.Dimension dimension, String window,
+                                                             int limit) {
+        TrafficAggregates.Window parsed = TrafficAggregates.Window.fromParameter(window);
+        if (parsed == null || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(trafficAggregates.snapshot(dimension, parsed, limit));
+    }
+}
@@ -0,0 +1,55 @@
+package com.tracking.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.tracking.feed.ChangeFeed;
+
+/**
+ * REST controller streaming newly issued tracking numbers as Server-Sent
+ * Events.
+ *
+ * Each event carries the row id as its SSE id, so a reconnecting
+ * {@code EventSource} resumes through the {@code Last-Event-ID} header.
+ * Other clients pass the last id they processed as {@code after}.
+ */
+@RestController
+@RequestMapping("/tracking-numbers")
+public class ChangeFeedController {
+
+    private final ChangeFeed changeFeed;
+    private final long timeoutMillis;
+
+    public ChangeFeedController(ChangeFeed changeFeed,
+                                @Value("${app.feed.timeout-ms:1800000}") long timeoutMillis) {
+        this.changeFeed = changeFeed;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Subscribes to the change feed.
+     *
+     * @param lastEventId the id of the last event received before reconnecting
+     * @param after the id to resume after; ignored when Last-Event-ID is present
+     * @return the event stream, or 503 if the subscriber limit has been reached
+     */
+    @GetMapping(path = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(name = "after", required = false) Long after) {
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        if (!changeFeed.subscribe(emitter, lastEventId != null ? lastEventId : after)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -3,7 +3,6 @@ package com.tracking.controller;
 import java.time.OffsetDateTime;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,7 +14,9 @@ import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import com.tracking.id.RequestIdGenerator;
 import com.tracking.service.TrackingNumberService;
 
 /**
@@ -29,6 +30,12 @@ public class GlobalExceptionHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     
+    private final RequestIdGenerator requestIdGenerator;
+    
+    public GlobalExceptionHandler(RequestIdGenerator requestIdGenerator) {
+        this.requestIdGenerator = requestIdGenerator;
+    }
+    
     /**
      * Handles validation errors from @Valid annotations.
      * 
@@ -78,7 +85,7 @@ public class GlobalExceptionHandler {
         response.put("error", "Tracking Number Generation Failed");
         response.put("message", ex.getMessage());
         response.put("path", request.getDescription(false).replace("uri=", ""));
-        response.put("requestId", UUID.randomUUID());
+        response.put("requestId", requestIdGenerator.nextId());
         
         logger.error("Tracking number generation failed: {}", ex.getMessage(), ex);
         
@@ -102,13 +109,37 @@ public class GlobalExceptionHandler {
         response.put("error", "Bad Request");
         response.put("message", "Missing required parameter: " + ex.getParameterName());
         response.put("path", request.getDescription(false).replace("uri=", ""));
-        response.put("requestId", UUID.randomUUID());
+        response.put("requestId", requestIdGenerator.nextId());
         
         logger.warn("Missing required parameter: {}", ex.getParameterName());
         
         return ResponseEntity.badRequest().body(response);
     }
     
+    /**
+     * Handles request parameters that cannot be converted to their declared type.
+     * 
+     * @param ex the type mismatch exception
+     * @param request the web request
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Map<String, Object>> handleTypeMismatch(
+            MethodArgumentTypeMismatchException ex, WebRequest request) {
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", OffsetDateTime.now());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Bad Request");
+        response.put("message", "Invalid value for parameter: " + ex.getName());
+        response.put("path", request.getDescription(false).replace("uri=", ""));
+        response.put("requestId", requestIdGenerator.nextId());
+        
+        logger.warn("Invalid value for parameter: {}", ex.getName());
+        
+        return ResponseEntity.badRequest().body(response);
+    }
+    
     /**
      * Handles general exceptions.
      * 
@@ -126,7 +157,7 @@ public class GlobalExceptionHandler {
         response.put("error", "Internal Server Error");
         response.put("message", "An unexpected error occurred");
         response.put("path", request.getDescription(false).replace("uri=", ""));
-        response.put("requestId", UUID.randomUUID());
+        response.put("requestId", requestIdGenerator.nextId());
         
         logger.error("Unexpected error occurred", ex);
         
@@ -1,13 +1,17 @@
 package com.tracking.controller;
 
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -15,13 +19,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.tracking.domain.TrackingNumberRequest;
 import com.tracking.domain.TrackingNumberResponse;
+import com.tracking.id.RequestIdGenerator;
+import com.tracking.service.GenerationExecutor;
 import com.tracking.service.TrackingNumberService;
-
-import jakarta.validation.constraints.DecimalMax;
-import jakarta.validation.constraints.DecimalMin;
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
-import jakarta.validation.constraints.Size;
+import com.tracking.web.InvalidRequestParameterException;
 
 /**
  * REST controller for tracking number generation.
@@ -31,103 +32,82 @@ import jakarta.validation.constraints.Size;
  */
 @RestController
 @RequestMapping("/next-tracking-number")
-@Validated
 public class TrackingNumberController {
     
     private static final Logger logger = LoggerFactory.getLogger(TrackingNumberController.class);
     
-    private final TrackingNumberService trackingNumberService;
+    private static final String RETRY_AFTER_SECONDS = "1";
+    
+    private final GenerationExecutor generationExecutor;
+    private final RequestIdGenerator requestIdGenerator;
     
-    public TrackingNumberController(TrackingNumberService trackingNumberService) {
-        this.trackingNumberService = trackingNumberService;
+    public TrackingNumberController(GenerationExecutor generationExecutor,
+                                    RequestIdGenerator requestIdGenerator) {
+        this.generationExecutor = generationExecutor;
+        this.requestIdGenerator = requestIdGenerator;
     }
     
     /**
      * Generates a unique tracking number.
      * 
-     * @param originCountryId the origin country ID
-     * @param destinationCountryId the destination country ID
-     * @param weight the weight
-     * @param createdAt the created at timestamp
-     * @param customerId the customer ID
-     * @param customerName the customer name
-     * @param customerSlug the customer slug
-     * @return ResponseEntity containing the generated tracking number
+     * The request is parsed and validated from the query parameters by
+     * {@link com.tracking.web.TrackingNumberRequestArgumentResolver} and then
+     * handed to the {@link GenerationExecutor}, so the servlet thread is
+     * released while the request waits for a worker and the database.
+     * 
+     * @param request the parsed tracking number request
+     * @return the response with the generated tracking number, or 503 if the
+     *         generation queue is full or the request timed out in it
      */
     @GetMapping
-    public ResponseEntity<TrackingNumberResponse> generateTrackingNumber(
-            @RequestParam("origin_country_id") @Pattern(regexp = "^[A-Z]{2}$", message = "Origin country ID must be a valid ISO 3166-1 alpha-2 code") String originCountryId,
-            @RequestParam("destination_country_id") @Pattern(regexp = "^[A-Z]{2}$", message = "Destination country ID must be a valid ISO 3166-1 alpha-2 code") String destinationCountryId,
-            @RequestParam("weight") @DecimalMin(value = "0.001", message = "Weight must be at least 0.001 kg") @DecimalMax(value = "999.999", message = "Weight must not exceed 999.999 kg") Double weight,
-            @RequestParam("created_at") String createdAt,
-            @RequestParam("customer_id") String customerId,
-            @RequestParam("customer_name") @NotBlank(message = "Customer name is required") @Size(max = 255, message = "Customer name must not exceed 255 characters") String customerName,
-            @RequestParam("customer_slug") @Pattern(regexp = "^[a-z0-9]+(?:-[a-z0-9]+)*$", message = "Customer slug must be in kebab-case format") @Size(max = 100, message = "Customer slug must not exceed 100 characters") String customerSlug) {
-        
-        logger.info("Received tracking number generation request for customer: {} ({})", 
-                   customerName, customerId);
-        logger.debug("Request parameters - origin: {}, destination: {}, weight: {}, created_at: {}", 
-                    originCountryId, destinationCountryId, weight, createdAt);
-        logger.debug("Customer details - name: {}, slug: {}", customerName, customerSlug);
+    public CompletableFuture<ResponseEntity<TrackingNumberResponse>> generateTrackingNumber(
+            TrackingNumberRequest request) {
         
         try {
-            // Parse the timestamp
-            java.time.OffsetDateTime parsedCreatedAt;
-            try {
-                parsedCreatedAt = java.time.OffsetDateTime.parse(createdAt);
-            } catch (java.time.format.DateTimeParseException e) {
-                logger.warn("Invalid timestamp format: {}", createdAt);
-                return ResponseEntity.badRequest()
-                        .body(createErrorResponse("Invalid timestamp format", "created_at must be in RFC 3339 format"));
-            }
-            
-            // Parse the customer ID
-            UUID parsedCustomerId;
-            try {
-                parsedCustomerId = UUID.fromString(customerId);
-            } catch (IllegalArgumentException e) {
-                logger.warn("Invalid UUID format: {}", customerId);
-                return ResponseEntity.badRequest()
-                        .body(createErrorResponse("Invalid UUID format", "customer_id must be a valid UUID"));
-            }
-            
-            // Create the request object
-            TrackingNumberRequest request = new TrackingNumberRequest(
-                originCountryId,
-                destinationCountryId,
-                weight,
-                parsedCreatedAt,
-                parsedCustomerId,
-                customerName,
-                customerSlug
-            );
-            
-            // Validate the request
-            if (!request.isValid()) {
-                return ResponseEntity.badRequest()
-                        .body(createErrorResponse("Validation Failed", "Invalid request parameters"));
-            }
-            
-            TrackingNumberResponse response = trackingNumberService.generateTrackingNumber(request);
-            
-            logger.info("Successfully generated tracking number: {} for customer: {}", 
-                       response.trackingNumber(), customerName);
-            
-            return ResponseEntity.ok(response);
-            
-        } catch (TrackingNumberService.TrackingNumberGenerationException e) {
-            logger.error("Failed to generate tracking number for customer: {} - {}", 
-                        customerName, e.getMessage());
-            
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createErrorResponse("Failed to generate tracking number", e.getMessage()));
-        } catch (Exception e) {
-            logger.error("Unexpected error generating tracking number for customer: {}", 
-                        customerName, e);
-            
+            return generationExecutor.generate(request)
+                    .thenApply(ResponseEntity::ok)
+                    .exceptionally(failure -> handleGenerationFailure(request, failure));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(serviceUnavailable());
+        }
+    }
+    
+    private ResponseEntity<TrackingNumberResponse> handleGenerationFailure(TrackingNumberRequest request,
+                                                                          Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (cause instanceof TimeoutException) {
+            return serviceUnavailable();
+        }
+        if (cause instanceof TrackingNumberService.TrackingNumberGenerationException) {
+            // Logged by the service through GenerationLog
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createErrorResponse("Internal server error", "An unexpected error occurred"));
+                    .body(createErrorResponse("Failed to generate tracking number", cause.getMessage()));
         }
+        logger.error("Unexpected error generating tracking number for customer: {}", 
+                    request.customerName(), cause);
+        
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Internal server error", "An unexpected error occurred"));
+    }
+    
+    private ResponseEntity<TrackingNumberResponse> serviceUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(createErrorResponse("Service unavailable", "Too many requests are waiting; retry later"));
+    }
+    
+    /**
+     * Handles request parameters rejected by the request argument resolver.
+     * 
+     * @param e the invalid parameter exception
+     * @return ResponseEntity with error information
+     */
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    public ResponseEntity<TrackingNumberResponse> handleInvalidRequestParameter(InvalidRequestParameterException e) {
+        logger.warn("Invalid request parameter {}: {}", e.getParameterName(), e.getMessage());
+        return ResponseEntity.badRequest()
+                .body(createErrorResponse(e.getError(), e.getMessage()));
     }
     
     /**
@@ -188,12 +168,6 @@ public class TrackingNumberController {
      * @return TrackingNumberResponse with error information
      */
     private TrackingNumberResponse createErrorResponse(String error, String message) {
-        return new TrackingNumberResponse(
-            "ERROR",
-            java.time.OffsetDateTime.now(),
-            UUID.randomUUID(),
-            null,
-            error + ": " + message
-        );
+        return TrackingNumberResponse.error(error, message, requestIdGenerator.nextId());
     }
 }
\ No newline at end of file
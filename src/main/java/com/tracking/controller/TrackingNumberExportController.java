@@ -0,0 +1,78 @@
+package com.tracking.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.tracking.export.TrackingNumberExporter;
+
+/**
+ * REST controller exporting all tracking numbers of a customer as CSV.
+ *
+ * The export is streamed from the database while it is being downloaded;
+ * see {@link TrackingNumberExporter}.
+ */
+@RestController
+@RequestMapping("/tracking-numbers")
+public class TrackingNumberExportController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType APPLICATION_GZIP = new MediaType("application", "gzip");
+
+    private final TrackingNumberExporter exporter;
+
+    public TrackingNumberExportController(TrackingNumberExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    /**
+     * Exports a customer's tracking numbers.
+     *
+     * @param customerId the customer UUID
+     * @param gzip whether to gzip-compress the CSV
+     * @param request the current request
+     * @return the CSV stream, or 503 if too many exports are running
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam("customer_id") UUID customerId,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+
+        TrackingNumberExporter.Export body = exporter.exportCsv(customerId, gzip);
+        if (body == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        // The body may never run, e.g. when the request times out while the
+        // async executor is busy, so the slot is also released on completion.
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(body,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        body.release();
+                    }
+                });
+        String filename = "tracking-numbers-" + customerId + (gzip ? ".csv.gz" : ".csv");
+        return ResponseEntity.ok()
+                .contentType(gzip ? APPLICATION_GZIP : TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
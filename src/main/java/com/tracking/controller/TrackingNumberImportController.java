@@ -0,0 +1,93 @@
+package com.tracking.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tracking.imports.ImportFormat;
+import com.tracking.imports.ImportReport;
+import com.tracking.imports.InvalidImportException;
+import com.tracking.imports.TrackingNumberImporter;
+
+/**
+ * REST controller bulk-importing tracking numbers from a legacy system.
+ *
+ * The request body is streamed into the database while it is being
+ * uploaded; see {@link TrackingNumberImporter}. Posting the same file with
+ * the same {@code import_id} again resumes an interrupted import.
+ */
+@RestController
+@RequestMapping("/tracking-numbers")
+public class TrackingNumberImportController {
+
+    private static final int MAX_IMPORT_ID_LENGTH = 64;
+
+    private final TrackingNumberImporter importer;
+
+    public TrackingNumberImportController(TrackingNumberImporter importer) {
+        this.importer = importer;
+    }
+
+    /**
+     * Imports the tracking numbers in the request body.
+     *
+     * @param importId identifies the import across resumed runs
+     * @param format {@code csv} or {@code ndjson}
+     * @param gzip whether the body is gzip-compressed
+     * @param body the file contents
+     * @return the import report, 400 for an invalid import ID or format, or
+     *         503 if too many imports are running
+     * @throws IOException if reading the body failed
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportReport> importTrackingNumbers(
+            @RequestParam("import_id") String importId,
+            @RequestParam(name = "format", defaultValue = "csv") String format,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+            InputStream body) throws IOException {
+
+        ImportFormat parsed = ImportFormat.fromParameter(format);
+        if (parsed == null || !isValidImportId(importId)) {
+            return ResponseEntity.badRequest().build();
+        }
+        ImportReport report = importer.importRows(importId, parsed, gzip ? new GZIPInputStream(body) : body);
+        if (report == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidImport(InvalidImportException e) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("timestamp", OffsetDateTime.now());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Invalid Import");
+        response.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    private static boolean isValidImportId(String importId) {
+        if (importId.isEmpty() || importId.length() > MAX_IMPORT_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < importId.length(); i++) {
+            char c = importId.charAt(i);
+            if (!(Character.isLetterOrDigit(c) && c < 128) && c != '-' && c != '_' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
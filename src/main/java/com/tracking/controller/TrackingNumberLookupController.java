@@ -0,0 +1,63 @@
+package com.tracking.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tracking.domain.TrackingNumberResponse;
+import com.tracking.id.RequestIdGenerator;
+import com.tracking.service.TrackingNumberService;
+
+/**
+ * REST controller for looking up previously generated tracking numbers.
+ *
+ * Malformed tracking numbers are rejected by the service before any
+ * database access takes place.
+ */
+@RestController
+@RequestMapping("/tracking-numbers")
+public class TrackingNumberLookupController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingNumberLookupController.class);
+
+    private final TrackingNumberService trackingNumberService;
+    private final RequestIdGenerator requestIdGenerator;
+
+    public TrackingNumberLookupController(TrackingNumberService trackingNumberService,
+                                          RequestIdGenerator requestIdGenerator) {
+        this.trackingNumberService = trackingNumberService;
+        this.requestIdGenerator = requestIdGenerator;
+    }
+
+    /**
+     * Looks up a tracking number.
+     *
+     * @param trackingNumber the tracking number to look up
+     * @return ResponseEntity containing the stored tracking number
+     */
+    @GetMapping("/{trackingNumber}")
+    public ResponseEntity<TrackingNumberResponse> findTrackingNumber(
+            @PathVariable("trackingNumber") String trackingNumber) {
+
+        try {
+            return trackingNumberService.findTrackingNumber(trackingNumber)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(TrackingNumberResponse.error("Not Found", "Tracking number does not exist",
+                                    requestIdGenerator.nextId())));
+
+        } catch (TrackingNumberService.InvalidTrackingNumberException e) {
+            logger.debug("Rejected malformed tracking number lookup: {}", trackingNumber);
+
+            return ResponseEntity.badRequest()
+                    .body(TrackingNumberResponse.error("Invalid tracking number",
+                            "tracking number is malformed or has an invalid check character",
+                            requestIdGenerator.nextId()));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.tracking.customer;
+
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps {@code customers} up to date with the names and slugs that
+ * requests carry.
+ *
+ * Every tracking number references a row in {@code customers}, so one must
+ * be stored before the tracking number is inserted. The cache remembers
+ * the name and slug last stored for each customer ID; a request repeating
+ * them does not touch the database. Otherwise the customer is upserted in
+ * its own transaction and cached once it has committed, so a cached
+ * customer is always stored.
+ *
+ * The cache holds at most {@code app.customers.cache-size} customers and
+ * evicts an arbitrary one when full. There are normally far fewer
+ * customers, so the limit only bounds memory if clients send made-up IDs.
+ * Renames made by other instances are not seen; a request still carrying
+ * the old name is then issued under whatever name is stored.
+ */
+@Component
+public class CustomerCache {
+
+    private static final String POSTGRES_UPSERT_SQL = "INSERT INTO customers (customer_id, customer_name, "
+            + "customer_slug, updated_at) VALUES (?, ?, ?, ?) ON CONFLICT (customer_id) DO UPDATE SET "
+            + "customer_name = EXCLUDED.customer_name, customer_slug = EXCLUDED.customer_slug, "
+            + "updated_at = EXCLUDED.updated_at WHERE customers.customer_name <> EXCLUDED.customer_name "
+            + "OR customers.customer_slug <> EXCLUDED.customer_slug";
+    private static final String MERGE_SQL = "MERGE INTO customers (customer_id, customer_name, customer_slug, "
+            + "updated_at) KEY (customer_id) VALUES (?, ?, ?, ?)";
+
+    private final Map<UUID, Entry> customers = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxSize;
+    private final Counter upsertCounter;
+
+    public CustomerCache(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.customers.cache-size:10000}") int maxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxSize = maxSize;
+        this.upsertCounter = Counter.builder("tracking.customers.upserts")
+                .description("Total number of customers written to the database because they were not cached")
+                .register(meterRegistry);
+        Gauge.builder("tracking.customers.cache.size", customers, Map::size)
+                .description("Number of customers in the in-process customer cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Makes sure the customer is stored with the given name and slug.
+     *
+     * @param customerId the customer UUID
+     * @param customerName the customer name
+     * @param customerSlug the customer slug
+     * @throws org.springframework.dao.DataAccessException if the customer could not be stored
+     */
+    public void store(UUID customerId, String customerName, String customerSlug) {
+        Entry cached = customers.get(customerId);
+        if (cached != null && cached.matches(customerName, customerSlug)) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> upsert(customerId, customerName, customerSlug));
+        upsertCounter.increment();
+        if (cached == null && customers.size() >= maxSize) {
+            evictOne();
+        }
+        customers.put(customerId, new Entry(customerName, customerSlug));
+    }
+
+    /**
+     * Forgets a customer, so the next {@link #store} writes it again. Used
+     * when an insert referencing the customer failed, in case the row was
+     * removed behind the cache's back.
+     *
+     * @param customerId the customer UUID
+     */
+    public void invalidate(UUID customerId) {
+        customers.remove(customerId);
+    }
+
+    private void upsert(UUID customerId, String customerName, String customerSlug) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            String sql = connection.isWrapperFor(PGConnection.class) ? POSTGRES_UPSERT_SQL : MERGE_SQL;
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setObject(1, customerId);
+                statement.setString(2, customerName);
+                statement.setString(3, customerSlug);
+                statement.setObject(4, OffsetDateTime.now());
+                statement.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    private void evictOne() {
+        Iterator<UUID> iterator = customers.keySet().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Entry(String customerName, String customerSlug) {
+
+        boolean matches(String name, String slug) {
+            return customerName.equals(name) && customerSlug.equals(slug);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.tracking.domain;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Entity representing a customer that tracking numbers are issued to.
+ * 
+ * Rows are written by {@link com.tracking.customer.CustomerCache}, never
+ * through JPA; the entity only serves reads of tracking numbers.
+ */
+@Entity
+@Immutable
+@Table(name = "customers")
+public class Customer {
+    
+    @Id
+    @Column(name = "customer_id", nullable = false)
+    private UUID customerId;
+    
+    @Column(name = "customer_name", nullable = false, length = 255)
+    private String customerName;
+    
+    @Column(name = "customer_slug", nullable = false, length = 100)
+    private String customerSlug;
+    
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private OffsetDateTime createdAt;
+    
+    @Column(name = "updated_at", nullable = false, insertable = false, updatable = false)
+    private OffsetDateTime updatedAt;
+    
+    // Default constructor for JPA
+    protected Customer() {}
+    
+    // Getters
+    public UUID getCustomerId() { return customerId; }
+    public String getCustomerName() { return customerName; }
+    public String getCustomerSlug() { return customerSlug; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public OffsetDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -8,9 +8,12 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
@@ -44,11 +47,9 @@ public class TrackingNumber {
     @Column(name = "customer_id", nullable = false)
     private UUID customerId;
     
-    @Column(name = "customer_name", nullable = false, length = 255)
-    private String customerName;
-    
-    @Column(name = "customer_slug", nullable = false, length = 100)
-    private String customerSlug;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id", insertable = false, updatable = false)
+    private Customer customer;
     
     @Column(name = "request_id")
     private UUID requestId;
@@ -71,21 +72,16 @@ public class TrackingNumber {
      * @param originCountryId the origin country ISO code
      * @param destinationCountryId the destination country ISO code
      * @param weight the package weight in kg
-     * @param customerId the customer UUID
-     * @param customerName the customer name
-     * @param customerSlug the customer slug
+     * @param customerId the customer UUID, which must already be stored in {@code customers}
      * @param requestId the request ID for tracing
      */
     public TrackingNumber(String trackingNumber, String originCountryId, String destinationCountryId,
-                         Double weight, UUID customerId, String customerName, String customerSlug,
-                         UUID requestId) {
+                         Double weight, UUID customerId, UUID requestId) {
         this.trackingNumber = trackingNumber;
         this.originCountryId = originCountryId;
         this.destinationCountryId = destinationCountryId;
         this.weight = weight;
         this.customerId = customerId;
-        this.customerName = customerName;
-        this.customerSlug = customerSlug;
         this.requestId = requestId;
     }
     
@@ -96,8 +92,7 @@ public class TrackingNumber {
     public String getDestinationCountryId() { return destinationCountryId; }
     public Double getWeight() { return weight; }
     public UUID getCustomerId() { return customerId; }
-    public String getCustomerName() { return customerName; }
-    public String getCustomerSlug() { return customerSlug; }
+    public Customer getCustomer() { return customer; }
     public UUID getRequestId() { return requestId; }
     public OffsetDateTime getCreatedAt() { return createdAt; }
     public OffsetDateTime getUpdatedAt() { return updatedAt; }
@@ -109,8 +104,7 @@ public class TrackingNumber {
     protected void setDestinationCountryId(String destinationCountryId) { this.destinationCountryId = destinationCountryId; }
     protected void setWeight(Double weight) { this.weight = weight; }
     protected void setCustomerId(UUID customerId) { this.customerId = customerId; }
-    protected void setCustomerName(String customerName) { this.customerName = customerName; }
-    protected void setCustomerSlug(String customerSlug) { this.customerSlug = customerSlug; }
+    protected void setCustomer(Customer customer) { this.customer = customer; }
     protected void setRequestId(UUID requestId) { this.requestId = requestId; }
     protected void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
     protected void setUpdatedAt(OffsetDateTime updatedAt) { this.updatedAt = updatedAt; }
@@ -55,4 +55,22 @@ public record TrackingNumberResponse(
                                           UUID requestId, UUID customerId, String customerName) {
         return new TrackingNumberResponse(trackingNumber, createdAt, requestId, customerId, customerName);
     }
+    
+    /**
+     * Creates an error response carrying the error type and message.
+     * 
+     * @param error the error type
+     * @param message the error message
+     * @param requestId the request ID of the failed request
+     * @return TrackingNumberResponse with error information
+     */
+    public static TrackingNumberResponse error(String error, String message, UUID requestId) {
+        return new TrackingNumberResponse(
+            "ERROR",
+            OffsetDateTime.now(),
+            requestId,
+            null,
+            error + ": " + message
+        );
+    }
 }
\ No newline at end of file
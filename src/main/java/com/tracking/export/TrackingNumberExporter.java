@@ -0,0 +1,234 @@
+package com.tracking.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Streams a customer's tracking numbers as CSV.
+ *
+ * Rows are read through a forward-only JDBC cursor with
+ * {@code app.export.fetch-size} rows per round trip, inside a read-only
+ * transaction (which PostgreSQL requires to use a cursor, and which is
+ * routed to the read replica when one is configured). Each row is written
+ * straight to a 64 KiB buffer in front of the response stream without
+ * creating entities, so memory use does not depend on the number of rows.
+ * When the client reads slowly, writes to the response block, which in
+ * turn stops fetching from the cursor.
+ *
+ * An export holds a database connection for its whole duration; at most
+ * {@code app.export.max-concurrent} exports run at a time.
+ */
+@Component
+public class TrackingNumberExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingNumberExporter.class);
+
+    static final String HEADER = "tracking_number,origin_country_id,destination_country_id,weight,"
+            + "customer_id,customer_name,customer_slug,request_id,created_at";
+    private static final String EXPORT_SQL = "SELECT t.tracking_number, t.origin_country_id, "
+            + "t.destination_country_id, t.weight, t.customer_id, c.customer_name, c.customer_slug, t.request_id, "
+            + "t.created_at FROM tracking_numbers t JOIN customers c ON c.customer_id = t.customer_id "
+            + "WHERE t.customer_id = ? ORDER BY t.created_at";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations readOnlyTransaction;
+    private final Semaphore permits;
+    private final AtomicInteger activeExports = new AtomicInteger();
+    private final Counter rowCounter;
+    private final Counter rejectionCounter;
+
+    public TrackingNumberExporter(DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.export.fetch-size:1000}") int fetchSize,
+                                  @Value("${app.export.max-concurrent:4}") int maxConcurrent) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        this.readOnlyTransaction = transactionTemplate;
+        this.permits = new Semaphore(maxConcurrent);
+        this.rowCounter = Counter.builder("tracking.export.rows")
+                .description("Total number of tracking numbers written to exports")
+                .register(meterRegistry);
+        this.rejectionCounter = Counter.builder("tracking.export.rejections")
+                .description("Total number of exports rejected because too many were running")
+                .register(meterRegistry);
+        Gauge.builder("tracking.export.active", activeExports, AtomicInteger::get)
+                .description("Number of exports currently streaming")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserves an export slot and returns the body that streams the export.
+     *
+     * The slot is released when the body finishes. Callers must also call
+     * {@link Export#release()} once the request completes, in case the body
+     * never ran.
+     *
+     * @param customerId the customer whose tracking numbers are exported
+     * @param gzip whether to gzip-compress the CSV
+     * @return the export, or null if too many exports are running
+     */
+    @Nullable
+    public Export exportCsv(UUID customerId, boolean gzip) {
+        if (!permits.tryAcquire()) {
+            rejectionCounter.increment();
+            return null;
+        }
+        return new Export(customerId, gzip);
+    }
+
+    /**
+     * Writes all tracking numbers of a customer as CSV, oldest first.
+     *
+     * @param customerId the customer whose tracking numbers are exported
+     * @param out the stream to write to; flushed but not closed
+     * @return number of rows written
+     * @throws IOException if writing to the stream failed
+     * @throws org.springframework.dao.DataAccessException if reading from the database failed
+     */
+    long writeCsv(UUID customerId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(HEADER);
+        writer.write('\n');
+        long[] rows = new long[1];
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_SQL, rs -> {
+                writeRow(writer, rs);
+                rows[0]++;
+            }, customerId));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            rowCounter.increment(rows[0]);
+        }
+        writer.flush();
+        return rows[0];
+    }
+
+    private long writeGzip(UUID customerId, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+        long rows = writeCsv(customerId, gzip);
+        gzip.finish();
+        return rows;
+    }
+
+    private static void writeRow(Writer writer, ResultSet rs) throws SQLException {
+        try {
+            writer.write(rs.getString("tracking_number"));
+            writer.write(',');
+            writer.write(rs.getString("origin_country_id"));
+            writer.write(',');
+            writer.write(rs.getString("destination_country_id"));
+            writer.write(',');
+            writer.write(Double.toString(rs.getDouble("weight")));
+            writer.write(',');
+            writer.write(rs.getObject("customer_id", UUID.class).toString());
+            writer.write(',');
+            writeField(writer, rs.getString("customer_name"));
+            writer.write(',');
+            writeField(writer, rs.getString("customer_slug"));
+            writer.write(',');
+            UUID requestId = rs.getObject("request_id", UUID.class);
+            if (requestId != null) {
+                writer.write(requestId.toString());
+            }
+            writer.write(',');
+            writer.write(rs.getObject("created_at", OffsetDateTime.class).toString());
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a free-text field, quoting it as per RFC 4180 when it contains
+     * a separator, quote or line break.
+     */
+    private static void writeField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * A reserved export slot and the body that streams the export. The slot
+     * is released at most once, by whichever of the body or the request
+     * completion gets there first.
+     */
+    public final class Export implements StreamingResponseBody {
+
+        private final UUID customerId;
+        private final boolean gzip;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Export(UUID customerId, boolean gzip) {
+            this.customerId = customerId;
+            this.gzip = gzip;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            activeExports.incrementAndGet();
+            long started = System.nanoTime();
+            try {
+                long rows = gzip ? writeGzip(customerId, out) : writeCsv(customerId, out);
+                logger.info("Exported {} tracking numbers for customer {} in {} ms", rows, customerId,
+                        (System.nanoTime() - started) / 1_000_000);
+            } finally {
+                activeExports.decrementAndGet();
+                release();
+            }
+        }
+
+        /**
+         * Releases the export slot unless it was released already.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package com.tracking.feed;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Change feed of newly issued tracking numbers, in id order across all
+ * instances sharing the database.
+ *
+ * A tailer thread follows {@code tracking_numbers} by id and appends rows
+ * to a bounded ring buffer, so subscribers are served from memory instead
+ * of each polling the table. Ids are allocated in order but become visible
+ * at commit, so a missing id may still commit. The tailer stops at the
+ * first missing id and only passes it once it has been missing for
+ * {@code app.feed.commit-lag-ms}; it then counts as rolled back. The
+ * buffer, and the tailer's watermark, therefore only ever advance over ids
+ * that are committed or given up.
+ *
+ * Each subscriber reads through a {@link Cursor} keyed by row id: a
+ * subscriber resuming from an id that is no longer buffered, or falling
+ * more than a buffer behind, catches up from the table up to the watermark
+ * and rejoins the buffer there. A number whose transaction commits more
+ * than the commit lag after its id was allocated is not delivered to
+ * subscribers already past it.
+ *
+ * {@link TrackingNumberListener}s registered through {@link #listen}
+ * receive every buffered event, so each instance sees the numbers issued
+ * by all of them.
+ */
+@Component
+public class ChangeFeed implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+
+    private static final String EVENT_NAME = "tracking-number";
+    private static final String MAX_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM tracking_numbers";
+    private static final String EVENTS_SQL = "SELECT t.id, t.tracking_number, t.origin_country_id, "
+            + "t.destination_country_id, t.weight, t.customer_id, c.customer_slug, t.request_id, t.created_at "
+            + "FROM tracking_numbers t JOIN customers c ON c.customer_id = t.customer_id "
+            + "WHERE t.id > ? AND t.id <= ? ORDER BY t.id LIMIT ?";
+
+    private static final RowMapper<TrackingNumberEvent> EVENT_MAPPER = (rs, rowNum) -> new TrackingNumberEvent(
+            rs.getLong("id"),
+            rs.getString("tracking_number"),
+            rs.getString("origin_country_id"),
+            rs.getString("destination_country_id"),
+            rs.getDouble("weight"),
+            rs.getObject("customer_id", UUID.class),
+            rs.getString("customer_slug"),
+            rs.getObject("request_id", UUID.class),
+            rs.getObject("created_at", OffsetDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicReferenceArray<Slot> ring;
+    private final int mask;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final long commitLagMillis;
+    private final long heartbeatIntervalMillis;
+    private final int maxSubscribers;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final List<TrackingNumberListener> listeners = new CopyOnWriteArrayList<>();
+    private final Counter publishedCounter;
+    private final Counter skippedCounter;
+    private final Counter catchUpCounter;
+    private final Counter overrunCounter;
+
+    // Missing ids above the watermark by first missing id, only touched by the tailer
+    private final NavigableMap<Long, Gap> gaps = new TreeMap<>();
+    // Next buffer sequence and the id of the last event buffered before it
+    private volatile Watermark watermark;
+    private volatile boolean running;
+    private volatile Thread tailer;
+
+    public ChangeFeed(JdbcTemplate jdbcTemplate,
+                      MeterRegistry meterRegistry,
+                      @Value("${app.feed.buffer-size:65536}") int bufferSize,
+                      @Value("${app.feed.batch-size:500}") int batchSize,
+                      @Value("${app.feed.poll-interval-ms:50}") long pollIntervalMillis,
+                      @Value("${app.feed.commit-lag-ms:10000}") long commitLagMillis,
+                      @Value("${app.feed.heartbeat-interval-ms:15000}") long heartbeatIntervalMillis,
+                      @Value("${app.feed.max-subscribers:64}") int maxSubscribers) {
+        if (bufferSize < 2) {
+            throw new IllegalArgumentException("Change feed buffer size must be at least 2: " + bufferSize);
+        }
+        int capacity = Integer.highestOneBit(bufferSize - 1) << 1;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.commitLagMillis = commitLagMillis;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.publishedCounter = Counter.builder("tracking.feed.published")
+                .description("Total number of committed tracking numbers added to the change feed buffer")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("tracking.feed.skipped.ids")
+                .description("Total number of ids passed over after staying invisible for the commit lag")
+                .register(meterRegistry);
+        this.catchUpCounter = Counter.builder("tracking.feed.catch.up.rows")
+                .description("Total number of change feed events read from the table instead of the buffer")
+                .register(meterRegistry);
+        this.overrunCounter = Counter.builder("tracking.feed.overruns")
+                .description("Total number of times a subscriber fell more than a buffer behind")
+                .register(meterRegistry);
+        Gauge.builder("tracking.feed.subscribers", subscriptions, Set::size)
+                .description("Number of connected change feed subscribers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tells the tailer that a number has committed, so it reads the table
+     * without waiting for the poll interval. Never blocks.
+     */
+    public void wakeUp() {
+        Thread current = tailer;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    /**
+     * Appends rows committed since the last poll to the buffer, stopping at
+     * the first id that is missing for less than the commit lag.
+     *
+     * @return number of events appended
+     * @throws DataAccessException if the table could not be read
+     */
+    synchronized int poll() {
+        Watermark current = watermark();
+        List<TrackingNumberEvent> rows = jdbcTemplate.query(EVENTS_SQL, EVENT_MAPPER, current.id(), Long.MAX_VALUE,
+                batchSize);
+        long now = System.currentTimeMillis();
+        long expected = current.id() + 1;
+        for (TrackingNumberEvent row : rows) {
+            if (row.id() > expected) {
+                noticeGap(expected, row.id() - 1, now);
+            }
+            expected = row.id() + 1;
+        }
+        long sequence = current.sequence();
+        long lastId = current.id();
+        for (TrackingNumberEvent row : rows) {
+            if (row.id() > lastId + 1) {
+                Gap gap = gaps.get(lastId + 1);
+                if (now - gap.noticedAt() < commitLagMillis) {
+                    break;
+                }
+                skippedCounter.increment(row.id() - lastId - 1);
+            }
+            ring.set((int) sequence & mask, new Slot(sequence, row));
+            notifyListeners(row);
+            sequence++;
+            lastId = row.id();
+        }
+        gaps.headMap(lastId, true).clear();
+        int appended = (int) (sequence - current.sequence());
+        if (appended > 0) {
+            watermark = new Watermark(sequence, lastId);
+            publishedCounter.increment(appended);
+        }
+        return appended;
+    }
+
+    /**
+     * Registers a listener for every event buffered from now on.
+     *
+     * @param listener the listener
+     * @return the id of the last event the listener will not receive; rows
+     *         up to it must be read from the table
+     * @throws DataAccessException if the starting position could not be read
+     */
+    public synchronized long listen(TrackingNumberListener listener) {
+        long afterId = watermark().id();
+        listeners.add(listener);
+        return afterId;
+    }
+
+    /**
+     * Opens a cursor positioned after the given id.
+     *
+     * @param afterId the id of the last event the subscriber has seen, or
+     *                null to receive only numbers issued from now on
+     * @return the cursor
+     * @throws DataAccessException if the current position could not be read
+     */
+    public Cursor cursor(@Nullable Long afterId) {
+        Watermark current = watermark();
+        if (afterId == null) {
+            // Buffered events up to the newest committed id are skipped
+            Long maxId = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+            return new Cursor(Math.max(current.id(), maxId == null ? 0 : maxId), current.sequence());
+        }
+        for (long sequence = Math.max(0, current.sequence() - ring.length()); sequence < current.sequence();
+                sequence++) {
+            Slot slot = ring.get((int) sequence & mask);
+            if (slot != null && slot.sequence() == sequence && slot.event().id() == afterId) {
+                return new Cursor(afterId, sequence + 1);
+            }
+        }
+        return new Cursor(afterId, -1);
+    }
+
+    /**
+     * Streams events to an SSE emitter on a virtual thread until the client
+     * disconnects, the emitter times out or the application shuts down.
+     *
+     * @param emitter the emitter of an SSE request
+     * @param afterId the id of the last event the subscriber has seen, or null
+     * @return false if the subscriber limit has been reached
+     * @throws DataAccessException if the cursor could not be opened
+     */
+    public boolean subscribe(SseEmitter emitter, @Nullable Long afterId) {
+        if (!running || subscriptions.size() >= maxSubscribers) {
+            return false;
+        }
+        Subscription subscription = new Subscription(emitter, cursor(afterId));
+        subscriptions.add(subscription);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        subscription.thread = Thread.ofVirtual().name("change-feed-subscriber").start(subscription::run);
+        return true;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        tailer = Thread.ofPlatform().daemon().name("change-feed-tailer").start(this::tail);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = tailer;
+        if (current != null) {
+            current.interrupt();
+            tailer = null;
+        }
+        subscriptions.forEach(subscription -> {
+            subscription.close();
+            subscription.emitter.complete();
+        });
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * A subscriber's position in the feed. Not thread-safe.
+     */
+    public final class Cursor {
+
+        private long lastId;
+        private long sequence;
+
+        private Cursor(long lastId, long sequence) {
+            this.lastId = lastId;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Reads the next events without waiting.
+         *
+         * @param max maximum number of events to return
+         * @return the next events, or an empty list if the subscriber is up to date
+         * @throws DataAccessException if catching up from the table failed
+         */
+        public List<TrackingNumberEvent> next(int max) {
+            return sequence < 0 ? nextFromTable(max) : nextFromBuffer(max);
+        }
+
+        /**
+         * @return the highest id delivered so far
+         */
+        public long lastId() {
+            return lastId;
+        }
+
+        private List<TrackingNumberEvent> nextFromBuffer(int max) {
+            List<TrackingNumberEvent> events = new ArrayList<>();
+            long end = watermark().sequence();
+            while (events.size() < max && sequence < end) {
+                Slot slot = ring.get((int) sequence & mask);
+                if (slot.sequence() != sequence) {
+                    overrunCounter.increment();
+                    sequence = -1;
+                    return events.isEmpty() ? nextFromTable(max) : events;
+                }
+                sequence++;
+                // Buffered events are in id order; a resumed cursor skips those it has seen
+                if (slot.event().id() > lastId) {
+                    events.add(slot.event());
+                    lastId = slot.event().id();
+                }
+            }
+            return events;
+        }
+
+        private List<TrackingNumberEvent> nextFromTable(int max) {
+            // The buffer continues right after the watermark, so reading up to it leaves no gap
+            Watermark current = watermark();
+            List<TrackingNumberEvent> events = jdbcTemplate.query(EVENTS_SQL, EVENT_MAPPER, lastId, current.id(),
+                    max);
+            catchUpCounter.increment(events.size());
+            if (!events.isEmpty()) {
+                lastId = events.get(events.size() - 1).id();
+            }
+            if (events.size() < max) {
+                sequence = current.sequence();
+            }
+            return events;
+        }
+    }
+
+    private Watermark watermark() {
+        Watermark current = watermark;
+        if (current == null) {
+            synchronized (this) {
+                if (watermark == null) {
+                    // Ids below the newest batch are assumed committed; the tailer re-checks those above
+                    Long maxId = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+                    watermark = new Watermark(0, Math.max(0, (maxId == null ? 0 : maxId) - batchSize));
+                }
+                current = watermark;
+            }
+        }
+        return current;
+    }
+
+    private void notifyListeners(TrackingNumberEvent event) {
+        for (TrackingNumberListener listener : listeners) {
+            try {
+                listener.onCommitted(event);
+            } catch (RuntimeException e) {
+                logger.warn("Change feed listener failed on id {}", event.id(), e);
+            }
+        }
+    }
+
+    private void noticeGap(long firstId, long lastId, long now) {
+        // Ids only go missing above everything read before, so a gap is new or part of a known one
+        Map.Entry<Long, Gap> known = gaps.floorEntry(firstId);
+        Gap gap = known != null && known.getValue().lastId() >= lastId
+                ? known.getValue()
+                : new Gap(lastId, now);
+        gaps.put(firstId, gap);
+    }
+
+    private void tail() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                if (poll() < batchSize) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis));
+                }
+            } catch (DataAccessException e) {
+                logger.warn("Change feed could not read new tracking numbers, retrying in {} ms: {}",
+                        pollIntervalMillis, e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis));
+            }
+        }
+    }
+
+    private record Slot(long sequence, TrackingNumberEvent event) {
+    }
+
+    private record Watermark(long sequence, long id) {
+    }
+
+    private record Gap(long lastId, long noticedAt) {
+    }
+
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        private final Cursor cursor;
+        private volatile boolean closed;
+        private volatile Thread thread;
+
+        private Subscription(SseEmitter emitter, Cursor cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        private void run() {
+            long lastSent = System.currentTimeMillis();
+            try {
+                while (running && !closed) {
+                    List<TrackingNumberEvent> events = cursor.next(batchSize);
+                    if (!events.isEmpty()) {
+                        for (TrackingNumberEvent event : events) {
+                            emitter.send(SseEmitter.event()
+                                    .id(Long.toString(event.id()))
+                                    .name(EVENT_NAME)
+                                    .data(event, MediaType.APPLICATION_JSON));
+                        }
+                        lastSent = System.currentTimeMillis();
+                    } else if (System.currentTimeMillis() - lastSent >= heartbeatIntervalMillis) {
+                        // Detects disconnected clients while no numbers are issued
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                        lastSent = System.currentTimeMillis();
+                    } else {
+                        Thread.sleep(pollIntervalMillis);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Change feed subscriber disconnected after id {}", cursor.lastId());
+            } catch (DataAccessException e) {
+                logger.warn("Change feed subscriber failed to catch up after id {}: {}", cursor.lastId(),
+                        e.getMessage());
+                emitter.completeWithError(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                subscriptions.remove(this);
+            }
+        }
+
+        private void close() {
+            closed = true;
+            Thread current = thread;
+            if (current != null && current != Thread.currentThread()) {
+                current.interrupt();
+            }
+        }
+    }
+}
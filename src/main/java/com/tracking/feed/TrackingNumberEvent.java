@@ -0,0 +1,52 @@
+package com.tracking.feed;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A newly issued tracking number, as delivered on the change feed.
+ *
+ * @param id the row id in {@code tracking_numbers}, used as the feed cursor
+ * @param trackingNumber the issued tracking number
+ * @param originCountryId the origin country ISO code
+ * @param destinationCountryId the destination country ISO code
+ * @param weight the package weight in kg
+ * @param customerId the customer UUID
+ * @param customerSlug the customer slug
+ * @param requestId the request ID the number was issued for
+ * @param createdAt when the number was issued
+ */
+public record TrackingNumberEvent(
+
+    @JsonProperty("id")
+    long id,
+
+    @JsonProperty("tracking_number")
+    String trackingNumber,
+
+    @JsonProperty("origin_country_id")
+    String originCountryId,
+
+    @JsonProperty("destination_country_id")
+    String destinationCountryId,
+
+    @JsonProperty("weight")
+    double weight,
+
+    @JsonProperty("customer_id")
+    UUID customerId,
+
+    @JsonProperty("customer_slug")
+    String customerSlug,
+
+    @JsonProperty("request_id")
+    UUID requestId,
+
+    @JsonProperty("created_at")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ssXXX")
+    OffsetDateTime createdAt
+) {
+}
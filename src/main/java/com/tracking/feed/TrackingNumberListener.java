@@ -0,0 +1,17 @@
+package com.tracking.feed;
+
+/**
+ * Receives every tracking number committed by any instance, as the
+ * {@link ChangeFeed} tailer buffers it.
+ *
+ * Events arrive in id order on the tailer thread, so a listener must not
+ * block; an exception is logged and does not stop the tailer.
+ */
+@FunctionalInterface
+public interface TrackingNumberListener {
+
+    /**
+     * @param event the committed tracking number
+     */
+    void onCommitted(TrackingNumberEvent event);
+}
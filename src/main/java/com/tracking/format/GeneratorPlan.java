@@ -0,0 +1,177 @@
+package com.tracking.format;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.tracking.validation.TrackingNumberValidator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * A {@link TrackingNumberFormat} compiled for generation.
+ *
+ * All parsing and validation happens in {@link #compile}; {@link #generate}
+ * only copies the prefix and draws from the alphabet, allocating nothing
+ * but the resulting string. Each plan knows the size of its keyspace and
+ * keeps its own issued and collision counts, published with a
+ * {@code customer_slug} tag.
+ */
+public final class GeneratorPlan {
+
+    private static final int MIN_LENGTH = 8;
+    private static final int MAX_LENGTH = 16;
+    private static final int MIN_RANDOM_LENGTH = 4;
+
+    private final TrackingNumberFormat format;
+    private final char[] prefix;
+    private final char[] alphabet;
+    private final int length;
+    private final int randomLength;
+    private final boolean checkCharacterEnabled;
+    private final double keyspaceSize;
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final Counter collisionCounter;
+    private final List<Meter> meters;
+
+    private GeneratorPlan(TrackingNumberFormat format, boolean checkCharacterEnabled, long alreadyIssued,
+                          MeterRegistry meterRegistry) {
+        this.format = format;
+        this.prefix = format.prefix().toCharArray();
+        this.alphabet = format.alphabet().toCharArray();
+        this.length = format.length();
+        this.randomLength = length - prefix.length - (checkCharacterEnabled ? 1 : 0);
+        this.checkCharacterEnabled = checkCharacterEnabled;
+        this.keyspaceSize = Math.pow(alphabet.length, randomLength);
+        this.issued.add(alreadyIssued);
+
+        Tags tags = Tags.of("customer_slug", format.customerSlug());
+        this.collisionCounter = Counter.builder("tracking.format.collisions")
+                .description("Candidates in this customer's format that collided with an issued number")
+                .tags(tags)
+                .register(meterRegistry);
+        this.meters = List.of(
+                collisionCounter,
+                FunctionCounter.builder("tracking.format.issued", issued, LongAdder::sum)
+                        .description("Tracking numbers issued in this customer's format")
+                        .tags(tags)
+                        .register(meterRegistry),
+                Gauge.builder("tracking.format.capacity", this, GeneratorPlan::keyspaceSize)
+                        .description("Number of distinct tracking numbers this customer's format can produce")
+                        .tags(tags)
+                        .register(meterRegistry),
+                Gauge.builder("tracking.format.fill.ratio", this, GeneratorPlan::fillRatio)
+                        .description("Issued tracking numbers in this customer's format divided by its capacity")
+                        .tags(tags)
+                        .register(meterRegistry),
+                Gauge.builder("tracking.format.collision.rate", this, GeneratorPlan::collisionRate)
+                        .description("Fraction of candidates in this customer's format that collided")
+                        .tags(tags)
+                        .register(meterRegistry));
+    }
+
+    /**
+     * Validates a format and compiles it into a plan.
+     *
+     * @param format the format to compile
+     * @param checkCharacterEnabled whether generated numbers end with a check character
+     * @param minKeyspaceSize fewest distinct numbers the format must be able to produce
+     * @param alreadyIssued number of numbers already issued in this format
+     * @param meterRegistry registry for the plan's metrics
+     * @return the compiled plan
+     * @throws IllegalArgumentException if the format cannot produce valid tracking numbers
+     */
+    public static GeneratorPlan compile(TrackingNumberFormat format, boolean checkCharacterEnabled,
+                                        long minKeyspaceSize, long alreadyIssued, MeterRegistry meterRegistry) {
+        String prefix = format.prefix();
+        String alphabet = format.alphabet();
+        if (format.length() < MIN_LENGTH || format.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Length must be between " + MIN_LENGTH + " and " + MAX_LENGTH);
+        }
+        if (!prefix.matches("[A-Z0-9]*")) {
+            throw new IllegalArgumentException("Prefix may only contain A-Z and 0-9: " + prefix);
+        }
+        if (alphabet.isEmpty() || !alphabet.matches("[A-Z0-9]+")
+                || alphabet.chars().distinct().count() != alphabet.length()) {
+            throw new IllegalArgumentException("Alphabet must be distinct characters from A-Z and 0-9: " + alphabet);
+        }
+        int randomLength = format.length() - prefix.length() - (checkCharacterEnabled ? 1 : 0);
+        if (randomLength < MIN_RANDOM_LENGTH) {
+            throw new IllegalArgumentException("Prefix leaves fewer than " + MIN_RANDOM_LENGTH + " random characters");
+        }
+        double keyspaceSize = Math.pow(alphabet.length(), randomLength);
+        if (keyspaceSize < minKeyspaceSize) {
+            throw new IllegalArgumentException(String.format(
+                    "Keyspace of %.0f numbers is below the minimum of %d", keyspaceSize, minKeyspaceSize));
+        }
+        return new GeneratorPlan(format, checkCharacterEnabled, alreadyIssued, meterRegistry);
+    }
+
+    /**
+     * @param random the random source of the calling thread
+     * @return a new candidate in this format
+     */
+    public String generate(ThreadLocalRandom random) {
+        char[] chars = new char[length];
+        System.arraycopy(prefix, 0, chars, 0, prefix.length);
+        int end = prefix.length + randomLength;
+        for (int i = prefix.length; i < end; i++) {
+            chars[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        if (checkCharacterEnabled) {
+            chars[end] = TrackingNumberValidator.computeCheckCharacter(chars, end);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Records the outcome of a uniqueness check for a candidate of this plan.
+     *
+     * @param collided whether the candidate was already issued
+     */
+    public void recordAttempt(boolean collided) {
+        attempts.increment();
+        if (collided) {
+            collisionCounter.increment();
+        }
+    }
+
+    public void recordIssued() {
+        issued.increment();
+    }
+
+    public TrackingNumberFormat format() {
+        return format;
+    }
+
+    /**
+     * @return number of distinct tracking numbers this plan can produce
+     */
+    public double keyspaceSize() {
+        return keyspaceSize;
+    }
+
+    public double fillRatio() {
+        return issued.sum() / keyspaceSize;
+    }
+
+    public double collisionRate() {
+        long attempted = attempts.sum();
+        return attempted == 0 ? 0 : collisionCounter.count() / attempted;
+    }
+
+    /**
+     * Removes this plan's meters, before a recompiled plan registers its own.
+     *
+     * @param meterRegistry the registry the plan was compiled with
+     */
+    void removeMeters(MeterRegistry meterRegistry) {
+        meters.forEach(meterRegistry::remove);
+    }
+}
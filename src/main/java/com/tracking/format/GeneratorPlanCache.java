@@ -0,0 +1,162 @@
+package com.tracking.format;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Compiled {@link GeneratorPlan}s by customer slug.
+ *
+ * Formats are loaded from {@code tracking_number_formats} when the cache is
+ * created and re-read every {@code app.tracking.formats.refresh-interval-ms}
+ * on a background thread. Only added or changed formats are compiled;
+ * unchanged plans are kept together with their counters, and removed
+ * formats fall back to the default format. Request threads only perform a
+ * map lookup. A format that fails validation, or whose keyspace is smaller
+ * than {@code app.tracking.formats.min-keyspace-size}, is logged and
+ * ignored.
+ */
+@Component
+public class GeneratorPlanCache implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneratorPlanCache.class);
+
+    private static final String FORMATS_SQL =
+            "SELECT customer_slug, prefix, alphabet, number_length FROM tracking_number_formats";
+    private static final String ISSUED_SQL = "SELECT COUNT(*) FROM tracking_numbers t "
+            + "JOIN customers c ON c.customer_id = t.customer_id "
+            + "WHERE c.customer_slug = ? AND LENGTH(t.tracking_number) = ? AND t.tracking_number LIKE ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean checkCharacterEnabled;
+    private final long minKeyspaceSize;
+    private final long refreshIntervalMillis;
+    private final Map<String, GeneratorPlan> plans = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService refresher;
+
+    public GeneratorPlanCache(JdbcTemplate jdbcTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.tracking.check-character.enabled:false}") boolean checkCharacterEnabled,
+                              @Value("${app.tracking.formats.min-keyspace-size:1000000}") long minKeyspaceSize,
+                              @Value("${app.tracking.formats.refresh-interval-ms:30000}") long refreshIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.checkCharacterEnabled = checkCharacterEnabled;
+        this.minKeyspaceSize = minKeyspaceSize;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        Gauge.builder("tracking.format.plans", plans, Map::size)
+                .description("Number of customer-specific tracking number formats in use")
+                .register(meterRegistry);
+        tryRefresh();
+    }
+
+    /**
+     * @param customerSlug the customer slug of a generation request
+     * @return the customer's plan, or null if the customer uses the default format
+     */
+    @Nullable
+    public GeneratorPlan planFor(String customerSlug) {
+        return plans.get(customerSlug);
+    }
+
+    /**
+     * Re-reads all formats and compiles those that were added or changed.
+     *
+     * @throws DataAccessException if the formats could not be read
+     */
+    public synchronized void refresh() {
+        Map<String, TrackingNumberFormat> formats = new HashMap<>();
+        List<TrackingNumberFormat> rows = jdbcTemplate.query(FORMATS_SQL, (rs, rowNum) -> new TrackingNumberFormat(
+                rs.getString("customer_slug"), rs.getString("prefix"), rs.getString("alphabet"),
+                rs.getInt("number_length")));
+        rows.forEach(format -> formats.put(format.customerSlug(), format));
+
+        plans.entrySet().removeIf(entry -> {
+            if (formats.containsKey(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().removeMeters(meterRegistry);
+            logger.info("Tracking number format for {} removed", entry.getKey());
+            return true;
+        });
+        formats.forEach((slug, format) -> {
+            GeneratorPlan existing = plans.get(slug);
+            if (existing != null && existing.format().equals(format)) {
+                return;
+            }
+            if (existing != null) {
+                existing.removeMeters(meterRegistry);
+            }
+            try {
+                GeneratorPlan plan = GeneratorPlan.compile(format, checkCharacterEnabled, minKeyspaceSize,
+                        countIssued(format), meterRegistry);
+                plans.put(slug, plan);
+                logger.info("Compiled tracking number format for {}: prefix '{}', {} characters, length {}",
+                        slug, format.prefix(), format.alphabet().length(), format.length());
+            } catch (IllegalArgumentException e) {
+                plans.remove(slug);
+                logger.error("Ignoring invalid tracking number format for {}: {}", slug, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public synchronized void start() {
+        if (refresher != null) {
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("format-refresh-");
+        threadFactory.setDaemon(true);
+        refresher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        refresher.scheduleWithFixedDelay(this::tryRefresh, refreshIntervalMillis, refreshIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return refresher != null;
+    }
+
+    private void tryRefresh() {
+        try {
+            refresh();
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("Unable to refresh tracking number formats, keeping {} cached: {}", plans.size(),
+                    e.getMessage());
+        }
+    }
+
+    private long countIssued(TrackingNumberFormat format) {
+        Long issued = jdbcTemplate.queryForObject(ISSUED_SQL, Long.class,
+                format.customerSlug(), format.length(), format.prefix() + "%");
+        return issued == null ? 0 : issued;
+    }
+}
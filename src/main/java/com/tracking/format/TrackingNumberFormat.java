@@ -0,0 +1,18 @@
+package com.tracking.format;
+
+/**
+ * A customer's tracking number format template, as stored in
+ * {@code tracking_number_formats}.
+ *
+ * @param customerSlug the customer the format applies to
+ * @param prefix fixed characters every number starts with, possibly empty
+ * @param alphabet characters the random part is drawn from
+ * @param length total length of generated numbers, including prefix and check character
+ */
+public record TrackingNumberFormat(
+    String customerSlug,
+    String prefix,
+    String alphabet,
+    int length
+) {
+}
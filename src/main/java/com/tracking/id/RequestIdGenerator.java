@@ -0,0 +1,25 @@
+package com.tracking.id;
+
+import java.util.UUID;
+
+/**
+ * Source of request IDs recorded with issued tracking numbers and returned
+ * in error responses.
+ *
+ * Selected with {@code app.request-id.generator}; see
+ * {@link com.tracking.config.RequestIdConfig}.
+ */
+@FunctionalInterface
+public interface RequestIdGenerator {
+
+    /**
+     * Generator backed by {@link UUID#randomUUID()}, which draws from a
+     * shared {@link java.security.SecureRandom}.
+     */
+    RequestIdGenerator RANDOM = UUID::randomUUID;
+
+    /**
+     * @return a new request ID
+     */
+    UUID nextId();
+}
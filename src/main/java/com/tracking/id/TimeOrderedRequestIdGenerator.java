@@ -0,0 +1,74 @@
+package com.tracking.id;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version 7 UUIDs (RFC 9562): a 48-bit Unix millisecond timestamp followed
+ * by a per-thread counter and random bits.
+ *
+ * Unlike {@link UUID#randomUUID()}, which draws all bits from one shared
+ * {@code SecureRandom}, each thread keeps its own state and draws from
+ * {@link ThreadLocalRandom}, so generation does not contend across threads.
+ * Because IDs start with the timestamp, they sort by creation time and new
+ * entries go to the end of a {@code request_id} index instead of random
+ * pages.
+ *
+ * The 12 {@code rand_a} bits and the top 14 {@code rand_b} bits form a
+ * 26-bit counter that is seeded randomly (below its midpoint) whenever the
+ * millisecond changes and incremented otherwise, which keeps IDs from one
+ * thread strictly increasing. If the counter overflows or the clock goes
+ * back, the thread continues from its last timestamp. The remaining 48 bits
+ * are random, which keeps IDs generated by different threads within the
+ * same millisecond distinct. IDs are not suitable as secrets.
+ */
+public class TimeOrderedRequestIdGenerator implements RequestIdGenerator {
+
+    private static final int COUNTER_BITS = 26;
+    private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1;
+    private static final long RANDOM_BITS_MASK = (1L << 48) - 1;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+
+    private final Clock clock;
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    public TimeOrderedRequestIdGenerator(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public UUID nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        State current = state.get();
+        long millis = clock.millis();
+        if (millis > current.millis) {
+            current.millis = millis;
+            current.counter = random.nextLong(COUNTER_MAX >>> 1);
+        } else if (current.counter < COUNTER_MAX) {
+            current.counter++;
+        } else {
+            current.millis++;
+            current.counter = random.nextLong(COUNTER_MAX >>> 1);
+        }
+        long counter = current.counter;
+        long mostSignificantBits = current.millis << 16 | VERSION | counter >>> 14;
+        long leastSignificantBits = VARIANT | (counter & 0x3FFF) << 48 | random.nextLong() & RANDOM_BITS_MASK;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * @param id a UUID produced by this generator
+     * @return the Unix millisecond timestamp embedded in the ID
+     */
+    public static long timestampOf(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+
+    private static final class State {
+
+        private long millis = Long.MIN_VALUE;
+        private long counter;
+    }
+}
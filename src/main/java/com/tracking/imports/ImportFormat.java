@@ -0,0 +1,35 @@
+package com.tracking.imports;
+
+import java.util.Locale;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * File formats accepted by the bulk import.
+ */
+public enum ImportFormat {
+
+    /**
+     * RFC 4180 CSV with a header row naming the columns, as written by the
+     * customer export.
+     */
+    CSV,
+
+    /**
+     * One JSON object per line, keyed by column name.
+     */
+    NDJSON;
+
+    /**
+     * @param value a request parameter such as {@code csv}
+     * @return the format, or null if the value names no format
+     */
+    @Nullable
+    public static ImportFormat fromParameter(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
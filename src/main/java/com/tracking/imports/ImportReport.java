@@ -0,0 +1,66 @@
+package com.tracking.imports;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Outcome of a bulk import, including chunks loaded by earlier runs of the
+ * same import.
+ *
+ * @param importId the import ID
+ * @param records number of records in the file, excluding the CSV header
+ * @param loadedRows number of rows inserted into {@code tracking_numbers}
+ * @param duplicateRows number of valid rows skipped because their tracking number was already stored
+ * @param invalidRows number of rows rejected by validation
+ * @param resumedChunks number of chunks skipped because an earlier run loaded them
+ * @param elapsedMillis duration of this run
+ * @param rowsPerSecond records processed by this run per second
+ * @param errors the first invalid rows of this run
+ */
+public record ImportReport(
+
+    @JsonProperty("import_id")
+    String importId,
+
+    @JsonProperty("records")
+    long records,
+
+    @JsonProperty("loaded_rows")
+    long loadedRows,
+
+    @JsonProperty("duplicate_rows")
+    long duplicateRows,
+
+    @JsonProperty("invalid_rows")
+    long invalidRows,
+
+    @JsonProperty("resumed_chunks")
+    long resumedChunks,
+
+    @JsonProperty("elapsed_ms")
+    long elapsedMillis,
+
+    @JsonProperty("rows_per_second")
+    long rowsPerSecond,
+
+    @JsonProperty("errors")
+    List<ImportError> errors
+) {
+
+    /**
+     * A rejected row.
+     *
+     * @param record the 1-based record number, not counting the CSV header
+     * @param message why the row was rejected
+     */
+    public record ImportError(
+
+        @JsonProperty("record")
+        long record,
+
+        @JsonProperty("message")
+        String message
+    ) {
+    }
+}
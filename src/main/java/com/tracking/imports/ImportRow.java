@@ -0,0 +1,22 @@
+package com.tracking.imports;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A validated tracking number row read from an import file.
+ */
+record ImportRow(
+    String trackingNumber,
+    String originCountryId,
+    String destinationCountryId,
+    double weight,
+    UUID customerId,
+    String customerName,
+    String customerSlug,
+    @Nullable UUID requestId,
+    OffsetDateTime createdAt
+) {
+}
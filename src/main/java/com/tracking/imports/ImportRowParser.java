@@ -0,0 +1,224 @@
+package com.tracking.imports;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.lang.Nullable;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.validation.RequestFieldParser;
+import com.tracking.validation.TrackingNumberValidator;
+
+/**
+ * Parses and validates one record of an import file.
+ *
+ * Rows are held to the same rules as generation requests, and tracking
+ * numbers must match {@code ^[A-Z0-9]{8,16}$}; check characters are not
+ * required, since legacy numbers do not carry them. Instances are
+ * immutable and shared by the validation threads.
+ */
+abstract class ImportRowParser {
+
+    static final String TRACKING_NUMBER = "tracking_number";
+    static final String ORIGIN_COUNTRY_ID = "origin_country_id";
+    static final String DESTINATION_COUNTRY_ID = "destination_country_id";
+    static final String WEIGHT = "weight";
+    static final String CUSTOMER_ID = "customer_id";
+    static final String CUSTOMER_NAME = "customer_name";
+    static final String CUSTOMER_SLUG = "customer_slug";
+    static final String REQUEST_ID = "request_id";
+    static final String CREATED_AT = "created_at";
+
+    private static final List<String> REQUIRED_COLUMNS = List.of(TRACKING_NUMBER, ORIGIN_COUNTRY_ID,
+            DESTINATION_COUNTRY_ID, WEIGHT, CUSTOMER_ID, CUSTOMER_NAME, CUSTOMER_SLUG, CREATED_AT);
+
+    /**
+     * @param record one record of the file, without its line terminator
+     * @return the validated row
+     * @throws InvalidRowException if the record cannot be parsed or fails validation
+     */
+    abstract ImportRow parse(String record) throws InvalidRowException;
+
+    /**
+     * @param header the header record naming the columns, in any order
+     * @return a parser for the records following the header
+     * @throws InvalidImportException if a required column is missing
+     */
+    static ImportRowParser csv(String header) {
+        List<String> names;
+        try {
+            names = splitCsv(header);
+        } catch (InvalidRowException e) {
+            throw new InvalidImportException("Malformed CSV header: " + e.getMessage());
+        }
+        int[] columns = new int[REQUIRED_COLUMNS.size() + 1];
+        for (int i = 0; i < REQUIRED_COLUMNS.size(); i++) {
+            columns[i] = names.indexOf(REQUIRED_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new InvalidImportException("CSV header lacks the " + REQUIRED_COLUMNS.get(i) + " column");
+            }
+        }
+        columns[REQUIRED_COLUMNS.size()] = names.indexOf(REQUEST_ID);
+        return new CsvParser(columns, names.size());
+    }
+
+    /**
+     * @param objectMapper the mapper reading each line
+     * @return a parser for lines holding one JSON object each
+     */
+    static ImportRowParser ndjson(ObjectMapper objectMapper) {
+        return new NdjsonParser(objectMapper);
+    }
+
+    static ImportRow validate(String trackingNumber, String originCountryId, String destinationCountryId,
+                              String weight, String customerId, String customerName, String customerSlug,
+                              @Nullable String requestId, String createdAt) throws InvalidRowException {
+        if (!TrackingNumberValidator.isWellFormed(trackingNumber, false)) {
+            throw new InvalidRowException("Tracking number must match ^[A-Z0-9]{8,16}$");
+        }
+        double parsedWeight;
+        try {
+            parsedWeight = Double.parseDouble(weight);
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new InvalidRowException("Weight must be a number");
+        }
+        RequestFieldParser.Violation violation = RequestFieldParser.validate(originCountryId, destinationCountryId,
+                parsedWeight, customerName, customerSlug);
+        if (violation != null) {
+            throw new InvalidRowException(violation.message());
+        }
+        UUID parsedCustomerId = parseUuid(customerId, "Customer ID");
+        UUID parsedRequestId = requestId == null || requestId.isEmpty() ? null : parseUuid(requestId, "Request ID");
+        OffsetDateTime parsedCreatedAt = RequestFieldParser.parseTimestamp(createdAt);
+        if (parsedCreatedAt == null) {
+            throw new InvalidRowException("Created at must be an RFC 3339 timestamp");
+        }
+        return new ImportRow(trackingNumber, originCountryId, destinationCountryId, parsedWeight, parsedCustomerId,
+                customerName, customerSlug, parsedRequestId, parsedCreatedAt);
+    }
+
+    /**
+     * Splits an RFC 4180 record into its fields.
+     */
+    static List<String> splitCsv(String record) throws InvalidRowException {
+        List<String> fields = new ArrayList<>(10);
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        int length = record.length();
+        while (true) {
+            if (i < length && record.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= length) {
+                        throw new InvalidRowException("Unterminated quoted field");
+                    }
+                    char c = record.charAt(i++);
+                    if (c == '"') {
+                        if (i < length && record.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (i < length && record.charAt(i) != ',') {
+                    throw new InvalidRowException("Unexpected character after quoted field");
+                }
+            } else {
+                int end = record.indexOf(',', i);
+                if (end < 0) {
+                    end = length;
+                }
+                field.append(record, i, end);
+                i = end;
+            }
+            fields.add(field.toString());
+            field.setLength(0);
+            if (i >= length) {
+                return fields;
+            }
+            i++;
+        }
+    }
+
+    private static UUID parseUuid(String value, String name) throws InvalidRowException {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new InvalidRowException(name + " must be a valid UUID");
+        }
+    }
+
+    private static final class CsvParser extends ImportRowParser {
+
+        private final int[] columns;
+        private final int fieldCount;
+
+        CsvParser(int[] columns, int fieldCount) {
+            this.columns = Arrays.copyOf(columns, columns.length);
+            this.fieldCount = fieldCount;
+        }
+
+        @Override
+        ImportRow parse(String record) throws InvalidRowException {
+            List<String> fields = splitCsv(record);
+            if (fields.size() != fieldCount) {
+                throw new InvalidRowException("Expected " + fieldCount + " fields but found " + fields.size());
+            }
+            return validate(fields.get(columns[0]), fields.get(columns[1]), fields.get(columns[2]),
+                    fields.get(columns[3]), fields.get(columns[4]), fields.get(columns[5]), fields.get(columns[6]),
+                    columns[8] < 0 ? null : fields.get(columns[8]), fields.get(columns[7]));
+        }
+    }
+
+    private static final class NdjsonParser extends ImportRowParser {
+
+        private final ObjectMapper objectMapper;
+
+        NdjsonParser(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        ImportRow parse(String record) throws InvalidRowException {
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(record);
+            } catch (JsonProcessingException e) {
+                throw new InvalidRowException("Malformed JSON: " + e.getOriginalMessage());
+            }
+            if (node == null || !node.isObject()) {
+                throw new InvalidRowException("Expected a JSON object");
+            }
+            return validate(text(node, TRACKING_NUMBER), text(node, ORIGIN_COUNTRY_ID),
+                    text(node, DESTINATION_COUNTRY_ID), text(node, WEIGHT), text(node, CUSTOMER_ID),
+                    text(node, CUSTOMER_NAME), text(node, CUSTOMER_SLUG), text(node, REQUEST_ID),
+                    text(node, CREATED_AT));
+        }
+
+        @Nullable
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+    }
+
+    /**
+     * A record that cannot be imported. Thrown per row, so it carries no
+     * stack trace.
+     */
+    static final class InvalidRowException extends Exception {
+
+        InvalidRowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
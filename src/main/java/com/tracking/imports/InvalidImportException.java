@@ -0,0 +1,13 @@
+package com.tracking.imports;
+
+/**
+ * Thrown when an import cannot start, for example because the CSV header
+ * lacks a required column. Invalid rows do not throw; they are counted and
+ * reported.
+ */
+public class InvalidImportException extends RuntimeException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
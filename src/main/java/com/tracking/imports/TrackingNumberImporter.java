@@ -0,0 +1,552 @@
+package com.tracking.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.archive.ColdArchive;
+import com.tracking.customer.CustomerCache;
+import com.tracking.repository.MappedTrackingNumberSet;
+import com.tracking.service.KeyspaceOccupancyTracker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Loads tracking numbers from a CSV or NDJSON stream straight into
+ * {@code tracking_numbers}, bypassing the repository.
+ *
+ * The calling thread reads the stream and cuts it into chunks of
+ * {@code app.import.chunk-size} records. Each chunk is parsed and
+ * validated on a fork-join pool and loaded on one of
+ * {@code app.import.connections} loader threads, each with its own
+ * connection: with PostgreSQL {@code COPY}, otherwise with batched
+ * multi-row inserts. At most two chunks per loader are held in memory, so
+ * reading waits for slow loaders.
+ *
+ * The customers of a chunk are stored through the {@link CustomerCache}
+ * first. The chunk is then loaded in one transaction together with its
+ * row in {@code import_checkpoints}. Running an import again with the
+ * same ID and file skips the chunks already loaded, so an interrupted
+ * import resumes where it stopped. Rows whose tracking number is already stored,
+ * in the table or in the cold archive, are counted as duplicates and
+ * skipped; invalid rows are counted and the first of them reported.
+ *
+ * Loaded numbers are added to the keyspace occupancy counts, and to the
+ * memory-mapped uniqueness set when it is enabled, so that they are not
+ * issued again.
+ */
+@Component
+public class TrackingNumberImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingNumberImporter.class);
+
+    private static final String COLUMNS = "tracking_number, origin_country_id, destination_country_id, weight, "
+            + "customer_id, request_id, created_at, updated_at";
+    private static final String COPY_SQL = "COPY tracking_numbers (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+    private static final String INSERT_SQL = "INSERT INTO tracking_numbers (" + COLUMNS + ") VALUES ";
+    private static final String INSERT_VALUES = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String CHECKPOINTS_SQL = "SELECT chunk, chunk_size, loaded_rows, duplicate_rows, "
+            + "invalid_rows FROM import_checkpoints WHERE import_id = ?";
+    private static final String CHECKPOINT_SQL = "INSERT INTO import_checkpoints (import_id, chunk, chunk_size, "
+            + "loaded_rows, duplicate_rows, invalid_rows, committed_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String CHECKPOINTED_SQL =
+            "SELECT COUNT(*) FROM import_checkpoints WHERE import_id = ? AND chunk = ?";
+    private static final int ROWS_PER_INSERT = 100;
+    private static final int EXISTING_QUERY_SIZE = 500;
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final KeyspaceOccupancyTracker keyspaceTracker;
+    private final CustomerCache customerCache;
+    private final MappedTrackingNumberSet trackingNumberSet;
+    private final ColdArchive coldArchive;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int connections;
+    private final int validationParallelism;
+    private final long progressIntervalMillis;
+    private final Semaphore permits;
+    private final AtomicInteger activeImports = new AtomicInteger();
+    private final Counter loadedCounter;
+    private final Counter duplicateCounter;
+    private final Counter invalidCounter;
+    private final Counter rejectionCounter;
+
+    public TrackingNumberImporter(DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  KeyspaceOccupancyTracker keyspaceTracker,
+                                  CustomerCache customerCache,
+                                  @Nullable MappedTrackingNumberSet trackingNumberSet,
+                                  @Nullable ColdArchive coldArchive,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.import.chunk-size:10000}") int chunkSize,
+                                  @Value("${app.import.connections:4}") int connections,
+                                  @Value("${app.import.validation-parallelism:0}") int validationParallelism,
+                                  @Value("${app.import.max-concurrent:1}") int maxConcurrent,
+                                  @Value("${app.import.progress-interval-ms:10000}") long progressIntervalMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionOperations = new TransactionTemplate(transactionManager);
+        this.keyspaceTracker = keyspaceTracker;
+        this.customerCache = customerCache;
+        this.trackingNumberSet = trackingNumberSet;
+        this.coldArchive = coldArchive;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.connections = connections;
+        this.validationParallelism = validationParallelism > 0
+                ? validationParallelism : Runtime.getRuntime().availableProcessors();
+        this.progressIntervalMillis = progressIntervalMillis;
+        this.permits = new Semaphore(maxConcurrent);
+        this.loadedCounter = rowCounter(meterRegistry, "loaded");
+        this.duplicateCounter = rowCounter(meterRegistry, "duplicate");
+        this.invalidCounter = rowCounter(meterRegistry, "invalid");
+        this.rejectionCounter = Counter.builder("tracking.import.rejections")
+                .description("Total number of imports rejected because too many were running")
+                .register(meterRegistry);
+        Gauge.builder("tracking.import.active", activeImports, AtomicInteger::get)
+                .description("Number of imports currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imports all records of a stream, skipping chunks loaded by an earlier
+     * run of the same import.
+     *
+     * @param importId identifies the import across runs; the same file must be passed to every run
+     * @param format the format of the stream
+     * @param in the stream to read; not closed
+     * @return the outcome, or null if too many imports are running
+     * @throws IOException if reading the stream failed
+     * @throws InvalidImportException if the CSV header lacks a required column
+     * @throws org.springframework.dao.DataAccessException if loading a chunk failed; the import can be resumed
+     */
+    @Nullable
+    public ImportReport importRows(String importId, ImportFormat format, InputStream in) throws IOException {
+        if (!permits.tryAcquire()) {
+            rejectionCounter.increment();
+            return null;
+        }
+        activeImports.incrementAndGet();
+        try {
+            return run(importId, format, in);
+        } finally {
+            activeImports.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private ImportReport run(String importId, ImportFormat format, InputStream in) throws IOException {
+        Run run = new Run(importId);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        ImportRowParser parser;
+        if (format == ImportFormat.CSV) {
+            String header = nextRecord(reader, format);
+            if (header == null) {
+                throw new InvalidImportException("CSV stream has no header");
+            }
+            parser = ImportRowParser.csv(header);
+        } else {
+            parser = ImportRowParser.ndjson(objectMapper);
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("import-");
+        threadFactory.setDaemon(true);
+        ExecutorService loaders = Executors.newFixedThreadPool(connections, threadFactory);
+        ForkJoinPool validationPool = new ForkJoinPool(validationParallelism);
+        Semaphore inFlight = new Semaphore(connections * 2);
+        try {
+            long chunk = 0;
+            List<String> records = new ArrayList<>();
+            String record;
+            while ((record = nextRecord(reader, format)) != null) {
+                run.records++;
+                if (!run.committed.contains(chunk)) {
+                    records.add(record);
+                }
+                if (run.records % run.chunkSize == 0) {
+                    submit(run, parser, chunk++, records, loaders, validationPool, inFlight);
+                    records = new ArrayList<>();
+                }
+            }
+            if (run.records % run.chunkSize != 0) {
+                submit(run, parser, chunk, records, loaders, validationPool, inFlight);
+            }
+            loaders.shutdown();
+            loaders.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing " + importId, e);
+        } finally {
+            loaders.shutdownNow();
+            validationPool.shutdownNow();
+        }
+        run.throwIfFailed();
+        ImportReport report = run.report();
+        logger.info("Import {} finished: {} records, {} loaded, {} duplicates, {} invalid, {} rows/s",
+                importId, report.records(), report.loadedRows(), report.duplicateRows(), report.invalidRows(),
+                report.rowsPerSecond());
+        return report;
+    }
+
+    private void submit(Run run, ImportRowParser parser, long chunk, List<String> records, ExecutorService loaders,
+                        ForkJoinPool validationPool, Semaphore inFlight) throws InterruptedException {
+        run.throwIfFailed();
+        if (run.committed.contains(chunk)) {
+            return;
+        }
+        long firstRecord = chunk * run.chunkSize + 1;
+        inFlight.acquire();
+        loaders.execute(() -> {
+            try {
+                loadChunk(run, parser, chunk, firstRecord, records, validationPool);
+            } catch (RuntimeException e) {
+                run.failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void loadChunk(Run run, ImportRowParser parser, long chunk, long firstRecord, List<String> records,
+                           ForkJoinPool validationPool) {
+        String[] raw = records.toArray(String[]::new);
+        ImportRow[] parsed = new ImportRow[raw.length];
+        String[] errors = new String[raw.length];
+        validationPool.invoke(new ValidationTask(parser, raw, parsed, errors, 0, raw.length));
+
+        List<ImportRow> rows = new ArrayList<>(raw.length);
+        Set<String> seen = new HashSet<>(raw.length * 2);
+        int invalid = 0;
+        int duplicates = 0;
+        for (int i = 0; i < raw.length; i++) {
+            if (errors[i] != null) {
+                invalid++;
+                run.reportError(firstRecord + i, errors[i]);
+            } else if (!seen.add(parsed[i].trackingNumber())
+                    || (coldArchive != null && coldArchive.contains(parsed[i].trackingNumber()))) {
+                duplicates++;
+            } else {
+                rows.add(parsed[i]);
+            }
+        }
+
+        storeCustomers(rows);
+        for (int attempt = 1; ; attempt++) {
+            List<ImportRow> loading = rows;
+            int loadingDuplicates = duplicates;
+            int loadingInvalid = invalid;
+            try {
+                transactionOperations.executeWithoutResult(status -> {
+                    jdbcTemplate.update(CHECKPOINT_SQL, run.importId, chunk, run.chunkSize, loading.size(),
+                            loadingDuplicates, loadingInvalid, OffsetDateTime.now());
+                    load(loading);
+                });
+                break;
+            } catch (DuplicateKeyException e) {
+                if (isCheckpointed(run.importId, chunk)) {
+                    // Loaded concurrently by another run of the same import
+                    return;
+                }
+                if (attempt == MAX_LOAD_ATTEMPTS) {
+                    throw e;
+                }
+                // The conflicting row may belong to a transaction that has not committed yet
+                pause(attempt * RETRY_BACKOFF_MILLIS);
+                rows = withoutStored(rows);
+                duplicates += loading.size() - rows.size();
+            }
+        }
+
+        Map<Integer, Long> loadedByLength = new HashMap<>();
+        for (ImportRow row : rows) {
+            loadedByLength.merge(row.trackingNumber().length(), 1L, Long::sum);
+            if (trackingNumberSet != null) {
+                trackingNumberSet.add(row.trackingNumber());
+            }
+        }
+        keyspaceTracker.seed(loadedByLength);
+        loadedCounter.increment(rows.size());
+        duplicateCounter.increment(duplicates);
+        invalidCounter.increment(invalid);
+        run.recordChunk(rows.size(), duplicates, invalid);
+    }
+
+    /**
+     * Stores the customers of a chunk, each with the name and slug of its
+     * latest row in the chunk.
+     */
+    private void storeCustomers(List<ImportRow> rows) {
+        Map<UUID, ImportRow> latest = new HashMap<>();
+        for (ImportRow row : rows) {
+            latest.merge(row.customerId(), row,
+                    (current, candidate) -> candidate.createdAt().isAfter(current.createdAt()) ? candidate : current);
+        }
+        for (ImportRow row : latest.values()) {
+            customerCache.store(row.customerId(), row.customerName(), row.customerSlug());
+        }
+    }
+
+    private void load(List<ImportRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                copy(connection.unwrap(PGConnection.class), rows);
+            } else {
+                insert(connection, rows);
+            }
+            return null;
+        });
+    }
+
+    private static void copy(PGConnection connection, List<ImportRow> rows) throws SQLException {
+        StringBuilder csv = new StringBuilder(rows.size() * 128);
+        for (ImportRow row : rows) {
+            String createdAt = row.createdAt().toString();
+            csv.append(row.trackingNumber()).append(',')
+                    .append(row.originCountryId()).append(',')
+                    .append(row.destinationCountryId()).append(',')
+                    .append(row.weight()).append(',')
+                    .append(row.customerId()).append(',');
+            if (row.requestId() != null) {
+                csv.append(row.requestId());
+            }
+            csv.append(',').append(createdAt).append(',').append(createdAt).append('\n');
+        }
+        try {
+            connection.getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void insert(Connection connection, List<ImportRow> rows) throws SQLException {
+        int full = rows.size() / ROWS_PER_INSERT;
+        if (full > 0) {
+            try (PreparedStatement statement = connection.prepareStatement(insertSql(ROWS_PER_INSERT))) {
+                for (int i = 0; i < full; i++) {
+                    bind(statement, rows.subList(i * ROWS_PER_INSERT, (i + 1) * ROWS_PER_INSERT));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        }
+        List<ImportRow> remainder = rows.subList(full * ROWS_PER_INSERT, rows.size());
+        if (!remainder.isEmpty()) {
+            try (PreparedStatement statement = connection.prepareStatement(insertSql(remainder.size()))) {
+                bind(statement, remainder);
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_SQL);
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append(INSERT_VALUES);
+        }
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement statement, List<ImportRow> rows) throws SQLException {
+        int index = 1;
+        for (ImportRow row : rows) {
+            statement.setString(index++, row.trackingNumber());
+            statement.setString(index++, row.originCountryId());
+            statement.setString(index++, row.destinationCountryId());
+            statement.setDouble(index++, row.weight());
+            statement.setObject(index++, row.customerId());
+            statement.setObject(index++, row.requestId());
+            statement.setObject(index++, row.createdAt());
+            statement.setObject(index++, row.createdAt());
+        }
+    }
+
+    private List<ImportRow> withoutStored(List<ImportRow> rows) {
+        Set<String> stored = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += EXISTING_QUERY_SIZE) {
+            List<ImportRow> batch = rows.subList(from, Math.min(rows.size(), from + EXISTING_QUERY_SIZE));
+            String sql = "SELECT tracking_number FROM tracking_numbers WHERE tracking_number IN ("
+                    + String.join(", ", Collections.nCopies(batch.size(), "?")) + ")";
+            stored.addAll(jdbcTemplate.queryForList(sql, String.class,
+                    batch.stream().map(ImportRow::trackingNumber).toArray()));
+        }
+        return rows.stream().filter(row -> !stored.contains(row.trackingNumber())).toList();
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading a chunk", e);
+        }
+    }
+
+    private boolean isCheckpointed(String importId, long chunk) {
+        Integer count = jdbcTemplate.queryForObject(CHECKPOINTED_SQL, Integer.class, importId, chunk);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Reads the next record: a line, or for CSV several lines while a quoted
+     * field spans line breaks. Blank lines are skipped.
+     */
+    @Nullable
+    private static String nextRecord(BufferedReader reader, ImportFormat format) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isBlank());
+        if (line == null || format != ImportFormat.CSV || quoteCount(line) % 2 == 0) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        int quotes = quoteCount(line);
+        while (quotes % 2 != 0 && (line = reader.readLine()) != null) {
+            record.append('\n').append(line);
+            quotes += quoteCount(line);
+        }
+        return record.toString();
+    }
+
+    private static int quoteCount(String line) {
+        int quotes = 0;
+        for (int i = line.indexOf('"'); i >= 0; i = line.indexOf('"', i + 1)) {
+            quotes++;
+        }
+        return quotes;
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("tracking.import.rows")
+                .description("Total number of imported rows by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * State of one import run, shared by the reading thread and the loaders.
+     */
+    private final class Run {
+
+        final String importId;
+        final Set<Long> committed = new HashSet<>();
+        final int chunkSize;
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        final long started = System.nanoTime();
+        final AtomicLong loaded = new AtomicLong();
+        final AtomicLong duplicates = new AtomicLong();
+        final AtomicLong invalid = new AtomicLong();
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong lastProgress = new AtomicLong(started);
+        final List<ImportReport.ImportError> errors = Collections.synchronizedList(new ArrayList<>());
+        long records;
+
+        Run(String importId) {
+            this.importId = importId;
+            int[] size = {TrackingNumberImporter.this.chunkSize};
+            jdbcTemplate.query(CHECKPOINTS_SQL, rs -> {
+                committed.add(rs.getLong("chunk"));
+                size[0] = rs.getInt("chunk_size");
+                loaded.addAndGet(rs.getInt("loaded_rows"));
+                duplicates.addAndGet(rs.getInt("duplicate_rows"));
+                invalid.addAndGet(rs.getInt("invalid_rows"));
+            }, importId);
+            this.chunkSize = size[0];
+            if (!committed.isEmpty()) {
+                logger.info("Resuming import {}: skipping {} chunks of {} records", importId, committed.size(),
+                        chunkSize);
+            }
+        }
+
+        void reportError(long record, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.ImportError(record, message));
+            }
+        }
+
+        void recordChunk(int chunkLoaded, int chunkDuplicates, int chunkInvalid) {
+            loaded.addAndGet(chunkLoaded);
+            duplicates.addAndGet(chunkDuplicates);
+            invalid.addAndGet(chunkInvalid);
+            long total = processed.addAndGet(chunkLoaded + chunkDuplicates + chunkInvalid);
+            long now = System.nanoTime();
+            long last = lastProgress.get();
+            if (now - last >= TimeUnit.MILLISECONDS.toNanos(progressIntervalMillis)
+                    && lastProgress.compareAndSet(last, now)) {
+                logger.info("Import {}: {} records processed, {} loaded, {} rows/s", importId, total, loaded.get(),
+                        rowsPerSecond(total, now));
+            }
+        }
+
+        void throwIfFailed() {
+            RuntimeException e = failure.get();
+            if (e != null) {
+                throw e;
+            }
+        }
+
+        ImportReport report() {
+            long now = System.nanoTime();
+            List<ImportReport.ImportError> sorted = new ArrayList<>(errors);
+            sorted.sort((a, b) -> Long.compare(a.record(), b.record()));
+            return new ImportReport(importId, records, loaded.get(), duplicates.get(), invalid.get(),
+                    committed.size(), TimeUnit.NANOSECONDS.toMillis(now - started),
+                    rowsPerSecond(processed.get(), now), sorted);
+        }
+
+        private long rowsPerSecond(long rows, long now) {
+            return (long) (rows * 1e9 / Math.max(1, now - started));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.tracking.imports;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses and validates a range of records, splitting it in halves on the
+ * fork-join pool until ranges are small enough to run sequentially.
+ *
+ * Results are written to the slot of each record: the row if it is valid,
+ * otherwise the reason it was rejected.
+ */
+final class ValidationTask extends RecursiveAction {
+
+    private static final int SEQUENTIAL_THRESHOLD = 512;
+
+    private final ImportRowParser parser;
+    private final String[] records;
+    private final ImportRow[] rows;
+    private final String[] errors;
+    private final int from;
+    private final int to;
+
+    ValidationTask(ImportRowParser parser, String[] records, ImportRow[] rows, String[] errors, int from, int to) {
+        this.parser = parser;
+        this.records = records;
+        this.rows = rows;
+        this.errors = errors;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= SEQUENTIAL_THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                try {
+                    rows[i] = parser.parse(records[i]);
+                } catch (ImportRowParser.InvalidRowException e) {
+                    errors[i] = e.getMessage();
+                }
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new ValidationTask(parser, records, rows, errors, from, middle),
+                new ValidationTask(parser, records, rows, errors, middle, to));
+    }
+}
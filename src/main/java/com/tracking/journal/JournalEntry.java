@@ -0,0 +1,86 @@
+package com.tracking.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * An issued tracking number as recorded in the journal.
+ *
+ * Mirrors the columns of {@code tracking_numbers}. The binary encoding is
+ * length-prefixed and bounded by {@link #MAX_ENCODED_LENGTH}, so a record
+ * always fits in a fixed-size scratch buffer.
+ */
+public record JournalEntry(
+    String trackingNumber,
+    String originCountryId,
+    String destinationCountryId,
+    double weight,
+    UUID customerId,
+    String customerName,
+    String customerSlug,
+    UUID requestId,
+    OffsetDateTime createdAt
+) {
+
+    /**
+     * Upper bound of {@link #encode} output: a 255-character name in 3-byte
+     * UTF-8, a 100-character slug, a 16-character tracking number and the
+     * fixed-width fields.
+     */
+    public static final int MAX_ENCODED_LENGTH = 1024;
+
+    /**
+     * Writes the binary encoding of this entry at the buffer's position.
+     *
+     * @param buffer the buffer to write to
+     */
+    public void encode(ByteBuffer buffer) {
+        byte[] trackingNumberBytes = trackingNumber.getBytes(StandardCharsets.US_ASCII);
+        buffer.put((byte) trackingNumberBytes.length).put(trackingNumberBytes);
+        buffer.put(originCountryId.getBytes(StandardCharsets.US_ASCII));
+        buffer.put(destinationCountryId.getBytes(StandardCharsets.US_ASCII));
+        buffer.putDouble(weight);
+        buffer.putLong(customerId.getMostSignificantBits()).putLong(customerId.getLeastSignificantBits());
+        byte[] nameBytes = customerName.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) nameBytes.length).put(nameBytes);
+        byte[] slugBytes = customerSlug.getBytes(StandardCharsets.US_ASCII);
+        buffer.put((byte) slugBytes.length).put(slugBytes);
+        buffer.putLong(requestId.getMostSignificantBits()).putLong(requestId.getLeastSignificantBits());
+        buffer.putLong(createdAt.toEpochSecond());
+        buffer.putInt(createdAt.getNano());
+        buffer.putInt(createdAt.getOffset().getTotalSeconds());
+    }
+
+    /**
+     * Reads an entry written by {@link #encode} from the buffer's position.
+     *
+     * @param buffer the buffer to read from
+     * @return the decoded entry
+     */
+    public static JournalEntry decode(ByteBuffer buffer) {
+        String trackingNumber = readString(buffer, buffer.get() & 0xFF, false);
+        String originCountryId = readString(buffer, 2, false);
+        String destinationCountryId = readString(buffer, 2, false);
+        double weight = buffer.getDouble();
+        UUID customerId = new UUID(buffer.getLong(), buffer.getLong());
+        String customerName = readString(buffer, buffer.getShort() & 0xFFFF, true);
+        String customerSlug = readString(buffer, buffer.get() & 0xFF, false);
+        UUID requestId = new UUID(buffer.getLong(), buffer.getLong());
+        long epochSecond = buffer.getLong();
+        int nanos = buffer.getInt();
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(buffer.getInt());
+        OffsetDateTime createdAt = OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nanos), offset);
+        return new JournalEntry(trackingNumber, originCountryId, destinationCountryId, weight, customerId,
+                customerName, customerSlug, requestId, createdAt);
+    }
+
+    private static String readString(ByteBuffer buffer, int length, boolean utf8) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, utf8 ? StandardCharsets.UTF_8 : StandardCharsets.US_ASCII);
+    }
+}
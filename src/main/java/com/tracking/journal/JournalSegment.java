@@ -0,0 +1,77 @@
+package com.tracking.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One fixed-size, memory-mapped journal file.
+ *
+ * Files are named after their zero-padded sequence number so that
+ * lexicographic and numeric order agree. A new segment is zero-filled,
+ * which doubles as the end-of-records marker.
+ */
+final class JournalSegment {
+
+    private static final String SUFFIX = ".journal";
+
+    private final long id;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(long id, Path path, MappedByteBuffer buffer) {
+        this.id = id;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path directory, long id, int size) throws IOException {
+        Path path = directory.resolve(fileName(id));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new JournalSegment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    static JournalSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new JournalSegment(idOf(path), path, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(SUFFIX) && name.length() == 20 + SUFFIX.length();
+    }
+
+    static long idOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static String fileName(long id) {
+        return String.format("%020d%s", id, SUFFIX);
+    }
+
+    long id() {
+        return id;
+    }
+
+    int size() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Returns the shared mapping; callers must not change its position or limit.
+     */
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,213 @@
+package com.tracking.journal;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.tracking.customer.CustomerCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Drains the {@link TrackingNumberJournal} to {@code tracking_numbers}.
+ *
+ * A single background thread reads batches after the journal checkpoint,
+ * stores their customers through the {@link CustomerCache}, inserts each
+ * batch in one JDBC batch and transaction, and commits the
+ * checkpoint once the transaction has committed. While the database is
+ * unreachable the journal is marked unavailable and shipping is retried
+ * after a backoff.
+ *
+ * Entries replayed after a crash may already be stored; a batch failing on
+ * a unique constraint is therefore retried row by row, skipping rows whose
+ * tracking number is already stored under the same request id. A tracking
+ * number stored under a different request id was issued twice while the
+ * database was unreachable; it is counted and logged rather than shipped.
+ */
+@Component
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class JournalShipper implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalShipper.class);
+
+    private static final String INSERT_SQL = "INSERT INTO tracking_numbers (tracking_number, origin_country_id, "
+            + "destination_country_id, weight, customer_id, request_id, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SHIPPED_SQL =
+            "SELECT COUNT(*) FROM tracking_numbers WHERE tracking_number = ? AND request_id = ?";
+
+    private final TrackingNumberJournal journal;
+    private final CustomerCache customerCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final int batchSize;
+    private final long shipIntervalMillis;
+    private final long retryBackoffMillis;
+    private final Counter shippedCounter;
+    private final Counter failureCounter;
+    private final Counter conflictCounter;
+
+    private volatile boolean running;
+    private Thread shipperThread;
+
+    public JournalShipper(TrackingNumberJournal journal,
+                          CustomerCache customerCache,
+                          JdbcTemplate jdbcTemplate,
+                          TransactionOperations transactionOperations,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.journal.batch-size:500}") int batchSize,
+                          @Value("${app.journal.ship-interval-ms:100}") long shipIntervalMillis,
+                          @Value("${app.journal.retry-backoff-ms:1000}") long retryBackoffMillis) {
+        this.journal = journal;
+        this.customerCache = customerCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.batchSize = batchSize;
+        this.shipIntervalMillis = shipIntervalMillis;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.shippedCounter = Counter.builder("tracking.journal.shipped")
+                .description("Total number of journaled tracking numbers shipped to the database")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("tracking.journal.ship.failures")
+                .description("Total number of journal shipping attempts that failed on a database error")
+                .register(meterRegistry);
+        this.conflictCounter = Counter.builder("tracking.journal.conflicts")
+                .description("Total number of journaled tracking numbers already stored for a different request")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        shipperThread = new Thread(this::runShipLoop, "journal-shipper");
+        shipperThread.setDaemon(true);
+        shipperThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        shipperThread.interrupt();
+        try {
+            shipperThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Journal shipper stopped with {} unshipped entries", journal.lag());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Ships the next batch after the journal checkpoint.
+     *
+     * @return number of entries shipped
+     * @throws DataAccessException if the database could not be reached
+     */
+    int shipBatch() {
+        TrackingNumberJournal.Batch batch = journal.read(journal.checkpoint(), batchSize);
+        List<JournalEntry> entries = batch.entries();
+        if (entries.isEmpty()) {
+            if (!journal.isDatabaseAvailable()) {
+                // Nothing to ship; probe so request threads resume their database checks
+                jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                journal.markDatabaseAvailable(true);
+            }
+            return 0;
+        }
+        for (JournalEntry entry : entries) {
+            customerCache.store(entry.customerId(), entry.customerName(), entry.customerSlug());
+        }
+        try {
+            transactionOperations.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), this::bind));
+        } catch (DuplicateKeyException e) {
+            entries.forEach(this::shipIndividually);
+        } catch (DataIntegrityViolationException e) {
+            // A customer reference failed; store the batch's customers again on the retry
+            entries.forEach(entry -> customerCache.invalidate(entry.customerId()));
+            throw e;
+        }
+        journal.commit(batch);
+        journal.markDatabaseAvailable(true);
+        shippedCounter.increment(entries.size());
+        return entries.size();
+    }
+
+    private void shipIndividually(JournalEntry entry) {
+        try {
+            transactionOperations.executeWithoutResult(status ->
+                    jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, entry)));
+        } catch (DuplicateKeyException e) {
+            Integer shipped = jdbcTemplate.queryForObject(SHIPPED_SQL, Integer.class,
+                    entry.trackingNumber(), entry.requestId());
+            if (shipped == null || shipped == 0) {
+                conflictCounter.increment();
+                logger.error("Journaled tracking number {} for request {} is already stored for another request",
+                        entry.trackingNumber(), entry.requestId());
+            }
+        }
+    }
+
+    private void bind(PreparedStatement ps, JournalEntry entry) throws SQLException {
+        ps.setString(1, entry.trackingNumber());
+        ps.setString(2, entry.originCountryId());
+        ps.setString(3, entry.destinationCountryId());
+        ps.setDouble(4, entry.weight());
+        ps.setObject(5, entry.customerId());
+        ps.setObject(6, entry.requestId());
+        ps.setObject(7, entry.createdAt());
+        ps.setObject(8, entry.createdAt());
+    }
+
+    private void runShipLoop() {
+        while (running) {
+            long pause;
+            try {
+                pause = shipBatch() < batchSize ? shipIntervalMillis : 0;
+            } catch (DataAccessException | TransactionException e) {
+                failureCounter.increment();
+                journal.markDatabaseAvailable(false);
+                logger.warn("Unable to ship journal to the database, retrying in {} ms: {}",
+                        retryBackoffMillis, e.getMessage());
+                pause = retryBackoffMillis;
+            } catch (RuntimeException e) {
+                failureCounter.increment();
+                logger.error("Unexpected error while shipping journal", e);
+                pause = retryBackoffMillis;
+            }
+            if (pause > 0) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
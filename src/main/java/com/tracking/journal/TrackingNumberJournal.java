@@ -0,0 +1,359 @@
+package com.tracking.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Local write-ahead journal of issued tracking numbers.
+ *
+ * Records are appended to fixed-size memory-mapped segments as
+ * {@code int length | int CRC32C | payload}; a zero length marks the end of
+ * a segment. {@link JournalShipper} drains the journal to the database and
+ * {@link #commit commits} a checkpoint after each shipped batch, which lets
+ * fully shipped segments be deleted. On startup everything after the
+ * checkpoint is treated as unshipped and replayed; a torn or corrupted tail
+ * left by a crash is detected by its checksum and discarded.
+ *
+ * Appends are serialized; reads only see records below the published write
+ * position, so the shipper never blocks request threads.
+ */
+@Component
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class TrackingNumberJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingNumberJournal.class);
+
+    static final int RECORD_HEADER_LENGTH = 8;
+    private static final int MAX_RECORD_LENGTH = RECORD_HEADER_LENGTH + JournalEntry.MAX_ENCODED_LENGTH;
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int CHECKPOINT_LENGTH = 16;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean force;
+    private final ConcurrentSkipListMap<Long, JournalSegment> segments = new ConcurrentSkipListMap<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Counter appendCounter;
+
+    // Append state, guarded by this
+    private final ByteBuffer scratch = ByteBuffer.allocate(JournalEntry.MAX_ENCODED_LENGTH);
+    private final CRC32C crc = new CRC32C();
+    private JournalSegment activeSegment;
+    private int writeOffset;
+
+    private volatile Position writePosition;
+    private volatile Position checkpoint;
+    private volatile boolean databaseAvailable = true;
+
+    public TrackingNumberJournal(@Value("${app.journal.directory:./journal}") String directory,
+                                 @Value("${app.journal.segment-size-bytes:67108864}") int segmentSize,
+                                 @Value("${app.journal.force:false}") boolean force,
+                                 MeterRegistry meterRegistry) {
+        if (segmentSize < MAX_RECORD_LENGTH) {
+            throw new IllegalArgumentException("Journal segment size must be at least " + MAX_RECORD_LENGTH + " bytes");
+        }
+        this.directory = Path.of(directory);
+        this.segmentSize = segmentSize;
+        this.force = force;
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open tracking number journal in " + this.directory, e);
+        }
+        this.appendCounter = Counter.builder("tracking.journal.appends")
+                .description("Total number of tracking numbers appended to the local journal")
+                .register(meterRegistry);
+        Gauge.builder("tracking.journal.lag", pending, Set::size)
+                .description("Number of journaled tracking numbers not yet shipped to the database")
+                .register(meterRegistry);
+        Gauge.builder("tracking.journal.database.available", this, journal -> journal.databaseAvailable ? 1 : 0)
+                .description("Whether the journal currently considers the database reachable (1) or not (0)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appends an entry unless its tracking number is already waiting to be
+     * shipped.
+     *
+     * @param entry the entry to append
+     * @return true if the entry was appended, false if its tracking number is already pending
+     */
+    public synchronized boolean tryAppend(JournalEntry entry) {
+        if (!pending.add(entry.trackingNumber())) {
+            return false;
+        }
+        try {
+            append(entry);
+        } catch (RuntimeException e) {
+            pending.remove(entry.trackingNumber());
+            throw e;
+        }
+        appendCounter.increment();
+        return true;
+    }
+
+    private void append(JournalEntry entry) {
+        scratch.clear();
+        entry.encode(scratch);
+        scratch.flip();
+        int length = scratch.remaining();
+
+        if (writeOffset + RECORD_HEADER_LENGTH + length > activeSegment.size()) {
+            rotate();
+        }
+        crc.reset();
+        crc.update(scratch.duplicate());
+        ByteBuffer target = activeSegment.buffer();
+        int recordOffset = writeOffset;
+        target.put(recordOffset + RECORD_HEADER_LENGTH, scratch, 0, length);
+        target.putInt(recordOffset + 4, (int) crc.getValue());
+        target.putInt(recordOffset, length);
+        if (force) {
+            activeSegment.buffer().force(recordOffset, RECORD_HEADER_LENGTH + length);
+        }
+        writeOffset = recordOffset + RECORD_HEADER_LENGTH + length;
+        writePosition = new Position(activeSegment.id(), writeOffset);
+    }
+
+    /**
+     * Reads up to {@code maxEntries} entries starting at the given position.
+     *
+     * @param from the position to read from, usually the previous batch's {@link Batch#next()}
+     * @param maxEntries maximum number of entries to return
+     * @return the entries read and the position after them
+     */
+    public Batch read(Position from, int maxEntries) {
+        Position end = writePosition;
+        long segmentId = from.segmentId();
+        int offset = from.offset();
+        List<JournalEntry> entries = new ArrayList<>();
+        while (entries.size() < maxEntries && (segmentId < end.segmentId() || offset < end.offset())) {
+            JournalSegment segment = segments.get(segmentId);
+            int length = segment == null ? 0 : recordLengthAt(segment.buffer(), offset);
+            if (length <= 0) {
+                // End of a sealed segment
+                Long nextId = segments.higherKey(segmentId);
+                if (nextId == null) {
+                    break;
+                }
+                segmentId = nextId;
+                offset = 0;
+                continue;
+            }
+            entries.add(JournalEntry.decode(segment.buffer().slice(offset + RECORD_HEADER_LENGTH, length)));
+            offset += RECORD_HEADER_LENGTH + length;
+        }
+        return new Batch(entries, new Position(segmentId, offset));
+    }
+
+    /**
+     * Records that a batch has been shipped to the database. Called by the
+     * single shipper thread, so it does not contend with appends.
+     *
+     * @param batch the shipped batch
+     */
+    public void commit(Batch batch) {
+        writeCheckpoint(batch.next());
+        checkpoint = batch.next();
+        for (JournalEntry entry : batch.entries()) {
+            pending.remove(entry.trackingNumber());
+        }
+        for (Map.Entry<Long, JournalSegment> shipped : segments.headMap(batch.next().segmentId()).entrySet()) {
+            segments.remove(shipped.getKey());
+            try {
+                shipped.getValue().delete();
+            } catch (IOException e) {
+                logger.warn("Unable to delete shipped journal segment {}", shipped.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * @return the position after the last shipped entry
+     */
+    public Position checkpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * @param trackingNumber the tracking number to check
+     * @return true if the tracking number is journaled but not yet shipped
+     */
+    public boolean isPending(String trackingNumber) {
+        return pending.contains(trackingNumber);
+    }
+
+    /**
+     * @return number of journaled tracking numbers not yet shipped
+     */
+    public int lag() {
+        return pending.size();
+    }
+
+    public boolean isDatabaseAvailable() {
+        return databaseAvailable;
+    }
+
+    public void markDatabaseAvailable(boolean available) {
+        if (databaseAvailable != available) {
+            logger.warn("Database marked {} for journal shipping", available ? "available" : "unavailable");
+        }
+        databaseAvailable = available;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (activeSegment != null) {
+            activeSegment.buffer().force();
+        }
+    }
+
+    private void rotate() {
+        activeSegment.buffer().force();
+        try {
+            activeSegment = JournalSegment.create(directory, activeSegment.id() + 1, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create journal segment " + (activeSegment.id() + 1), e);
+        }
+        segments.put(activeSegment.id(), activeSegment);
+        writeOffset = 0;
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(JournalSegment::isSegment).toList()) {
+                JournalSegment segment = JournalSegment.open(path);
+                segments.put(segment.id(), segment);
+            }
+        }
+        Position start = readCheckpoint();
+        if (segments.isEmpty()) {
+            long id = start == null ? 0 : start.segmentId();
+            activeSegment = JournalSegment.create(directory, id, segmentSize);
+            segments.put(id, activeSegment);
+            start = new Position(id, 0);
+        } else if (start == null || !segments.containsKey(start.segmentId())) {
+            // Without a usable checkpoint replay everything; the shipper skips rows already stored
+            Long first = start == null ? null : segments.ceilingKey(start.segmentId());
+            start = new Position(first == null ? segments.firstKey() : first, 0);
+        }
+        checkpoint = start;
+        segments.headMap(start.segmentId()).values().forEach(segment -> {
+            try {
+                segment.delete();
+            } catch (IOException e) {
+                logger.warn("Unable to delete shipped journal segment {}", segment.id(), e);
+            }
+        });
+        segments.headMap(start.segmentId()).clear();
+
+        int replayed = 0;
+        for (JournalSegment segment : segments.values()) {
+            int offset = segment.id() == start.segmentId() ? start.offset() : 0;
+            int length;
+            while ((length = validRecordLengthAt(segment.buffer(), offset)) > 0) {
+                pending.add(JournalEntry.decode(segment.buffer().slice(offset + RECORD_HEADER_LENGTH, length))
+                        .trackingNumber());
+                offset += RECORD_HEADER_LENGTH + length;
+                replayed++;
+            }
+            activeSegment = segment;
+            writeOffset = offset;
+        }
+        // Discard a torn or corrupted tail so it cannot be mistaken for a record later
+        ByteBuffer tail = activeSegment.buffer();
+        int tailEnd = Math.min(writeOffset + MAX_RECORD_LENGTH, tail.capacity());
+        for (int i = writeOffset; i < tailEnd; i++) {
+            tail.put(i, (byte) 0);
+        }
+        writePosition = new Position(activeSegment.id(), writeOffset);
+        logger.info("Opened tracking number journal in {} with {} unshipped entries", directory, replayed);
+    }
+
+    private static int recordLengthAt(ByteBuffer buffer, int offset) {
+        return offset + RECORD_HEADER_LENGTH > buffer.capacity() ? 0 : buffer.getInt(offset);
+    }
+
+    private int validRecordLengthAt(ByteBuffer buffer, int offset) {
+        int length = recordLengthAt(buffer, offset);
+        if (length <= 0 || length > JournalEntry.MAX_ENCODED_LENGTH
+                || offset + RECORD_HEADER_LENGTH + length > buffer.capacity()) {
+            return 0;
+        }
+        crc.reset();
+        crc.update(buffer.slice(offset + RECORD_HEADER_LENGTH, length));
+        return (int) crc.getValue() == buffer.getInt(offset + 4) ? length : 0;
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.capacity() != CHECKPOINT_LENGTH) {
+            logger.warn("Ignoring malformed journal checkpoint {}", file);
+            return null;
+        }
+        crc.reset();
+        crc.update(buffer.slice(0, CHECKPOINT_LENGTH - 4));
+        if ((int) crc.getValue() != buffer.getInt(CHECKPOINT_LENGTH - 4)) {
+            logger.warn("Ignoring corrupted journal checkpoint {}", file);
+            return null;
+        }
+        return new Position(buffer.getLong(0), buffer.getInt(8));
+    }
+
+    private void writeCheckpoint(Position position) {
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_LENGTH);
+        buffer.putLong(position.segmentId()).putInt(position.offset());
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.array(), 0, CHECKPOINT_LENGTH - 4);
+        buffer.putInt((int) checksum.getValue());
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try {
+            Files.write(temp, buffer.array());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write journal checkpoint", e);
+        }
+    }
+
+    /**
+     * A position in the journal: a segment id and a byte offset within it.
+     */
+    public record Position(long segmentId, int offset) {
+    }
+
+    /**
+     * Entries read from the journal and the position after the last one.
+     */
+    public record Batch(List<JournalEntry> entries, Position next) {
+    }
+}
@@ -0,0 +1,226 @@
+package com.tracking.logging;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.tracking.domain.TrackingNumberRequest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Asynchronous, sampled log of the tracking number generation flow.
+ *
+ * Request threads only decide whether an event is sampled and enqueue it
+ * in a {@link BoundedMpscQueue}; a single background thread formats the
+ * events as {@code key=value} lines and writes them through SLF4J. Each
+ * event type has its own sample rate, so that for example only 1% of
+ * successes but every failure is logged. When the queue is full an event
+ * is dropped and counted in {@code tracking.log.dropped}, or, with the
+ * {@code block} overflow policy, the request thread waits until there is
+ * room. Events enqueued before shutdown are written when the log stops.
+ */
+@Component
+public class GenerationLog implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationLog.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Kind of generation event.
+     */
+    public enum EventType {
+        SUCCESS, COLLISION, INSERT_CONFLICT, FAILURE;
+
+        private final String tag = name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * What happens to an event when the queue is full.
+     */
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    private record Event(EventType type, @Nullable String trackingNumber, @Nullable UUID customerId,
+                         @Nullable String customerSlug, @Nullable UUID requestId, int attempt,
+                         @Nullable Throwable error) {
+    }
+
+    private final BoundedMpscQueue<Event> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final double[] sampleRates = new double[EventType.values().length];
+    private final Counter[] droppedCounters = new Counter[EventType.values().length];
+
+    private volatile boolean running;
+    private volatile Thread writerThread;
+
+    public GenerationLog(MeterRegistry meterRegistry,
+                         @Value("${app.logging.generation.queue-capacity:8192}") int queueCapacity,
+                         @Value("${app.logging.generation.overflow-policy:drop}") String overflowPolicy,
+                         @Value("${app.logging.generation.sample-rate.success:0.01}") double successRate,
+                         @Value("${app.logging.generation.sample-rate.collision:1.0}") double collisionRate,
+                         @Value("${app.logging.generation.sample-rate.insert-conflict:1.0}") double conflictRate,
+                         @Value("${app.logging.generation.sample-rate.failure:1.0}") double failureRate) {
+        this.queue = new BoundedMpscQueue<>(queueCapacity);
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.toUpperCase(Locale.ROOT));
+        sampleRates[EventType.SUCCESS.ordinal()] = successRate;
+        sampleRates[EventType.COLLISION.ordinal()] = collisionRate;
+        sampleRates[EventType.INSERT_CONFLICT.ordinal()] = conflictRate;
+        sampleRates[EventType.FAILURE.ordinal()] = failureRate;
+        for (EventType type : EventType.values()) {
+            droppedCounters[type.ordinal()] = Counter.builder("tracking.log.dropped")
+                    .description("Sampled generation log events dropped because the log queue was full")
+                    .tag("event", type.tag)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("tracking.log.queue.size", queue, BoundedMpscQueue::size)
+                .description("Generation log events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param request the generation request
+     * @param trackingNumber the issued tracking number
+     * @param requestId the request ID recorded with the tracking number
+     */
+    public void success(TrackingNumberRequest request, String trackingNumber, UUID requestId) {
+        if (sampled(EventType.SUCCESS)) {
+            enqueue(new Event(EventType.SUCCESS, trackingNumber, request.customerId(), request.customerSlug(),
+                    requestId, 0, null));
+        }
+    }
+
+    /**
+     * @param trackingNumber the candidate found to be issued already
+     * @param attempt the attempt that produced the candidate
+     */
+    public void collision(String trackingNumber, int attempt) {
+        if (sampled(EventType.COLLISION)) {
+            enqueue(new Event(EventType.COLLISION, trackingNumber, null, null, null, attempt, null));
+        }
+    }
+
+    /**
+     * @param trackingNumber the candidate inserted concurrently elsewhere
+     * @param attempt the insert attempt that was rejected
+     */
+    public void insertConflict(String trackingNumber, int attempt) {
+        if (sampled(EventType.INSERT_CONFLICT)) {
+            enqueue(new Event(EventType.INSERT_CONFLICT, trackingNumber, null, null, null, attempt, null));
+        }
+    }
+
+    /**
+     * @param request the generation request
+     * @param error why generation failed
+     */
+    public void failure(TrackingNumberRequest request, Throwable error) {
+        if (sampled(EventType.FAILURE)) {
+            enqueue(new Event(EventType.FAILURE, null, request.customerId(), request.customerSlug(), null, 0,
+                    error));
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runWriteLoop, "generation-log");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server and the request threads
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Writes all queued events on the calling thread.
+     *
+     * @return number of events written
+     */
+    int drain() {
+        int written = 0;
+        for (Event event = queue.poll(); event != null; event = queue.poll()) {
+            write(event);
+            written++;
+        }
+        return written;
+    }
+
+    private boolean sampled(EventType type) {
+        double rate = sampleRates[type.ordinal()];
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private void enqueue(Event event) {
+        while (!queue.offer(event)) {
+            if (overflowPolicy == OverflowPolicy.DROP || !running) {
+                droppedCounters[event.type().ordinal()].increment();
+                return;
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    private void runWriteLoop() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drain();
+    }
+
+    private static void write(Event event) {
+        switch (event.type()) {
+            case SUCCESS -> logger.info("event=generated tracking_number={} customer_id={} customer_slug={} "
+                    + "request_id={}", event.trackingNumber(), event.customerId(), event.customerSlug(),
+                    event.requestId());
+            case COLLISION -> logger.warn("event=collision tracking_number={} attempt={}",
+                    event.trackingNumber(), event.attempt());
+            case INSERT_CONFLICT -> logger.warn("event=insert_conflict tracking_number={} attempt={}",
+                    event.trackingNumber(), event.attempt());
+            case FAILURE -> logger.error("event=failed customer_id={} customer_slug={}",
+                    event.customerId(), event.customerSlug(), event.error());
+        }
+    }
+}
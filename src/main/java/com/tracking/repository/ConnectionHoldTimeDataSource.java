@@ -0,0 +1,103 @@
+package com.tracking.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Measures how long the current thread holds database connections.
+ *
+ * A caller brackets a unit of work with {@link #startMeasurement()} and
+ * {@link #stopMeasurement()}; every connection obtained in between is
+ * timed from checkout until it is closed (returned to the pool), and the
+ * times are summed. Threads without an active measurement get the target
+ * connection unchanged.
+ */
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<long[]> HOLD_NANOS = new ThreadLocal<>();
+
+    public ConnectionHoldTimeDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    /**
+     * Starts summing connection hold time on the current thread.
+     */
+    public static void startMeasurement() {
+        HOLD_NANOS.set(new long[1]);
+    }
+
+    /**
+     * Stops the measurement on the current thread.
+     *
+     * @return total nanoseconds connections were held since {@link #startMeasurement()}, or 0 if none was started
+     */
+    public static long stopMeasurement() {
+        long[] total = HOLD_NANOS.get();
+        HOLD_NANOS.remove();
+        return total == null ? 0 : total[0];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return measure(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return measure(super.getConnection(username, password));
+    }
+
+    private static Connection measure(Connection connection) {
+        long[] total = HOLD_NANOS.get();
+        if (total == null) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(ConnectionHoldTimeDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new HoldTimeHandler(connection, total));
+    }
+
+    private static final class HoldTimeHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final long[] total;
+        private final long checkedOutAt = System.nanoTime();
+        private boolean closed;
+
+        HoldTimeHandler(Connection target, long[] total) {
+            this.target = target;
+            this.total = total;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        total[0] += System.nanoTime() - checkedOutAt;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
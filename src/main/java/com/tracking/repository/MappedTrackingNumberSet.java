@@ -0,0 +1,536 @@
+package com.tracking.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Set of issued tracking numbers kept in a memory-mapped file, off the
+ * Java heap.
+ *
+ * Each tracking number is packed into two longs (6 bits per character,
+ * eight characters per long, zero meaning "no character"), so a slot takes
+ * 16 bytes and a table of 2^28 slots (about 200 million numbers at the
+ * default load factor) takes 4 GiB of page cache. The table uses open
+ * addressing with linear probing and is mapped in 1 GiB chunks.
+ *
+ * Inserts claim a slot with a compare-and-set on its first word, and
+ * neither inserts nor lookups take a lock. When the table is too full, the
+ * insert that notices rehashes it into a new file of twice the capacity,
+ * which replaces the old one once complete. While it does, every free slot
+ * of the old table is marked as moved before its entries are copied, so
+ * other inserts and lookups that reach a moved slot carry on in the new
+ * table instead of waiting for the copy to finish.
+ *
+ * The file header records the entry count on a clean close; after a crash
+ * the entries are recounted when the file is reopened, and a resize that
+ * was interrupted is completed.
+ */
+public final class MappedTrackingNumberSet implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedTrackingNumberSet.class);
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long MAGIC = 0x31544553_4E4B5254L;
+    private static final int HEADER_SIZE = 4096;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 16;
+    private static final int STATE_OFFSET = 24;
+    private static final long STATE_BUILDING = 0;
+    private static final long STATE_OPEN = 1;
+    private static final long STATE_CLOSED = 2;
+
+    private static final int SLOT_SHIFT = 4;
+    private static final int DEFAULT_CHUNK_SLOTS = 1 << 26;
+    private static final int MIN_CAPACITY = 16;
+    // Set on the first word while the second word is being written
+    private static final long BUSY = 1L << 63;
+    // First word of a free slot of a table being copied into a larger one
+    private static final long FORWARD = 1L << 62;
+
+    private static final String FILE_PREFIX = "tracking-numbers-";
+    private static final String FILE_SUFFIX = ".set";
+
+    private final Path directory;
+    private final double maxLoadFactor;
+    private final int chunkSlots;
+    private final Object resizeLock = new Object();
+    private final LongAdder size = new LongAdder();
+    private final LongAdder resizes = new LongAdder();
+
+    private volatile Table table;
+
+    private MappedTrackingNumberSet(Path directory, double maxLoadFactor, int chunkSlots) {
+        this.directory = directory;
+        this.maxLoadFactor = maxLoadFactor;
+        this.chunkSlots = chunkSlots;
+    }
+
+    /**
+     * Opens the set stored in the given directory, creating it if needed.
+     *
+     * @param directory directory holding the set file
+     * @param initialCapacity number of slots of a newly created table, rounded up to a power of two
+     * @param maxLoadFactor fraction of occupied slots above which the table is doubled
+     * @return the opened set
+     */
+    public static MappedTrackingNumberSet open(Path directory, long initialCapacity, double maxLoadFactor) {
+        return open(directory, initialCapacity, maxLoadFactor, DEFAULT_CHUNK_SLOTS);
+    }
+
+    static MappedTrackingNumberSet open(Path directory, long initialCapacity, double maxLoadFactor, int chunkSlots) {
+        if (maxLoadFactor <= 0 || maxLoadFactor >= 1) {
+            throw new IllegalArgumentException("Load factor must be between 0 and 1: " + maxLoadFactor);
+        }
+        MappedTrackingNumberSet set = new MappedTrackingNumberSet(directory, maxLoadFactor, chunkSlots);
+        try {
+            set.load(Math.max(MIN_CAPACITY, Long.highestOneBit(Math.max(1, initialCapacity - 1)) << 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open tracking number set in " + directory, e);
+        }
+        return set;
+    }
+
+    /**
+     * Adds a tracking number unless it is already present.
+     *
+     * @param trackingNumber a tracking number matching ^[A-Z0-9]{8,16}$
+     * @return true if the tracking number was added, false if it was already present
+     * @throws IllegalArgumentException if the tracking number is malformed
+     */
+    public boolean add(String trackingNumber) {
+        long high = pack(trackingNumber, 0);
+        long low = pack(trackingNumber, 8);
+        Table current = table;
+        while (true) {
+            int result = current.insert(high, low);
+            if (result == Table.PRESENT) {
+                return false;
+            }
+            if (result == Table.INSERTED) {
+                size.increment();
+                if (current.next == null && size.sum() > current.capacity * maxLoadFactor) {
+                    grow(current);
+                }
+                return true;
+            }
+            if (result == Table.MOVED) {
+                current = current.next;
+            } else {
+                grow(current);
+                current = table;
+            }
+        }
+    }
+
+    /**
+     * @param trackingNumber a tracking number matching ^[A-Z0-9]{8,16}$
+     * @return true if the tracking number is present
+     */
+    public boolean contains(String trackingNumber) {
+        long high = pack(trackingNumber, 0);
+        long low = pack(trackingNumber, 8);
+        Table current = table;
+        while (true) {
+            int result = current.find(high, low);
+            if (result != Table.MOVED) {
+                return result == Table.PRESENT;
+            }
+            current = current.next;
+        }
+    }
+
+    public long size() {
+        return size.sum();
+    }
+
+    public long capacity() {
+        return table.capacity;
+    }
+
+    /**
+     * @return number of times the table has been doubled since it was opened
+     */
+    public long resizeCount() {
+        return resizes.sum();
+    }
+
+    /**
+     * Flushes the table to disk, so entries added so far survive a crash of
+     * the machine as well as of the process.
+     */
+    public void force() {
+        synchronized (resizeLock) {
+            table.force();
+        }
+    }
+
+    /**
+     * Records the entry count and flushes the table to disk. Inserts still
+     * running are not guaranteed to be counted.
+     */
+    @Override
+    public void close() {
+        synchronized (resizeLock) {
+            table.force();
+            table.writeHeader(size.sum(), STATE_CLOSED);
+        }
+    }
+
+    /**
+     * Copies the full table into one of twice the capacity. Only the
+     * calling insert waits for the copy; see {@link Table#moveTo}.
+     */
+    private void grow(Table full) {
+        synchronized (resizeLock) {
+            if (table != full) {
+                return;
+            }
+            long started = System.nanoTime();
+            try {
+                Table grown = Table.create(directory, full.capacity << 1, chunkSlots);
+                full.next = grown;
+                full.moveTo(grown);
+                grown.writeHeader(size.sum(), STATE_OPEN);
+                grown.force();
+                table = grown;
+                resizes.increment();
+                full.delete();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to grow tracking number set", e);
+            }
+            logger.info("Grew tracking number set to {} slots in {} ms", table.capacity,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private void load(long initialCapacity) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(MappedTrackingNumberSet::isSetFile).sorted().toList();
+        }
+        // Keep the largest complete table, and a larger one whose resize was interrupted;
+        // anything else is a leftover of an earlier resize
+        Table loaded = null;
+        Table building = null;
+        List<Path> stale = new ArrayList<>();
+        for (Path file : files.reversed()) {
+            Table candidate = loaded == null ? Table.open(file, chunkSlots) : null;
+            if (candidate == null) {
+                stale.add(file);
+            } else if (candidate.state() != STATE_BUILDING) {
+                loaded = candidate;
+            } else if (building == null) {
+                building = candidate;
+            } else {
+                stale.add(file);
+            }
+        }
+        for (Path file : stale) {
+            Files.deleteIfExists(file);
+        }
+
+        if (building != null) {
+            // Inserts may already have gone to the new table, so finish copying instead of dropping it
+            logger.warn("Completing interrupted resize of tracking number set into {}", building.path);
+            building.recount();
+            if (loaded != null) {
+                loaded.forEachEntry(building::insert);
+            }
+            table = building;
+            size.add(building.recount());
+        } else if (loaded == null) {
+            table = Table.create(directory, initialCapacity, chunkSlots);
+        } else if (loaded.state() == STATE_CLOSED) {
+            table = loaded;
+            size.add(loaded.header.getLong(SIZE_OFFSET));
+        } else {
+            logger.warn("Tracking number set {} was not closed cleanly, recounting entries", loaded.path);
+            table = loaded;
+            size.add(loaded.recount());
+        }
+        table.writeHeader(size.sum(), STATE_OPEN);
+        table.force();
+        if (loaded != null && loaded != table) {
+            loaded.delete();
+        }
+        logger.info("Opened tracking number set {} with {} entries in {} slots", table.path, size.sum(), table.capacity);
+    }
+
+    private static boolean isSetFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+    }
+
+    /**
+     * Packs eight characters starting at {@code from} into a long, six bits
+     * per character; positions past the end of the string are zero.
+     */
+    static long pack(String trackingNumber, int from) {
+        int length = trackingNumber.length();
+        if (length < 8 || length > 16) {
+            throw new IllegalArgumentException("Malformed tracking number: " + trackingNumber);
+        }
+        long packed = 0;
+        for (int i = from; i < from + 8; i++) {
+            packed = (packed << 6) | (i < length ? code(trackingNumber.charAt(i), trackingNumber) : 0);
+        }
+        return packed;
+    }
+
+    private static int code(char c, String trackingNumber) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        throw new IllegalArgumentException("Malformed tracking number: " + trackingNumber);
+    }
+
+    private static long hash(long high, long low) {
+        long h = high * 0x9E3779B97F4A7C15L + low;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * One mapped table file. Slot {@code i} lives in chunk
+     * {@code i / chunkSlots}; its first word is zero while the slot is free,
+     * since every tracking number has a non-zero first character, and
+     * {@link #FORWARD} once the table is being copied into {@link #next}.
+     */
+    private static final class Table {
+
+        static final int INSERTED = 0;
+        static final int PRESENT = 1;
+        static final int FULL = 2;
+        static final int MOVED = 3;
+        static final int ABSENT = 4;
+
+        final Path path;
+        final long capacity;
+        final long mask;
+        final int chunkShift;
+        final long chunkMask;
+        final MappedByteBuffer header;
+        final MappedByteBuffer[] chunks;
+        // Set before the first slot is marked as moved
+        volatile Table next;
+
+        private Table(Path path, long capacity, int chunkSlots, FileChannel channel) throws IOException {
+            this.path = path;
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            int slotsPerChunk = (int) Math.min(capacity, chunkSlots);
+            this.chunkShift = Integer.numberOfTrailingZeros(slotsPerChunk);
+            this.chunkMask = slotsPerChunk - 1;
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            this.chunks = new MappedByteBuffer[(int) (capacity / slotsPerChunk)];
+            long chunkBytes = (long) slotsPerChunk << SLOT_SHIFT;
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + i * chunkBytes, chunkBytes);
+                chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        static Table create(Path directory, long capacity, int chunkSlots) throws IOException {
+            Path path = directory.resolve(String.format("%s%020d%s", FILE_PREFIX, capacity, FILE_SUFFIX));
+            Files.deleteIfExists(path);
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                Table table = new Table(path, capacity, chunkSlots, channel);
+                table.header.putLong(MAGIC_OFFSET, MAGIC);
+                table.header.putLong(CAPACITY_OFFSET, capacity);
+                table.writeHeader(0, STATE_BUILDING);
+                return table;
+            }
+        }
+
+        /**
+         * @return the table, or null if the file is not a readable table
+         */
+        static Table open(Path path, int chunkSlots) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (channel.size() < HEADER_SIZE) {
+                    return null;
+                }
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                long capacity = header.getLong(CAPACITY_OFFSET);
+                if (header.getLong(MAGIC_OFFSET) != MAGIC || Long.bitCount(capacity) != 1
+                        || channel.size() != HEADER_SIZE + (capacity << SLOT_SHIFT)) {
+                    logger.warn("Ignoring unreadable tracking number set file {}", path);
+                    return null;
+                }
+                return new Table(path, capacity, chunkSlots, channel);
+            }
+        }
+
+        int insert(long high, long low) {
+            long index = hash(high, low) & mask;
+            for (long probes = 0; probes < capacity; probes++) {
+                MappedByteBuffer chunk = chunks[(int) (index >>> chunkShift)];
+                int offset = (int) ((index & chunkMask) << SLOT_SHIFT);
+                long current = (long) LONGS.getAcquire(chunk, offset);
+                if (current == 0) {
+                    if (LONGS.compareAndSet(chunk, offset, 0L, high | BUSY)) {
+                        LONGS.set(chunk, offset + 8, low);
+                        LONGS.setRelease(chunk, offset, high);
+                        return INSERTED;
+                    }
+                    current = (long) LONGS.getAcquire(chunk, offset);
+                }
+                while ((current & BUSY) != 0) {
+                    Thread.onSpinWait();
+                    current = (long) LONGS.getAcquire(chunk, offset);
+                }
+                if (current == FORWARD) {
+                    return MOVED;
+                }
+                if (current == high && (long) LONGS.get(chunk, offset + 8) == low) {
+                    return PRESENT;
+                }
+                index = (index + 1) & mask;
+            }
+            return FULL;
+        }
+
+        /**
+         * @return {@link #PRESENT}, {@link #ABSENT}, or {@link #MOVED} if the
+         *         lookup must continue in {@link #next}
+         */
+        int find(long high, long low) {
+            long index = hash(high, low) & mask;
+            for (long probes = 0; probes < capacity; probes++) {
+                MappedByteBuffer chunk = chunks[(int) (index >>> chunkShift)];
+                int offset = (int) ((index & chunkMask) << SLOT_SHIFT);
+                long current = (long) LONGS.getAcquire(chunk, offset);
+                if (current == 0) {
+                    return ABSENT;
+                }
+                while ((current & BUSY) != 0) {
+                    Thread.onSpinWait();
+                    current = (long) LONGS.getAcquire(chunk, offset);
+                }
+                if (current == FORWARD) {
+                    return MOVED;
+                }
+                if (current == high && (long) LONGS.get(chunk, offset + 8) == low) {
+                    return PRESENT;
+                }
+                index = (index + 1) & mask;
+            }
+            return ABSENT;
+        }
+
+        /**
+         * Copies every entry into the target while inserts continue. Each
+         * free slot is marked as moved, so no entry can be added behind the
+         * copy; an insert or lookup probing past an occupied slot cannot
+         * reach a moved one unless its number is absent from this table.
+         */
+        void moveTo(Table target) {
+            for (MappedByteBuffer chunk : chunks) {
+                for (int offset = 0; offset < chunk.capacity(); offset += 1 << SLOT_SHIFT) {
+                    long high = (long) LONGS.getAcquire(chunk, offset);
+                    while (high == 0 || (high & BUSY) != 0) {
+                        if (high == 0 && LONGS.compareAndSet(chunk, offset, 0L, FORWARD)) {
+                            break;
+                        }
+                        Thread.onSpinWait();
+                        high = (long) LONGS.getAcquire(chunk, offset);
+                    }
+                    if (high != 0) {
+                        target.insert(high, (long) LONGS.get(chunk, offset + 8));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Visits every entry of a table that is not in use, including
+         * partial entries left by a crash.
+         */
+        void forEachEntry(EntryConsumer consumer) {
+            for (MappedByteBuffer chunk : chunks) {
+                for (int offset = 0; offset < chunk.capacity(); offset += 1 << SLOT_SHIFT) {
+                    long high = chunk.getLong(offset) & ~BUSY;
+                    if (high != 0 && high != FORWARD) {
+                        consumer.accept(high, chunk.getLong(offset + 8));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Counts entries after a crash, completing slots whose insert was
+         * interrupted between its two writes and freeing slots marked as
+         * moved. A completed slot may keep a partial number, which only ever
+         * blocks that number from being issued.
+         */
+        long recount() {
+            long count = 0;
+            for (MappedByteBuffer chunk : chunks) {
+                for (int offset = 0; offset < chunk.capacity(); offset += 1 << SLOT_SHIFT) {
+                    long high = chunk.getLong(offset);
+                    if (high == FORWARD) {
+                        chunk.putLong(offset, 0);
+                        high = 0;
+                    } else if ((high & BUSY) != 0) {
+                        chunk.putLong(offset, high & ~BUSY);
+                    }
+                    if (high != 0) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        long state() {
+            return header.getLong(STATE_OFFSET);
+        }
+
+        void writeHeader(long size, long state) {
+            header.putLong(SIZE_OFFSET, size);
+            header.putLong(STATE_OFFSET, state);
+            header.force();
+        }
+
+        void force() {
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.force();
+            }
+            header.force();
+        }
+
+        void delete() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @FunctionalInterface
+    private interface EntryConsumer {
+        void accept(long high, long low);
+    }
+}
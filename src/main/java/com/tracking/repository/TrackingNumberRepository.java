@@ -3,11 +3,13 @@ package com.tracking.repository;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.tracking.domain.TrackingNumber;
 
@@ -33,28 +35,62 @@ public interface TrackingNumberRepository extends JpaRepository<TrackingNumber,
     @Query("SELECT t FROM TrackingNumber t WHERE t.trackingNumber = :trackingNumber")
     Optional<TrackingNumber> findByTrackingNumberWithLock(@Param("trackingNumber") String trackingNumber);
     
+    /**
+     * Finds a tracking number by its unique tracking number string without locking.
+     * The customer is fetched in the same query.
+     * 
+     * @param trackingNumber the tracking number to find
+     * @return Optional containing the TrackingNumber if found
+     */
+    @EntityGraph(attributePaths = "customer")
+    Optional<TrackingNumber> findByTrackingNumber(String trackingNumber);
+    
     /**
      * Checks if a tracking number exists.
      * 
+     * Used for the uniqueness check during generation, which runs outside
+     * any transaction. It gets its own short read-write transaction so it
+     * always runs on the primary, never on a possibly lagging read replica.
+     * 
      * @param trackingNumber the tracking number to check
      * @return true if the tracking number exists, false otherwise
      */
+    @Transactional
     boolean existsByTrackingNumber(String trackingNumber);
     
     /**
      * Finds tracking numbers by customer ID.
      * 
+     * Read-only, so it is served by the read replica when one is configured.
+     * 
      * @param customerId the customer UUID
      * @return list of tracking numbers for the customer
      */
+    @Transactional(readOnly = true)
     @Query("SELECT t FROM TrackingNumber t WHERE t.customerId = :customerId ORDER BY t.createdAt DESC")
     java.util.List<TrackingNumber> findByCustomerId(@Param("customerId") UUID customerId);
     
     /**
      * Counts tracking numbers by customer ID.
      * 
+     * Read-only, so it is served by the read replica when one is configured.
+     * 
      * @param customerId the customer UUID
      * @return count of tracking numbers for the customer
      */
+    @Transactional(readOnly = true)
     long countByCustomerId(UUID customerId);
-}
\ No newline at end of file
+    
+    /**
+     * Counts tracking numbers per tracking number length.
+     * 
+     * Scans the whole table, so it is only used once, in the background
+     * after startup, to seed the keyspace occupancy tracker. Read-only, so it is served by the read
+     * replica when one is configured.
+     * 
+     * @return rows of {@code [length (Integer), count (Long)]}
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT LENGTH(t.trackingNumber), COUNT(t) FROM TrackingNumber t GROUP BY LENGTH(t.trackingNumber)")
+    java.util.List<Object[]> countByTrackingNumberLength();
+}
@@ -0,0 +1,151 @@
+package com.tracking.service;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.tracking.domain.TrackingNumberRequest;
+import com.tracking.domain.TrackingNumberResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Runs tracking number generation off the servlet threads.
+ *
+ * Requests are queued for a fixed pool of {@code app.generation.threads}
+ * threads, which defaults to the size of the Hikari pool, so every worker
+ * can hold a connection and no worker waits for one. Servlet threads only
+ * enqueue the request and are released while it waits. A full queue
+ * rejects the request at once. A request still queued after
+ * {@code app.generation.timeout-ms} completes with a
+ * {@link TimeoutException} and is never started. A request already running
+ * at that point may be about to commit its number, so its caller waits for
+ * the result instead of being told to retry and receiving a second number;
+ * such late answers are counted.
+ */
+@Component
+public class GenerationExecutor implements AutoCloseable {
+
+    private final TrackingNumberService trackingNumberService;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledThreadPoolExecutor timeouts;
+    private final long timeoutMillis;
+    private final Counter queueFullCounter;
+    private final Counter timeoutCounter;
+    private final Counter lateCounter;
+
+    public GenerationExecutor(TrackingNumberService trackingNumberService,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.generation.threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads,
+                              @Value("${app.generation.queue-capacity:1000}") int queueCapacity,
+                              @Value("${app.generation.timeout-ms:5000}") long timeoutMillis) {
+        this.trackingNumberService = trackingNumberService;
+        this.timeoutMillis = timeoutMillis;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("generation-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+        CustomizableThreadFactory timeoutThreadFactory = new CustomizableThreadFactory("generation-timeout-");
+        timeoutThreadFactory.setDaemon(true);
+        this.timeouts = new ScheduledThreadPoolExecutor(1, timeoutThreadFactory);
+        this.timeouts.setRemoveOnCancelPolicy(true);
+        new ExecutorServiceMetrics(executor, "generation", List.of()).bindTo(meterRegistry);
+        this.queueFullCounter = rejectionCounter(meterRegistry, "queue_full");
+        this.timeoutCounter = rejectionCounter(meterRegistry, "timeout");
+        this.lateCounter = Counter.builder("tracking.number.generation.late")
+                .description("Total number of generation requests answered after the timeout because they had already started")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a generation request.
+     *
+     * @param request the validated request
+     * @return the response, completed exceptionally with a
+     *         {@link TimeoutException} if the request was not started in
+     *         time, or with the service's exception if generation failed
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public CompletableFuture<TrackingNumberResponse> generate(TrackingNumberRequest request) {
+        Generation generation = new Generation(request);
+        generation.timeout = timeouts.schedule(generation::expire, timeoutMillis, TimeUnit.MILLISECONDS);
+        try {
+            executor.execute(generation);
+        } catch (RejectedExecutionException e) {
+            generation.timeout.cancel(false);
+            queueFullCounter.increment();
+            throw e;
+        }
+        return generation.response;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        timeouts.shutdownNow();
+    }
+
+    /**
+     * A queued request. Whichever of the worker and the timeout claims it
+     * first decides whether it runs.
+     */
+    private final class Generation implements Runnable {
+
+        private final TrackingNumberRequest request;
+        private final CompletableFuture<TrackingNumberResponse> response = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final long deadline;
+        private volatile ScheduledFuture<?> timeout;
+
+        private Generation(TrackingNumberRequest request) {
+            this.request = request;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            timeout.cancel(false);
+            try {
+                response.complete(trackingNumberService.generateTrackingNumber(request));
+            } catch (Throwable e) {
+                response.completeExceptionally(e);
+            } finally {
+                if (System.nanoTime() - deadline > 0) {
+                    lateCounter.increment();
+                }
+            }
+        }
+
+        private void expire() {
+            if (claimed.compareAndSet(false, true)) {
+                timeoutCounter.increment();
+                response.completeExceptionally(new TimeoutException(
+                        "Generation request not started within " + timeoutMillis + " ms"));
+            }
+        }
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("tracking.number.generation.rejections")
+                .description("Total number of generation requests answered with 503 without a tracking number")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,271 @@
+package com.tracking.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tracks how full the keyspace of each tracking number length is and picks
+ * the length of new candidates accordingly.
+ *
+ * A length of n random characters has 36^n possible numbers (one fewer
+ * random character when check characters are enabled), so short lengths
+ * fill up far sooner than long ones. The probability that a candidate of a
+ * given length collides is estimated as the larger of its fill ratio
+ * (issued / keyspace size) and its observed collision rate.
+ *
+ * Each length is weighted by its remaining capacity, 1 - p / threshold
+ * for its collision probability p, so a length is picked less often as it
+ * fills and not at all once p reaches the fill threshold. Further short
+ * lengths are disabled while the expected number of retries per request,
+ * p / (1 - p) for the weighted average collision probability p, exceeds
+ * the configured bound. The longest length always keeps full weight.
+ *
+ * While the counts of stored numbers are being seeded every candidate uses
+ * the longest length, since any shorter one may already be full.
+ */
+public class KeyspaceOccupancyTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyspaceOccupancyTracker.class);
+
+    private static final int ALPHABET_SIZE = 36;
+    // Observed collision rates are only trusted after this many attempts
+    private static final long MIN_OBSERVED_ATTEMPTS = 1_000;
+    // Lengths are recomputed after roughly this many issued numbers
+    private static final int RECOMPUTE_INTERVAL = 1_024;
+
+    private final int minLength;
+    private final int maxLength;
+    private final double[] keyspaceSizes;
+    private final double fillThreshold;
+    private final double maxExpectedRetries;
+    private final LongAdder[] issued;
+    private final LongAdder[] attempts;
+    private final LongAdder[] collisions;
+
+    private volatile Distribution distribution;
+    private volatile boolean seeding;
+    private volatile double expectedRetries;
+
+    public KeyspaceOccupancyTracker(int minLength, int maxLength, boolean checkCharacterEnabled,
+                                    double fillThreshold, double maxExpectedRetries, MeterRegistry meterRegistry) {
+        if (minLength < 1 || maxLength < minLength) {
+            throw new IllegalArgumentException("Invalid tracking number lengths: " + minLength + "-" + maxLength);
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.fillThreshold = fillThreshold;
+        this.maxExpectedRetries = maxExpectedRetries;
+        int lengths = maxLength - minLength + 1;
+        this.keyspaceSizes = new double[lengths];
+        this.issued = new LongAdder[lengths];
+        this.attempts = new LongAdder[lengths];
+        this.collisions = new LongAdder[lengths];
+        for (int i = 0; i < lengths; i++) {
+            int length = minLength + i;
+            keyspaceSizes[i] = Math.pow(ALPHABET_SIZE, checkCharacterEnabled ? length - 1 : length);
+            issued[i] = new LongAdder();
+            attempts[i] = new LongAdder();
+            collisions[i] = new LongAdder();
+            String tag = Integer.toString(length);
+            Gauge.builder("tracking.keyspace.fill.ratio", this, tracker -> tracker.fillRatio(length))
+                    .description("Issued tracking numbers of this length divided by the size of its keyspace")
+                    .tag("length", tag)
+                    .register(meterRegistry);
+            Gauge.builder("tracking.keyspace.collision.rate", this, tracker -> tracker.observedCollisionRate(length))
+                    .description("Fraction of candidates of this length that collided with an issued number")
+                    .tag("length", tag)
+                    .register(meterRegistry);
+            Gauge.builder("tracking.keyspace.length.weight", this, tracker -> tracker.weight(length))
+                    .description("Probability that a new candidate is generated with this length")
+                    .tag("length", tag)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("tracking.keyspace.expected.retries", this, KeyspaceOccupancyTracker::expectedRetries)
+                .description("Expected collision retries per generation request for the current length distribution")
+                .register(meterRegistry);
+        recompute();
+    }
+
+    /**
+     * Adds counts of numbers issued before this tracker was created.
+     *
+     * @param issuedByLength number of stored tracking numbers per length
+     */
+    public void seed(Map<Integer, Long> issuedByLength) {
+        issuedByLength.forEach((length, count) -> {
+            if (length >= minLength && length <= maxLength) {
+                issued[length - minLength].add(count);
+            }
+        });
+        recompute();
+    }
+
+    /**
+     * Marks whether counts of stored numbers are still to be seeded; until
+     * then every candidate uses the longest length.
+     *
+     * @param seeding whether seeding is in progress
+     */
+    public void setSeeding(boolean seeding) {
+        this.seeding = seeding;
+    }
+
+    /**
+     * @param random the random source of the calling thread
+     * @return the length of the next candidate
+     */
+    public int nextLength(ThreadLocalRandom random) {
+        if (seeding) {
+            return maxLength;
+        }
+        Distribution current = distribution;
+        double[] cumulative = current.cumulativeWeights();
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (target < cumulative[i]) {
+                return current.lengths()[i];
+            }
+        }
+        return current.lengths()[cumulative.length - 1];
+    }
+
+    /**
+     * Records the outcome of a uniqueness check.
+     *
+     * @param length the candidate's length
+     * @param collided whether the candidate was already issued
+     */
+    public void recordAttempt(int length, boolean collided) {
+        attempts[length - minLength].increment();
+        if (collided) {
+            collisions[length - minLength].increment();
+        }
+    }
+
+    /**
+     * Records a newly issued number and occasionally re-evaluates the
+     * length distribution.
+     *
+     * @param length the issued number's length
+     */
+    public void recordIssued(int length) {
+        issued[length - minLength].increment();
+        if (ThreadLocalRandom.current().nextInt(RECOMPUTE_INTERVAL) == 0) {
+            recompute();
+        }
+    }
+
+    /**
+     * Re-evaluates which lengths new candidates may use.
+     */
+    public synchronized void recompute() {
+        int lengths = maxLength - minLength + 1;
+        double[] probabilities = new double[lengths];
+        double[] weights = new double[lengths];
+        for (int i = 0; i < lengths; i++) {
+            probabilities[i] = collisionProbability(minLength + i);
+            weights[i] = Math.max(0, 1 - probabilities[i] / fillThreshold);
+        }
+        weights[lengths - 1] = 1;
+
+        double retryBoundProbability = maxExpectedRetries / (1 + maxExpectedRetries);
+        double probability = averageProbability(probabilities, weights);
+        for (int i = 0; i < lengths - 1 && probability > retryBoundProbability; i++) {
+            weights[i] = 0;
+            probability = averageProbability(probabilities, weights);
+        }
+
+        int[] selected = new int[lengths];
+        double[] cumulative = new double[lengths];
+        double total = 0;
+        int count = 0;
+        for (int i = 0; i < lengths; i++) {
+            if (weights[i] > 0) {
+                total += weights[i];
+                selected[count] = minLength + i;
+                cumulative[count++] = total;
+            }
+        }
+        Distribution previous = distribution;
+        distribution = new Distribution(Arrays.copyOf(selected, count), Arrays.copyOf(cumulative, count));
+        expectedRetries = probability >= 1 ? Double.POSITIVE_INFINITY : probability / (1 - probability);
+        if (previous != null && !Arrays.equals(previous.lengths(), distribution.lengths())) {
+            logger.warn("Tracking number lengths changed from {} to {} (expected retries per request {})",
+                    Arrays.toString(previous.lengths()), Arrays.toString(distribution.lengths()), expectedRetries);
+        }
+    }
+
+    /**
+     * @param length a tracking number length
+     * @return issued numbers of this length divided by the size of its keyspace
+     */
+    public double fillRatio(int length) {
+        return issued[length - minLength].sum() / keyspaceSizes[length - minLength];
+    }
+
+    /**
+     * @param length a tracking number length
+     * @return fraction of candidates of this length that collided, or 0 before any attempt
+     */
+    public double observedCollisionRate(int length) {
+        long attempted = attempts[length - minLength].sum();
+        return attempted == 0 ? 0 : (double) collisions[length - minLength].sum() / attempted;
+    }
+
+    /**
+     * @param length a tracking number length
+     * @return probability that a new candidate has this length
+     */
+    public double weight(int length) {
+        if (seeding) {
+            return length == maxLength ? 1 : 0;
+        }
+        Distribution current = distribution;
+        double[] cumulative = current.cumulativeWeights();
+        for (int i = 0; i < cumulative.length; i++) {
+            if (current.lengths()[i] == length) {
+                return (cumulative[i] - (i == 0 ? 0 : cumulative[i - 1])) / cumulative[cumulative.length - 1];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return expected collision retries per request for the current length distribution
+     */
+    public double expectedRetries() {
+        return expectedRetries;
+    }
+
+    private double collisionProbability(int length) {
+        double probability = fillRatio(length);
+        if (attempts[length - minLength].sum() >= MIN_OBSERVED_ATTEMPTS) {
+            probability = Math.max(probability, observedCollisionRate(length));
+        }
+        return probability;
+    }
+
+    private static double averageProbability(double[] probabilities, double[] weights) {
+        double sum = 0;
+        double total = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            sum += probabilities[i] * weights[i];
+            total += weights[i];
+        }
+        return sum / total;
+    }
+
+    /**
+     * Lengths with a positive weight and the running sum of their weights.
+     */
+    private record Distribution(int[] lengths, double[] cumulativeWeights) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.tracking.service;
+
+import java.io.UncheckedIOException;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tracking.archive.BloomFilter;
+import com.tracking.archive.ColdArchive;
+import com.tracking.feed.ChangeFeed;
+import com.tracking.feed.TrackingNumberEvent;
+import com.tracking.feed.TrackingNumberListener;
+import com.tracking.validation.TrackingNumberValidator;
+
+/**
+ * Bloom filter of stored tracking numbers without a valid check character,
+ * so lookups can reject mistyped numbers without querying the database
+ * while numbers issued before check characters were enabled, or imported,
+ * can still be found.
+ *
+ * Only used when check characters are enabled. Once the application is
+ * ready, this registers with the {@link ChangeFeed} and reads the table up
+ * to the feed's position, then the cold archive, through a cursor in a
+ * read-only transaction on a background thread; the feed delivers every
+ * row after that, including those imported on other instances. Until the
+ * load finishes, and for good if it fails, every number counts as a
+ * possible legacy number and is looked up. With
+ * {@code app.tracking.check-character.legacy.enabled=false} nothing is
+ * loaded and no number counts as one.
+ *
+ * The filter is sized for {@code app.tracking.check-character.legacy.expected-numbers}
+ * at a 1% false positive rate; more numbers only let more mistyped lookups
+ * through to the database.
+ */
+@Component
+public class LegacyTrackingNumbers implements TrackingNumberListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyTrackingNumbers.class);
+
+    private static final String LOAD_SQL = "SELECT tracking_number FROM tracking_numbers WHERE id <= ?";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final ChangeFeed changeFeed;
+    private final ColdArchive coldArchive;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final BloomFilter filter;
+    private volatile boolean loaded;
+
+    public LegacyTrackingNumbers(ChangeFeed changeFeed,
+                                 @Nullable ColdArchive coldArchive,
+                                 DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.tracking.check-character.enabled:false}") boolean checkCharacterEnabled,
+                                 @Value("${app.tracking.check-character.legacy.enabled:true}") boolean legacyEnabled,
+                                 @Value("${app.tracking.check-character.legacy.expected-numbers:1000000}")
+                                 long expectedNumbers,
+                                 @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.changeFeed = changeFeed;
+        this.coldArchive = coldArchive;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = checkCharacterEnabled && legacyEnabled;
+        this.filter = BloomFilter.create(enabled ? expectedNumbers : 1, FALSE_POSITIVE_RATE);
+        this.loaded = !enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        long throughId = changeFeed.listen(this);
+        Thread thread = new Thread(() -> load(throughId), "legacy-tracking-numbers");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @param trackingNumber a tracking number whose check character is invalid
+     * @return false if the number is certainly not a stored legacy number
+     */
+    public boolean mightContain(String trackingNumber) {
+        if (!loaded) {
+            return true;
+        }
+        long hash = BloomFilter.hash(trackingNumber);
+        synchronized (filter) {
+            return filter.mightContain(hash);
+        }
+    }
+
+    @Override
+    public void onCommitted(TrackingNumberEvent event) {
+        add(event.trackingNumber());
+    }
+
+    /**
+     * Adds the stored numbers up to the given id, then the archived ones.
+     *
+     * @param throughId the highest id to read
+     * @return number of legacy tracking numbers added
+     */
+    long load(long throughId) {
+        long started = System.nanoTime();
+        long[] added = new long[1];
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(LOAD_SQL, rs -> {
+                if (add(rs.getString(1))) {
+                    added[0]++;
+                }
+            }, throughId));
+            if (coldArchive != null) {
+                coldArchive.forEachTrackingNumber(trackingNumber -> {
+                    if (add(trackingNumber)) {
+                        added[0]++;
+                    }
+                });
+            }
+            loaded = true;
+            logger.info("Loaded {} tracking numbers without a check character in {} ms", added[0],
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (DataAccessException | TransactionException | UncheckedIOException e) {
+            logger.warn("Unable to load tracking numbers without a check character, looking up every "
+                    + "mistyped number: {}", e.getMessage());
+        }
+        return added[0];
+    }
+
+    private boolean add(String trackingNumber) {
+        if (TrackingNumberValidator.hasValidCheckCharacter(trackingNumber)) {
+            return false;
+        }
+        long hash = BloomFilter.hash(trackingNumber);
+        synchronized (filter) {
+            filter.put(hash);
+        }
+        return true;
+    }
+}
@@ -1,18 +1,38 @@
 package com.tracking.service;
 
+import java.time.OffsetDateTime;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import com.tracking.analytics.TopCustomers;
+import com.tracking.archive.ColdArchive;
+import com.tracking.customer.CustomerCache;
 import com.tracking.domain.TrackingNumber;
 import com.tracking.domain.TrackingNumberRequest;
 import com.tracking.domain.TrackingNumberResponse;
+import com.tracking.feed.ChangeFeed;
+import com.tracking.format.GeneratorPlan;
+import com.tracking.format.GeneratorPlanCache;
+import com.tracking.id.RequestIdGenerator;
+import com.tracking.journal.JournalEntry;
+import com.tracking.journal.TrackingNumberJournal;
+import com.tracking.logging.GenerationLog;
+import com.tracking.repository.ConnectionHoldTimeDataSource;
+import com.tracking.repository.MappedTrackingNumberSet;
 import com.tracking.repository.TrackingNumberRepository;
+import com.tracking.validation.TrackingNumberValidator;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -23,42 +43,109 @@ import io.micrometer.core.instrument.Timer;
  * 
  * Implements thread-safe and distributed uniqueness using database sequences
  * and retry mechanisms for concurrent access scenarios.
+ * 
+ * Generation, collision checks and retry backoff run outside any
+ * transaction; only the final insert runs in a short transaction, so a
+ * pooled connection is never held while the service sleeps or logs.
+ * 
+ * When the local journal is enabled, issued numbers are appended to the
+ * journal instead of being inserted, and the database collision check is
+ * skipped while the database is unreachable, so generation keeps working
+ * through short outages. Customers with their own format template get
+ * numbers from their compiled {@link GeneratorPlan}; all others use the
+ * default alphabet and lengths. When the memory-mapped uniqueness set is enabled,
+ * candidates are claimed in the set instead of being looked up in the
+ * database. When the cold archive is enabled, numbers not found in the
+ * table are also checked against the archive, both for uniqueness and for
+ * lookups. The {@link ChangeFeed} is woken once an insert has committed.
  */
 @Service
-@Transactional
 public class TrackingNumberService {
     
     private static final Logger logger = LoggerFactory.getLogger(TrackingNumberService.class);
     
     private final TrackingNumberRepository trackingNumberRepository;
+    private final TransactionOperations transactionOperations;
+    private final KeyspaceOccupancyTracker keyspaceTracker;
+    private final GeneratorPlanCache generatorPlanCache;
+    private final CustomerCache customerCache;
+    private final ChangeFeed changeFeed;
+    private final LegacyTrackingNumbers legacyTrackingNumbers;
+    private final TopCustomers topCustomers;
+    private final RequestIdGenerator requestIdGenerator;
+    private final GenerationLog generationLog;
+    private final TrackingNumberJournal trackingNumberJournal;
+    private final MappedTrackingNumberSet trackingNumberSet;
+    private final ColdArchive coldArchive;
     private final int maxRetries;
+    private final boolean checkCharacterEnabled;
     private final Counter generationCounter;
     private final Counter failureCounter;
+    private final Counter collisionCounter;
+    private final Counter insertConflictCounter;
+    private final Counter checkCharacterRejectionCounter;
     private final Timer generationTimer;
+    private final Timer connectionHoldTimer;
     
     // Character set for tracking number generation (A-Z, 0-9)
     private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-    private static final int MIN_TRACKING_NUMBER_LENGTH = 8;
-    private static final int MAX_TRACKING_NUMBER_LENGTH = 16;
     
     // Retry delay configuration
     private static final long MIN_RETRY_DELAY_MS = 10;
     private static final long MAX_RETRY_DELAY_MS = 50;
     
     public TrackingNumberService(TrackingNumberRepository trackingNumberRepository,
+                               TransactionOperations transactionOperations,
+                               KeyspaceOccupancyTracker keyspaceTracker,
+                               GeneratorPlanCache generatorPlanCache,
+                               CustomerCache customerCache,
+                               ChangeFeed changeFeed,
+                               LegacyTrackingNumbers legacyTrackingNumbers,
+                               TopCustomers topCustomers,
+                               RequestIdGenerator requestIdGenerator,
+                               GenerationLog generationLog,
+                               @Nullable TrackingNumberJournal trackingNumberJournal,
+                               @Nullable MappedTrackingNumberSet trackingNumberSet,
+                               @Nullable ColdArchive coldArchive,
                                MeterRegistry meterRegistry,
-                               @Value("${app.tracking.max-retries:3}") int maxRetries) {
+                               @Value("${app.tracking.max-retries:3}") int maxRetries,
+                               @Value("${app.tracking.check-character.enabled:false}") boolean checkCharacterEnabled) {
         this.trackingNumberRepository = trackingNumberRepository;
+        this.transactionOperations = transactionOperations;
+        this.keyspaceTracker = keyspaceTracker;
+        this.generatorPlanCache = generatorPlanCache;
+        this.customerCache = customerCache;
+        this.changeFeed = changeFeed;
+        this.legacyTrackingNumbers = legacyTrackingNumbers;
+        this.topCustomers = topCustomers;
+        this.requestIdGenerator = requestIdGenerator;
+        this.generationLog = generationLog;
+        this.trackingNumberJournal = trackingNumberJournal;
+        this.trackingNumberSet = trackingNumberSet;
+        this.coldArchive = coldArchive;
         this.maxRetries = maxRetries;
+        this.checkCharacterEnabled = checkCharacterEnabled;
         this.generationCounter = Counter.builder("tracking.number.generation.requests")
                 .description("Total number of tracking number generation requests")
                 .register(meterRegistry);
         this.failureCounter = Counter.builder("tracking.number.generation.failures")
                 .description("Total number of tracking number generation failures")
                 .register(meterRegistry);
+        this.collisionCounter = Counter.builder("tracking.number.collisions")
+                .description("Total number of candidates rejected as already issued and retried")
+                .register(meterRegistry);
+        this.insertConflictCounter = Counter.builder("tracking.number.insert.conflicts")
+                .description("Total number of inserts rejected by the unique constraint and retried")
+                .register(meterRegistry);
+        this.checkCharacterRejectionCounter = Counter.builder("tracking.number.check.rejections")
+                .description("Total number of lookups rejected for a malformed tracking number or a mistyped check character")
+                .register(meterRegistry);
         this.generationTimer = Timer.builder("tracking.number.generation.duration")
                 .description("Duration of tracking number generation operations")
                 .register(meterRegistry);
+        this.connectionHoldTimer = Timer.builder("tracking.number.connection.hold")
+                .description("Total time a generation request held database connections")
+                .register(meterRegistry);
     }
     
     /**
@@ -72,32 +159,31 @@ public class TrackingNumberService {
      * @throws TrackingNumberGenerationException if generation fails after max retries
      */
     public TrackingNumberResponse generateTrackingNumber(TrackingNumberRequest request) {
-        logger.info("Generating tracking number for customer: {} ({})", 
-                   request.customerName(), request.customerId());
-        
         generationCounter.increment();
         
+        long started = System.nanoTime();
+        boolean failed = true;
+        ConnectionHoldTimeDataSource.startMeasurement();
         try {
-            return generationTimer.recordCallable(() -> {
+            TrackingNumberResponse response = generationTimer.recordCallable(() -> {
                 try {
-                    UUID requestId = UUID.randomUUID();
-                    String trackingNumber = generateUniqueTrackingNumber();
-                    
-                    // Create and persist the tracking number entity
-                    TrackingNumber entity = new TrackingNumber(
-                        trackingNumber,
-                        request.originCountryId(),
-                        request.destinationCountryId(),
-                        request.weight(),
-                        request.customerId(),
-                        request.customerName(),
-                        request.customerSlug(),
-                        requestId
-                    );
+                    UUID requestId = requestIdGenerator.nextId();
+                    GeneratorPlan plan = generatorPlanCache.planFor(request.customerSlug());
+                    String trackingNumber;
                     
-                    trackingNumberRepository.save(entity);
-                    logger.info("Successfully generated tracking number: {} for customer: {}", 
-                               trackingNumber, request.customerName());
+                    if (trackingNumberJournal != null) {
+                        trackingNumber = journalUniqueTrackingNumber(request, requestId, plan);
+                    } else {
+                        TrackingNumber entity = insertUniqueTrackingNumber(request, requestId, plan);
+                        trackingNumber = entity.getTrackingNumber();
+                        changeFeed.wakeUp();
+                    }
+                    if (plan != null) {
+                        plan.recordIssued();
+                    } else {
+                        keyspaceTracker.recordIssued(trackingNumber.length());
+                    }
+                    generationLog.success(request, trackingNumber, requestId);
                     
                     return TrackingNumberResponse.of(
                         trackingNumber,
@@ -109,40 +195,121 @@ public class TrackingNumberService {
                     
                 } catch (RuntimeException e) {
                     failureCounter.increment();
-                    logger.error("Failed to generate tracking number for customer: {}", 
-                                request.customerName(), e);
+                    generationLog.failure(request, e);
                     throw new TrackingNumberGenerationException(
                         "Failed to generate tracking number: " + e.getMessage(), e);
                 }
             });
+            failed = false;
+            return response;
+        } catch (TrackingNumberGenerationException e) {
+            // Already counted and logged above
+            throw e;
         } catch (Exception e) {
             failureCounter.increment();
-            logger.error("Failed to generate tracking number for customer: {}", 
-                        request.customerName(), e);
+            generationLog.failure(request, e);
             throw new TrackingNumberGenerationException(
                 "Failed to generate tracking number: " + e.getMessage(), e);
+        } finally {
+            connectionHoldTimer.record(ConnectionHoldTimeDataSource.stopMeasurement(), TimeUnit.NANOSECONDS);
+            topCustomers.record(request.customerSlug(), failed, System.nanoTime() - started);
         }
     }
     
+    /**
+     * Looks up a previously generated tracking number.
+     * 
+     * Numbers that do not match ^[A-Z0-9]{8,16}$, or whose check character
+     * does not match when check characters are enabled, are rejected without
+     * querying the database. Numbers issued before check characters were
+     * enabled, or imported, carry none; they are still looked up if
+     * {@link LegacyTrackingNumbers} may hold them.
+     * 
+     * @param trackingNumber the tracking number to look up
+     * @return TrackingNumberResponse for the stored tracking number, or empty if not found
+     * @throws InvalidTrackingNumberException if the tracking number is malformed, or has
+     *         an invalid check character and is not a stored legacy number
+     */
+    @Transactional(readOnly = true)
+    public Optional<TrackingNumberResponse> findTrackingNumber(String trackingNumber) {
+        if (!TrackingNumberValidator.isWellFormed(trackingNumber, false)) {
+            checkCharacterRejectionCounter.increment();
+            throw new InvalidTrackingNumberException("Malformed tracking number: " + trackingNumber);
+        }
+        if (!isWellFormed(trackingNumber) && !legacyTrackingNumbers.mightContain(trackingNumber)) {
+            checkCharacterRejectionCounter.increment();
+            throw new InvalidTrackingNumberException("Invalid check character: " + trackingNumber);
+        }
+        
+        Optional<TrackingNumberResponse> stored = trackingNumberRepository.findByTrackingNumber(trackingNumber)
+                .map(entity -> TrackingNumberResponse.of(
+                    entity.getTrackingNumber(),
+                    entity.getCreatedAt(),
+                    entity.getRequestId(),
+                    entity.getCustomerId(),
+                    entity.getCustomer().getCustomerName()
+                ));
+        if (stored.isEmpty() && coldArchive != null) {
+            stored = coldArchive.find(trackingNumber)
+                    .map(row -> TrackingNumberResponse.of(
+                        row.trackingNumber(),
+                        row.createdAt(),
+                        row.requestId(),
+                        row.customerId(),
+                        row.customerName()
+                    ));
+        }
+        return stored;
+    }
+    
+    /**
+     * Checks whether the given value is a well-formed tracking number,
+     * including its check character when check characters are enabled.
+     * 
+     * @param trackingNumber the tracking number to check
+     * @return true if the tracking number is well-formed, false otherwise
+     */
+    public boolean isWellFormed(String trackingNumber) {
+        return TrackingNumberValidator.isWellFormed(trackingNumber, checkCharacterEnabled);
+    }
+    
+    /**
+     * Runs the generation and validation code paths without touching the
+     * database, so they are loaded and JIT-compiled before real traffic.
+     * 
+     * @param iterations number of tracking numbers to generate
+     * @return number of generated tracking numbers that validated as well-formed
+     */
+    public int warmUp(int iterations) {
+        int wellFormed = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (isWellFormed(generateTrackingNumber())) {
+                wellFormed++;
+            }
+        }
+        return wellFormed;
+    }
+    
     /**
      * Generates a unique tracking number using retry mechanism.
      * 
+     * @param plan the customer's generator plan, or null for the default format
      * @return a unique tracking number
      * @throws TrackingNumberGenerationException if unable to generate unique number
      */
-    private String generateUniqueTrackingNumber() {
+    private String generateUniqueTrackingNumber(GeneratorPlan plan) {
         for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            String trackingNumber = generateTrackingNumber();
+            String trackingNumber = generateCandidate(plan);
             
-            if (!trackingNumberRepository.existsByTrackingNumber(trackingNumber)) {
+            if (!isAlreadyIssued(trackingNumber, plan)) {
                 return trackingNumber;
             }
             
-            logger.warn("Tracking number collision detected: {} (attempt {}/{})", 
-                       trackingNumber, attempt, maxRetries);
+            collisionCounter.increment();
+            generationLog.collision(trackingNumber, attempt);
             
-            // Exponential backoff for retry
-            if (attempt < maxRetries) {
+            // Exponential backoff for retry; claims in the mapped set are not contended
+            if (attempt < maxRetries && trackingNumberSet == null) {
                 try {
                     long delay = ThreadLocalRandom.current().nextLong(MIN_RETRY_DELAY_MS, MAX_RETRY_DELAY_MS) * attempt;
                     Thread.sleep(delay);
@@ -158,20 +325,169 @@ public class TrackingNumberService {
     }
     
     /**
-     * Generates a random tracking number following the required pattern.
+     * Generates a unique tracking number and inserts it.
+     * 
+     * The collision check and the insert are separate statements, so another
+     * instance can insert the same candidate in between. The unique
+     * constraint then rejects the insert and a new candidate is generated,
+     * instead of failing the request. The customer is stored before each
+     * attempt, which takes no query while it is cached.
+     * 
+     * @param request the tracking number generation request
+     * @param requestId the request ID recorded with the tracking number
+     * @param plan the customer's generator plan, or null for the default format
+     * @return the inserted entity
+     * @throws TrackingNumberGenerationException if unable to insert a unique number
+     */
+    private TrackingNumber insertUniqueTrackingNumber(TrackingNumberRequest request, UUID requestId,
+                                                      GeneratorPlan plan) {
+        for (int attempt = 1; ; attempt++) {
+            customerCache.store(request.customerId(), request.customerName(), request.customerSlug());
+            TrackingNumber entity = new TrackingNumber(
+                generateUniqueTrackingNumber(plan),
+                request.originCountryId(),
+                request.destinationCountryId(),
+                request.weight(),
+                request.customerId(),
+                requestId
+            );
+            try {
+                transactionOperations.executeWithoutResult(status -> trackingNumberRepository.save(entity));
+                return entity;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= maxRetries) {
+                    throw new TrackingNumberGenerationException(
+                        "Unable to insert unique tracking number after " + maxRetries + " attempts", e);
+                }
+                insertConflictCounter.increment();
+                generationLog.insertConflict(entity.getTrackingNumber(), attempt);
+                // The violated constraint may be the customer reference rather than uniqueness
+                customerCache.invalidate(request.customerId());
+            }
+        }
+    }
+    
+    /**
+     * Generates a tracking number and appends it to the local journal.
+     * 
+     * A candidate is rejected if it is already stored (checked only while
+     * the database is reachable) or already waiting in the journal. No
+     * backoff is needed between attempts since nothing is contended.
+     * 
+     * @param request the tracking number generation request
+     * @param requestId the request ID recorded with the tracking number
+     * @param plan the customer's generator plan, or null for the default format
+     * @return a tracking number that has been journaled
+     * @throws TrackingNumberGenerationException if unable to generate unique number
+     */
+    private String journalUniqueTrackingNumber(TrackingNumberRequest request, UUID requestId, GeneratorPlan plan) {
+        OffsetDateTime createdAt = OffsetDateTime.now();
+        for (int attempt = 1; attempt <= maxRetries; attempt++) {
+            String trackingNumber = generateCandidate(plan);
+            
+            if (!isAlreadyIssued(trackingNumber, plan) && trackingNumberJournal.tryAppend(new JournalEntry(
+                    trackingNumber,
+                    request.originCountryId(),
+                    request.destinationCountryId(),
+                    request.weight(),
+                    request.customerId(),
+                    request.customerName(),
+                    request.customerSlug(),
+                    requestId,
+                    createdAt))) {
+                return trackingNumber;
+            }
+            
+            collisionCounter.increment();
+            generationLog.collision(trackingNumber, attempt);
+        }
+        
+        throw new TrackingNumberGenerationException(
+            "Unable to generate unique tracking number after " + maxRetries + " attempts");
+    }
+    
+    /**
+     * Checks whether a candidate has been issued before. With the mapped
+     * set the candidate is claimed atomically, so a false result also
+     * reserves it.
+     * 
+     * @param trackingNumber the candidate tracking number
+     * @param plan the plan the candidate was generated from, or null for the default format
+     * @return true if the tracking number is already issued
+     */
+    private boolean isAlreadyIssued(String trackingNumber, GeneratorPlan plan) {
+        boolean issued;
+        if (trackingNumberSet != null) {
+            issued = !trackingNumberSet.add(trackingNumber);
+        } else if (trackingNumberJournal != null) {
+            issued = existsInDatabase(trackingNumber);
+        } else {
+            issued = trackingNumberRepository.existsByTrackingNumber(trackingNumber);
+        }
+        if (!issued && coldArchive != null) {
+            issued = coldArchive.contains(trackingNumber);
+        }
+        if (plan != null) {
+            plan.recordAttempt(issued);
+        } else {
+            keyspaceTracker.recordAttempt(trackingNumber.length(), issued);
+        }
+        return issued;
+    }
+    
+    /**
+     * Checks the database for a tracking number unless the journal has
+     * marked it unreachable; a failing check marks it unreachable until the
+     * journal shipper reconnects.
+     * 
+     * @param trackingNumber the tracking number to check
+     * @return true if the tracking number is known to be stored
+     */
+    private boolean existsInDatabase(String trackingNumber) {
+        if (!trackingNumberJournal.isDatabaseAvailable()) {
+            return false;
+        }
+        try {
+            return trackingNumberRepository.existsByTrackingNumber(trackingNumber);
+        } catch (DataAccessException e) {
+            logger.warn("Skipping database collision checks until the database is reachable: {}", e.getMessage());
+            trackingNumberJournal.markDatabaseAvailable(false);
+            return false;
+        }
+    }
+    
+    /**
+     * @param plan the customer's generator plan, or null for the default format
+     * @return a new candidate tracking number
+     */
+    private String generateCandidate(GeneratorPlan plan) {
+        return plan != null ? plan.generate(ThreadLocalRandom.current()) : generateTrackingNumber();
+    }
+    
+    /**
+     * Generates a random tracking number in the default format.
+     * 
+     * When check characters are enabled the last character is the
+     * ISO 7064 MOD 37,36 check character of the preceding ones, so the
+     * total length stays within 8-16. The length is chosen by the
+     * {@link KeyspaceOccupancyTracker}.
      * 
      * @return a tracking number matching ^[A-Z0-9]{8,16}$
      */
     private String generateTrackingNumber() {
         ThreadLocalRandom random = ThreadLocalRandom.current();
-        int length = random.nextInt(MIN_TRACKING_NUMBER_LENGTH, MAX_TRACKING_NUMBER_LENGTH + 1);
-        StringBuilder sb = new StringBuilder(length);
+        int length = keyspaceTracker.nextLength(random);
+        int randomLength = checkCharacterEnabled ? length - 1 : length;
+        char[] chars = new char[length];
         
-        for (int i = 0; i < length; i++) {
-            sb.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        for (int i = 0; i < randomLength; i++) {
+            chars[i] = CHARACTERS.charAt(random.nextInt(CHARACTERS.length()));
+        }
+        if (checkCharacterEnabled) {
+            chars[randomLength] = TrackingNumberValidator.computeCheckCharacter(chars, randomLength);
         }
         
-        return sb.toString();
+        return new String(chars);
     }
     
     /**
@@ -189,4 +505,14 @@ public class TrackingNumberService {
             super(message, cause);
         }
     }
+    
+    /**
+     * Exception thrown when a tracking number supplied for lookup is
+     * malformed or carries an invalid check character.
+     */
+    public static class InvalidTrackingNumberException extends RuntimeException {
+        public InvalidTrackingNumberException(String message) {
+            super(message);
+        }
+    }
 }
\ No newline at end of file
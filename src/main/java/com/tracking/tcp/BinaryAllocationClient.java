@@ -0,0 +1,133 @@
+package com.tracking.tcp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.tracking.domain.TrackingNumberRequest;
+
+/**
+ * Java client for the binary allocation protocol.
+ *
+ * Requests can be issued one at a time with {@link #allocate}, asynchronously
+ * with {@link #allocateAsync}, or pipelined in bulk with {@link #allocateAll},
+ * which packs many frames into each socket write. A background reader thread
+ * completes the pending futures by correlation id. Instances are thread-safe.
+ */
+public class BinaryAllocationClient implements AutoCloseable {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private final Map<Integer, CompletableFuture<BinaryProtocol.Response>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger nextCorrelationId = new AtomicInteger();
+    private final Thread reader;
+
+    public BinaryAllocationClient(String host, int port) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        this.channel.socket().setTcpNoDelay(true);
+        this.reader = new Thread(this::readResponses, "tcp-allocation-client-reader");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * Allocates a tracking number and waits for the response.
+     *
+     * @param request the allocation request
+     * @return the server response
+     * @throws IOException if the request cannot be sent
+     */
+    public BinaryProtocol.Response allocate(TrackingNumberRequest request) throws IOException {
+        return allocateAsync(request).join();
+    }
+
+    /**
+     * Sends an allocation request without waiting for the response.
+     *
+     * @param request the allocation request
+     * @return future completed with the server response
+     * @throws IOException if the request cannot be sent
+     */
+    public CompletableFuture<BinaryProtocol.Response> allocateAsync(TrackingNumberRequest request) throws IOException {
+        return allocateAll(List.of(request)).get(0);
+    }
+
+    /**
+     * Pipelines allocation requests on this connection.
+     *
+     * @param requests the allocation requests
+     * @return futures completed with the server responses, in request order
+     * @throws IOException if the requests cannot be sent
+     */
+    public List<CompletableFuture<BinaryProtocol.Response>> allocateAll(List<TrackingNumberRequest> requests)
+            throws IOException {
+        List<CompletableFuture<BinaryProtocol.Response>> futures = new ArrayList<>(requests.size());
+        synchronized (writeBuffer) {
+            for (TrackingNumberRequest request : requests) {
+                if (writeBuffer.remaining() < BinaryProtocol.MAX_FRAME_LENGTH) {
+                    flushWriteBuffer();
+                }
+                int correlationId = nextCorrelationId.incrementAndGet();
+                CompletableFuture<BinaryProtocol.Response> future = new CompletableFuture<>();
+                pending.put(correlationId, future);
+                futures.add(future);
+                BinaryProtocol.writeRequest(writeBuffer, correlationId, request);
+            }
+            flushWriteBuffer();
+        }
+        return futures;
+    }
+
+    private void flushWriteBuffer() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void readResponses() {
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        try {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= Integer.BYTES
+                        && buffer.remaining() >= Integer.BYTES + buffer.getInt(buffer.position())) {
+                    int length = buffer.getInt();
+                    BinaryProtocol.Response response =
+                            BinaryProtocol.readResponse(buffer.slice(buffer.position(), length));
+                    buffer.position(buffer.position() + length);
+                    CompletableFuture<BinaryProtocol.Response> future = pending.remove(response.correlationId());
+                    if (future != null) {
+                        future.complete(response);
+                    }
+                }
+                buffer.compact();
+            }
+        } catch (IOException e) {
+            // Connection closed; pending futures are failed below
+        }
+        IOException closed = new IOException("Connection closed");
+        pending.values().forEach(future -> future.completeExceptionally(closed));
+        pending.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        try {
+            reader.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
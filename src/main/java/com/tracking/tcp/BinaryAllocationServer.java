@@ -0,0 +1,385 @@
+package com.tracking.tcp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.tracking.domain.TrackingNumberRequest;
+import com.tracking.domain.TrackingNumberResponse;
+import com.tracking.service.TrackingNumberService;
+import com.tracking.validation.RequestFieldParser;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * NIO listener serving the binary allocation protocol.
+ *
+ * A single selector thread accepts connections, decodes and validates
+ * frames, and writes responses; generation and persistence run on a bounded
+ * worker pool through the same {@link TrackingNumberService} as the HTTP
+ * API. Clients may pipeline any number of requests per connection and match
+ * responses by correlation id. When the worker queue is full requests are
+ * answered with {@link BinaryProtocol#STATUS_UNAVAILABLE} instead of queuing
+ * without bound. A connection with {@code app.tcp.max-pending-per-connection}
+ * requests not yet answered is not read from until its responses have been
+ * written, so a client that stops reading cannot make responses pile up.
+ */
+@Component
+@ConditionalOnProperty(name = "app.tcp.enabled", havingValue = "true")
+public class BinaryAllocationServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryAllocationServer.class);
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int RESPONSE_BUFFER_SIZE = 64;
+
+    private static final byte[] UNSUPPORTED_VERSION = BinaryProtocol.encodeMessage("Unsupported protocol version");
+    private static final byte[] OVERLOADED = BinaryProtocol.encodeMessage("Server overloaded");
+    private static final byte[] UNEXPECTED_ERROR = BinaryProtocol.encodeMessage("An unexpected error occurred");
+
+    private final TrackingNumberService trackingNumberService;
+    private final String host;
+    private final int port;
+    private final int workerThreads;
+    private final int queueCapacity;
+    private final int maxPendingPerConnection;
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    private volatile boolean running;
+    private volatile ThreadPoolExecutor workers;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+
+    public BinaryAllocationServer(TrackingNumberService trackingNumberService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.tcp.host:0.0.0.0}") String host,
+                                  @Value("${app.tcp.port:7070}") int port,
+                                  @Value("${app.tcp.worker-threads:20}") int workerThreads,
+                                  @Value("${app.tcp.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${app.tcp.max-pending-per-connection:1024}") int maxPendingPerConnection) {
+        this.trackingNumberService = trackingNumberService;
+        this.host = host;
+        this.port = port;
+        this.workerThreads = workerThreads;
+        this.queueCapacity = queueCapacity;
+        this.maxPendingPerConnection = maxPendingPerConnection;
+        Gauge.builder("tracking.tcp.connections", openConnections, AtomicInteger::get)
+                .description("Number of open binary protocol connections")
+                .register(meterRegistry);
+        Gauge.builder("tracking.tcp.queued.requests", this, BinaryAllocationServer::queuedRequests)
+                .description("Number of binary protocol requests waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(host, port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to start binary allocation listener on " + host + ":" + port, e);
+        }
+        workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("tcp-allocation-"));
+        running = true;
+        selectorThread = new Thread(this::runSelectorLoop, "tcp-allocation-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        logger.info("Binary allocation listener started on {}:{}", host, getLocalPort());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            closeQuietly(key);
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.debug("Error closing selector", e);
+        }
+        pendingWrites.clear();
+        logger.info("Binary allocation listener stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the bound port, which differs from the configured one when port 0 is used.
+     *
+     * @return the local port of the listener
+     */
+    public int getLocalPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    private double queuedRequests() {
+        ThreadPoolExecutor current = workers;
+        return current != null ? current.getQueue().size() : 0;
+    }
+
+    private void runSelectorLoop() {
+        while (running) {
+            try {
+                selector.select();
+                Connection connection;
+                while ((connection = pendingWrites.poll()) != null) {
+                    connection.flush();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection target = (Connection) key.attachment();
+                        if (key.isReadable()) {
+                            target.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            target.flush();
+                        }
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                return;
+            } catch (IOException e) {
+                logger.warn("Binary allocation selector error", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+        openConnections.incrementAndGet();
+    }
+
+    private void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            logger.debug("Error closing channel", e);
+        }
+        // Detaching makes a second close of the same key a no-op
+        if (key.attach(null) instanceof Connection) {
+            openConnections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Per-connection state; read and flush run on the selector thread only.
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+        private ByteBuffer writing;
+        // Requests dispatched whose response has not been written yet
+        private int pending;
+        private boolean paused;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void read() {
+            try {
+                if (channel.read(readBuffer) < 0) {
+                    closeQuietly(key);
+                    return;
+                }
+            } catch (IOException e) {
+                closeQuietly(key);
+                return;
+            }
+            readBuffer.flip();
+            process();
+        }
+
+        /**
+         * Dispatches the complete frames in the read buffer, which must be
+         * flipped for reading, until it runs out or too many responses are
+         * pending. Unprocessed bytes are kept for later.
+         */
+        private void process() {
+            while (readBuffer.remaining() >= Integer.BYTES) {
+                if (pending >= maxPendingPerConnection) {
+                    paused = true;
+                    break;
+                }
+                int length = readBuffer.getInt(readBuffer.position());
+                if (length <= 0 || length > BinaryProtocol.MAX_FRAME_LENGTH) {
+                    logger.warn("Closing binary connection after invalid frame length {}", length);
+                    closeQuietly(key);
+                    return;
+                }
+                if (readBuffer.remaining() < Integer.BYTES + length) {
+                    break;
+                }
+                readBuffer.position(readBuffer.position() + Integer.BYTES);
+                ByteBuffer frame = readBuffer.slice(readBuffer.position(), length);
+                readBuffer.position(readBuffer.position() + length);
+                if (!dispatch(frame)) {
+                    closeQuietly(key);
+                    return;
+                }
+            }
+            readBuffer.compact();
+            updateInterest();
+        }
+
+        private boolean dispatch(ByteBuffer frame) {
+            BinaryProtocol.DecodedRequest decoded;
+            try {
+                decoded = BinaryProtocol.readRequest(frame);
+            } catch (BinaryProtocol.MalformedFrameException e) {
+                logger.warn("Closing binary connection after malformed frame: {}", e.getMessage());
+                return false;
+            }
+            int correlationId = decoded.correlationId();
+            TrackingNumberRequest request = decoded.request();
+            pending++;
+            if (request == null) {
+                respondError(correlationId, BinaryProtocol.STATUS_INVALID_REQUEST, UNSUPPORTED_VERSION);
+                return true;
+            }
+            RequestFieldParser.Violation violation = RequestFieldParser.validate(request.originCountryId(),
+                    request.destinationCountryId(), request.weight(), request.customerName(), request.customerSlug());
+            if (violation != null) {
+                respondError(correlationId, BinaryProtocol.STATUS_INVALID_REQUEST,
+                        BinaryProtocol.encodeMessage(violation.message()));
+                return true;
+            }
+            try {
+                workers.execute(() -> generate(correlationId, request));
+            } catch (RejectedExecutionException e) {
+                respondError(correlationId, BinaryProtocol.STATUS_UNAVAILABLE, OVERLOADED);
+            }
+            return true;
+        }
+
+        private void generate(int correlationId, TrackingNumberRequest request) {
+            try {
+                TrackingNumberResponse response = trackingNumberService.generateTrackingNumber(request);
+                ByteBuffer buffer = ByteBuffer.allocate(RESPONSE_BUFFER_SIZE);
+                BinaryProtocol.writeOk(buffer, correlationId, response.trackingNumber(), response.requestId());
+                enqueue(buffer);
+            } catch (TrackingNumberService.TrackingNumberGenerationException e) {
+                respondError(correlationId, BinaryProtocol.STATUS_GENERATION_FAILED,
+                        BinaryProtocol.encodeMessage(e.getMessage()));
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error serving binary allocation request", e);
+                respondError(correlationId, BinaryProtocol.STATUS_GENERATION_FAILED, UNEXPECTED_ERROR);
+            }
+        }
+
+        private void respondError(int correlationId, byte status, byte[] message) {
+            ByteBuffer buffer = ByteBuffer.allocate(BinaryProtocol.errorFrameLength(message));
+            BinaryProtocol.writeError(buffer, correlationId, status, message);
+            enqueue(buffer);
+        }
+
+        private void enqueue(ByteBuffer buffer) {
+            buffer.flip();
+            outbound.add(buffer);
+            pendingWrites.add(this);
+            selector.wakeup();
+        }
+
+        void flush() {
+            if (!key.isValid()) {
+                return;
+            }
+            try {
+                while (writing != null || (writing = outbound.poll()) != null) {
+                    channel.write(writing);
+                    if (writing.hasRemaining()) {
+                        break;
+                    }
+                    writing = null;
+                    pending--;
+                }
+            } catch (IOException e) {
+                closeQuietly(key);
+                return;
+            }
+            if (paused && pending < maxPendingPerConnection) {
+                paused = false;
+                readBuffer.flip();
+                process();
+            } else {
+                updateInterest();
+            }
+        }
+
+        private void updateInterest() {
+            if (key.isValid()) {
+                key.interestOps((paused ? 0 : SelectionKey.OP_READ) | (writing != null ? SelectionKey.OP_WRITE : 0));
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.tracking.tcp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+import com.tracking.domain.TrackingNumberRequest;
+
+/**
+ * Length-prefixed binary format of the TCP allocation protocol.
+ *
+ * Every frame starts with a big-endian int holding the number of bytes that
+ * follow. Frames carry a client-chosen correlation id so that many requests
+ * can be pipelined on one connection and answered as they complete.
+ *
+ * <pre>
+ * request:  int length | byte version | int correlationId
+ *           | 2 bytes origin | 2 bytes destination | double weight
+ *           | long createdAtEpochSecond | int createdAtNanos | int createdAtOffsetSeconds
+ *           | long customerIdMsb | long customerIdLsb
+ *           | short nameLength | name (UTF-8) | byte slugLength | slug (ASCII)
+ *
+ * response: int length | int correlationId | byte status
+ *           | OK:    byte trackingNumberLength | tracking number (ASCII) | long requestIdMsb | long requestIdLsb
+ *           | other: short messageLength | message (UTF-8)
+ * </pre>
+ */
+public final class BinaryProtocol {
+
+    public static final byte VERSION = 1;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_INVALID_REQUEST = 1;
+    public static final byte STATUS_GENERATION_FAILED = 2;
+    public static final byte STATUS_UNAVAILABLE = 3;
+
+    public static final int MAX_FRAME_LENGTH = 4096;
+
+    private static final int MAX_MESSAGE_LENGTH = MAX_FRAME_LENGTH - 16;
+
+    private BinaryProtocol() {}
+
+    /**
+     * Decoded response frame.
+     *
+     * @param correlationId the correlation id of the request being answered
+     * @param status the response status
+     * @param trackingNumber the allocated tracking number, or null if not OK
+     * @param requestId the request id of the allocation, or null if not OK
+     * @param message the error message, or null if OK
+     */
+    public record Response(int correlationId, byte status, String trackingNumber, UUID requestId, String message) {
+
+        public boolean isOk() {
+            return status == STATUS_OK;
+        }
+    }
+
+    /**
+     * Thrown when a frame does not follow the protocol.
+     */
+    public static class MalformedFrameException extends RuntimeException {
+        public MalformedFrameException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Writes a request frame, including its length prefix.
+     *
+     * @param buffer the buffer to write to
+     * @param correlationId the correlation id echoed in the response
+     * @param request the request to encode
+     */
+    public static void writeRequest(ByteBuffer buffer, int correlationId, TrackingNumberRequest request) {
+        byte[] name = request.customerName().getBytes(StandardCharsets.UTF_8);
+        byte[] slug = request.customerSlug().getBytes(StandardCharsets.US_ASCII);
+        if (name.length > Short.MAX_VALUE || slug.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Customer name or slug too long for the binary protocol");
+        }
+        int start = buffer.position();
+        buffer.putInt(0);
+        buffer.put(VERSION);
+        buffer.putInt(correlationId);
+        putCountryCode(buffer, request.originCountryId());
+        putCountryCode(buffer, request.destinationCountryId());
+        buffer.putDouble(request.weight());
+        OffsetDateTime createdAt = request.createdAt();
+        buffer.putLong(createdAt.toEpochSecond());
+        buffer.putInt(createdAt.getNano());
+        buffer.putInt(createdAt.getOffset().getTotalSeconds());
+        buffer.putLong(request.customerId().getMostSignificantBits());
+        buffer.putLong(request.customerId().getLeastSignificantBits());
+        buffer.putShort((short) name.length);
+        buffer.put(name);
+        buffer.put((byte) slug.length);
+        buffer.put(slug);
+        buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+    }
+
+    /**
+     * Reads the body of a request frame whose length prefix has been consumed.
+     *
+     * @param frame the frame body
+     * @return the decoded request
+     * @throws MalformedFrameException if the frame is not a valid request
+     */
+    public static DecodedRequest readRequest(ByteBuffer frame) {
+        try {
+            byte version = frame.get();
+            int correlationId = frame.getInt();
+            if (version != VERSION) {
+                return new DecodedRequest(correlationId, null);
+            }
+            String origin = getCountryCode(frame);
+            String destination = getCountryCode(frame);
+            double weight = frame.getDouble();
+            long epochSecond = frame.getLong();
+            int nanos = frame.getInt();
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds(frame.getInt());
+            OffsetDateTime createdAt = OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nanos), offset);
+            UUID customerId = new UUID(frame.getLong(), frame.getLong());
+            String name = getString(frame, frame.getShort(), true);
+            String slug = getString(frame, frame.get(), false);
+            if (frame.hasRemaining()) {
+                throw new MalformedFrameException("Trailing bytes in request frame");
+            }
+            return new DecodedRequest(correlationId,
+                    new TrackingNumberRequest(origin, destination, weight, createdAt, customerId, name, slug));
+        } catch (RuntimeException e) {
+            if (e instanceof MalformedFrameException malformed) {
+                throw malformed;
+            }
+            throw new MalformedFrameException("Malformed request frame: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Decoded request frame; the request is null when the version is unsupported.
+     *
+     * @param correlationId the correlation id to echo
+     * @param request the decoded request
+     */
+    public record DecodedRequest(int correlationId, TrackingNumberRequest request) {}
+
+    /**
+     * Writes a successful response frame, including its length prefix.
+     *
+     * @param buffer the buffer to write to
+     * @param correlationId the correlation id of the request
+     * @param trackingNumber the allocated tracking number
+     * @param requestId the request id of the allocation
+     */
+    public static void writeOk(ByteBuffer buffer, int correlationId, String trackingNumber, UUID requestId) {
+        buffer.putInt(Integer.BYTES + 1 + 1 + trackingNumber.length() + 2 * Long.BYTES);
+        buffer.putInt(correlationId);
+        buffer.put(STATUS_OK);
+        buffer.put((byte) trackingNumber.length());
+        for (int i = 0; i < trackingNumber.length(); i++) {
+            buffer.put((byte) trackingNumber.charAt(i));
+        }
+        buffer.putLong(requestId.getMostSignificantBits());
+        buffer.putLong(requestId.getLeastSignificantBits());
+    }
+
+    /**
+     * Writes an error response frame, including its length prefix.
+     *
+     * @param buffer the buffer to write to
+     * @param correlationId the correlation id of the request
+     * @param status the error status
+     * @param message the error message
+     */
+    public static void writeError(ByteBuffer buffer, int correlationId, byte status, String message) {
+        writeError(buffer, correlationId, status, encodeMessage(message));
+    }
+
+    /**
+     * Writes an error response frame, including its length prefix.
+     *
+     * @param buffer the buffer to write to, with at least {@link #errorFrameLength} bytes remaining
+     * @param correlationId the correlation id of the request
+     * @param status the error status
+     * @param message the error message as returned by {@link #encodeMessage}
+     */
+    public static void writeError(ByteBuffer buffer, int correlationId, byte status, byte[] message) {
+        buffer.putInt(Integer.BYTES + 1 + Short.BYTES + message.length);
+        buffer.putInt(correlationId);
+        buffer.put(status);
+        buffer.putShort((short) message.length);
+        buffer.put(message);
+    }
+
+    /**
+     * Encodes an error message as UTF-8, cut at a character boundary so the
+     * frame stays within {@link #MAX_FRAME_LENGTH}.
+     *
+     * @param message the error message
+     * @return the encoded message
+     */
+    public static byte[] encodeMessage(String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_MESSAGE_LENGTH) {
+            return bytes;
+        }
+        int length = MAX_MESSAGE_LENGTH;
+        // Drop the start of a character whose continuation bytes do not fit
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * @param message the error message as returned by {@link #encodeMessage}
+     * @return the size of the error frame, including its length prefix
+     */
+    public static int errorFrameLength(byte[] message) {
+        return Integer.BYTES + Integer.BYTES + 1 + Short.BYTES + message.length;
+    }
+
+    /**
+     * Reads the body of a response frame whose length prefix has been consumed.
+     *
+     * @param frame the frame body
+     * @return the decoded response
+     */
+    public static Response readResponse(ByteBuffer frame) {
+        int correlationId = frame.getInt();
+        byte status = frame.get();
+        if (status == STATUS_OK) {
+            String trackingNumber = getString(frame, frame.get(), false);
+            UUID requestId = new UUID(frame.getLong(), frame.getLong());
+            return new Response(correlationId, status, trackingNumber, requestId, null);
+        }
+        return new Response(correlationId, status, null, null, getString(frame, frame.getShort(), true));
+    }
+
+    private static void putCountryCode(ByteBuffer buffer, String code) {
+        if (code == null || code.length() != 2) {
+            throw new IllegalArgumentException("Country code must have two characters");
+        }
+        buffer.put((byte) code.charAt(0));
+        buffer.put((byte) code.charAt(1));
+    }
+
+    private static String getCountryCode(ByteBuffer buffer) {
+        byte[] code = {buffer.get(), buffer.get()};
+        return new String(code, StandardCharsets.US_ASCII);
+    }
+
+    private static String getString(ByteBuffer buffer, int length, boolean utf8) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new MalformedFrameException("Invalid string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, utf8 ? StandardCharsets.UTF_8 : StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,287 @@
+package com.tracking.validation;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Regex-free parsers and validators for tracking number request fields.
+ *
+ * Replaces the Bean Validation {@code @Pattern} checks on the request
+ * parameters with precomputed tables and hand-rolled scanners, so that a
+ * request is validated in a single pass without compiling or running
+ * regular expressions.
+ */
+public final class RequestFieldParser {
+
+    public static final int MAX_CUSTOMER_NAME_LENGTH = 255;
+    public static final int MAX_CUSTOMER_SLUG_LENGTH = 100;
+    public static final double MIN_WEIGHT = 0.001;
+    public static final double MAX_WEIGHT = 999.999;
+
+    // 26x26 bitset of assigned ISO 3166-1 alpha-2 codes, indexed by (first - 'A') * 26 + (second - 'A')
+    private static final long[] COUNTRY_CODES = new long[(26 * 26 + 63) / 64];
+
+    static {
+        for (String code : Locale.getISOCountries()) {
+            int index = (code.charAt(0) - 'A') * 26 + (code.charAt(1) - 'A');
+            COUNTRY_CODES[index >>> 6] |= 1L << index;
+        }
+    }
+
+    private RequestFieldParser() {}
+
+    /**
+     * Validation failures of the plain request fields, with the messages of
+     * the Bean Validation constraints they replace.
+     */
+    public enum Violation {
+        ORIGIN_COUNTRY_ID("origin_country_id", "Origin country ID must be a valid ISO 3166-1 alpha-2 code"),
+        DESTINATION_COUNTRY_ID("destination_country_id", "Destination country ID must be a valid ISO 3166-1 alpha-2 code"),
+        WEIGHT_TOO_LOW("weight", "Weight must be at least 0.001 kg"),
+        WEIGHT_TOO_HIGH("weight", "Weight must not exceed 999.999 kg"),
+        CUSTOMER_NAME_BLANK("customer_name", "Customer name is required"),
+        CUSTOMER_NAME_TOO_LONG("customer_name", "Customer name must not exceed 255 characters"),
+        CUSTOMER_SLUG_FORMAT("customer_slug", "Customer slug must be in kebab-case format"),
+        CUSTOMER_SLUG_TOO_LONG("customer_slug", "Customer slug must not exceed 100 characters");
+
+        private final String parameterName;
+        private final String message;
+
+        Violation(String parameterName, String message) {
+            this.parameterName = parameterName;
+            this.message = message;
+        }
+
+        public String parameterName() {
+            return parameterName;
+        }
+
+        public String message() {
+            return message;
+        }
+    }
+
+    /**
+     * Validates the plain request fields in declaration order.
+     *
+     * @param originCountryId the origin country code
+     * @param destinationCountryId the destination country code
+     * @param weight the weight in kg
+     * @param customerName the customer name
+     * @param customerSlug the customer slug
+     * @return the first violation found, or null if all fields are valid
+     */
+    public static Violation validate(String originCountryId, String destinationCountryId, double weight,
+                                     String customerName, String customerSlug) {
+        if (!isCountryCode(originCountryId)) {
+            return Violation.ORIGIN_COUNTRY_ID;
+        }
+        if (!isCountryCode(destinationCountryId)) {
+            return Violation.DESTINATION_COUNTRY_ID;
+        }
+        if (!(weight >= MIN_WEIGHT)) {
+            return Violation.WEIGHT_TOO_LOW;
+        }
+        if (weight > MAX_WEIGHT) {
+            return Violation.WEIGHT_TOO_HIGH;
+        }
+        if (!isNotBlank(customerName)) {
+            return Violation.CUSTOMER_NAME_BLANK;
+        }
+        if (customerName.length() > MAX_CUSTOMER_NAME_LENGTH) {
+            return Violation.CUSTOMER_NAME_TOO_LONG;
+        }
+        if (!isKebabCase(customerSlug)) {
+            return Violation.CUSTOMER_SLUG_FORMAT;
+        }
+        if (customerSlug.length() > MAX_CUSTOMER_SLUG_LENGTH) {
+            return Violation.CUSTOMER_SLUG_TOO_LONG;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the value is an assigned ISO 3166-1 alpha-2 country code.
+     *
+     * @param value the value to check
+     * @return true if the value is an upper-case, assigned alpha-2 code
+     */
+    public static boolean isCountryCode(String value) {
+        if (value == null || value.length() != 2) {
+            return false;
+        }
+        int first = value.charAt(0) - 'A';
+        int second = value.charAt(1) - 'A';
+        if (first < 0 || first >= 26 || second < 0 || second >= 26) {
+            return false;
+        }
+        int index = first * 26 + second;
+        return (COUNTRY_CODES[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Checks whether the value matches ^[a-z0-9]+(?:-[a-z0-9]+)*$.
+     *
+     * @param value the value to check
+     * @return true if the value is a kebab-case slug
+     */
+    public static boolean isKebabCase(String value) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        boolean previousWasHyphen = true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '-') {
+                if (previousWasHyphen) {
+                    return false;
+                }
+                previousWasHyphen = true;
+            } else if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                previousWasHyphen = false;
+            } else {
+                return false;
+            }
+        }
+        return !previousWasHyphen;
+    }
+
+    /**
+     * Checks whether the value is not blank, matching {@code @NotBlank}.
+     *
+     * @param value the value to check
+     * @return true if the value contains at least one non-whitespace character
+     */
+    public static boolean isNotBlank(String value) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses an RFC 3339 timestamp.
+     *
+     * The common shape {@code yyyy-MM-ddTHH:mm[:ss[.fraction]](Z|+HH:MM)} is
+     * parsed directly; anything else is delegated to
+     * {@link OffsetDateTime#parse(CharSequence)} so the accepted inputs and
+     * results are identical to the JDK parser.
+     *
+     * @param value the timestamp to parse
+     * @return the parsed timestamp, or null if the value is not a valid timestamp
+     */
+    public static OffsetDateTime parseTimestamp(String value) {
+        if (value == null) {
+            return null;
+        }
+        OffsetDateTime parsed = parseCommonTimestamp(value);
+        if (parsed != null) {
+            return parsed;
+        }
+        try {
+            return OffsetDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static OffsetDateTime parseCommonTimestamp(String s) {
+        int length = s.length();
+        if (length < 17 || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(13) != ':') {
+            return null;
+        }
+        char t = s.charAt(10);
+        if (t != 'T' && t != 't') {
+            return null;
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        if ((year | month | day | hour | minute) < 0) {
+            return null;
+        }
+
+        int pos = 16;
+        int second = 0;
+        int nano = 0;
+        if (pos < length && s.charAt(pos) == ':') {
+            if (pos + 3 > length) {
+                return null;
+            }
+            second = digits(s, pos + 1, 2);
+            if (second < 0) {
+                return null;
+            }
+            pos += 3;
+            if (pos < length && s.charAt(pos) == '.') {
+                int start = ++pos;
+                while (pos < length && pos - start < 9 && isDigit(s.charAt(pos))) {
+                    nano = nano * 10 + (s.charAt(pos) - '0');
+                    pos++;
+                }
+                int fractionDigits = pos - start;
+                if (fractionDigits == 0 || (pos < length && isDigit(s.charAt(pos)))) {
+                    return null;
+                }
+                for (int i = fractionDigits; i < 9; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+
+        ZoneOffset offset;
+        if (pos == length - 1 && (s.charAt(pos) == 'Z' || s.charAt(pos) == 'z')) {
+            offset = ZoneOffset.UTC;
+        } else if (pos == length - 6 && s.charAt(pos + 3) == ':') {
+            char sign = s.charAt(pos);
+            int offsetHours = digits(s, pos + 1, 2);
+            int offsetMinutes = digits(s, pos + 4, 2);
+            if ((sign != '+' && sign != '-') || (offsetHours | offsetMinutes) < 0 || offsetMinutes > 59) {
+                return null;
+            }
+            int totalSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (sign == '-' ? -1 : 1);
+            try {
+                offset = ZoneOffset.ofTotalSeconds(totalSeconds);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+
+        try {
+            return OffsetDateTime.of(LocalDate.of(year, month, day),
+                    LocalTime.of(hour, minute, second, nano), offset);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int digits(String s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
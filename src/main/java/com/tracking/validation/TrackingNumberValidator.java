@@ -0,0 +1,136 @@
+package com.tracking.validation;
+
+/**
+ * Validation utility for tracking number strings.
+ *
+ * Implements the ISO 7064 MOD 37,36 hybrid check character system over the
+ * alphanumeric alphabet (0-9 = 0..9, A-Z = 10..35). The check character is
+ * drawn from the same alphabet, so a number carrying one still matches
+ * ^[A-Z0-9]{8,16}$. It detects all single-character substitutions and all
+ * adjacent transpositions, which covers the bulk of mistyped lookups.
+ *
+ * All methods are allocation-free and run in a single pass over the input.
+ */
+public final class TrackingNumberValidator {
+
+    public static final int MIN_LENGTH = 8;
+    public static final int MAX_LENGTH = 16;
+
+    private static final int MODULUS = 36;
+    private static final int MODULUS_PLUS_ONE = 37;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    // Character value lookup; -1 marks characters outside [0-9A-Z]
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        java.util.Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private TrackingNumberValidator() {}
+
+    /**
+     * Computes the check character for the given characters.
+     *
+     * @param chars the characters to protect
+     * @param length the number of leading characters of {@code chars} to use
+     * @return the ISO 7064 MOD 37,36 check character
+     * @throws IllegalArgumentException if a character is outside [0-9A-Z]
+     */
+    public static char computeCheckCharacter(char[] chars, int length) {
+        int p = MODULUS;
+        for (int i = 0; i < length; i++) {
+            int value = valueOf(chars[i]);
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid tracking number character: " + chars[i]);
+            }
+            p = step(p, value);
+        }
+        return ALPHABET[(MODULUS_PLUS_ONE - p) % MODULUS];
+    }
+
+    /**
+     * Computes the check character for the given string.
+     *
+     * @param value the characters to protect
+     * @return the ISO 7064 MOD 37,36 check character
+     * @throws IllegalArgumentException if a character is outside [0-9A-Z]
+     */
+    public static char computeCheckCharacter(CharSequence value) {
+        int p = MODULUS;
+        for (int i = 0; i < value.length(); i++) {
+            int v = valueOf(value.charAt(i));
+            if (v < 0) {
+                throw new IllegalArgumentException("Invalid tracking number character: " + value.charAt(i));
+            }
+            p = step(p, v);
+        }
+        return ALPHABET[(MODULUS_PLUS_ONE - p) % MODULUS];
+    }
+
+    /**
+     * Checks whether the last character of the value is a valid check
+     * character for the characters preceding it.
+     *
+     * @param value the tracking number including its check character
+     * @return true if the check character matches, false otherwise
+     */
+    public static boolean hasValidCheckCharacter(CharSequence value) {
+        int length = value.length();
+        if (length < 2) {
+            return false;
+        }
+        int p = MODULUS;
+        for (int i = 0; i < length - 1; i++) {
+            int v = valueOf(value.charAt(i));
+            if (v < 0) {
+                return false;
+            }
+            p = step(p, v);
+        }
+        int check = valueOf(value.charAt(length - 1));
+        return check >= 0 && (p + check) % MODULUS == 1;
+    }
+
+    /**
+     * Checks whether the value matches ^[A-Z0-9]{8,16}$ and, if requested,
+     * carries a valid check character.
+     *
+     * @param value the tracking number to check
+     * @param requireCheckCharacter whether the last character must be a valid check character
+     * @return true if the value is a well-formed tracking number
+     */
+    public static boolean isWellFormed(CharSequence value, boolean requireCheckCharacter) {
+        if (value == null) {
+            return false;
+        }
+        int length = value.length();
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return false;
+        }
+        if (requireCheckCharacter) {
+            return hasValidCheckCharacter(value);
+        }
+        for (int i = 0; i < length; i++) {
+            if (valueOf(value.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int step(int p, int value) {
+        int s = (p + value) % MODULUS;
+        if (s == 0) {
+            s = MODULUS;
+        }
+        return (s * 2) % MODULUS_PLUS_ONE;
+    }
+
+    private static int valueOf(char c) {
+        return c < 128 ? VALUES[c] : -1;
+    }
+}
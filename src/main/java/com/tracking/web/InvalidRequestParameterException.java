@@ -0,0 +1,28 @@
+package com.tracking.web;
+
+/**
+ * Exception thrown when a request parameter fails parsing or validation.
+ *
+ * Carries the error type and message separately so that controllers can
+ * render the same error responses they produced before parameter parsing
+ * moved into an argument resolver.
+ */
+public class InvalidRequestParameterException extends RuntimeException {
+
+    private final String parameterName;
+    private final String error;
+
+    public InvalidRequestParameterException(String parameterName, String error, String message) {
+        super(message, null, false, false);
+        this.parameterName = parameterName;
+        this.error = error;
+    }
+
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
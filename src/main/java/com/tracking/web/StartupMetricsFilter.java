@@ -0,0 +1,155 @@
+package com.tracking.web;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Measures how long a freshly started instance takes to serve its first
+ * generation request and to reach steady-state latency.
+ *
+ * Generation requests are grouped into windows of {@value #WINDOW_SIZE};
+ * steady state is reached once {@value #STABLE_WINDOWS} consecutive windows
+ * have a mean latency within {@value #TOLERANCE_PERCENT}% of the previous
+ * window. Both times are measured from JVM start and published as gauges
+ * ({@code NaN} until known). Once steady state is reached the filter only
+ * checks a volatile flag per request.
+ *
+ * Generation completes asynchronously, so a request's latency runs from its
+ * initial dispatch until the async dispatch that writes the response.
+ */
+@Component
+public class StartupMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupMetricsFilter.class);
+
+    static final int WINDOW_SIZE = 500;
+    static final int STABLE_WINDOWS = 3;
+    static final int TOLERANCE_PERCENT = 10;
+
+    private static final String GENERATION_PATH = "/next-tracking-number";
+    private static final String START_ATTRIBUTE = StartupMetricsFilter.class.getName() + ".start";
+
+    private final LongSupplier uptimeMillis;
+
+    private volatile long timeToFirstRequestMillis = -1;
+    private volatile long timeToSteadyStateMillis = -1;
+    private volatile boolean steady;
+
+    // Guarded by this
+    private int windowCount;
+    private long windowTotalNanos;
+    private double previousWindowMean = -1;
+    private int stableWindows;
+    private long requestsSeen;
+
+    @Autowired
+    public StartupMetricsFilter(ObjectProvider<MeterRegistry> meterRegistry) {
+        this(meterRegistry.getIfAvailable(), () -> ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    StartupMetricsFilter(MeterRegistry meterRegistry, LongSupplier uptimeMillis) {
+        this.uptimeMillis = uptimeMillis;
+        if (meterRegistry != null) {
+            Gauge.builder("tracking.startup.time.to.first.request", this, f -> seconds(f.timeToFirstRequestMillis))
+                    .description("Time from JVM start until the first generation request completed")
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("tracking.startup.time.to.steady.state", this, f -> seconds(f.timeToSteadyStateMillis))
+                    .description("Time from JVM start until generation latency stabilized")
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return steady || !request.getRequestURI().endsWith(GENERATION_PATH);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = request.getAttribute(START_ATTRIBUTE) instanceof Long started ? started : System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.setAttribute(START_ATTRIBUTE, start);
+            } else {
+                record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Records the latency of one generation request.
+     *
+     * @param latencyNanos the request latency in nanoseconds
+     */
+    synchronized void record(long latencyNanos) {
+        if (steady) {
+            return;
+        }
+        requestsSeen++;
+        if (timeToFirstRequestMillis < 0) {
+            timeToFirstRequestMillis = uptimeMillis.getAsLong();
+            logger.info("First generation request served {} ms after JVM start", timeToFirstRequestMillis);
+        }
+
+        windowTotalNanos += latencyNanos;
+        if (++windowCount < WINDOW_SIZE) {
+            return;
+        }
+        double mean = (double) windowTotalNanos / windowCount;
+        windowCount = 0;
+        windowTotalNanos = 0;
+
+        if (previousWindowMean > 0
+                && Math.abs(mean - previousWindowMean) <= previousWindowMean * TOLERANCE_PERCENT / 100.0) {
+            stableWindows++;
+        } else {
+            stableWindows = 0;
+        }
+        previousWindowMean = mean;
+
+        if (stableWindows >= STABLE_WINDOWS) {
+            timeToSteadyStateMillis = uptimeMillis.getAsLong();
+            steady = true;
+            logger.info("Generation latency reached steady state ({} us mean) after {} requests, {} ms after JVM start",
+                    TimeUnit.NANOSECONDS.toMicros((long) mean), requestsSeen, timeToSteadyStateMillis);
+        }
+    }
+
+    long getTimeToFirstRequestMillis() {
+        return timeToFirstRequestMillis;
+    }
+
+    long getTimeToSteadyStateMillis() {
+        return timeToSteadyStateMillis;
+    }
+
+    private static double seconds(long millis) {
+        return millis < 0 ? Double.NaN : millis / 1000.0;
+    }
+}
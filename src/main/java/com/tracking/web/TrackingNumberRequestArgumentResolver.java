@@ -0,0 +1,107 @@
+package com.tracking.web;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.tracking.domain.TrackingNumberRequest;
+import com.tracking.validation.RequestFieldParser;
+
+/**
+ * Resolves {@link TrackingNumberRequest} arguments directly from query parameters.
+ *
+ * Parses and validates all parameters in one pass, replacing the
+ * {@code @RequestParam} conversion, Bean Validation regexes and the
+ * follow-up timestamp/UUID parsing that previously ran for every request.
+ * Validation messages are the ones the removed constraints declared.
+ */
+public class TrackingNumberRequestArgumentResolver implements HandlerMethodArgumentResolver {
+
+    static final String ORIGIN_COUNTRY_ID = "origin_country_id";
+    static final String DESTINATION_COUNTRY_ID = "destination_country_id";
+    static final String WEIGHT = "weight";
+    static final String CREATED_AT = "created_at";
+    static final String CUSTOMER_ID = "customer_id";
+    static final String CUSTOMER_NAME = "customer_name";
+    static final String CUSTOMER_SLUG = "customer_slug";
+
+    private static final String VALIDATION_FAILED = "Validation Failed";
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == TrackingNumberRequest.class;
+    }
+
+    @Override
+    public TrackingNumberRequest resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                                 NativeWebRequest webRequest, WebDataBinderFactory binderFactory)
+            throws MissingServletRequestParameterException {
+
+        String originCountryId = required(webRequest, ORIGIN_COUNTRY_ID, "String");
+        String destinationCountryId = required(webRequest, DESTINATION_COUNTRY_ID, "String");
+        String weight = required(webRequest, WEIGHT, "Double");
+        String createdAt = required(webRequest, CREATED_AT, "String");
+        String customerId = required(webRequest, CUSTOMER_ID, "String");
+        String customerName = required(webRequest, CUSTOMER_NAME, "String");
+        String customerSlug = required(webRequest, CUSTOMER_SLUG, "String");
+
+        double parsedWeight = parseWeight(weight);
+        RequestFieldParser.Violation violation = RequestFieldParser.validate(
+                originCountryId, destinationCountryId, parsedWeight, customerName, customerSlug);
+        if (violation != null) {
+            throw new InvalidRequestParameterException(violation.parameterName(), VALIDATION_FAILED, violation.message());
+        }
+
+        OffsetDateTime parsedCreatedAt = RequestFieldParser.parseTimestamp(createdAt);
+        if (parsedCreatedAt == null) {
+            throw new InvalidRequestParameterException(CREATED_AT,
+                    "Invalid timestamp format", "created_at must be in RFC 3339 format");
+        }
+
+        UUID parsedCustomerId;
+        try {
+            parsedCustomerId = UUID.fromString(customerId);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestParameterException(CUSTOMER_ID,
+                    "Invalid UUID format", "customer_id must be a valid UUID");
+        }
+
+        return new TrackingNumberRequest(
+            originCountryId,
+            destinationCountryId,
+            parsedWeight,
+            parsedCreatedAt,
+            parsedCustomerId,
+            customerName,
+            customerSlug
+        );
+    }
+
+    private static String required(NativeWebRequest webRequest, String name, String type)
+            throws MissingServletRequestParameterException {
+        String value = webRequest.getParameter(name);
+        if (value == null) {
+            throw new MissingServletRequestParameterException(name, type);
+        }
+        return value;
+    }
+
+    private static double parseWeight(String weight) throws MissingServletRequestParameterException {
+        String trimmed = weight.strip();
+        if (trimmed.isEmpty()) {
+            throw new MissingServletRequestParameterException(WEIGHT, "Double");
+        }
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestParameterException(WEIGHT,
+                    "Invalid weight format", "weight must be a decimal number");
+        }
+    }
+}
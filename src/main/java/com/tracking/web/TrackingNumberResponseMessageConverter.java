@@ -0,0 +1,253 @@
+package com.tracking.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.tracking.domain.TrackingNumberResponse;
+
+/**
+ * Writes {@link TrackingNumberResponse} as JSON without Jackson.
+ *
+ * The response is a fixed five-field record, so field names are encoded
+ * once and the body is assembled in a per-thread scratch buffer that is
+ * flushed to the servlet output stream with a single write. The output is
+ * byte-identical to the Jackson serialization of the record, including
+ * the {@code @JsonFormat} timestamp pattern, null fields and Jackson's
+ * string escaping rules.
+ */
+public class TrackingNumberResponseMessageConverter extends AbstractHttpMessageConverter<TrackingNumberResponse> {
+
+    private static final byte[] TRACKING_NUMBER = ascii("{\"tracking_number\":");
+    private static final byte[] CREATED_AT = ascii(",\"created_at\":");
+    private static final byte[] REQUEST_ID = ascii(",\"request_id\":");
+    private static final byte[] CUSTOMER_ID = ascii(",\"customer_id\":");
+    private static final byte[] CUSTOMER_NAME = ascii(",\"customer_name\":");
+    private static final byte[] NULL = ascii("null");
+
+    private static final byte[] HEX_LOWER = ascii("0123456789abcdef");
+    private static final byte[] HEX_UPPER = ascii("0123456789ABCDEF");
+
+    // Same pattern as the @JsonFormat on TrackingNumberResponse.createdAt; used outside the fast path
+    private static final DateTimeFormatter CREATED_AT_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX", Locale.getDefault());
+
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+
+    public TrackingNumberResponseMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == TrackingNumberResponse.class;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected TrackingNumberResponse readInternal(Class<? extends TrackingNumberResponse> clazz,
+                                                  HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("TrackingNumberResponse is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(TrackingNumberResponse response, HttpOutputMessage outputMessage)
+            throws IOException {
+        write(response, outputMessage.getBody());
+    }
+
+    /**
+     * Writes the JSON encoding of the response to the given stream.
+     *
+     * @param response the response to encode
+     * @param out the stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    public void write(TrackingNumberResponse response, OutputStream out) throws IOException {
+        int maxLength = maxEncodedLength(response);
+        byte[] buffer = BUFFERS.get();
+        if (buffer.length < maxLength) {
+            buffer = new byte[Math.max(maxLength, buffer.length * 2)];
+            BUFFERS.set(buffer);
+        }
+
+        int pos = put(buffer, 0, TRACKING_NUMBER);
+        pos = putString(buffer, pos, response.trackingNumber());
+        pos = put(buffer, pos, CREATED_AT);
+        pos = putTimestamp(buffer, pos, response.createdAt());
+        pos = put(buffer, pos, REQUEST_ID);
+        pos = putUuid(buffer, pos, response.requestId());
+        pos = put(buffer, pos, CUSTOMER_ID);
+        pos = putUuid(buffer, pos, response.customerId());
+        pos = put(buffer, pos, CUSTOMER_NAME);
+        pos = putString(buffer, pos, response.customerName());
+        buffer[pos++] = '}';
+
+        out.write(buffer, 0, pos);
+    }
+
+    private static int maxEncodedLength(TrackingNumberResponse response) {
+        // Field names, braces, two UUIDs and a timestamp fit comfortably in 256 bytes;
+        // a string char expands to at most 6 bytes (\\uXXXX escape)
+        return 256 + 6 * (length(response.trackingNumber()) + length(response.customerName()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static int put(byte[] buffer, int pos, byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+        return pos + bytes.length;
+    }
+
+    private static int putString(byte[] buffer, int pos, String value) {
+        if (value == null) {
+            return put(buffer, pos, NULL);
+        }
+        buffer[pos++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c < 0x20) {
+                    pos = putControlEscape(buffer, pos, c);
+                } else if (c == '"' || c == '\\') {
+                    buffer[pos++] = '\\';
+                    buffer[pos++] = (byte) c;
+                } else {
+                    buffer[pos++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Jackson's UTF-8 generator escapes every surrogate rather than combining pairs
+                pos = putUnicodeEscape(buffer, pos, c);
+            } else {
+                buffer[pos++] = (byte) (0xE0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        buffer[pos++] = '"';
+        return pos;
+    }
+
+    private static int putControlEscape(byte[] buffer, int pos, char c) {
+        byte shortEscape = switch (c) {
+            case '\b' -> 'b';
+            case '\t' -> 't';
+            case '\n' -> 'n';
+            case '\f' -> 'f';
+            case '\r' -> 'r';
+            default -> 0;
+        };
+        if (shortEscape == 0) {
+            return putUnicodeEscape(buffer, pos, c);
+        }
+        buffer[pos++] = '\\';
+        buffer[pos++] = shortEscape;
+        return pos;
+    }
+
+    private static int putUnicodeEscape(byte[] buffer, int pos, char c) {
+        buffer[pos++] = '\\';
+        buffer[pos++] = 'u';
+        buffer[pos++] = HEX_UPPER[(c >> 12) & 0xF];
+        buffer[pos++] = HEX_UPPER[(c >> 8) & 0xF];
+        buffer[pos++] = HEX_UPPER[(c >> 4) & 0xF];
+        buffer[pos++] = HEX_UPPER[c & 0xF];
+        return pos;
+    }
+
+    private static int putTimestamp(byte[] buffer, int pos, OffsetDateTime value) {
+        if (value == null) {
+            return put(buffer, pos, NULL);
+        }
+        int year = value.getYear();
+        int offsetSeconds = value.getOffset().getTotalSeconds();
+        if (year < 1 || year > 9999 || offsetSeconds % 60 != 0) {
+            // Outside the fixed-width shape; the cached formatter handles signs, eras and offset seconds
+            return putString(buffer, pos, CREATED_AT_FORMATTER.format(value));
+        }
+
+        buffer[pos++] = '"';
+        pos = putDigits(buffer, pos, year, 4);
+        buffer[pos++] = '-';
+        pos = putDigits(buffer, pos, value.getMonthValue(), 2);
+        buffer[pos++] = '-';
+        pos = putDigits(buffer, pos, value.getDayOfMonth(), 2);
+        buffer[pos++] = 'T';
+        pos = putDigits(buffer, pos, value.getHour(), 2);
+        buffer[pos++] = ':';
+        pos = putDigits(buffer, pos, value.getMinute(), 2);
+        buffer[pos++] = ':';
+        pos = putDigits(buffer, pos, value.getSecond(), 2);
+        if (offsetSeconds == 0) {
+            buffer[pos++] = 'Z';
+        } else {
+            int absolute = Math.abs(offsetSeconds);
+            buffer[pos++] = (byte) (offsetSeconds < 0 ? '-' : '+');
+            pos = putDigits(buffer, pos, absolute / 3600, 2);
+            buffer[pos++] = ':';
+            pos = putDigits(buffer, pos, (absolute / 60) % 60, 2);
+        }
+        buffer[pos++] = '"';
+        return pos;
+    }
+
+    private static int putDigits(byte[] buffer, int pos, int value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    private static int putUuid(byte[] buffer, int pos, UUID value) {
+        if (value == null) {
+            return put(buffer, pos, NULL);
+        }
+        long msb = value.getMostSignificantBits();
+        long lsb = value.getLeastSignificantBits();
+        buffer[pos++] = '"';
+        pos = putHex(buffer, pos, msb >>> 32, 8);
+        buffer[pos++] = '-';
+        pos = putHex(buffer, pos, msb >>> 16, 4);
+        buffer[pos++] = '-';
+        pos = putHex(buffer, pos, msb, 4);
+        buffer[pos++] = '-';
+        pos = putHex(buffer, pos, lsb >>> 48, 4);
+        buffer[pos++] = '-';
+        pos = putHex(buffer, pos, lsb, 12);
+        buffer[pos++] = '"';
+        return pos;
+    }
+
+    private static int putHex(byte[] buffer, int pos, long value, int digits) {
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buffer[i] = HEX_LOWER[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return pos + digits;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,3 @@
+-- The PostgreSQL schema drops indexes left invalid by a failed concurrent build in this
+-- version. H2 builds indexes in a transaction (see V2), so none is ever left invalid.
+SELECT 1;
@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS tracking_numbers (
+    id                     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tracking_number        VARCHAR(16)              NOT NULL,
+    origin_country_id      VARCHAR(2)               NOT NULL,
+    destination_country_id VARCHAR(2)               NOT NULL,
+    weight                 DOUBLE PRECISION         NOT NULL,
+    customer_id            UUID                     NOT NULL,
+    customer_name          VARCHAR(255)             NOT NULL,
+    customer_slug          VARCHAR(100)             NOT NULL,
+    request_id             UUID,
+    created_at             TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at             TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT uk_tracking_numbers_tracking_number UNIQUE (tracking_number)
+);
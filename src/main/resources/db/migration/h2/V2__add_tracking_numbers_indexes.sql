@@ -0,0 +1,6 @@
+-- H2 has no fillfactor or BRIN indexes; the B-tree indexes match the PostgreSQL migration.
+CREATE INDEX IF NOT EXISTS idx_tracking_numbers_customer_created
+    ON tracking_numbers (customer_id, created_at DESC);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_tracking_numbers_request_id
+    ON tracking_numbers (request_id);
@@ -0,0 +1,13 @@
+-- Chunks of a bulk import that have been loaded into tracking_numbers. A chunk's row is
+-- inserted in the same transaction as its tracking numbers, so an interrupted import can
+-- be resumed by skipping the chunks listed here. chunk_size is fixed per import.
+CREATE TABLE IF NOT EXISTS import_checkpoints (
+    import_id      VARCHAR(64)                 NOT NULL,
+    chunk          BIGINT                      NOT NULL,
+    chunk_size     INTEGER                     NOT NULL,
+    loaded_rows    INTEGER                     NOT NULL,
+    duplicate_rows INTEGER                     NOT NULL,
+    invalid_rows   INTEGER                     NOT NULL,
+    committed_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_import_checkpoints PRIMARY KEY (import_id, chunk)
+);
@@ -0,0 +1,20 @@
+-- Customers, referenced by tracking_numbers.customer_id instead of repeating the name
+-- and slug on every row. A customer's name and slug are those of its latest request.
+-- Mirrors the PostgreSQL expand step: the repeated columns stay, now nullable, until a
+-- later release drops them. H2 has no rolling deploys, so there is no trigger.
+CREATE TABLE IF NOT EXISTS customers (
+    customer_id   UUID                        PRIMARY KEY,
+    customer_name VARCHAR(255)                NOT NULL,
+    customer_slug VARCHAR(100)                NOT NULL,
+    created_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_customers_slug ON customers (customer_slug);
+
+ALTER TABLE tracking_numbers ALTER COLUMN customer_name SET NULL;
+ALTER TABLE tracking_numbers ALTER COLUMN customer_slug SET NULL;
+
+-- No foreign key: H2 would back it with its own index on customer_id alone, which its
+-- planner then prefers to idx_tracking_numbers_customer_created, so customer history
+-- would be sorted again. The PostgreSQL schema enforces the reference.
@@ -0,0 +1,11 @@
+-- Stores each existing customer with the name and slug of its latest row, ordered as
+-- in the PostgreSQL migration.
+INSERT INTO customers (customer_id, customer_name, customer_slug)
+SELECT customer_id, customer_name, customer_slug
+FROM (
+    SELECT customer_id, customer_name, customer_slug,
+           ROW_NUMBER() OVER (PARTITION BY customer_id ORDER BY created_at DESC, id DESC) AS recency
+    FROM tracking_numbers
+    WHERE customer_name IS NOT NULL
+) latest
+WHERE recency = 1;
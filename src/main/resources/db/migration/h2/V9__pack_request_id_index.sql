@@ -0,0 +1,3 @@
+-- The PostgreSQL schema changes the fillfactor of the request id index in this version.
+-- H2 has no fillfactor (see V2), so there is nothing to do.
+SELECT 1;
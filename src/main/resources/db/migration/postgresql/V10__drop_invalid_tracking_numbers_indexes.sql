@@ -0,0 +1,27 @@
+-- A CREATE INDEX CONCURRENTLY that fails (a duplicate request id, a deadlock, a cancelled
+-- deploy) leaves the index behind marked INVALID: it is maintained on every insert but
+-- never used, and the IF NOT EXISTS in V2 skips it when the migration is retried. Drop
+-- any of the V2 indexes left in that state so V11 builds them again. Healthy indexes are
+-- untouched. DROP INDEX briefly takes ACCESS EXCLUSIVE on tracking_numbers, so give up
+-- rather than queue inserts behind a long-running transaction.
+SET LOCAL lock_timeout = '10s';
+
+DO $$
+DECLARE
+    invalid_index text;
+BEGIN
+    FOR invalid_index IN
+        SELECT c.relname
+        FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indexrelid
+        WHERE i.indrelid = 'tracking_numbers'::regclass
+          AND NOT i.indisvalid
+          AND c.relname IN ('idx_tracking_numbers_customer_created',
+                            'uk_tracking_numbers_request_id',
+                            'brin_tracking_numbers_created_at')
+    LOOP
+        RAISE NOTICE 'Dropping invalid index %', invalid_index;
+        EXECUTE format('DROP INDEX %I', invalid_index);
+    END LOOP;
+END
+$$;
@@ -0,0 +1,19 @@
+-- Builds the V2 indexes that V10 dropped as invalid; those already in place are skipped.
+-- The definitions match V2, with the request id fillfactor from V9. Flyway runs this
+-- migration outside a transaction.
+--
+-- If a build here fails, the index is again left INVALID and a retry skips it. Drop it
+-- with DROP INDEX CONCURRENTLY <name>, remove the failed row with flyway repair and
+-- migrate again.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tracking_numbers_customer_created
+    ON tracking_numbers (customer_id, created_at DESC)
+    WITH (fillfactor = 90);
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_tracking_numbers_request_id
+    ON tracking_numbers (request_id)
+    WITH (fillfactor = 90);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS brin_tracking_numbers_created_at
+    ON tracking_numbers USING BRIN (created_at)
+    WITH (pages_per_range = 32);
@@ -0,0 +1,20 @@
+-- CONCURRENTLY builds the indexes without blocking generation inserts on existing
+-- databases; Flyway runs this migration outside a transaction.
+
+-- Customer history and counts: WHERE customer_id = ? ORDER BY created_at DESC
+-- is answered by an index range scan in the requested order, without a sort.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tracking_numbers_customer_created
+    ON tracking_numbers (customer_id, created_at DESC)
+    WITH (fillfactor = 90);
+
+-- One row per generation request. Random UUIDs land anywhere in the index,
+-- so leave room on each leaf page to absorb inserts before splitting.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_tracking_numbers_request_id
+    ON tracking_numbers (request_id)
+    WITH (fillfactor = 80);
+
+-- created_at follows insertion order, so a BRIN index summarizes time ranges
+-- in a few pages instead of a full B-tree.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS brin_tracking_numbers_created_at
+    ON tracking_numbers USING BRIN (created_at)
+    WITH (pages_per_range = 32);
@@ -0,0 +1,10 @@
+-- Per-customer tracking number formats. Generated numbers are <prefix><random characters>,
+-- followed by the check character when check characters are enabled, and always
+-- number_length characters long. Customers without a row use the default format.
+CREATE TABLE IF NOT EXISTS tracking_number_formats (
+    customer_slug VARCHAR(100) PRIMARY KEY,
+    prefix        VARCHAR(15)  NOT NULL DEFAULT '',
+    alphabet      VARCHAR(36)  NOT NULL DEFAULT 'ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789',
+    number_length INTEGER      NOT NULL,
+    CONSTRAINT ck_tracking_number_formats_length CHECK (number_length BETWEEN 8 AND 16)
+);
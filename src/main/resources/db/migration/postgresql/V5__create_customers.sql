@@ -0,0 +1,51 @@
+-- Customers, referenced by tracking_numbers.customer_id instead of repeating the name
+-- and slug on every row. A customer's name and slug are those of its latest request.
+--
+-- This is the expand step of a rolling change: replicas still running the previous
+-- release keep inserting customer_name and customer_slug, so the columns stay (now
+-- nullable) and a trigger copies what those replicas write into customers. V6
+-- backfills existing customers and V7 validates the foreign key. A later release
+-- drops the trigger and the columns once no replica writes them.
+--
+-- Flyway runs each migration in one transaction and every lock taken here is held
+-- until it commits, so this one only changes the catalog and never scans a table.
+CREATE TABLE IF NOT EXISTS customers (
+    customer_id   UUID                        PRIMARY KEY,
+    customer_name VARCHAR(255)                NOT NULL,
+    customer_slug VARCHAR(100)                NOT NULL,
+    created_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Format seeding and slug filters join tracking_numbers through the slug
+CREATE INDEX IF NOT EXISTS idx_customers_slug ON customers (customer_slug);
+
+ALTER TABLE tracking_numbers
+    ALTER COLUMN customer_name DROP NOT NULL,
+    ALTER COLUMN customer_slug DROP NOT NULL;
+
+CREATE OR REPLACE FUNCTION copy_tracking_number_customer() RETURNS trigger AS $$
+BEGIN
+    IF NEW.customer_name IS NOT NULL AND NEW.customer_slug IS NOT NULL THEN
+        INSERT INTO customers (customer_id, customer_name, customer_slug)
+        VALUES (NEW.customer_id, NEW.customer_name, NEW.customer_slug)
+        ON CONFLICT (customer_id) DO UPDATE SET
+            customer_name = EXCLUDED.customer_name,
+            customer_slug = EXCLUDED.customer_slug,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE customers.customer_name <> EXCLUDED.customer_name
+            OR customers.customer_slug <> EXCLUDED.customer_slug;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- BEFORE, so the customer exists when the foreign key is checked
+CREATE TRIGGER trg_tracking_numbers_copy_customer
+    BEFORE INSERT ON tracking_numbers
+    FOR EACH ROW EXECUTE FUNCTION copy_tracking_number_customer();
+
+-- NOT VALID checks new rows only, so adding it does not scan tracking_numbers.
+-- idx_tracking_numbers_customer_created covers the referencing side.
+ALTER TABLE tracking_numbers ADD CONSTRAINT fk_tracking_numbers_customer
+    FOREIGN KEY (customer_id) REFERENCES customers (customer_id) NOT VALID;
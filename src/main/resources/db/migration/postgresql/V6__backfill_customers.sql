@@ -0,0 +1,14 @@
+-- Stores each existing customer with the name and slug of its latest row. Runs in its
+-- own transaction after V5 has committed, so the trigger already covers rows inserted
+-- while it scans, and those keep the name they were inserted with. The scan only takes
+-- ACCESS SHARE on tracking_numbers and does not block inserts.
+INSERT INTO customers (customer_id, customer_name, customer_slug)
+SELECT customer_id, customer_name, customer_slug
+FROM (
+    SELECT customer_id, customer_name, customer_slug,
+           ROW_NUMBER() OVER (PARTITION BY customer_id ORDER BY created_at DESC, id DESC) AS recency
+    FROM tracking_numbers
+    WHERE customer_name IS NOT NULL
+) latest
+WHERE recency = 1
+ON CONFLICT (customer_id) DO NOTHING;
@@ -0,0 +1,4 @@
+-- Checks the rows that existed before V5 added the foreign key. In its own transaction
+-- VALIDATE only takes SHARE UPDATE EXCLUSIVE on tracking_numbers, so inserts continue
+-- while it scans.
+ALTER TABLE tracking_numbers VALIDATE CONSTRAINT fk_tracking_numbers_customer;
@@ -0,0 +1,12 @@
+-- Leases for jobs that must run on one instance at a time. An instance holds a job
+-- while locked_until is in the future; one that dies keeps it until the lease runs out.
+CREATE TABLE IF NOT EXISTS job_locks (
+    name         VARCHAR(64)                 PRIMARY KEY,
+    locked_until TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    locked_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    locked_by    VARCHAR(255)                NOT NULL
+);
+
+INSERT INTO job_locks (name, locked_until, locked_at, locked_by)
+VALUES ('archive', TIMESTAMP WITH TIME ZONE '1970-01-01 00:00:00+00',
+        TIMESTAMP WITH TIME ZONE '1970-01-01 00:00:00+00', '');
@@ -0,0 +1,8 @@
+-- V2 left 20% free on each leaf page of the request id index because request ids were
+-- random UUIDs. They are UUIDv7 by default now: time-ordered, so inserts land at the
+-- right-hand edge of the index and the free space on earlier pages is never used. Go
+-- back to the B-tree default, which still absorbs ids arriving slightly out of order
+-- from concurrent requests, or random ids with app.request-id.generator=random. This
+-- only applies to pages split from now on and takes SHARE UPDATE EXCLUSIVE, so inserts
+-- continue.
+ALTER INDEX uk_tracking_numbers_request_id SET (fillfactor = 90);
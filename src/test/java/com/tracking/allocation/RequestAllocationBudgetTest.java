@@ -0,0 +1,205 @@
+package com.tracking.allocation;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import com.tracking.controller.TrackingNumberController;
+import com.tracking.domain.TrackingNumberRequest;
+import com.tracking.domain.TrackingNumberResponse;
+import com.tracking.service.TrackingNumberService;
+
+/**
+ * Bytes allocated per generation request, as a regression gate.
+ *
+ * Each request is taken through the configured argument resolver, the
+ * controller and the configured JSON message converter, reading the
+ * calling thread's allocated-bytes counter between phases. The controller
+ * hands the request to a generation thread, so the calling thread only
+ * sees the controller's own share; service allocations (with the database
+ * insert) are measured separately by calling the service directly. The
+ * breakdown is printed on every run and the test fails when any phase
+ * exceeds its budget.
+ *
+ * The database is an embedded H2, whose engine allocations are counted
+ * with the service. Logging is at WARN, so messages of disabled log
+ * statements are not formatted, but their argument arrays are still
+ * allocated. {@code -Dallocation.budget.<phase>} overrides the budget of a
+ * phase in bytes per request, for example
+ * {@code -Dallocation.budget.service=70000}; {@code -Dallocation.requests}
+ * sets the number of measured requests.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:allocation-budget;DB_CLOSE_DELAY=-1",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.tracking=WARN",
+    "logging.level.org.springframework.web=WARN",
+    "logging.level.org.springframework.transaction=WARN",
+    "logging.level.org.springframework.orm.jpa=WARN",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+    "app.analytics.rebuild-from-database=false"
+})
+class RequestAllocationBudgetTest {
+
+    /**
+     * Default budgets in bytes per request, with room for run-to-run noise.
+     */
+    private static final Map<String, Long> DEFAULT_BUDGETS = Map.of(
+            "argument-resolution", 512L,
+            "controller", 2L * 1024,
+            "service", 64L * 1024,
+            "json-writing", 512L);
+    private static final int REQUESTS = Integer.getInteger("allocation.requests", 2_000);
+    private static final int WARMUP_REQUESTS = 2_000;
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @Autowired
+    private TrackingNumberController trackingNumberController;
+
+    @Autowired
+    private TrackingNumberService trackingNumberService;
+
+    private MethodParameter requestParameter;
+
+    @Test
+    void generationRequest_ShouldStayWithinAllocationBudget() throws Exception {
+        // Given
+        requestParameter = new MethodParameter(TrackingNumberController.class
+                .getMethod("generateTrackingNumber", TrackingNumberRequest.class), 0);
+        HandlerMethodArgumentResolver resolver = handlerAdapter.getArgumentResolvers().stream()
+                .filter(candidate -> candidate.supportsParameter(requestParameter))
+                .findFirst()
+                .orElseThrow();
+        HttpMessageConverter<TrackingNumberResponse> converter = jsonConverter();
+        ServletWebRequest webRequest = new ServletWebRequest(createHttpRequest());
+        DiscardingOutputMessage outputMessage = new DiscardingOutputMessage();
+
+        long[] phases = new long[3];
+        long service = 0;
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            handle(resolver, webRequest, converter, outputMessage, phases);
+            trackingNumberService.generateTrackingNumber(
+                    (TrackingNumberRequest) resolver.resolveArgument(requestParameter, null, webRequest, null));
+        }
+
+        // When
+        phases = new long[3];
+        for (int i = 0; i < REQUESTS; i++) {
+            handle(resolver, webRequest, converter, outputMessage, phases);
+        }
+        for (int i = 0; i < REQUESTS; i++) {
+            TrackingNumberRequest request =
+                    (TrackingNumberRequest) resolver.resolveArgument(requestParameter, null, webRequest, null);
+            long before = threads.getCurrentThreadAllocatedBytes();
+            trackingNumberService.generateTrackingNumber(request);
+            service += threads.getCurrentThreadAllocatedBytes() - before;
+        }
+
+        // Then
+        long perService = service / REQUESTS;
+        long perController = phases[1] / REQUESTS;
+        Map<String, Long> breakdown = new LinkedHashMap<>();
+        breakdown.put("argument-resolution", phases[0] / REQUESTS);
+        breakdown.put("controller", perController);
+        breakdown.put("service", perService);
+        breakdown.put("json-writing", phases[2] / REQUESTS);
+
+        List<String> overBudget = new ArrayList<>();
+        long total = 0;
+        long totalBudget = 0;
+        System.out.printf("%nBytes allocated per generation request (%,d requests)%n", REQUESTS);
+        for (Map.Entry<String, Long> phase : breakdown.entrySet()) {
+            long budget = Long.getLong("allocation.budget." + phase.getKey(), DEFAULT_BUDGETS.get(phase.getKey()));
+            System.out.printf("  %-20s %,10d  budget %,10d%n", phase.getKey(), phase.getValue(), budget);
+            if (phase.getValue() > budget) {
+                overBudget.add(phase.getKey());
+            }
+            total += phase.getValue();
+            totalBudget += budget;
+        }
+        System.out.printf("  %-20s %,10d  budget %,10d%n", "total", total, totalBudget);
+
+        assertThat(overBudget)
+                .as("phases over their allocation budget, see the breakdown above")
+                .isEmpty();
+    }
+
+    private void handle(HandlerMethodArgumentResolver resolver, ServletWebRequest webRequest,
+                        HttpMessageConverter<TrackingNumberResponse> converter,
+                        DiscardingOutputMessage outputMessage, long[] phases) throws Exception {
+        long start = threads.getCurrentThreadAllocatedBytes();
+        TrackingNumberRequest request =
+                (TrackingNumberRequest) resolver.resolveArgument(requestParameter, null, webRequest, null);
+        long resolved = threads.getCurrentThreadAllocatedBytes();
+        ResponseEntity<TrackingNumberResponse> response =
+                trackingNumberController.generateTrackingNumber(request).join();
+        long handled = threads.getCurrentThreadAllocatedBytes();
+        converter.write(response.getBody(), MediaType.APPLICATION_JSON, outputMessage);
+        long written = threads.getCurrentThreadAllocatedBytes();
+        phases[0] += resolved - start;
+        phases[1] += handled - resolved;
+        phases[2] += written - handled;
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpMessageConverter<TrackingNumberResponse> jsonConverter() {
+        return (HttpMessageConverter<TrackingNumberResponse>) handlerAdapter.getMessageConverters().stream()
+                .filter(converter -> converter.canWrite(TrackingNumberResponse.class, MediaType.APPLICATION_JSON))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static MockHttpServletRequest createHttpRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/next-tracking-number");
+        request.addParameter("origin_country_id", "MY");
+        request.addParameter("destination_country_id", "ID");
+        request.addParameter("weight", "1.234");
+        request.addParameter("created_at", OffsetDateTime.now().toString());
+        request.addParameter("customer_id", UUID.randomUUID().toString());
+        request.addParameter("customer_name", "RedBox Logistics");
+        request.addParameter("customer_slug", "redbox-logistics");
+        return request;
+    }
+
+    private static final class DiscardingOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final OutputStream body = OutputStream.nullOutputStream();
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
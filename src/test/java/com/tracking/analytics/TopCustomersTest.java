@@ -0,0 +1,138 @@
+package com.tracking.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for TopCustomers and SpaceSaving.
+ */
+class TopCustomersTest {
+
+    @Test
+    void spaceSaving_ShouldFindHeavyHittersWithinErrorBounds_WhenKeysExceedCapacity() {
+        // Given
+        SpaceSaving summary = new SpaceSaving(50);
+        Map<String, Long> actual = new HashMap<>();
+        Random random = new Random(7);
+
+        // When: three customers take 60% of 100,000 requests, 5,000 others share the rest
+        for (int i = 0; i < 100_000; i++) {
+            int draw = random.nextInt(100);
+            String key = draw < 30 ? "acme" : draw < 50 ? "globex" : draw < 60 ? "initech"
+                    : "customer-" + random.nextInt(5_000);
+            actual.merge(key, 1L, Long::sum);
+            summary.record(key, false, 1_000);
+        }
+
+        // Then
+        List<SpaceSaving.Counter> top = summary.top(3);
+        assertThat(top).extracting(SpaceSaving.Counter::key).containsExactly("acme", "globex", "initech");
+        for (SpaceSaving.Counter counter : summary.top(50)) {
+            long count = actual.get(counter.key());
+            assertThat(counter.count()).isGreaterThanOrEqualTo(count);
+            assertThat(counter.count() - counter.error()).isLessThanOrEqualTo(count);
+        }
+    }
+
+    @Test
+    void publish_ShouldReportTopCustomersAndTheRestAsOther() {
+        // Given
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TopCustomers topCustomers = new TopCustomers(meterRegistry, 100, 2, 10_000);
+        record(topCustomers, "acme", 50, 2_000_000);
+        record(topCustomers, "globex", 30, 4_000_000);
+        record(topCustomers, "initech", 10, 1_000_000);
+        record(topCustomers, "hooli", 5, 1_000_000);
+        topCustomers.record("acme", true, 2_000_000);
+
+        // When
+        topCustomers.publish();
+
+        // Then
+        assertThat(gauge(meterRegistry, "tracking.customer.top.requests", "acme")).isEqualTo(51);
+        assertThat(gauge(meterRegistry, "tracking.customer.top.requests", "globex")).isEqualTo(30);
+        assertThat(gauge(meterRegistry, "tracking.customer.top.requests", TopCustomers.OTHER)).isEqualTo(15);
+        assertThat(gauge(meterRegistry, "tracking.customer.top.failures", "acme")).isEqualTo(1);
+        assertThat(gauge(meterRegistry, "tracking.customer.top.failures", TopCustomers.OTHER)).isZero();
+        assertThat(gauge(meterRegistry, "tracking.customer.top.latency.mean", "globex")).isEqualTo(0.004);
+        assertThat(gauge(meterRegistry, "tracking.customer.top.latency.mean", TopCustomers.OTHER)).isEqualTo(0.001);
+        assertThat(meterRegistry.find("tracking.customer.top.requests").gauges()).hasSize(3);
+    }
+
+    @Test
+    void publish_ShouldOnlyReportRequestsSinceThePreviousPublish() {
+        // Given
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TopCustomers topCustomers = new TopCustomers(meterRegistry, 100, 1, 10_000);
+        record(topCustomers, "acme", 30, 1_000_000);
+        topCustomers.publish();
+
+        // When
+        record(topCustomers, "globex", 20, 1_000_000);
+        record(topCustomers, "acme", 5, 1_000_000);
+        topCustomers.publish();
+
+        // Then
+        assertThat(meterRegistry.find("tracking.customer.top.requests").tag("customer", "acme").gauge()).isNull();
+        assertThat(gauge(meterRegistry, "tracking.customer.top.requests", "globex")).isEqualTo(20);
+        assertThat(gauge(meterRegistry, "tracking.customer.top.requests", TopCustomers.OTHER)).isEqualTo(5);
+    }
+
+    @Test
+    void publish_ShouldMergeRequestsRecordedOnManyThreads() throws Exception {
+        // Given
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TopCustomers topCustomers = new TopCustomers(meterRegistry, 20, 2, 10_000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When: every thread sends 2,000 acme, 1,000 globex and 1,000 requests spread over 500 others
+        for (int thread = 0; thread < 8; thread++) {
+            int seed = thread;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 1_000; i++) {
+                    topCustomers.record("acme", false, 1_000_000);
+                    topCustomers.record("acme", false, 1_000_000);
+                    topCustomers.record("globex", false, 1_000_000);
+                    topCustomers.record("customer-" + random.nextInt(500), false, 1_000_000);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        topCustomers.publish();
+
+        // Then: estimates are at most the 32,000 requests divided by the capacity too high
+        double acme = gauge(meterRegistry, "tracking.customer.top.requests", "acme");
+        double globex = gauge(meterRegistry, "tracking.customer.top.requests", "globex");
+        double other = gauge(meterRegistry, "tracking.customer.top.requests", TopCustomers.OTHER);
+        assertThat(acme).isBetween(16_000.0, 16_000.0 + 32_000 / 20);
+        assertThat(globex).isBetween(8_000.0, 8_000.0 + 32_000 / 20);
+        assertThat(acme + globex + other).isEqualTo(32_000);
+    }
+
+    private static void record(TopCustomers topCustomers, String customerSlug, int requests, long latencyNanos) {
+        for (int i = 0; i < requests; i++) {
+            topCustomers.record(customerSlug, false, latencyNanos);
+        }
+    }
+
+    private static double gauge(MeterRegistry meterRegistry, String name, String customer) {
+        return meterRegistry.get(name).tag("customer", customer).gauge().value();
+    }
+}
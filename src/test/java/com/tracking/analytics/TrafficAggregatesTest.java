@@ -0,0 +1,152 @@
+package com.tracking.analytics;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for TrafficAggregates.
+ */
+class TrafficAggregatesTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-02T12:02:00Z");
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private MeterRegistry meterRegistry;
+    private TrafficAggregates aggregates;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aggregates = new TrafficAggregates(Clock.fixed(NOW, ZoneOffset.UTC), 3, meterRegistry);
+    }
+
+    @Test
+    void snapshot_ShouldSummarizeLanesAndCustomers() {
+        // Given
+        for (int i = 1; i <= 100; i++) {
+            aggregates.record("MY", "ID", "redbox", i / 10.0);
+        }
+        aggregates.record("SG", "ID", "acme", 2.0);
+
+        // When
+        List<AggregateSnapshot> lanes = aggregates.snapshot(TrafficAggregates.Dimension.LANE,
+                TrafficAggregates.Window.HOUR, 10);
+        List<AggregateSnapshot> customers = aggregates.snapshot(TrafficAggregates.Dimension.CUSTOMER,
+                TrafficAggregates.Window.DAY, 1);
+
+        // Then
+        assertThat(lanes).extracting(AggregateSnapshot::key).containsExactly("MY-ID", "SG-ID");
+        AggregateSnapshot lane = lanes.get(0);
+        assertThat(lane.count()).isEqualTo(100);
+        assertThat(lane.totalWeight()).isCloseTo(505.0, within(1e-9));
+        assertThat(lane.weightP50()).isCloseTo(5.0, within(5.0 * WeightSketch.RELATIVE_ACCURACY + 0.1));
+        assertThat(lane.weightP99()).isCloseTo(9.9, within(9.9 * WeightSketch.RELATIVE_ACCURACY));
+        assertThat(customers).extracting(AggregateSnapshot::key).containsExactly("redbox");
+    }
+
+    @Test
+    void snapshot_ShouldOnlyIncludeNumbersWithinWindow() {
+        // Given
+        long now = NOW.toEpochMilli();
+        aggregates.record("MY", "ID", "redbox", 1.0, now - 30 * MINUTE);
+        aggregates.record("MY", "ID", "redbox", 1.0, now - 90 * MINUTE);
+        aggregates.record("MY", "ID", "redbox", 1.0, now - 20 * 60 * MINUTE);
+        aggregates.record("MY", "ID", "redbox", 1.0, now - 25 * 60 * MINUTE);
+
+        // When
+        AggregateSnapshot hour = aggregates.snapshot(TrafficAggregates.Dimension.LANE,
+                TrafficAggregates.Window.HOUR, 10).get(0);
+        AggregateSnapshot day = aggregates.snapshot(TrafficAggregates.Dimension.LANE,
+                TrafficAggregates.Window.DAY, 10).get(0);
+
+        // Then
+        assertThat(hour.count()).isEqualTo(1);
+        assertThat(day.count()).isEqualTo(3);
+    }
+
+    @Test
+    void record_ShouldDropNewKeysBeyondLimitAndEvictIdleKeys() {
+        // Given
+        long dayAgo = NOW.toEpochMilli() - 25 * 60 * MINUTE;
+        aggregates.record("AA", "ID", "a", 1.0, dayAgo);
+        aggregates.record("BB", "ID", "b", 1.0);
+        aggregates.record("CC", "ID", "c", 1.0);
+
+        // When
+        aggregates.record("DD", "ID", "d", 1.0);
+        List<AggregateSnapshot> lanes = aggregates.snapshot(TrafficAggregates.Dimension.LANE,
+                TrafficAggregates.Window.DAY, 10);
+        aggregates.record("EE", "ID", "e", 1.0);
+
+        // Then
+        assertThat(lanes).extracting(AggregateSnapshot::key).containsExactly("BB-ID", "CC-ID");
+        // Lane DD and customers d and e; customer a is only evicted by a customer summary
+        assertThat(meterRegistry.get("tracking.analytics.dropped").counter().count()).isEqualTo(3.0);
+        assertThat(aggregates.snapshot(TrafficAggregates.Dimension.LANE, TrafficAggregates.Window.HOUR, 10))
+                .extracting(AggregateSnapshot::key).containsExactly("BB-ID", "CC-ID", "EE-ID");
+    }
+
+    @Test
+    void snapshot_ShouldMergeNumbersRecordedOnManyThreads() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When: eight threads each record weights 0.1 to 100.0 on the same lane
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 1; i <= 1_000; i++) {
+                    aggregates.record("MY", "ID", "redbox", i / 10.0);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        AggregateSnapshot lane = aggregates.snapshot(TrafficAggregates.Dimension.LANE,
+                TrafficAggregates.Window.HOUR, 1).get(0);
+        assertThat(lane.count()).isEqualTo(8_000);
+        assertThat(lane.weightP50()).isCloseTo(50.0, within(50.0 * WeightSketch.RELATIVE_ACCURACY + 0.1));
+        assertThat(lane.weightP99()).isCloseTo(99.0, within(99.0 * WeightSketch.RELATIVE_ACCURACY + 0.1));
+    }
+
+    @Test
+    void quantile_ShouldBeWithinRelativeAccuracy_WhenSketchesAreMerged() {
+        // Given
+        WeightSketch light = new WeightSketch();
+        WeightSketch heavy = new WeightSketch();
+        for (int i = 1; i <= 1_000; i++) {
+            light.add(i / 1_000.0);
+            heavy.add(i);
+        }
+
+        // When
+        WeightSketch merged = new WeightSketch();
+        light.mergeInto(merged);
+        heavy.mergeInto(merged);
+
+        // Then
+        assertThat(merged.count()).isEqualTo(2_000);
+        assertThat(merged.quantile(0.25)).isCloseTo(0.5, within(0.5 * WeightSketch.RELATIVE_ACCURACY));
+        assertThat(merged.quantile(0.75)).isCloseTo(500, within(500 * WeightSketch.RELATIVE_ACCURACY));
+        assertThat(merged.quantile(1.0)).isCloseTo(1_000, within(1_000 * WeightSketch.RELATIVE_ACCURACY));
+    }
+}
@@ -0,0 +1,252 @@
+package com.tracking.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.tracking.support.H2TestDatabase;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for ColdArchive against an in-memory H2 database.
+ */
+class ColdArchiveTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2024, 6, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    private MeterRegistry meterRegistry;
+    private H2TestDatabase database;
+    private ColdArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        database = H2TestDatabase.migrated("archive");
+        archive = archive(1_000, true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        archive.close();
+    }
+
+    @Test
+    void archive_ShouldMoveAgedRowsIntoSegmentAndDeleteThem() throws Exception {
+        // Given
+        List<ArchivedTrackingNumber> aged = IntStream.range(0, 600).mapToObj(i -> row(i, 100)).toList();
+        aged.forEach(this::insert);
+        IntStream.range(600, 610).mapToObj(i -> row(i, 10)).forEach(this::insert);
+
+        // When
+        int archived = archive.archive();
+
+        // Then
+        assertThat(archived).isEqualTo(600);
+        assertThat(rowCount()).isEqualTo(10);
+        assertThat(archive.rowCount()).isEqualTo(600);
+        assertThat(segmentFiles()).hasSize(1);
+        for (ArchivedTrackingNumber row : aged) {
+            assertThat(archive.find(row.trackingNumber())).contains(row);
+        }
+        assertThat(archive.contains(row(600, 10).trackingNumber())).isFalse();
+        assertThat(archive.contains("ZZZZZZZZ")).isFalse();
+        assertThat(archive.issuedByLength()).isEqualTo(Map.of(10, 600L));
+        assertThat(meterRegistry.get("tracking.archive.archived").counter().count()).isEqualTo(600.0);
+    }
+
+    @Test
+    void archive_ShouldSplitIntoSegmentsAndReopenThem() throws Exception {
+        // Given
+        archive.close();
+        archive = archive(250, true);
+        IntStream.range(0, 600).mapToObj(i -> row(i, 100)).forEach(this::insert);
+
+        // When
+        int first = archive.archive();
+        int second = archive.archive();
+        int third = archive.archive();
+        ColdArchive reopened = archive(250, false);
+
+        // Then
+        assertThat(List.of(first, second, third)).containsExactly(250, 250, 100);
+        assertThat(segmentFiles()).hasSize(3);
+        assertThat(reopened.rowCount()).isEqualTo(600);
+        assertThat(reopened.find(row(0, 100).trackingNumber())).contains(row(0, 100));
+        assertThat(reopened.find(row(599, 100).trackingNumber())).contains(row(599, 100));
+        reopened.close();
+    }
+
+    @Test
+    void forEachTrackingNumber_ShouldVisitEveryArchivedNumberOnce() throws Exception {
+        // Given: 600 rows in blocks of 64 over three segments
+        archive.close();
+        archive = archive(250, true);
+        IntStream.range(0, 600).mapToObj(i -> row(i, 100)).forEach(this::insert);
+        archive.archive();
+        archive.archive();
+        archive.archive();
+        List<String> visited = new ArrayList<>();
+
+        // When
+        archive.forEachTrackingNumber(visited::add);
+
+        // Then
+        assertThat(visited).containsExactlyInAnyOrderElementsOf(
+                IntStream.range(0, 600).mapToObj(i -> row(i, 100).trackingNumber()).toList());
+    }
+
+    @Test
+    void archive_ShouldDeleteWithoutArchivingAgain_WhenRowsAreAlreadyArchived() throws Exception {
+        // Given: the rows were archived, but deleting them failed
+        IntStream.range(0, 100).mapToObj(i -> row(i, 100)).forEach(this::insert);
+        archive.archive();
+        IntStream.range(0, 100).mapToObj(i -> row(i, 100)).forEach(this::insert);
+
+        // When
+        int archived = archive.archive();
+
+        // Then
+        assertThat(archived).isEqualTo(100);
+        assertThat(rowCount()).isZero();
+        assertThat(segmentFiles()).hasSize(1);
+        assertThat(archive.rowCount()).isEqualTo(100);
+    }
+
+    @Test
+    void archive_ShouldWriteNewSegment_WhenAnotherArchiverWroteTheLatestOne() throws Exception {
+        // Given: two archivers opened the directory before either wrote a segment
+        archive.close();
+        archive = archive(250, true);
+        ColdArchive other = archive(250, true);
+        List<ArchivedTrackingNumber> aged = IntStream.range(0, 500).mapToObj(i -> row(i, 100)).toList();
+        aged.forEach(this::insert);
+
+        // When
+        int first = archive.archive();
+        int second = other.archive();
+
+        // Then
+        assertThat(List.of(first, second)).containsExactly(250, 250);
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(rowCount()).isZero();
+        try (ColdArchive reopened = archive(250, false)) {
+            assertThat(reopened.rowCount()).isEqualTo(500);
+            for (ArchivedTrackingNumber row : aged) {
+                assertThat(reopened.find(row.trackingNumber())).contains(row);
+            }
+        }
+        other.close();
+    }
+
+    @Test
+    void archive_ShouldSkip_WhenAnotherArchiverHoldsTheJob() throws Exception {
+        // Given: an archiver waiting out its delete delay while holding the job
+        IntStream.range(0, 100).mapToObj(i -> row(i, 100)).forEach(this::insert);
+        ColdArchive slow = archive(1_000, true, 1_000);
+        CompletableFuture<Integer> running = CompletableFuture.supplyAsync(() -> {
+            try {
+                return slow.archive();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        while (segmentFiles().isEmpty()) {
+            Thread.sleep(10);
+        }
+
+        // When
+        int skipped = archive.archive();
+
+        // Then
+        assertThat(skipped).isZero();
+        assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo(100);
+        assertThat(segmentFiles()).hasSize(1);
+        assertThat(rowCount()).isZero();
+        assertThat(archive.archive()).isZero();
+        slow.close();
+    }
+
+    @Test
+    void finish_ShouldNotReplaceSegment_WhenIdIsTaken() throws Exception {
+        // Given
+        IntStream.range(0, 100).mapToObj(i -> row(i, 100)).forEach(this::insert);
+        archive.archive();
+        ArchiveSegment.Writer writer = new ArchiveSegment.Writer(directory, 0, 64);
+        writer.add(row(1_000, 100));
+
+        // When & Then
+        assertThatThrownBy(writer::finish).isInstanceOf(FileAlreadyExistsException.class);
+        writer.close();
+        try (ColdArchive reopened = archive(1_000, false)) {
+            assertThat(reopened.rowCount()).isEqualTo(100);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.filter(ArchiveSegment::isTemporary)).isEmpty();
+        }
+    }
+
+    private ColdArchive archive(int maxRowsPerSegment, boolean jobEnabled) {
+        return archive(maxRowsPerSegment, jobEnabled, 0);
+    }
+
+    private ColdArchive archive(int maxRowsPerSegment, boolean jobEnabled, long deleteDelayMillis) {
+        return new ColdArchive(database.jdbcTemplate(), database.transactionManager(), meterRegistry,
+                Clock.fixed(NOW.toInstant(), ZoneOffset.UTC), directory, Duration.ofDays(90), maxRowsPerSegment,
+                64, 100, jobEnabled, 60_000, 3_600_000, 30_000, deleteDelayMillis);
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(ArchiveSegment::isSegment).toList();
+        }
+    }
+
+    private int rowCount() {
+        return database.rowCount();
+    }
+
+    private void insert(ArchivedTrackingNumber row) {
+        database.insert(new H2TestDatabase.Row(row.trackingNumber(), row.originCountryId(),
+                row.destinationCountryId(), row.weight(), row.customerId(), row.customerName(), row.customerSlug(),
+                row.requestId(), row.createdAt()));
+    }
+
+    private static ArchivedTrackingNumber row(int i, int ageDays) {
+        return new ArchivedTrackingNumber(
+                String.format("AR%08d", i * 7919 % 100_000_000),
+                "MY",
+                "ID",
+                1.0 + i / 100.0,
+                new UUID(0, i),
+                "Customer " + i,
+                "customer-" + i,
+                i % 3 == 0 ? null : new UUID(1, i),
+                NOW.minusDays(ageDays).plusSeconds(i));
+    }
+}
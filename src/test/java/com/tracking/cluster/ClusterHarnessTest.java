@@ -0,0 +1,386 @@
+package com.tracking.cluster;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.flywaydb.core.Flyway;
+import org.h2.tools.Server;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.TrackingNumberGeneratorApplication;
+
+/**
+ * Cross-node uniqueness and throughput scaling: boots several instances of
+ * the application against one shared database and drives HTTP requests at
+ * them round-robin, first at one node, then at two, up to all of them.
+ *
+ * Instances share nothing but the database, so two of them can check the
+ * same candidate number concurrently and both try to insert it; the unique
+ * constraint must turn that into a retry rather than a 500. Requests use a
+ * customer format with eight random digits: small enough for collisions and
+ * the occasional insert conflict, large enough that a request running out of
+ * retries is negligible (below 10^-9 at 60,000 numbers and 3 attempts). For
+ * every node count the harness reports throughput, scaling relative to one
+ * node, 5xx responses, requests that ran out of retries and the collision
+ * and insert conflict counters, and fails on any duplicate or 5xx response.
+ *
+ * Run with {@code mvn test -Pcluster}. The database is an H2 TCP server by
+ * default, or PostgreSQL in a container with {@code -Dcluster.postgres=true};
+ * {@code -Dcluster.fork=true} starts every node in its own JVM instead of
+ * in-process. {@code -Dcluster.nodes}, {@code -Dcluster.requests} and
+ * {@code -Dcluster.concurrency} override the defaults of 3 nodes, 20,000
+ * requests per node count and 64 concurrent requests.
+ */
+@Tag("cluster")
+class ClusterHarnessTest {
+
+    private static final int NODES = Integer.getInteger("cluster.nodes", 3);
+    private static final int REQUESTS = Integer.getInteger("cluster.requests", 20_000);
+    private static final int CONCURRENCY = Integer.getInteger("cluster.concurrency", 64);
+    private static final boolean POSTGRES = Boolean.getBoolean("cluster.postgres");
+    private static final boolean FORK = Boolean.getBoolean("cluster.fork");
+    private static final String CUSTOMER_SLUG = "cluster-harness";
+    // Error of the 500 answered once every attempt collided or conflicted
+    private static final String OUT_OF_RETRIES = "Tracking Number Generation Failed";
+
+    private static final List<String> NODE_ARGUMENTS = List.of(
+            "--spring.jpa.show-sql=false",
+            "--logging.level.com.tracking=ERROR",
+            "--logging.level.org.springframework.web=WARN",
+            "--logging.level.org.springframework.transaction=WARN",
+            "--logging.level.org.springframework.orm.jpa=WARN",
+            "--logging.level.org.hibernate.SQL=WARN",
+            "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+            "--app.analytics.rebuild-from-database=false");
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private static final List<Node> nodes = new ArrayList<>();
+
+    private static Server h2Server;
+    private static PostgreSQLContainer<?> postgres;
+    private static String jdbcUrl;
+    private static String username;
+    private static String password;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startCluster() throws Exception {
+        if (POSTGRES) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            jdbcUrl = postgres.getJdbcUrl();
+            username = postgres.getUsername();
+            password = postgres.getPassword();
+        } else {
+            h2Server = Server.createTcpServer("-tcpPort", String.valueOf(freePort()), "-ifNotExists").start();
+            jdbcUrl = "jdbc:h2:tcp://localhost:" + h2Server.getPort() + "/mem:cluster-" + UUID.randomUUID()
+                    + ";DB_CLOSE_DELAY=-1";
+            username = "sa";
+            password = "";
+        }
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(jdbcUrl, username, password);
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(POSTGRES ? "classpath:db/migration/postgresql" : "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Nodes load formats when they start
+        jdbcTemplate.update("INSERT INTO tracking_number_formats (customer_slug, prefix, alphabet, number_length) "
+                + "VALUES (?, 'CL', '0123456789', 10)", CUSTOMER_SLUG);
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(startNode());
+        }
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        nodes.forEach(Node::close);
+        if (h2Server != null) {
+            h2Server.stop();
+        }
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Test
+    void nodesShouldNeverIssueDuplicatesAndShouldScaleWithNodeCount() throws Exception {
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        List<String> report = new ArrayList<>();
+        long duplicates = 0;
+        long serverErrors = 0;
+        long exhausted = 0;
+        double singleNodeThroughput = 0;
+
+        for (int nodeCount = 1; nodeCount <= NODES; nodeCount++) {
+            double[] collisionsBefore = counters("tracking.number.collisions");
+            double[] conflictsBefore = counters("tracking.number.insert.conflicts");
+            Round round = drive(nodes.subList(0, nodeCount), issued);
+            double collisions = sumDifference(counters("tracking.number.collisions"), collisionsBefore);
+            double conflicts = sumDifference(counters("tracking.number.insert.conflicts"), conflictsBefore);
+
+            double throughput = round.succeeded.sum() / (round.elapsedNanos / 1e9);
+            if (nodeCount == 1) {
+                singleNodeThroughput = throughput;
+            }
+            duplicates += round.duplicates.sum();
+            serverErrors += round.serverErrors.sum();
+            exhausted += round.exhausted.sum();
+            report.add(String.format("%d node(s): %,.0f/s (%.2fx), %,d ok, %,d 5xx, %,d out of retries, "
+                            + "%,d other errors, %,d duplicates, %,.0f collisions, %,.0f insert conflicts",
+                    nodeCount, throughput, throughput / singleNodeThroughput, round.succeeded.sum(),
+                    round.serverErrors.sum(), round.exhausted.sum(), round.otherErrors.sum(),
+                    round.duplicates.sum(), collisions, conflicts));
+        }
+
+        long stored = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tracking_numbers t "
+                + "JOIN customers c ON c.customer_id = t.customer_id WHERE c.customer_slug = ?",
+                Long.class, CUSTOMER_SLUG);
+        long distinct = jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT t.tracking_number) FROM tracking_numbers t "
+                + "JOIN customers c ON c.customer_id = t.customer_id WHERE c.customer_slug = ?",
+                Long.class, CUSTOMER_SLUG);
+        System.out.printf("%nCluster of %d %s node(s) on %s, %,d requests per node count, %d concurrent%n",
+                NODES, FORK ? "forked" : "in-process", POSTGRES ? "PostgreSQL" : "H2", REQUESTS, CONCURRENCY);
+        report.forEach(line -> System.out.println("  " + line));
+        System.out.printf("  %,d issued, %,d stored, %,d distinct%n", issued.size(), stored, distinct);
+
+        assertThat(duplicates).isZero();
+        assertThat(serverErrors).as("5xx responses other than running out of retries").isZero();
+        assertThat(exhausted).as("requests that ran out of retries").isZero();
+        assertThat(distinct).isEqualTo(stored);
+        assertThat(stored).isEqualTo(issued.size());
+    }
+
+    private static Round drive(List<Node> targets, Set<String> issued) throws InterruptedException {
+        Round round = new Round();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                Node target = targets.get(i % targets.size());
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        HttpResponse<String> response = httpClient.send(
+                                HttpRequest.newBuilder(target.requestUri()).timeout(Duration.ofSeconds(60)).build(),
+                                HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() >= 500 && response.body().contains(OUT_OF_RETRIES)) {
+                            round.exhausted.increment();
+                        } else if (response.statusCode() >= 500) {
+                            round.serverErrors.increment();
+                        } else if (response.statusCode() != 200) {
+                            round.otherErrors.increment();
+                        } else {
+                            String trackingNumber = objectMapper.readTree(response.body())
+                                    .path("tracking_number").asText();
+                            round.succeeded.increment();
+                            if (!issued.add(trackingNumber)) {
+                                round.duplicates.increment();
+                            }
+                        }
+                    } catch (IOException e) {
+                        round.otherErrors.increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        round.elapsedNanos = System.nanoTime() - started;
+        return round;
+    }
+
+    private static double[] counters(String name) throws IOException, InterruptedException {
+        double[] values = new double[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            HttpResponse<String> response = httpClient.send(
+                    HttpRequest.newBuilder(nodes.get(i).uri("/api/v1/actuator/metrics/" + name)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            JsonNode measurements = objectMapper.readTree(response.body()).path("measurements");
+            values[i] = measurements.isEmpty() ? 0 : measurements.get(0).path("value").asDouble();
+        }
+        return values;
+    }
+
+    private static double sumDifference(double[] after, double[] before) {
+        double sum = 0;
+        for (int i = 0; i < after.length; i++) {
+            sum += after[i] - before[i];
+        }
+        return sum;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Node startNode() throws Exception {
+        List<String> arguments = new ArrayList<>(NODE_ARGUMENTS);
+        arguments.add("--spring.datasource.url=" + jdbcUrl);
+        arguments.add("--spring.datasource.username=" + username);
+        arguments.add("--spring.datasource.password=" + password);
+        if (POSTGRES) {
+            arguments.add("--spring.datasource.driver-class-name=org.postgresql.Driver");
+            arguments.add("--spring.flyway.locations=classpath:db/migration/postgresql");
+        }
+        return FORK ? ForkedNode.start(arguments) : InProcessNode.start(arguments);
+    }
+
+    private static final class Round {
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+        private final LongAdder otherErrors = new LongAdder();
+        private final LongAdder duplicates = new LongAdder();
+        private long elapsedNanos;
+    }
+
+    private abstract static class Node implements AutoCloseable {
+
+        private final int port;
+        private final URI requestUri;
+
+        Node(int port) {
+            this.port = port;
+            this.requestUri = uri("/api/v1/next-tracking-number"
+                    + "?origin_country_id=MY&destination_country_id=ID&weight=1.234"
+                    + "&created_at=" + URLEncoder.encode(OffsetDateTime.now().toString(), StandardCharsets.UTF_8)
+                    + "&customer_id=" + UUID.randomUUID()
+                    + "&customer_name=Cluster%20Harness&customer_slug=" + CUSTOMER_SLUG);
+        }
+
+        URI uri(String path) {
+            return URI.create("http://localhost:" + port + path);
+        }
+
+        URI requestUri() {
+            return requestUri;
+        }
+
+        @Override
+        public abstract void close();
+    }
+
+    private static final class InProcessNode extends Node {
+
+        private final ConfigurableApplicationContext context;
+
+        private InProcessNode(ConfigurableApplicationContext context) {
+            super(((WebServerApplicationContext) context).getWebServer().getPort());
+            this.context = context;
+        }
+
+        static Node start(List<String> arguments) {
+            List<String> withPort = new ArrayList<>(arguments);
+            withPort.add("--server.port=0");
+            return new InProcessNode(new SpringApplicationBuilder(TrackingNumberGeneratorApplication.class)
+                    .run(withPort.toArray(String[]::new)));
+        }
+
+        @Override
+        public void close() {
+            context.close();
+        }
+    }
+
+    private static final class ForkedNode extends Node {
+
+        private final Process process;
+
+        private ForkedNode(int port, Process process) {
+            super(port);
+            this.process = process;
+        }
+
+        static Node start(List<String> arguments) throws Exception {
+            int port = freePort();
+            List<String> command = new ArrayList<>(List.of(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    TrackingNumberGeneratorApplication.class.getName()));
+            command.addAll(arguments);
+            command.add("--server.port=" + port);
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(Path.of("target", "cluster-node-" + port + ".log").toFile())
+                    .start();
+            ForkedNode node = new ForkedNode(port, process);
+            node.awaitHealthy();
+            return node;
+        }
+
+        private void awaitHealthy() throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Node exited with status " + process.exitValue());
+                }
+                try {
+                    HttpResponse<Void> response = httpClient.send(
+                            HttpRequest.newBuilder(uri("/api/v1/actuator/health")).build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(250);
+            }
+            close();
+            throw new IllegalStateException("Node did not become healthy within 2 minutes");
+        }
+
+        @Override
+        public void close() {
+            process.destroy();
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+}
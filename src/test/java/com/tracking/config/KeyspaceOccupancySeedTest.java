@@ -0,0 +1,63 @@
+package com.tracking.config;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.tracking.repository.TrackingNumberRepository;
+import com.tracking.service.KeyspaceOccupancyTracker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for KeyspaceOccupancySeed.
+ */
+class KeyspaceOccupancySeedTest {
+
+    private TrackingNumberRepository trackingNumberRepository;
+    private KeyspaceOccupancyTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        trackingNumberRepository = mock(TrackingNumberRepository.class);
+        tracker = new KeyspaceOccupancyTracker(2, 4, false, 0.5, 100, new SimpleMeterRegistry());
+        tracker.setSeeding(true);
+    }
+
+    @Test
+    void seed_ShouldCountStoredNumbersPerLength() {
+        // Given
+        when(trackingNumberRepository.countByTrackingNumberLength())
+                .thenReturn(List.<Object[]>of(new Object[] {2, 1_000L}, new Object[] {3, 10L}));
+        KeyspaceOccupancySeed seed = new KeyspaceOccupancySeed(tracker, trackingNumberRepository, null, true);
+
+        // When
+        seed.seed();
+
+        // Then
+        assertThat(tracker.fillRatio(2)).isEqualTo(1_000 / 1_296.0);
+        assertThat(tracker.fillRatio(3)).isEqualTo(10 / 46_656.0);
+        assertThat(tracker.nextLength(ThreadLocalRandom.current())).isIn(3, 4);
+    }
+
+    @Test
+    void seed_ShouldStartFromZero_WhenDatabaseIsUnreachable() {
+        // Given
+        when(trackingNumberRepository.countByTrackingNumberLength())
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        KeyspaceOccupancySeed seed = new KeyspaceOccupancySeed(tracker, trackingNumberRepository, null, true);
+
+        // When
+        seed.seed();
+
+        // Then
+        assertThat(tracker.fillRatio(2)).isZero();
+        assertThat(tracker.weight(2)).isEqualTo(1.0 / 3);
+    }
+}
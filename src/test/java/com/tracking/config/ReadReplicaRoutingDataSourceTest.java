@@ -0,0 +1,101 @@
+package com.tracking.config;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for ReadReplicaRoutingDataSource.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReadReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        routingDataSource = new ReadReplicaRoutingDataSource(primary, replica, 60_000, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void getConnection_ShouldUsePrimary_WhenTransactionIsReadWrite() throws Exception {
+        // Given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+
+        // Then
+        assertThat(connection).isSameAs(primaryConnection);
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_ShouldUseReplica_WhenTransactionIsReadOnly() throws Exception {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+
+        // Then
+        assertThat(connection).isSameAs(replicaConnection);
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_ShouldFallBackToPrimaryAndSkipReplica_WhenReplicaIsDown() throws Exception {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("replica - Connection is not available"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection first = routingDataSource.getConnection();
+        Connection second = routingDataSource.getConnection();
+
+        // Then
+        assertThat(first).isSameAs(primaryConnection);
+        assertThat(second).isSameAs(primaryConnection);
+        verify(replica, times(1)).getConnection();
+        assertThat(meterRegistry.get("tracking.datasource.replica.fallbacks").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("tracking.datasource.replica.available").gauge().value()).isZero();
+    }
+}
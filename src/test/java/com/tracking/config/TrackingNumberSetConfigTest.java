@@ -0,0 +1,71 @@
+package com.tracking.config;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.tracking.repository.MappedTrackingNumberSet;
+import com.tracking.support.H2TestDatabase;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for seeding the memory-mapped uniqueness set against an in-memory
+ * H2 database.
+ */
+class TrackingNumberSetConfigTest {
+
+    @TempDir
+    Path directory;
+
+    private H2TestDatabase database;
+
+    @BeforeEach
+    void setUp() {
+        database = H2TestDatabase.migrated("set-seed");
+        database.insert(H2TestDatabase.Row.of("SEED0001"));
+        database.insert(H2TestDatabase.Row.of("SEED0002"));
+    }
+
+    @Test
+    void mappedTrackingNumberSet_ShouldFinishSeeding_WhenAnEarlierSeedWasInterrupted() {
+        // Given: a set that stopped seeding after its first number
+        MappedTrackingNumberSet partial = MappedTrackingNumberSet.open(directory, 16, 0.75);
+        partial.add("SEED0001");
+        partial.close();
+
+        // When
+        MappedTrackingNumberSet set = open();
+
+        // Then
+        assertThat(set.contains("SEED0001")).isTrue();
+        assertThat(set.contains("SEED0002")).isTrue();
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(Files.exists(directory.resolve("seeded"))).isTrue();
+        set.close();
+    }
+
+    @Test
+    void mappedTrackingNumberSet_ShouldNotSeedAgain_WhenSeedWasCompleted() {
+        // Given
+        open().close();
+        database.insert(H2TestDatabase.Row.of("SEED0003"));
+
+        // When
+        MappedTrackingNumberSet set = open();
+
+        // Then
+        assertThat(set.contains("SEED0003")).isFalse();
+        assertThat(set.size()).isEqualTo(2);
+        set.close();
+    }
+
+    private MappedTrackingNumberSet open() {
+        return new TrackingNumberSetConfig().mappedTrackingNumberSet(directory.toString(), 16, 0.75, true,
+                database.jdbcTemplate(), database.transactionManager(), new SimpleMeterRegistry());
+    }
+}
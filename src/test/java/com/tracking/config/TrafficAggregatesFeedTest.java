@@ -0,0 +1,81 @@
+package com.tracking.config;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tracking.analytics.AggregateSnapshot;
+import com.tracking.analytics.TrafficAggregates;
+import com.tracking.feed.ChangeFeed;
+import com.tracking.feed.TrackingNumberEvent;
+import com.tracking.support.H2TestDatabase;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for TrafficAggregatesFeed against an in-memory H2 database.
+ */
+class TrafficAggregatesFeedTest {
+
+    private H2TestDatabase database;
+    private TrafficAggregates aggregates;
+    private TrafficAggregatesFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        database = H2TestDatabase.migrated("aggregates-feed");
+        aggregates = new TrafficAggregates(Clock.systemUTC(), 100, new SimpleMeterRegistry());
+        feed = new TrafficAggregatesFeed(aggregates, mock(ChangeFeed.class), database.dataSource(),
+                database.transactionManager(), true, 100);
+    }
+
+    @Test
+    void rebuild_ShouldRecordTheLastDayUpToTheFeedPosition() {
+        // Given
+        database.insert(H2TestDatabase.Row.of("RECENT0001").withCreatedAt(OffsetDateTime.now().minusHours(1)));
+        database.insert(H2TestDatabase.Row.of("EXPIRED001").withCreatedAt(OffsetDateTime.now().minusDays(2)));
+        long throughId = database.insert(H2TestDatabase.Row.of("RECENT0002"));
+        // Delivered by the change feed
+        database.insert(H2TestDatabase.Row.of("FEED000001"));
+
+        // When
+        long rows = feed.rebuild(throughId, Instant.now().minusSeconds(86_400));
+
+        // Then
+        assertThat(rows).isEqualTo(2);
+        assertThat(laneCounts()).containsExactly(2L);
+    }
+
+    @Test
+    void onCommitted_ShouldRecordNumbersIssuedByAnyInstance() {
+        // When
+        feed.onCommitted(event("MY", "ID", 2.5));
+        feed.onCommitted(event("MY", "ID", 1.5));
+
+        // Then
+        assertThat(aggregates.snapshot(TrafficAggregates.Dimension.LANE, TrafficAggregates.Window.HOUR, 10))
+                .singleElement()
+                .satisfies(snapshot -> {
+                    assertThat(snapshot.count()).isEqualTo(2);
+                    assertThat(snapshot.totalWeight()).isEqualTo(4.0);
+                });
+    }
+
+    private List<Long> laneCounts() {
+        return aggregates.snapshot(TrafficAggregates.Dimension.LANE, TrafficAggregates.Window.DAY, 10).stream()
+                .map(AggregateSnapshot::count)
+                .toList();
+    }
+
+    private static TrackingNumberEvent event(String origin, String destination, double weight) {
+        return new TrackingNumberEvent(1, "TN000001", origin, destination, weight, UUID.randomUUID(),
+                "test-customer", UUID.randomUUID(), OffsetDateTime.now());
+    }
+}
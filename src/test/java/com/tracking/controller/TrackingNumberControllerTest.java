@@ -2,6 +2,9 @@ package com.tracking.controller;
 
 import java.time.OffsetDateTime;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
@@ -11,16 +14,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.config.RequestIdConfig;
 import com.tracking.domain.TrackingNumberRequest;
 import com.tracking.domain.TrackingNumberResponse;
+import com.tracking.service.GenerationExecutor;
 import com.tracking.service.TrackingNumberService;
 
 /**
@@ -31,13 +41,14 @@ import com.tracking.service.TrackingNumberService;
     excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, value = {
         com.tracking.TrackingNumberGeneratorApplication.class
     }))
+@Import(RequestIdConfig.class)
 class TrackingNumberControllerTest {
     
     @Autowired
     private MockMvc mockMvc;
     
     @MockBean
-    private TrackingNumberService trackingNumberService;
+    private GenerationExecutor generationExecutor;
     
     @Autowired
     private ObjectMapper objectMapper;
@@ -54,11 +65,11 @@ class TrackingNumberControllerTest {
                 request.customerName()
         );
         
-        when(trackingNumberService.generateTrackingNumber(any(TrackingNumberRequest.class)))
-                .thenReturn(response);
+        when(generationExecutor.generate(any(TrackingNumberRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
         
-        // When & Then
-        mockMvc.perform(get("/api/v1/next-tracking-number")
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/next-tracking-number").contextPath("/api/v1")
                         .param("origin_country_id", request.originCountryId())
                         .param("destination_country_id", request.destinationCountryId())
                         .param("weight", request.weight().toString())
@@ -67,6 +78,11 @@ class TrackingNumberControllerTest {
                         .param("customer_name", request.customerName())
                         .param("customer_slug", request.customerSlug())
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        // Then
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.tracking_number").value("ABC12345"))
@@ -74,10 +90,57 @@ class TrackingNumberControllerTest {
                 .andExpect(jsonPath("$.customer_name").value(request.customerName()));
     }
     
+    @Test
+    void generateTrackingNumber_ShouldReturnServiceUnavailable_WhenQueueIsFull() throws Exception {
+        // Given
+        when(generationExecutor.generate(any(TrackingNumberRequest.class)))
+                .thenThrow(new RejectedExecutionException("queue full"));
+        
+        // When
+        MvcResult result = performValidRequest();
+        
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.tracking_number").value("ERROR"));
+    }
+    
+    @Test
+    void generateTrackingNumber_ShouldReturnServiceUnavailable_WhenRequestTimesOut() throws Exception {
+        // Given
+        when(generationExecutor.generate(any(TrackingNumberRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+        
+        // When
+        MvcResult result = performValidRequest();
+        
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+    
+    @Test
+    void generateTrackingNumber_ShouldReturnInternalServerError_WhenGenerationFails() throws Exception {
+        // Given
+        when(generationExecutor.generate(any(TrackingNumberRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(
+                        new TrackingNumberService.TrackingNumberGenerationException("retries exhausted")));
+        
+        // When
+        MvcResult result = performValidRequest();
+        
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.customer_name").value("Failed to generate tracking number: retries exhausted"));
+    }
+    
     @Test
     void generateTrackingNumber_ShouldReturnBadRequest_WhenValidationFails() throws Exception {
         // When & Then
-        mockMvc.perform(get("/api/v1/next-tracking-number")
+        mockMvc.perform(get("/api/v1/next-tracking-number").contextPath("/api/v1")
                         .param("origin_country_id", "INVALID") // Invalid country code
                         .param("destination_country_id", "ID")
                         .param("weight", "1.234")
@@ -89,16 +152,79 @@ class TrackingNumberControllerTest {
                         .andExpect(status().isBadRequest());
     }
     
+    @Test
+    void generateTrackingNumber_ShouldReturnValidationMessage_WhenSlugIsNotKebabCase() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/v1/next-tracking-number").contextPath("/api/v1")
+                        .param("origin_country_id", "MY")
+                        .param("destination_country_id", "ID")
+                        .param("weight", "1.234")
+                        .param("created_at", "2018-11-20T19:29:32+08:00")
+                        .param("customer_id", UUID.randomUUID().toString())
+                        .param("customer_name", "Test Customer")
+                        .param("customer_slug", "Invalid_Slug"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.tracking_number").value("ERROR"))
+                .andExpect(jsonPath("$.customer_name")
+                        .value("Validation Failed: Customer slug must be in kebab-case format"));
+    }
+    
+    @Test
+    void generateTrackingNumber_ShouldReturnTimestampError_WhenCreatedAtIsNotRfc3339() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/v1/next-tracking-number").contextPath("/api/v1")
+                        .param("origin_country_id", "MY")
+                        .param("destination_country_id", "ID")
+                        .param("weight", "1.234")
+                        .param("created_at", "2018-11-20 19:29:32")
+                        .param("customer_id", UUID.randomUUID().toString())
+                        .param("customer_name", "Test Customer")
+                        .param("customer_slug", "test-customer"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.customer_name")
+                        .value("Invalid timestamp format: created_at must be in RFC 3339 format"));
+    }
+    
+    @Test
+    void generateTrackingNumber_ShouldReturnUuidError_WhenCustomerIdIsInvalid() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/v1/next-tracking-number").contextPath("/api/v1")
+                        .param("origin_country_id", "MY")
+                        .param("destination_country_id", "ID")
+                        .param("weight", "1.234")
+                        .param("created_at", "2018-11-20T19:29:32Z")
+                        .param("customer_id", "not-a-uuid")
+                        .param("customer_name", "Test Customer")
+                        .param("customer_slug", "test-customer"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.customer_name")
+                        .value("Invalid UUID format: customer_id must be a valid UUID"));
+    }
+    
     @Test
     void health_ShouldReturnOk_WhenCalled() throws Exception {
         // When & Then
-mockMvc.perform(get("/api/v1/next-tracking-number/health"))
+mockMvc.perform(get("/api/v1/next-tracking-number/health").contextPath("/api/v1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.status").value("UP"))
                 .andExpect(jsonPath("$.service").value("tracking-number-generator"));
     }
     
+    private MvcResult performValidRequest() throws Exception {
+        TrackingNumberRequest request = createValidRequest();
+        return mockMvc.perform(get("/api/v1/next-tracking-number").contextPath("/api/v1")
+                        .param("origin_country_id", request.originCountryId())
+                        .param("destination_country_id", request.destinationCountryId())
+                        .param("weight", request.weight().toString())
+                        .param("created_at", request.createdAt().toString())
+                        .param("customer_id", request.customerId().toString())
+                        .param("customer_name", request.customerName())
+                        .param("customer_slug", request.customerSlug()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+    
     private TrackingNumberRequest createValidRequest() {
         return new TrackingNumberRequest(
                 "MY",
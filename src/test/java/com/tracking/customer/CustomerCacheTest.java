@@ -0,0 +1,91 @@
+package com.tracking.customer;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.tracking.support.H2TestDatabase;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for CustomerCache against an in-memory H2 database.
+ */
+class CustomerCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+    private CustomerCache customerCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        H2TestDatabase database = H2TestDatabase.migrated("customers");
+        jdbcTemplate = database.jdbcTemplate();
+        customerCache = new CustomerCache(jdbcTemplate, database.transactionManager(), meterRegistry, 2);
+    }
+
+    @Test
+    void store_ShouldWriteCustomerOnce_WhenNameAndSlugAreRepeated() {
+        // Given
+        UUID customerId = UUID.randomUUID();
+
+        // When
+        customerCache.store(customerId, "RedBox Logistics", "redbox-logistics");
+        customerCache.store(customerId, "RedBox Logistics", "redbox-logistics");
+
+        // Then
+        assertThat(customerName(customerId)).isEqualTo("RedBox Logistics");
+        assertThat(meterRegistry.get("tracking.customers.upserts").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void store_ShouldUpdateCustomer_WhenNameChanges() {
+        // Given
+        UUID customerId = UUID.randomUUID();
+        customerCache.store(customerId, "RedBox Logistics", "redbox-logistics");
+
+        // When
+        customerCache.store(customerId, "RedBox Logistics Sdn Bhd", "redbox-logistics");
+
+        // Then
+        assertThat(customerName(customerId)).isEqualTo("RedBox Logistics Sdn Bhd");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void store_ShouldStayWithinCacheSize_WhenCustomersExceedIt() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            customerCache.store(new UUID(0, i), "Customer " + i, "customer-" + i);
+        }
+
+        // Then
+        assertThat(meterRegistry.get("tracking.customers.cache.size").gauge().value()).isEqualTo(2.0);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Integer.class)).isEqualTo(5);
+    }
+
+    @Test
+    void store_ShouldWriteCustomerAgain_WhenInvalidated() {
+        // Given
+        UUID customerId = UUID.randomUUID();
+        customerCache.store(customerId, "RedBox Logistics", "redbox-logistics");
+        jdbcTemplate.update("DELETE FROM customers");
+
+        // When
+        customerCache.invalidate(customerId);
+        customerCache.store(customerId, "RedBox Logistics", "redbox-logistics");
+
+        // Then
+        assertThat(customerName(customerId)).isEqualTo("RedBox Logistics");
+    }
+
+    private String customerName(UUID customerId) {
+        return jdbcTemplate.queryForObject("SELECT customer_name FROM customers WHERE customer_id = ?",
+                String.class, customerId);
+    }
+}
@@ -0,0 +1,117 @@
+package com.tracking.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.tracking.support.H2TestDatabase;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for TrackingNumberExporter against an in-memory H2 database.
+ */
+class TrackingNumberExporterTest {
+
+    private static final UUID CUSTOMER_ID = H2TestDatabase.CUSTOMER_ID;
+
+    private MeterRegistry meterRegistry;
+    private H2TestDatabase database;
+    private TrackingNumberExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        database = H2TestDatabase.migrated("export");
+        exporter = new TrackingNumberExporter(database.dataSource(), database.transactionManager(),
+                meterRegistry, 2, 1);
+    }
+
+    @Test
+    void writeCsv_ShouldWriteCustomerRowsOldestFirst() throws IOException {
+        // Given
+        insertTrackingNumber("BBBBBBBB", CUSTOMER_ID, "RedBox Logistics", "2024-01-02T00:00:00Z");
+        insertTrackingNumber("AAAAAAAA", CUSTOMER_ID, "RedBox Logistics", "2024-01-01T00:00:00Z");
+        insertTrackingNumber("CCCCCCCC", CUSTOMER_ID, "RedBox Logistics", "2024-01-03T00:00:00Z");
+        insertTrackingNumber("ZZZZZZZZ", UUID.randomUUID(), "Other", "2024-01-01T00:00:00Z");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = exporter.writeCsv(CUSTOMER_ID, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(3);
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).isEqualTo(TrackingNumberExporter.HEADER);
+        assertThat(lines[1]).startsWith("AAAAAAAA,MY,ID,1.234," + CUSTOMER_ID + ",RedBox Logistics,test-customer,")
+                .endsWith(",2024-01-01T00:00Z");
+        assertThat(lines[2]).startsWith("BBBBBBBB,");
+        assertThat(lines[3]).startsWith("CCCCCCCC,");
+        assertThat(meterRegistry.get("tracking.export.rows").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void writeCsv_ShouldQuoteFieldsContainingSeparatorsOrQuotes() throws IOException {
+        // Given
+        insertTrackingNumber("AAAAAAAA", CUSTOMER_ID, "Acme, \"The\" Company", "2024-01-01T00:00:00Z");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exporter.writeCsv(CUSTOMER_ID, out);
+
+        // Then
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains(",\"Acme, \"\"The\"\" Company\",test-customer,");
+    }
+
+    @Test
+    void exportCsv_ShouldGzipAndRejectConcurrentExportsBeyondLimit() throws IOException {
+        // Given
+        insertTrackingNumber("AAAAAAAA", CUSTOMER_ID, "RedBox Logistics", "2024-01-01T00:00:00Z");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        StreamingResponseBody body = exporter.exportCsv(CUSTOMER_ID, true);
+        StreamingResponseBody rejected = exporter.exportCsv(CUSTOMER_ID, true);
+        body.writeTo(out);
+
+        // Then
+        assertThat(rejected).isNull();
+        assertThat(meterRegistry.get("tracking.export.rejections").counter().count()).isEqualTo(1.0);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                    .startsWith(TrackingNumberExporter.HEADER + "\nAAAAAAAA,");
+        }
+        assertThat(exporter.exportCsv(CUSTOMER_ID, false)).isNotNull();
+    }
+
+    @Test
+    void release_ShouldFreeSlotOnce_WhenBodyNeverRuns() {
+        // Given
+        TrackingNumberExporter.Export export = exporter.exportCsv(CUSTOMER_ID, false);
+
+        // When
+        export.release();
+        export.release();
+
+        // Then
+        assertThat(exporter.exportCsv(CUSTOMER_ID, false)).isNotNull();
+        assertThat(exporter.exportCsv(CUSTOMER_ID, false)).isNull();
+    }
+
+    private void insertTrackingNumber(String trackingNumber, UUID customerId, String customerName, String createdAt) {
+        database.insert(H2TestDatabase.Row.of(trackingNumber)
+                .withCustomer(customerId, customerName, "test-customer")
+                .withCreatedAt(OffsetDateTime.parse(createdAt)));
+    }
+}
@@ -0,0 +1,179 @@
+package com.tracking.feed;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import com.tracking.support.H2TestDatabase;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for ChangeFeed against an in-memory H2 database.
+ *
+ * The tailer is not started; tests poll the table themselves after
+ * inserting.
+ */
+class ChangeFeedTest {
+
+    private MeterRegistry meterRegistry;
+    private H2TestDatabase database;
+    private ChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        database = H2TestDatabase.migrated("feed");
+        changeFeed = new ChangeFeed(database.jdbcTemplate(), meterRegistry, 8, 100, 50, 60_000, 15_000, 4);
+    }
+
+    @Test
+    void next_ShouldOnlyReturnNewEvents_WhenSubscribedWithoutCursor() {
+        // Given
+        insertAndPoll("AAAAAAAA");
+        ChangeFeed.Cursor cursor = changeFeed.cursor(null);
+
+        // When
+        insertAndPoll("BBBBBBBB");
+        insertAndPoll("CCCCCCCC");
+
+        // Then
+        assertThat(trackingNumbers(cursor.next(100))).containsExactly("BBBBBBBB", "CCCCCCCC");
+        assertThat(cursor.next(100)).isEmpty();
+        assertThat(meterRegistry.get("tracking.feed.catch.up.rows").counter().count()).isZero();
+    }
+
+    @Test
+    void next_ShouldResumeFromBuffer_WhenCursorIsBuffered() {
+        // Given
+        long first = insertAndPoll("AAAAAAAA");
+        insertAndPoll("BBBBBBBB");
+
+        // When
+        ChangeFeed.Cursor cursor = changeFeed.cursor(first);
+
+        // Then
+        assertThat(trackingNumbers(cursor.next(100))).containsExactly("BBBBBBBB");
+        assertThat(meterRegistry.get("tracking.feed.catch.up.rows").counter().count()).isZero();
+    }
+
+    @Test
+    void next_ShouldCatchUpFromTableThenRejoinBuffer_WhenCursorIsOlderThanBuffer() {
+        // Given: ten numbers issued before the eight-slot buffer was filled
+        List<Long> ids = IntStream.range(0, 10).mapToObj(i -> insertAndPoll("TN%06d".formatted(i))).toList();
+        ChangeFeed.Cursor cursor = changeFeed.cursor(ids.get(0));
+
+        // When
+        List<TrackingNumberEvent> caughtUp = cursor.next(100);
+        insertAndPoll("LIVE0001");
+        List<TrackingNumberEvent> live = cursor.next(100);
+
+        // Then
+        assertThat(caughtUp).extracting(TrackingNumberEvent::id).containsExactlyElementsOf(ids.subList(1, 10));
+        assertThat(trackingNumbers(live)).containsExactly("LIVE0001");
+        assertThat(cursor.next(100)).isEmpty();
+    }
+
+    @Test
+    void next_ShouldFallBackToTable_WhenSubscriberFallsMoreThanBufferBehind() {
+        // Given
+        ChangeFeed.Cursor cursor = changeFeed.cursor(null);
+
+        // When
+        List<Long> ids = IntStream.range(0, 20).mapToObj(i -> insertAndPoll("TN%06d".formatted(i))).toList();
+
+        // Then
+        List<TrackingNumberEvent> events = cursor.next(100);
+        assertThat(events).extracting(TrackingNumberEvent::id).containsExactlyElementsOf(ids);
+        assertThat(meterRegistry.get("tracking.feed.overruns").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("tracking.feed.catch.up.rows").counter().count()).isEqualTo(20.0);
+    }
+
+    @Test
+    void listen_ShouldDeliverEveryEventAfterTheReturnedId() {
+        // Given
+        long first = insertAndPoll("AAAAAAAA");
+        List<TrackingNumberEvent> received = new ArrayList<>();
+
+        // When
+        long afterId = changeFeed.listen(received::add);
+        insertAndPoll("BBBBBBBB");
+        insertAndPoll("CCCCCCCC");
+
+        // Then
+        assertThat(afterId).isEqualTo(first);
+        assertThat(trackingNumbers(received)).containsExactly("BBBBBBBB", "CCCCCCCC");
+        assertThat(received.get(0).weight()).isEqualTo(1.234);
+    }
+
+    private long insertAndPoll(String trackingNumber) {
+        long id = database.insert(row(trackingNumber));
+        changeFeed.poll();
+        return id;
+    }
+
+    private static H2TestDatabase.Row row(String trackingNumber) {
+        // A customer per row, so concurrent transactions never wait for each other's customer
+        return H2TestDatabase.Row.of(trackingNumber).withCustomer(UUID.randomUUID(), "Test Customer", "test-customer");
+    }
+
+    @Test
+    void next_ShouldWaitForEarlierIdToCommit_WhenAnotherWriterCommitsOutOfOrder() throws Exception {
+        // Given: a subscriber that is up to date, and a writer holding an earlier id uncommitted
+        insertAndPoll("AAAAAAAA");
+        ChangeFeed.Cursor live = changeFeed.cursor(null);
+        ChangeFeed.Cursor resumed = changeFeed.cursor(0L);
+        resumed.next(100);
+        try (Connection connection = database.dataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            H2TestDatabase.insert(new JdbcTemplate(new SingleConnectionDataSource(connection, true)),
+                    row("BBBBBBBB"));
+
+            // When: a later id commits first
+            insertAndPoll("CCCCCCCC");
+
+            // Then: neither the buffer nor the table moves past the uncommitted id
+            assertThat(live.next(100)).isEmpty();
+            assertThat(resumed.next(100)).isEmpty();
+            connection.commit();
+        }
+        changeFeed.poll();
+        assertThat(trackingNumbers(live.next(100))).containsExactly("BBBBBBBB", "CCCCCCCC");
+        assertThat(trackingNumbers(resumed.next(100))).containsExactly("BBBBBBBB", "CCCCCCCC");
+        assertThat(trackingNumbers(changeFeed.cursor(0L).next(100)))
+                .containsExactly("AAAAAAAA", "BBBBBBBB", "CCCCCCCC");
+    }
+
+    @Test
+    void poll_ShouldPassOverRolledBackIds_WhenMissingForCommitLag() throws Exception {
+        // Given
+        changeFeed = new ChangeFeed(database.jdbcTemplate(), meterRegistry, 8, 100, 50, 0, 15_000, 4);
+        ChangeFeed.Cursor cursor = changeFeed.cursor(null);
+        try (Connection connection = database.dataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            H2TestDatabase.insert(new JdbcTemplate(new SingleConnectionDataSource(connection, true)),
+                    row("AAAAAAAA"));
+            connection.rollback();
+        }
+
+        // When
+        insertAndPoll("BBBBBBBB");
+
+        // Then
+        assertThat(trackingNumbers(cursor.next(100))).containsExactly("BBBBBBBB");
+        assertThat(meterRegistry.get("tracking.feed.skipped.ids").counter().count()).isEqualTo(1.0);
+    }
+
+    private static List<String> trackingNumbers(List<TrackingNumberEvent> events) {
+        return events.stream().map(TrackingNumberEvent::trackingNumber).toList();
+    }
+}
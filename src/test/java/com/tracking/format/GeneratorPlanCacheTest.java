@@ -0,0 +1,127 @@
+package com.tracking.format;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.tracking.support.H2TestDatabase;
+import com.tracking.validation.TrackingNumberValidator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for GeneratorPlanCache against an in-memory H2 database.
+ */
+class GeneratorPlanCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private H2TestDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        database = H2TestDatabase.migrated("formats");
+        jdbcTemplate = database.jdbcTemplate();
+    }
+
+    @Test
+    void planFor_ShouldReturnCompiledPlan_WhenCustomerHasFormat() {
+        // Given
+        insertFormat("acme", "AC", "0123456789", 10);
+        insertTrackingNumber("AC00000001", "acme");
+        insertTrackingNumber("ZZ00000001", "acme");
+
+        // When
+        GeneratorPlanCache cache = new GeneratorPlanCache(jdbcTemplate, meterRegistry, false, 1_000_000, 30_000);
+
+        // Then
+        GeneratorPlan plan = cache.planFor("acme");
+        assertThat(plan).isNotNull();
+        assertThat(cache.planFor("other")).isNull();
+        assertThat(plan.keyspaceSize()).isEqualTo(1e8);
+        assertThat(plan.fillRatio()).isEqualTo(1e-8);
+        assertThat(plan.generate(ThreadLocalRandom.current())).matches("^AC[0-9]{8}$");
+    }
+
+    @Test
+    void refresh_ShouldOnlyRecompileChangedFormats() {
+        // Given
+        insertFormat("acme", "AC", "0123456789", 10);
+        insertFormat("globex", "GX", "ABCDEF", 12);
+        GeneratorPlanCache cache = new GeneratorPlanCache(jdbcTemplate, meterRegistry, false, 1_000_000, 30_000);
+        GeneratorPlan acme = cache.planFor("acme");
+
+        // When
+        jdbcTemplate.update("UPDATE tracking_number_formats SET number_length = 12 WHERE customer_slug = 'acme'");
+        jdbcTemplate.update("DELETE FROM tracking_number_formats WHERE customer_slug = 'globex'");
+        insertFormat("initech", "IN", "XYZ", 16);
+        cache.refresh();
+
+        // Then
+        assertThat(cache.planFor("acme")).isNotSameAs(acme);
+        assertThat(cache.planFor("acme").format().length()).isEqualTo(12);
+        assertThat(cache.planFor("globex")).isNull();
+        assertThat(cache.planFor("initech")).isNotNull();
+        assertThat(meterRegistry.find("tracking.format.capacity").tag("customer_slug", "globex").gauge()).isNull();
+        assertThat(meterRegistry.get("tracking.format.plans").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void refresh_ShouldIgnoreInvalidFormats() {
+        // Given: the prefix leaves only two random characters
+        insertFormat("acme", "ACME12", "0123456789", 8);
+        insertFormat("globex", "GX", "abc", 10);
+
+        // When
+        GeneratorPlanCache cache = new GeneratorPlanCache(jdbcTemplate, meterRegistry, false, 1_000_000, 30_000);
+
+        // Then
+        assertThat(cache.planFor("acme")).isNull();
+        assertThat(cache.planFor("globex")).isNull();
+    }
+
+    @Test
+    void refresh_ShouldIgnoreFormats_WhenKeyspaceIsBelowMinimum() {
+        // Given: eight random characters from two letters make 256 numbers
+        insertFormat("acme", "AC", "AB", 10);
+        insertFormat("globex", "GX", "0123456789", 8);
+
+        // When
+        GeneratorPlanCache cache = new GeneratorPlanCache(jdbcTemplate, meterRegistry, false, 1_000_000, 30_000);
+
+        // Then
+        assertThat(cache.planFor("acme")).isNull();
+        assertThat(cache.planFor("globex").keyspaceSize()).isEqualTo(1e6);
+    }
+
+    @Test
+    void generate_ShouldAppendCheckCharacter_WhenCheckCharacterIsEnabled() {
+        // Given
+        insertFormat("acme", "AC", "0123456789", 10);
+        GeneratorPlanCache cache = new GeneratorPlanCache(jdbcTemplate, meterRegistry, true, 1_000_000, 30_000);
+
+        // When
+        String trackingNumber = cache.planFor("acme").generate(ThreadLocalRandom.current());
+
+        // Then
+        assertThat(trackingNumber).matches("^AC[0-9]{7}[A-Z0-9]$");
+        assertThat(TrackingNumberValidator.hasValidCheckCharacter(trackingNumber)).isTrue();
+        assertThat(cache.planFor("acme").keyspaceSize()).isEqualTo(1e7);
+    }
+
+    private void insertFormat(String customerSlug, String prefix, String alphabet, int length) {
+        jdbcTemplate.update("INSERT INTO tracking_number_formats (customer_slug, prefix, alphabet, number_length) "
+                + "VALUES (?, ?, ?, ?)", customerSlug, prefix, alphabet, length);
+    }
+
+    private void insertTrackingNumber(String trackingNumber, String customerSlug) {
+        database.insert(H2TestDatabase.Row.of(trackingNumber)
+                .withCustomer(UUID.randomUUID(), "Test Customer", customerSlug));
+    }
+}
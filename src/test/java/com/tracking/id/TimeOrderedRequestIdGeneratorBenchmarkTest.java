@@ -0,0 +1,77 @@
+package com.tracking.id;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Thread scalability of TimeOrderedRequestIdGenerator against
+ * {@link UUID#randomUUID()}, with 1 up to twice the available processors
+ * generating IDs concurrently.
+ *
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class TimeOrderedRequestIdGeneratorBenchmarkTest {
+
+    private static final long WARMUP_MILLIS = 1_000;
+    private static final long MEASURED_MILLIS = 2_000;
+
+    @Test
+    void nextId_ShouldOutperformRandomUuidUnderContention() throws Exception {
+        RequestIdGenerator timeOrdered = new TimeOrderedRequestIdGenerator(Clock.systemUTC());
+        int maxThreads = 2 * Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%-8s %18s %18s%n", "threads", "randomUUID ops/s", "UUIDv7 ops/s");
+        double randomAtMax = 0;
+        double timeOrderedAtMax = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double random = measure(RequestIdGenerator.RANDOM, threads);
+            double ordered = measure(timeOrdered, threads);
+            System.out.printf("%-8d %,18.0f %,18.0f%n", threads, random, ordered);
+            randomAtMax = random;
+            timeOrderedAtMax = ordered;
+        }
+
+        assertThat(timeOrderedAtMax).isGreaterThan(randomAtMax);
+    }
+
+    private static double measure(RequestIdGenerator generator, int threads) throws InterruptedException {
+        run(generator, threads, WARMUP_MILLIS);
+        return run(generator, threads, MEASURED_MILLIS) * 1000.0 / MEASURED_MILLIS;
+    }
+
+    private static long run(RequestIdGenerator generator, int threads, long millis) throws InterruptedException {
+        LongAdder generated = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    long count = 0;
+                    long sink = 0;
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long deadline = System.nanoTime() + millis * 1_000_000;
+                    while (System.nanoTime() < deadline) {
+                        sink += generator.nextId().getLeastSignificantBits();
+                        count++;
+                    }
+                    generated.add(count + (sink == 42 ? 1 : 0));
+                });
+            }
+            start.countDown();
+        }
+        return generated.sum();
+    }
+}
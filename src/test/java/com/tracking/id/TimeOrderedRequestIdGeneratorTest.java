@@ -0,0 +1,88 @@
+package com.tracking.id;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for TimeOrderedRequestIdGenerator.
+ */
+class TimeOrderedRequestIdGeneratorTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-02T03:04:05.678Z");
+
+    @Test
+    void nextId_ShouldProduceVersion7UuidsCarryingTheTimestamp() {
+        // Given
+        TimeOrderedRequestIdGenerator generator =
+                new TimeOrderedRequestIdGenerator(Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // When
+        UUID id = generator.nextId();
+
+        // Then
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(TimeOrderedRequestIdGenerator.timestampOf(id)).isEqualTo(NOW.toEpochMilli());
+    }
+
+    @Test
+    void nextId_ShouldIncreaseStrictlyWithinOneThread_WhenTheClockStandsStill() {
+        // Given
+        TimeOrderedRequestIdGenerator generator =
+                new TimeOrderedRequestIdGenerator(Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // When
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        // Then
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(unsignedCompare(ids.get(i - 1), ids.get(i))).isNegative();
+        }
+        assertThat(TimeOrderedRequestIdGenerator.timestampOf(ids.get(ids.size() - 1)))
+                .isGreaterThanOrEqualTo(NOW.toEpochMilli());
+    }
+
+    @Test
+    void nextId_ShouldNotRepeat_AcrossThreadsWithinTheSameMillisecond() throws Exception {
+        // Given
+        TimeOrderedRequestIdGenerator generator =
+                new TimeOrderedRequestIdGenerator(Clock.fixed(NOW, ZoneOffset.UTC));
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                });
+            }
+        }
+
+        // Then
+        assertThat(ids).hasSize(8 * 50_000);
+    }
+
+    /**
+     * Compares as unsigned bytes, the order in which databases sort UUIDs.
+     */
+    private static int unsignedCompare(UUID a, UUID b) {
+        int most = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return most != 0 ? most : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
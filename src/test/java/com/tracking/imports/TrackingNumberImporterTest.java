@@ -0,0 +1,150 @@
+package com.tracking.imports;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.customer.CustomerCache;
+import com.tracking.service.KeyspaceOccupancyTracker;
+import com.tracking.support.H2TestDatabase;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for TrackingNumberImporter against an in-memory H2 database.
+ */
+class TrackingNumberImporterTest {
+
+    private static final String HEADER = "tracking_number,origin_country_id,destination_country_id,weight,"
+            + "customer_id,customer_name,customer_slug,request_id,created_at";
+
+    private MeterRegistry meterRegistry;
+    private H2TestDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private KeyspaceOccupancyTracker keyspaceTracker;
+    private TrackingNumberImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        database = H2TestDatabase.migrated("import");
+        jdbcTemplate = database.jdbcTemplate();
+        keyspaceTracker = new KeyspaceOccupancyTracker(8, 16, false, 0.001, 0.01, meterRegistry);
+        importer = new TrackingNumberImporter(database.dataSource(), database.transactionManager(), keyspaceTracker,
+                new CustomerCache(jdbcTemplate, database.transactionManager(), meterRegistry, 100), null, null,
+                new ObjectMapper(), meterRegistry, 1000, 2, 2, 1, 10_000);
+    }
+
+    @Test
+    void importRows_ShouldLoadCsvAndReportInvalidRows() throws Exception {
+        // Given
+        String csv = HEADER + "\n"
+                + IntStream.range(0, 2500).mapToObj(TrackingNumberImporterTest::csvRow)
+                        .collect(Collectors.joining("\n")) + "\n"
+                + "ABC,MY,ID,1.0," + UUID.randomUUID() + ",Bad Number,bad-number,,2024-01-15T10:30:00Z\n"
+                + "LEGACY00000001,XX,ID,1.0," + UUID.randomUUID() + ",Bad Country,bad-country,,2024-01-15T10:30:00Z\n"
+                + "LEGACY00000002,MY,ID,1.0," + UUID.randomUUID()
+                + ",\"Quoted, \"\"Multi\"\"\nLine\",quoted,,2024-01-15T10:30:00Z\n";
+
+        // When
+        ImportReport report = importer.importRows("legacy-csv", ImportFormat.CSV, stream(csv));
+
+        // Then
+        assertThat(report.records()).isEqualTo(2503);
+        assertThat(report.loadedRows()).isEqualTo(2501);
+        assertThat(report.invalidRows()).isEqualTo(2);
+        assertThat(report.errors()).extracting(ImportReport.ImportError::record).containsExactly(2501L, 2502L);
+        assertThat(rowCount()).isEqualTo(2501);
+        assertThat(jdbcTemplate.queryForObject("SELECT c.customer_name FROM tracking_numbers t "
+                + "JOIN customers c ON c.customer_id = t.customer_id WHERE t.tracking_number = ?",
+                String.class, "LEGACY00000002")).isEqualTo("Quoted, \"Multi\"\nLine");
+        assertThat(keyspaceTracker.fillRatio(14)).isPositive();
+        assertThat(meterRegistry.get("tracking.import.rows").tag("outcome", "loaded").counter().count())
+                .isEqualTo(2501.0);
+    }
+
+    @Test
+    void importRows_ShouldSkipChunksLoadedByEarlierRun() throws Exception {
+        // Given: the second chunk was not loaded before the import was interrupted
+        String csv = HEADER + "\n" + IntStream.range(0, 2500).mapToObj(TrackingNumberImporterTest::csvRow)
+                .collect(Collectors.joining("\n"));
+        importer.importRows("legacy-resume", ImportFormat.CSV, stream(csv));
+        jdbcTemplate.update("DELETE FROM import_checkpoints WHERE import_id = 'legacy-resume' AND chunk = 1");
+        jdbcTemplate.update("DELETE FROM tracking_numbers WHERE tracking_number IN ("
+                + IntStream.range(1000, 2000).mapToObj(i -> "'" + trackingNumber(i) + "'")
+                        .collect(Collectors.joining(", ")) + ")");
+
+        // When
+        ImportReport report = importer.importRows("legacy-resume", ImportFormat.CSV, stream(csv));
+
+        // Then
+        assertThat(report.resumedChunks()).isEqualTo(2);
+        assertThat(report.loadedRows()).isEqualTo(2500);
+        assertThat(report.duplicateRows()).isZero();
+        assertThat(rowCount()).isEqualTo(2500);
+        assertThat(meterRegistry.get("tracking.import.rows").tag("outcome", "loaded").counter().count())
+                .isEqualTo(3500.0);
+    }
+
+    @Test
+    void importRows_ShouldSkipNumbersAlreadyStored() throws Exception {
+        // Given
+        String ndjson = IntStream.range(0, 1500).mapToObj(TrackingNumberImporterTest::jsonRow)
+                .collect(Collectors.joining("\n")) + "\n" + jsonRow(0);
+        importer.importRows("earlier", ImportFormat.NDJSON, stream(jsonRow(10) + "\n" + jsonRow(1200)));
+
+        // When
+        ImportReport report = importer.importRows("legacy-ndjson", ImportFormat.NDJSON, stream(ndjson));
+
+        // Then
+        assertThat(report.loadedRows()).isEqualTo(1498);
+        assertThat(report.duplicateRows()).isEqualTo(3);
+        assertThat(rowCount()).isEqualTo(1500);
+    }
+
+    @Test
+    void importRows_ShouldRejectCsvWithoutRequiredColumns() {
+        // Given
+        String csv = "tracking_number,weight\nLEGACY00000001,1.0\n";
+
+        // When & Then
+        assertThatThrownBy(() -> importer.importRows("no-header", ImportFormat.CSV, stream(csv)))
+                .isInstanceOf(InvalidImportException.class)
+                .hasMessageContaining("origin_country_id");
+    }
+
+    private int rowCount() {
+        return database.rowCount();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String trackingNumber(int i) {
+        return String.format("LG%012d", i + 100);
+    }
+
+    private static String csvRow(int i) {
+        return trackingNumber(i) + ",MY,ID,1.5," + new UUID(0, i) + ",Legacy Customer,legacy-customer,"
+                + (i % 2 == 0 ? "" : new UUID(1, i).toString()) + ",2020-03-01T08:00:00+08:00";
+    }
+
+    private static String jsonRow(int i) {
+        return "{\"tracking_number\":\"" + trackingNumber(i) + "\",\"origin_country_id\":\"SG\","
+                + "\"destination_country_id\":\"TH\",\"weight\":2.25,\"customer_id\":\"" + new UUID(0, i) + "\","
+                + "\"customer_name\":\"Legacy Customer\",\"customer_slug\":\"legacy-customer\","
+                + "\"created_at\":\"2020-03-01T08:00:00Z\"}";
+    }
+}
@@ -0,0 +1,114 @@
+package com.tracking.integration;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.tracking.domain.TrackingNumberRequest;
+import com.tracking.domain.TrackingNumberResponse;
+import com.tracking.repository.TrackingNumberRepository;
+import com.tracking.service.TrackingNumberService;
+import com.tracking.support.H2TestDatabase;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Integration tests for read-replica routing using two separate H2 databases.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.username=sa"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ReadReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private TrackingNumberService trackingNumberService;
+
+    @Autowired
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP ALL OBJECTS");
+        List<String> schema = new JdbcTemplate(primaryDataSource).queryForList("SCRIPT NODATA", String.class);
+        schema.forEach(replica::execute);
+    }
+
+    @Test
+    void readOnlyQueries_ShouldBeServedByReplica_WhileGenerationWritesToPrimary() {
+        // Given: the replica holds rows the primary does not have
+        UUID customerId = UUID.randomUUID();
+        insertIntoReplica("REPLICA0001", customerId);
+        insertIntoReplica("REPLICA0002", customerId);
+
+        // When
+        TrackingNumberResponse generated = trackingNumberService.generateTrackingNumber(createRequest(customerId));
+
+        // Then
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject(
+                "SELECT COUNT(*) FROM tracking_numbers WHERE tracking_number = ?", Long.class,
+                generated.trackingNumber())).isEqualTo(1L);
+        assertThat(trackingNumberRepository.countByCustomerId(customerId)).isEqualTo(2L);
+        assertThat(trackingNumberRepository.findByCustomerId(customerId))
+                .extracting(trackingNumber -> trackingNumber.getTrackingNumber())
+                .containsExactlyInAnyOrder("REPLICA0001", "REPLICA0002");
+    }
+
+    @Test
+    void pools_ShouldPublishSeparateMetrics() {
+        // When
+        trackingNumberRepository.countByCustomerId(UUID.randomUUID());
+
+        // Then
+        assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "primary").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "replica").gauge()).isNotNull();
+        assertThat(meterRegistry.get("tracking.datasource.replica.available").gauge().value()).isEqualTo(1.0);
+    }
+
+    private void insertIntoReplica(String trackingNumber, UUID customerId) {
+        H2TestDatabase.insert(replica, H2TestDatabase.Row.of(trackingNumber)
+                .withCustomer(customerId, "Test Customer", "test-customer"));
+    }
+
+    private TrackingNumberRequest createRequest(UUID customerId) {
+        return new TrackingNumberRequest(
+                "MY",
+                "ID",
+                1.234,
+                OffsetDateTime.now(),
+                customerId,
+                "Test Customer",
+                "test-customer"
+        );
+    }
+}
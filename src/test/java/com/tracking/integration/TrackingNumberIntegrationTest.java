@@ -4,6 +4,7 @@ import java.time.OffsetDateTime;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,11 +14,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tracking.domain.TrackingNumberRequest;
@@ -25,12 +28,14 @@ import com.tracking.repository.TrackingNumberRepository;
 
 /**
  * Integration tests for the tracking number API using H2 in-memory database.
+ *
+ * Not transactional: generation runs on the GenerationExecutor's threads
+ * and commits in its own transactions, so the rows are removed explicitly.
  */
 @SpringBootTest
 @AutoConfigureMockMvc
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @ActiveProfiles("test")
-@Transactional
 class TrackingNumberIntegrationTest {
     
     @Autowired
@@ -47,13 +52,18 @@ class TrackingNumberIntegrationTest {
         trackingNumberRepository.deleteAll();
     }
     
+    @AfterEach
+    void tearDown() {
+        trackingNumberRepository.deleteAll();
+    }
+    
     @Test
     void generateTrackingNumber_ShouldCreateUniqueTrackingNumber_WhenRequestIsValid() throws Exception {
         // Given
         TrackingNumberRequest request = createValidRequest();
         
         // When
-        mockMvc.perform(get("/api/v1/next-tracking-number")
+        MvcResult result = mockMvc.perform(get("/api/v1/next-tracking-number").contextPath("/api/v1")
                         .param("origin_country_id", request.originCountryId())
                         .param("destination_country_id", request.destinationCountryId())
                         .param("weight", request.weight().toString())
@@ -62,6 +72,9 @@ class TrackingNumberIntegrationTest {
                         .param("customer_name", request.customerName())
                         .param("customer_slug", request.customerSlug())
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.tracking_number").exists())
@@ -82,7 +95,7 @@ class TrackingNumberIntegrationTest {
         TrackingNumberRequest request2 = createValidRequest();
         
         // When
-        mockMvc.perform(get("/api/v1/next-tracking-number")
+        MvcResult result1 = mockMvc.perform(get("/api/v1/next-tracking-number").contextPath("/api/v1")
                         .param("origin_country_id", request1.originCountryId())
                         .param("destination_country_id", request1.destinationCountryId())
                         .param("weight", request1.weight().toString())
@@ -91,9 +104,12 @@ class TrackingNumberIntegrationTest {
                         .param("customer_name", request1.customerName())
                         .param("customer_slug", request1.customerSlug())
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result1))
                 .andExpect(status().isOk());
         
-        mockMvc.perform(get("/api/v1/next-tracking-number")
+        MvcResult result2 = mockMvc.perform(get("/api/v1/next-tracking-number").contextPath("/api/v1")
                         .param("origin_country_id", request2.originCountryId())
                         .param("destination_country_id", request2.destinationCountryId())
                         .param("weight", request2.weight().toString())
@@ -102,6 +118,9 @@ class TrackingNumberIntegrationTest {
                         .param("customer_name", request2.customerName())
                         .param("customer_slug", request2.customerSlug())
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result2))
                 .andExpect(status().isOk());
         
         // Then
@@ -111,7 +130,7 @@ class TrackingNumberIntegrationTest {
     @Test
     void generateTrackingNumber_ShouldReturnBadRequest_WhenRequiredParametersAreMissing() throws Exception {
         // When & Then
-        mockMvc.perform(get("/api/v1/next-tracking-number")
+        mockMvc.perform(get("/api/v1/next-tracking-number").contextPath("/api/v1")
                         .param("origin_country_id", "MY")
                         .param("destination_country_id", "ID")
                         // Missing weight parameter
@@ -0,0 +1,134 @@
+package com.tracking.integration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.tracking.domain.TrackingNumberRequest;
+import com.tracking.repository.TrackingNumberRepository;
+import com.tracking.service.TrackingNumberService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Integration tests for the transaction scope of tracking number generation.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class TransactionScopeIntegrationTest {
+
+    private static final AtomicBoolean COLLIDE_NEXT_CHECK = new AtomicBoolean();
+    private static final List<Boolean> TRANSACTION_ACTIVE_DURING_CHECK = new CopyOnWriteArrayList<>();
+    private static final List<Boolean> TRANSACTION_ACTIVE_DURING_SAVE = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private TrackingNumberService trackingNumberService;
+
+    @Autowired
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        TRANSACTION_ACTIVE_DURING_CHECK.clear();
+        TRANSACTION_ACTIVE_DURING_SAVE.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        trackingNumberRepository.deleteAll();
+    }
+
+    @Test
+    void generateTrackingNumber_ShouldOnlyHoldConnectionsForQueriesAndInsert_WhenRetrying() {
+        // Given: the first candidate collides, forcing a backoff sleep
+        COLLIDE_NEXT_CHECK.set(true);
+        Timer connectionHold = meterRegistry.get("tracking.number.connection.hold").timer();
+        Timer generation = meterRegistry.get("tracking.number.generation.duration").timer();
+        double holdBefore = connectionHold.totalTime(TimeUnit.MILLISECONDS);
+        double generationBefore = generation.totalTime(TimeUnit.MILLISECONDS);
+
+        // When
+        trackingNumberService.generateTrackingNumber(createValidRequest());
+
+        // Then
+        assertThat(TRANSACTION_ACTIVE_DURING_CHECK).containsExactly(false, false);
+        assertThat(TRANSACTION_ACTIVE_DURING_SAVE).containsExactly(true);
+        double held = connectionHold.totalTime(TimeUnit.MILLISECONDS) - holdBefore;
+        double elapsed = generation.totalTime(TimeUnit.MILLISECONDS) - generationBefore;
+        assertThat(held).isPositive();
+        // The backoff sleeps at least 10 ms without holding a connection
+        assertThat(held).isLessThan(elapsed - 10);
+    }
+
+    /**
+     * Wraps the repository to record the caller's transaction state and to
+     * report a collision on demand.
+     */
+    @TestConfiguration
+    static class RecordingRepositoryConfig {
+
+        @Bean
+        static BeanPostProcessor recordingRepositoryPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof TrackingNumberRepository repository)) {
+                        return bean;
+                    }
+                    return Proxy.newProxyInstance(getClass().getClassLoader(),
+                            new Class<?>[] {TrackingNumberRepository.class}, (proxy, method, args) -> {
+                                boolean transactionActive = TransactionSynchronizationManager.isActualTransactionActive();
+                                if (method.getName().equals("existsByTrackingNumber")) {
+                                    TRANSACTION_ACTIVE_DURING_CHECK.add(transactionActive);
+                                    if (COLLIDE_NEXT_CHECK.getAndSet(false)) {
+                                        return true;
+                                    }
+                                } else if (method.getName().equals("save")) {
+                                    TRANSACTION_ACTIVE_DURING_SAVE.add(transactionActive);
+                                }
+                                try {
+                                    return method.invoke(repository, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getTargetException();
+                                }
+                            });
+                }
+            };
+        }
+    }
+
+    private TrackingNumberRequest createValidRequest() {
+        return new TrackingNumberRequest(
+                "MY",
+                "ID",
+                1.234,
+                OffsetDateTime.now(),
+                UUID.randomUUID(),
+                "Test Customer",
+                "test-customer"
+        );
+    }
+}
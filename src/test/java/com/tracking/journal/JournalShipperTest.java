@@ -0,0 +1,143 @@
+package com.tracking.journal;
+
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tracking.customer.CustomerCache;
+import com.tracking.support.H2TestDatabase;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for JournalShipper against an in-memory H2 database.
+ */
+class JournalShipperTest {
+
+    @TempDir
+    Path directory;
+
+    private MeterRegistry meterRegistry;
+    private H2TestDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private TrackingNumberJournal journal;
+    private JournalShipper shipper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        database = H2TestDatabase.migrated("journal");
+        jdbcTemplate = database.jdbcTemplate();
+        transactionTemplate = new TransactionTemplate(database.transactionManager());
+        journal = new TrackingNumberJournal(directory.toString(), 4096, false, meterRegistry);
+        CustomerCache customerCache = new CustomerCache(jdbcTemplate, database.transactionManager(),
+                meterRegistry, 100);
+        shipper = new JournalShipper(journal, customerCache, jdbcTemplate, transactionTemplate, meterRegistry,
+                50, 100, 1000);
+    }
+
+    @Test
+    void shipBatch_ShouldInsertJournaledEntriesAndAdvanceCheckpoint() {
+        // Given
+        IntStream.range(0, 80).mapToObj(JournalShipperTest::entry).forEach(journal::tryAppend);
+
+        // When
+        int first = shipper.shipBatch();
+        int second = shipper.shipBatch();
+        int third = shipper.shipBatch();
+
+        // Then
+        assertThat(first).isEqualTo(50);
+        assertThat(second).isEqualTo(30);
+        assertThat(third).isZero();
+        assertThat(rowCount()).isEqualTo(80);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Integer.class)).isEqualTo(80);
+        assertThat(journal.lag()).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT request_id FROM tracking_numbers WHERE tracking_number = ?", UUID.class,
+                entry(7).trackingNumber())).isEqualTo(entry(7).requestId());
+        assertThat(meterRegistry.get("tracking.journal.shipped").counter().count()).isEqualTo(80.0);
+    }
+
+    @Test
+    void shipBatch_ShouldSkipReplayedEntriesAlreadyStored() {
+        // Given: the first half was shipped but the checkpoint was lost in a crash
+        IntStream.range(0, 20).mapToObj(JournalShipperTest::entry).forEach(journal::tryAppend);
+        IntStream.range(0, 10).mapToObj(JournalShipperTest::entry).forEach(this::insert);
+
+        // When
+        int shipped = shipper.shipBatch();
+
+        // Then
+        assertThat(shipped).isEqualTo(20);
+        assertThat(rowCount()).isEqualTo(20);
+        assertThat(meterRegistry.get("tracking.journal.conflicts").counter().count()).isZero();
+    }
+
+    @Test
+    void shipBatch_ShouldCountConflict_WhenTrackingNumberIsStoredForAnotherRequest() {
+        // Given
+        JournalEntry journaled = entry(1);
+        journal.tryAppend(journaled);
+        journal.tryAppend(entry(2));
+        insert(new JournalEntry(journaled.trackingNumber(), "SG", "TH", 2.0, UUID.randomUUID(), "Other Customer",
+                "other-customer", UUID.randomUUID(), OffsetDateTime.now()));
+
+        // When
+        shipper.shipBatch();
+
+        // Then
+        assertThat(rowCount()).isEqualTo(2);
+        assertThat(journal.lag()).isZero();
+        assertThat(meterRegistry.get("tracking.journal.conflicts").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shipBatch_ShouldKeepEntriesPending_WhenDatabaseIsUnreachable() {
+        // Given
+        journal.tryAppend(entry(1));
+        jdbcTemplate.execute("DROP TABLE tracking_numbers");
+
+        // When & Then
+        assertThatThrownBy(shipper::shipBatch).isInstanceOf(DataAccessException.class);
+        assertThat(journal.lag()).isEqualTo(1);
+        assertThat(journal.isPending(entry(1).trackingNumber())).isTrue();
+    }
+
+    private int rowCount() {
+        return database.rowCount();
+    }
+
+    private void insert(JournalEntry entry) {
+        database.insert(new H2TestDatabase.Row(entry.trackingNumber(), entry.originCountryId(),
+                entry.destinationCountryId(), entry.weight(), entry.customerId(), entry.customerName(),
+                entry.customerSlug(), entry.requestId(), entry.createdAt()));
+    }
+
+    private static JournalEntry entry(int index) {
+        return new JournalEntry(
+                "SHP%08d".formatted(index),
+                "MY",
+                "ID",
+                1.234,
+                new UUID(0, index),
+                "Test Customer",
+                "test-customer",
+                new UUID(1, index),
+                OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC)
+        );
+    }
+}
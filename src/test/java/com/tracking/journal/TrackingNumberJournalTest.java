@@ -0,0 +1,162 @@
+package com.tracking.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for TrackingNumberJournal.
+ */
+class TrackingNumberJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void tryAppend_ShouldRejectTrackingNumberAlreadyPending() {
+        // Given
+        TrackingNumberJournal journal = open();
+        JournalEntry entry = entry(1);
+
+        // When
+        boolean first = journal.tryAppend(entry);
+        boolean second = journal.tryAppend(entry(1));
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(journal.isPending(entry.trackingNumber())).isTrue();
+        assertThat(meterRegistry.get("tracking.journal.lag").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void read_ShouldReturnEntriesAcrossRotatedSegments() throws IOException {
+        // Given
+        TrackingNumberJournal journal = open();
+        List<JournalEntry> entries = IntStream.range(0, 100).mapToObj(this::entry).toList();
+        entries.forEach(journal::tryAppend);
+
+        // When
+        TrackingNumberJournal.Batch firstBatch = journal.read(journal.checkpoint(), 60);
+        TrackingNumberJournal.Batch secondBatch = journal.read(firstBatch.next(), 60);
+
+        // Then
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+        assertThat(firstBatch.entries()).containsExactlyElementsOf(entries.subList(0, 60));
+        assertThat(secondBatch.entries()).containsExactlyElementsOf(entries.subList(60, 100));
+        assertThat(journal.read(secondBatch.next(), 60).entries()).isEmpty();
+    }
+
+    @Test
+    void commit_ShouldClearPendingAndDeleteShippedSegments() throws IOException {
+        // Given
+        TrackingNumberJournal journal = open();
+        IntStream.range(0, 100).mapToObj(this::entry).forEach(journal::tryAppend);
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+
+        // When
+        journal.commit(journal.read(journal.checkpoint(), 100));
+
+        // Then
+        assertThat(journal.lag()).isZero();
+        assertThat(segmentFiles()).hasSize(1);
+    }
+
+    @Test
+    void open_ShouldReplayEntriesAfterCheckpoint() {
+        // Given
+        TrackingNumberJournal journal = open();
+        IntStream.range(0, 100).mapToObj(this::entry).forEach(journal::tryAppend);
+        journal.commit(journal.read(journal.checkpoint(), 30));
+        journal.close();
+
+        // When
+        TrackingNumberJournal reopened = open();
+
+        // Then
+        assertThat(reopened.lag()).isEqualTo(70);
+        assertThat(reopened.isPending(entry(29).trackingNumber())).isFalse();
+        assertThat(reopened.isPending(entry(30).trackingNumber())).isTrue();
+        assertThat(reopened.read(reopened.checkpoint(), 100).entries())
+                .containsExactlyElementsOf(IntStream.range(30, 100).mapToObj(this::entry).toList());
+    }
+
+    @Test
+    void open_ShouldDiscardCorruptedTailAndKeepAppending() throws IOException {
+        // Given
+        TrackingNumberJournal journal = open();
+        journal.tryAppend(entry(1));
+        journal.tryAppend(entry(2));
+        journal.close();
+        Path segment = segmentFiles().get(0);
+        int secondPayload = Math.toIntExact(TrackingNumberJournal.RECORD_HEADER_LENGTH * 2L + encodedLength(entry(1)));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Flip a byte inside the second record's payload, as a torn write would
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0x7F}), secondPayload + 3);
+        }
+
+        // When
+        TrackingNumberJournal reopened = open();
+        reopened.tryAppend(entry(3));
+
+        // Then
+        assertThat(reopened.read(reopened.checkpoint(), 10).entries()).containsExactly(entry(1), entry(3));
+        assertThat(reopened.isPending(entry(2).trackingNumber())).isFalse();
+    }
+
+    private TrackingNumberJournal open() {
+        return new TrackingNumberJournal(directory.toString(), SEGMENT_SIZE, false, meterRegistry);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).sorted().toList();
+        }
+    }
+
+    private static int encodedLength(JournalEntry entry) {
+        ByteBuffer buffer = ByteBuffer.allocate(JournalEntry.MAX_ENCODED_LENGTH);
+        entry.encode(buffer);
+        return buffer.position();
+    }
+
+    private JournalEntry entry(int index) {
+        return new JournalEntry(
+                "JRN%08d".formatted(index),
+                "MY",
+                "ID",
+                1.234,
+                new UUID(0, index),
+                "Test Customer",
+                "test-customer",
+                new UUID(1, index),
+                OffsetDateTime.of(2024, 1, 1, 0, 0, 0, index, ZoneOffset.ofHours(8))
+        );
+    }
+}
@@ -0,0 +1,137 @@
+package com.tracking.logging;
+
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import com.tracking.domain.TrackingNumberRequest;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for GenerationLog and its queue.
+ */
+class GenerationLogTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(GenerationLog.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void events_ShouldBeWrittenAsKeyValueLines_WhenSampled() {
+        // Given
+        GenerationLog log = new GenerationLog(meterRegistry, 16, "drop", 1.0, 1.0, 1.0, 1.0);
+        TrackingNumberRequest request = createValidRequest();
+        UUID requestId = UUID.randomUUID();
+
+        // When
+        log.success(request, "ABC12345", requestId);
+        log.collision("XYZ98765", 2);
+        log.failure(request, new IllegalStateException("boom"));
+        int written = log.drain();
+
+        // Then
+        assertThat(written).isEqualTo(3);
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "event=generated tracking_number=ABC12345 customer_id=" + request.customerId()
+                        + " customer_slug=redbox-logistics request_id=" + requestId,
+                "event=collision tracking_number=XYZ98765 attempt=2",
+                "event=failed customer_id=" + request.customerId() + " customer_slug=redbox-logistics");
+        assertThat(appender.list.get(2).getThrowableProxy().getMessage()).isEqualTo("boom");
+    }
+
+    @Test
+    void events_ShouldBeSampledPerType() {
+        // Given
+        GenerationLog log = new GenerationLog(meterRegistry, 1024, "drop", 0.0, 1.0, 1.0, 1.0);
+        TrackingNumberRequest request = createValidRequest();
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            log.success(request, "ABC12345", UUID.randomUUID());
+        }
+        log.failure(request, new IllegalStateException("boom"));
+
+        // Then
+        assertThat(log.drain()).isEqualTo(1);
+    }
+
+    @Test
+    void events_ShouldBeDroppedAndCounted_WhenQueueIsFull() {
+        // Given
+        GenerationLog log = new GenerationLog(meterRegistry, 4, "drop", 1.0, 1.0, 1.0, 1.0);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            log.collision("ABC12345", 1);
+        }
+
+        // Then
+        assertThat(log.drain()).isEqualTo(4);
+        assertThat(meterRegistry.get("tracking.log.dropped").tag("event", "collision").counter().count())
+                .isEqualTo(6.0);
+    }
+
+    @Test
+    void queue_ShouldDeliverEveryElementOnce_WithConcurrentProducers() throws Exception {
+        // Given
+        BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(1024);
+        Set<Integer> received = ConcurrentHashMap.newKeySet();
+        int producers = 4;
+        int perProducer = 50_000;
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(producers)) {
+            for (int p = 0; p < producers; p++) {
+                int first = p * perProducer;
+                executor.execute(() -> {
+                    for (int i = first; i < first + perProducer; i++) {
+                        while (!queue.offer(i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                });
+            }
+            while (received.size() < producers * perProducer) {
+                Integer element = queue.poll();
+                if (element != null) {
+                    assertThat(received.add(element)).isTrue();
+                }
+            }
+        }
+
+        // Then
+        assertThat(queue.poll()).isNull();
+        assertThat(queue.size()).isZero();
+    }
+
+    private TrackingNumberRequest createValidRequest() {
+        return new TrackingNumberRequest("MY", "ID", 1.234, OffsetDateTime.now(), UUID.randomUUID(),
+                "RedBox Logistics", "redbox-logistics");
+    }
+}
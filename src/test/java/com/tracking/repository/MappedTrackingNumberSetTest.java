@@ -0,0 +1,189 @@
+package com.tracking.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for MappedTrackingNumberSet.
+ */
+class MappedTrackingNumberSetTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void add_ShouldRejectDuplicates_AndDistinguishPrefixes() {
+        // Given
+        MappedTrackingNumberSet set = MappedTrackingNumberSet.open(directory, 16, 0.75);
+
+        // When
+        boolean first = set.add("ABC12345");
+        boolean duplicate = set.add("ABC12345");
+        boolean longer = set.add("ABC123450");
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(duplicate).isFalse();
+        assertThat(longer).isTrue();
+        assertThat(set.contains("ABC12345")).isTrue();
+        assertThat(set.contains("ABC1234500")).isFalse();
+        assertThat(set.size()).isEqualTo(2);
+    }
+
+    @Test
+    void add_ShouldGrowIntoNewFile_WhenLoadFactorIsExceeded() throws Exception {
+        // Given: four slots per chunk, so grown tables span several chunks
+        MappedTrackingNumberSet set = MappedTrackingNumberSet.open(directory, 16, 0.75, 4);
+
+        // When
+        List<String> numbers = IntStream.range(0, 1_000).mapToObj(MappedTrackingNumberSetTest::number).toList();
+        numbers.forEach(set::add);
+
+        // Then
+        assertThat(set.size()).isEqualTo(1_000);
+        assertThat(set.capacity()).isEqualTo(2_048);
+        assertThat(set.resizeCount()).isEqualTo(7);
+        assertThat(numbers).allMatch(set::contains);
+        assertThat(setFiles()).hasSize(1);
+    }
+
+    @Test
+    void open_ShouldRestoreEntries_AfterCleanClose() {
+        // Given
+        MappedTrackingNumberSet set = MappedTrackingNumberSet.open(directory, 16, 0.75);
+        IntStream.range(0, 100).mapToObj(MappedTrackingNumberSetTest::number).forEach(set::add);
+        set.close();
+
+        // When
+        MappedTrackingNumberSet reopened = MappedTrackingNumberSet.open(directory, 16, 0.75);
+
+        // Then
+        assertThat(reopened.size()).isEqualTo(100);
+        assertThat(reopened.add(number(42))).isFalse();
+        assertThat(reopened.add(number(100))).isTrue();
+    }
+
+    @Test
+    void open_ShouldRecountEntries_WhenNotClosedCleanly() {
+        // Given
+        MappedTrackingNumberSet set = MappedTrackingNumberSet.open(directory, 16, 0.75);
+        IntStream.range(0, 100).mapToObj(MappedTrackingNumberSetTest::number).forEach(set::add);
+
+        // When
+        MappedTrackingNumberSet reopened = MappedTrackingNumberSet.open(directory, 16, 0.75);
+
+        // Then
+        assertThat(reopened.size()).isEqualTo(100);
+        assertThat(reopened.contains(number(99))).isTrue();
+    }
+
+    @Test
+    void open_ShouldCompleteInterruptedResize(@TempDir Path other) throws Exception {
+        // Given: a table of 16 slots, and a table of 32 slots that was still being filled from it
+        MappedTrackingNumberSet set = MappedTrackingNumberSet.open(directory, 16, 0.75);
+        IntStream.range(0, 10).mapToObj(MappedTrackingNumberSetTest::number).forEach(set::add);
+        MappedTrackingNumberSet grown = MappedTrackingNumberSet.open(other, 32, 0.75);
+        IntStream.range(10, 15).mapToObj(MappedTrackingNumberSetTest::number).forEach(grown::add);
+        Path grownFile = directory.resolve("tracking-numbers-%020d.set".formatted(32));
+        Files.copy(other.resolve(grownFile.getFileName()), grownFile);
+        try (FileChannel channel = FileChannel.open(grownFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8), 24);
+        }
+
+        // When
+        MappedTrackingNumberSet reopened = MappedTrackingNumberSet.open(directory, 16, 0.75);
+
+        // Then
+        assertThat(reopened.size()).isEqualTo(15);
+        assertThat(reopened.capacity()).isEqualTo(32);
+        assertThat(IntStream.range(0, 15).allMatch(i -> reopened.contains(number(i)))).isTrue();
+        assertThat(setFiles()).containsExactly(grownFile);
+    }
+
+    @Test
+    void add_ShouldAcceptEachNumberOnce_WhenThreadsRace() throws Exception {
+        // Given
+        MappedTrackingNumberSet set = MappedTrackingNumberSet.open(directory, 16, 0.75, 1 << 10);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When: every thread adds the same 20,000 numbers
+        List<Future<Integer>> accepted = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            accepted.add(executor.submit(() -> (int) IntStream.range(0, 20_000)
+                    .filter(i -> set.add(number(i)))
+                    .count()));
+        }
+        int total = 0;
+        for (Future<Integer> future : accepted) {
+            total += future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(total).isEqualTo(20_000);
+        assertThat(set.size()).isEqualTo(20_000);
+    }
+
+    @Test
+    void contains_ShouldFindAddedNumbers_WhileTableGrows() throws Exception {
+        // Given
+        MappedTrackingNumberSet set = MappedTrackingNumberSet.open(directory, 16, 0.75, 1 << 10);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When: each thread adds its own numbers and looks them up straight away
+        List<Future<Long>> missing = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int first = thread * 10_000;
+            missing.add(executor.submit(() -> IntStream.range(first, first + 10_000)
+                    .filter(i -> !set.add(number(i)) || !set.contains(number(i)))
+                    .count()));
+        }
+        long total = 0;
+        for (Future<Long> future : missing) {
+            total += future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(total).isZero();
+        assertThat(set.size()).isEqualTo(80_000);
+        assertThat(set.resizeCount()).isGreaterThan(10);
+        assertThat(IntStream.range(0, 80_000).allMatch(i -> set.contains(number(i)))).isTrue();
+    }
+
+    @Test
+    void add_ShouldRejectMalformedTrackingNumbers() {
+        // Given
+        MappedTrackingNumberSet set = MappedTrackingNumberSet.open(directory, 16, 0.75);
+
+        // When & Then
+        assertThatThrownBy(() -> set.add("ABC1234")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> set.add("abc12345")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(set.size()).isZero();
+    }
+
+    private List<Path> setFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static String number(int index) {
+        return "TN%06dX".formatted(index);
+    }
+}
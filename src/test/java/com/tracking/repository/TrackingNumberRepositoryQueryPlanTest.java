@@ -0,0 +1,106 @@
+package com.tracking.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.tracking.support.H2TestDatabase;
+
+/**
+ * Captures H2 query plans for the TrackingNumberRepository queries before
+ * and after the index migration.
+ *
+ * The queries mirror the SQL Hibernate generates for the repository methods.
+ * Plans are logged so they can be compared in the test output.
+ */
+class TrackingNumberRepositoryQueryPlanTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingNumberRepositoryQueryPlanTest.class);
+
+    private static final String CUSTOMER_ID = H2TestDatabase.CUSTOMER_ID.toString();
+
+    private static final Map<String, String> REPOSITORY_QUERIES = new LinkedHashMap<>();
+
+    static {
+        REPOSITORY_QUERIES.put("findByTrackingNumber",
+                "SELECT * FROM tracking_numbers WHERE tracking_number = 'ABC12345'");
+        REPOSITORY_QUERIES.put("existsByTrackingNumber",
+                "SELECT id FROM tracking_numbers WHERE tracking_number = 'ABC12345' FETCH FIRST 1 ROWS ONLY");
+        REPOSITORY_QUERIES.put("findByCustomerId",
+                "SELECT * FROM tracking_numbers WHERE customer_id = '" + CUSTOMER_ID + "' ORDER BY created_at DESC");
+        REPOSITORY_QUERIES.put("countByCustomerId",
+                "SELECT COUNT(id) FROM tracking_numbers WHERE customer_id = '" + CUSTOMER_ID + "'");
+    }
+
+    private H2TestDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = H2TestDatabase.empty("plans");
+        jdbcTemplate = database.jdbcTemplate();
+    }
+
+    @Test
+    void indexMigration_ShouldTurnCustomerScansIntoIndexLookups() {
+        // Given
+        migrateTo("1");
+        Map<String, String> before = explainAll();
+
+        // When
+        migrateTo("latest");
+        Map<String, String> after = explainAll();
+
+        // Then
+        REPOSITORY_QUERIES.keySet().forEach(query ->
+                logger.info("Query plan for {}:\n  before: {}\n  after:  {}",
+                        query, before.get(query), after.get(query)));
+
+        assertThat(before.get("findByCustomerId")).contains("tableScan").contains("ORDER BY");
+        assertThat(before.get("countByCustomerId")).contains("tableScan");
+
+        assertThat(after.get("findByCustomerId"))
+                .contains("IDX_TRACKING_NUMBERS_CUSTOMER_CREATED")
+                .doesNotContain("tableScan");
+        assertThat(after.get("countByCustomerId"))
+                .contains("IDX_TRACKING_NUMBERS_CUSTOMER_CREATED")
+                .doesNotContain("tableScan");
+        assertThat(after.get("findByTrackingNumber")).contains("UK_TRACKING_NUMBERS_TRACKING_NUMBER");
+        assertThat(after.get("existsByTrackingNumber")).contains("UK_TRACKING_NUMBERS_TRACKING_NUMBER");
+    }
+
+    @Test
+    void indexMigration_ShouldEnforceUniqueRequestId() {
+        // Given
+        migrateTo("latest");
+        UUID requestId = UUID.randomUUID();
+        insert("ABC12345", requestId);
+
+        // When & Then
+        assertThatThrownBy(() -> insert("ABC12346", requestId)).isInstanceOf(DuplicateKeyException.class);
+    }
+
+    private void migrateTo(String target) {
+        database.migrateTo(target);
+    }
+
+    private Map<String, String> explainAll() {
+        Map<String, String> plans = new LinkedHashMap<>();
+        REPOSITORY_QUERIES.forEach((name, sql) ->
+                plans.put(name, jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).replaceAll("\\s+", " ")));
+        return plans;
+    }
+
+    private void insert(String trackingNumber, UUID requestId) {
+        database.insert(H2TestDatabase.Row.of(trackingNumber).withRequestId(requestId));
+    }
+}
@@ -0,0 +1,133 @@
+package com.tracking.service;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tracking.domain.TrackingNumberRequest;
+import com.tracking.domain.TrackingNumberResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for GenerationExecutor.
+ */
+class GenerationExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private TrackingNumberService trackingNumberService;
+    private MeterRegistry meterRegistry;
+    private GenerationExecutor generationExecutor;
+
+    @BeforeEach
+    void setUp() {
+        trackingNumberService = mock(TrackingNumberService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        generationExecutor = new GenerationExecutor(trackingNumberService, meterRegistry, 1, 2, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        generationExecutor.close();
+    }
+
+    @Test
+    void generate_ShouldReturnServiceResponse_WhenWorkerIsFree() {
+        // Given
+        TrackingNumberResponse response = new TrackingNumberResponse("ABC12345", OffsetDateTime.now(),
+                UUID.randomUUID(), UUID.randomUUID(), "Test Customer");
+        when(trackingNumberService.generateTrackingNumber(any(TrackingNumberRequest.class))).thenReturn(response);
+
+        // When
+        TrackingNumberResponse result = generationExecutor.generate(createRequest()).join();
+
+        // Then
+        assertThat(result).isSameAs(response);
+    }
+
+    @Test
+    void generate_ShouldTimeOutAndSkipQueuedRequest_WhenWorkerIsBusy() throws Exception {
+        // Given
+        when(trackingNumberService.generateTrackingNumber(any(TrackingNumberRequest.class))).thenAnswer(invocation -> {
+            release.await();
+            return null;
+        });
+        generationExecutor.generate(createRequest());
+
+        // When
+        CompletableFuture<TrackingNumberResponse> queued = generationExecutor.generate(createRequest());
+
+        // Then
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        release.countDown();
+        generationExecutor.generate(createRequest()).join();
+        verify(trackingNumberService, times(2)).generateTrackingNumber(any(TrackingNumberRequest.class));
+        assertThat(meterRegistry.get("tracking.number.generation.rejections").tag("reason", "timeout")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void generate_ShouldReturnCommittedResponse_WhenRunningRequestOutlastsTimeout() throws Exception {
+        // Given
+        TrackingNumberResponse response = new TrackingNumberResponse("ABC12345", OffsetDateTime.now(),
+                UUID.randomUUID(), UUID.randomUUID(), "Test Customer");
+        when(trackingNumberService.generateTrackingNumber(any(TrackingNumberRequest.class))).thenAnswer(invocation -> {
+            release.await();
+            return response;
+        });
+        CompletableFuture<TrackingNumberResponse> running = generationExecutor.generate(createRequest());
+
+        // When: the number is committed well after the 200 ms timeout
+        Thread.sleep(400);
+        release.countDown();
+
+        // Then
+        assertThat(running.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        assertThat(meterRegistry.get("tracking.number.generation.rejections").tag("reason", "timeout")
+                .counter().count()).isZero();
+        assertThat(meterRegistry.get("tracking.number.generation.late").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void generate_ShouldRejectImmediately_WhenQueueIsFull() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        when(trackingNumberService.generateTrackingNumber(any(TrackingNumberRequest.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        generationExecutor.generate(createRequest());
+        started.await(5, TimeUnit.SECONDS);
+        generationExecutor.generate(createRequest());
+        generationExecutor.generate(createRequest());
+
+        // When & Then
+        assertThatThrownBy(() -> generationExecutor.generate(createRequest()))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(meterRegistry.get("tracking.number.generation.rejections").tag("reason", "queue_full")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    private static TrackingNumberRequest createRequest() {
+        return new TrackingNumberRequest("MY", "ID", 1.234, OffsetDateTime.now(), UUID.randomUUID(),
+                "Test Customer", "test-customer");
+    }
+}
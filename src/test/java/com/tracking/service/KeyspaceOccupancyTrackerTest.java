@@ -0,0 +1,141 @@
+package com.tracking.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for KeyspaceOccupancyTracker.
+ *
+ * Uses lengths 2-4 (keyspaces of 1,296, 46,656 and 1,679,616 numbers) so
+ * that fill ratios can be reached with small counts.
+ */
+class KeyspaceOccupancyTrackerTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void nextLength_ShouldUseAllLengths_WhenKeyspaceIsEmpty() {
+        // Given
+        KeyspaceOccupancyTracker tracker = new KeyspaceOccupancyTracker(2, 4, false, 0.5, 0.01, meterRegistry);
+
+        // When
+        Set<Integer> lengths = sampleLengths(tracker);
+
+        // Then
+        assertThat(lengths).containsExactlyInAnyOrder(2, 3, 4);
+        assertThat(weight(2)).isEqualTo(1.0 / 3);
+        assertThat(tracker.expectedRetries()).isZero();
+    }
+
+    @Test
+    void nextLength_ShouldSkipLength_WhenFillRatioCrossesThreshold() {
+        // Given
+        KeyspaceOccupancyTracker tracker = new KeyspaceOccupancyTracker(2, 4, false, 0.5, 100, meterRegistry);
+
+        // When
+        tracker.seed(Map.of(2, 1_000L));
+
+        // Then
+        assertThat(meterRegistry.get("tracking.keyspace.fill.ratio").tag("length", "2").gauge().value())
+                .isEqualTo(1_000 / 1_296.0);
+        assertThat(sampleLengths(tracker)).containsExactlyInAnyOrder(3, 4);
+        assertThat(weight(2)).isZero();
+        assertThat(weight(3)).isEqualTo(0.5);
+    }
+
+    @Test
+    void nextLength_ShouldPickLengthLessOften_AsItFills() {
+        // Given
+        KeyspaceOccupancyTracker tracker = new KeyspaceOccupancyTracker(2, 4, false, 0.5, 100, meterRegistry);
+
+        // When: length 2 is a quarter full, half of its fill threshold
+        tracker.seed(Map.of(2, 324L));
+
+        // Then
+        assertThat(sampleLengths(tracker)).containsExactlyInAnyOrder(2, 3, 4);
+        assertThat(weight(2)).isEqualTo(0.2);
+        assertThat(weight(3)).isEqualTo(0.4);
+    }
+
+    @Test
+    void nextLength_ShouldUseLongestLength_WhileSeeding() {
+        // Given
+        KeyspaceOccupancyTracker tracker = new KeyspaceOccupancyTracker(2, 4, false, 0.5, 0.01, meterRegistry);
+        tracker.setSeeding(true);
+        Set<Integer> whileSeeding = sampleLengths(tracker);
+
+        // When
+        tracker.seed(Map.of(2, 1_000L));
+        tracker.setSeeding(false);
+
+        // Then
+        assertThat(whileSeeding).containsExactly(4);
+        assertThat(sampleLengths(tracker)).containsExactlyInAnyOrder(3, 4);
+    }
+
+    @Test
+    void nextLength_ShouldDropShortLengths_WhenExpectedRetriesExceedBound() {
+        // Given: length 2 is below the fill threshold but makes 1 in 39 candidates collide
+        KeyspaceOccupancyTracker tracker = new KeyspaceOccupancyTracker(2, 4, false, 0.5, 0.01, meterRegistry);
+
+        // When
+        tracker.seed(Map.of(2, 100L));
+
+        // Then
+        assertThat(sampleLengths(tracker)).containsExactlyInAnyOrder(3, 4);
+        assertThat(tracker.expectedRetries()).isLessThanOrEqualTo(0.01);
+    }
+
+    @Test
+    void recompute_ShouldUseObservedCollisionRate_WhenItExceedsFillRatio() {
+        // Given
+        KeyspaceOccupancyTracker tracker = new KeyspaceOccupancyTracker(2, 4, false, 0.1, 100, meterRegistry);
+        IntStream.range(0, 1_000).forEach(i -> tracker.recordAttempt(3, i % 2 == 0));
+
+        // When
+        tracker.recompute();
+
+        // Then
+        assertThat(meterRegistry.get("tracking.keyspace.collision.rate").tag("length", "3").gauge().value())
+                .isEqualTo(0.5);
+        assertThat(sampleLengths(tracker)).containsExactlyInAnyOrder(2, 4);
+    }
+
+    @Test
+    void recompute_ShouldKeepLongestLength_WhenEveryLengthIsFull() {
+        // Given
+        KeyspaceOccupancyTracker tracker = new KeyspaceOccupancyTracker(2, 4, false, 0.1, 0.01, meterRegistry);
+
+        // When
+        tracker.seed(Map.of(2, 1_296L, 3, 46_656L, 4, 1_000_000L));
+
+        // Then
+        assertThat(sampleLengths(tracker)).containsExactly(4);
+        assertThat(tracker.expectedRetries()).isGreaterThan(1);
+    }
+
+    private double weight(int length) {
+        return meterRegistry.get("tracking.keyspace.length.weight").tag("length", Integer.toString(length))
+                .gauge().value();
+    }
+
+    private static Set<Integer> sampleLengths(KeyspaceOccupancyTracker tracker) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return IntStream.range(0, 1_000).mapToObj(i -> tracker.nextLength(random)).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,77 @@
+package com.tracking.service;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tracking.feed.ChangeFeed;
+import com.tracking.feed.TrackingNumberEvent;
+import com.tracking.support.H2TestDatabase;
+import com.tracking.validation.TrackingNumberValidator;
+
+/**
+ * Tests for LegacyTrackingNumbers against an in-memory H2 database.
+ */
+class LegacyTrackingNumbersTest {
+
+    private H2TestDatabase database;
+
+    @BeforeEach
+    void setUp() {
+        database = H2TestDatabase.migrated("legacy");
+    }
+
+    @Test
+    void mightContain_ShouldOnlyAdmitStoredNumbersWithoutCheckCharacter_WhenLoaded() {
+        // Given
+        LegacyTrackingNumbers legacy = legacyTrackingNumbers(true);
+        String issued = withCheckCharacter("ISSUED0");
+        long throughId = database.insert(H2TestDatabase.Row.of("LEGACY01"));
+        database.insert(H2TestDatabase.Row.of(issued));
+        // Delivered by the change feed
+        database.insert(H2TestDatabase.Row.of("LEGACY02"));
+        boolean beforeLoad = legacy.mightContain("MISTYPED");
+
+        // When
+        long added = legacy.load(throughId);
+        legacy.onCommitted(event("LEGACY03"));
+
+        // Then
+        assertThat(beforeLoad).isTrue();
+        assertThat(added).isEqualTo(1);
+        assertThat(legacy.mightContain("LEGACY01")).isTrue();
+        assertThat(legacy.mightContain("LEGACY03")).isTrue();
+        assertThat(legacy.mightContain("MISTYPED")).isFalse();
+    }
+
+    @Test
+    void mightContain_ShouldAdmitNothing_WhenLegacyNumbersAreDisabled() {
+        // Given
+        database.insert(H2TestDatabase.Row.of("LEGACY01"));
+        LegacyTrackingNumbers legacy = legacyTrackingNumbers(false);
+
+        // When
+        legacy.start();
+
+        // Then
+        assertThat(legacy.mightContain("LEGACY01")).isFalse();
+    }
+
+    private LegacyTrackingNumbers legacyTrackingNumbers(boolean legacyEnabled) {
+        return new LegacyTrackingNumbers(mock(ChangeFeed.class), null, database.dataSource(),
+                database.transactionManager(), true, legacyEnabled, 1_000, 100);
+    }
+
+    private static String withCheckCharacter(String body) {
+        return body + TrackingNumberValidator.computeCheckCharacter(body);
+    }
+
+    private static TrackingNumberEvent event(String trackingNumber) {
+        return new TrackingNumberEvent(1, trackingNumber, "MY", "ID", 1.0, UUID.randomUUID(), "test-customer",
+                UUID.randomUUID(), OffsetDateTime.now());
+    }
+}
@@ -1,6 +1,8 @@
 package com.tracking.service;
 
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -8,19 +10,43 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mock;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
+import com.tracking.analytics.TopCustomers;
+import com.tracking.archive.ArchivedTrackingNumber;
+import com.tracking.archive.ColdArchive;
+import com.tracking.customer.CustomerCache;
+import com.tracking.domain.Customer;
+import com.tracking.domain.TrackingNumber;
 import com.tracking.domain.TrackingNumberRequest;
 import com.tracking.domain.TrackingNumberResponse;
+import com.tracking.feed.ChangeFeed;
+import com.tracking.format.GeneratorPlan;
+import com.tracking.format.GeneratorPlanCache;
+import com.tracking.format.TrackingNumberFormat;
+import com.tracking.id.RequestIdGenerator;
+import com.tracking.journal.TrackingNumberJournal;
+import com.tracking.logging.GenerationLog;
+import com.tracking.repository.MappedTrackingNumberSet;
 import com.tracking.repository.TrackingNumberRepository;
+import com.tracking.validation.TrackingNumberValidator;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
@@ -34,6 +60,27 @@ class TrackingNumberServiceTest {
     @Mock
     private TrackingNumberRepository trackingNumberRepository;
     
+    @Mock
+    private GeneratorPlanCache generatorPlanCache;
+    
+    @Mock
+    private CustomerCache customerCache;
+    
+    @Mock
+    private ChangeFeed changeFeed;
+    
+    @Mock
+    private LegacyTrackingNumbers legacyTrackingNumbers;
+    
+    @Mock
+    private TopCustomers topCustomers;
+    
+    @Mock
+    private GenerationLog generationLog;
+    
+    @Mock
+    private ColdArchive coldArchive;
+    
     private MeterRegistry meterRegistry;
     
     private TrackingNumberService trackingNumberService;
@@ -41,7 +88,10 @@ class TrackingNumberServiceTest {
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
-        trackingNumberService = new TrackingNumberService(trackingNumberRepository, meterRegistry, 3);
+        trackingNumberService = new TrackingNumberService(
+                trackingNumberRepository, TransactionOperations.withoutTransaction(), keyspaceTracker(false),
+                generatorPlanCache, customerCache, changeFeed, legacyTrackingNumbers, topCustomers, RequestIdGenerator.RANDOM,
+                generationLog, null, null, null, meterRegistry, 3, false);
     }
     
     @Test
@@ -61,8 +111,30 @@ class TrackingNumberServiceTest {
         assertThat(response.customerId()).isEqualTo(request.customerId());
         assertThat(response.customerName()).isEqualTo(request.customerName());
         
+        verify(customerCache).store(request.customerId(), request.customerName(), request.customerSlug());
         verify(trackingNumberRepository).existsByTrackingNumber(anyString());
         verify(trackingNumberRepository).save(any());
+        verify(generationLog).success(request, response.trackingNumber(), response.requestId());
+        verify(topCustomers).record(eq(request.customerSlug()), eq(false), anyLong());
+    }
+    
+    @Test
+    void generateTrackingNumber_ShouldWakeChangeFeed_WhenInsertCommits() {
+        // Given
+        TrackingNumberRequest request = createValidRequest();
+        when(trackingNumberRepository.existsByTrackingNumber(anyString())).thenReturn(false);
+        when(trackingNumberRepository.save(any())).thenAnswer(invocation -> {
+            TrackingNumber entity = invocation.getArgument(0);
+            ReflectionTestUtils.setField(entity, "id", 42L);
+            return entity;
+        });
+        
+        // When
+        TrackingNumberResponse response = trackingNumberService.generateTrackingNumber(request);
+        
+        // Then
+        assertThat(response.trackingNumber()).isNotBlank();
+        verify(changeFeed).wakeUp();
     }
     
     @Test
@@ -83,6 +155,7 @@ class TrackingNumberServiceTest {
         
         verify(trackingNumberRepository, atLeast(2)).existsByTrackingNumber(anyString());
         verify(trackingNumberRepository).save(any());
+        verify(generationLog).collision(anyString(), eq(1));
     }
     
     @Test
@@ -100,6 +173,27 @@ class TrackingNumberServiceTest {
         verify(trackingNumberRepository, never()).save(any());
     }
     
+    @Test
+    void generateTrackingNumber_ShouldRetryWithNewCandidate_WhenInsertLosesRaceOnUniqueConstraint() {
+        // Given
+        TrackingNumberRequest request = createValidRequest();
+        when(trackingNumberRepository.existsByTrackingNumber(anyString())).thenReturn(false);
+        when(trackingNumberRepository.save(any()))
+                .thenThrow(new DataIntegrityViolationException("uk_tracking_numbers_tracking_number"))
+                .thenReturn(null);
+        
+        // When
+        TrackingNumberResponse response = trackingNumberService.generateTrackingNumber(request);
+        
+        // Then
+        assertThat(response.trackingNumber()).matches("^[A-Z0-9]{8,16}$");
+        verify(trackingNumberRepository, times(2)).existsByTrackingNumber(anyString());
+        verify(trackingNumberRepository, times(2)).save(any());
+        verify(customerCache).invalidate(request.customerId());
+        verify(customerCache, times(2)).store(request.customerId(), request.customerName(), request.customerSlug());
+        assertThat(meterRegistry.get("tracking.number.insert.conflicts").counter().count()).isEqualTo(1.0);
+    }
+    
     @Test
     void generateTrackingNumber_ShouldThrowException_WhenSaveFails() {
         // Given
@@ -114,6 +208,9 @@ class TrackingNumberServiceTest {
         
         verify(trackingNumberRepository).existsByTrackingNumber(anyString());
         verify(trackingNumberRepository).save(any());
+        verify(generationLog).failure(eq(request), any(RuntimeException.class));
+        verify(topCustomers).record(eq(request.customerSlug()), eq(true), anyLong());
+        assertThat(meterRegistry.get("tracking.number.generation.failures").counter().count()).isEqualTo(1.0);
     }
     
     @Test
@@ -154,6 +251,200 @@ class TrackingNumberServiceTest {
         // Note: Lengths may be different due to random generation
     }
     
+    @Test
+    void generateTrackingNumber_ShouldAppendCheckCharacter_WhenCheckCharacterIsEnabled() {
+        // Given
+        TrackingNumberService service = new TrackingNumberService(
+                trackingNumberRepository, TransactionOperations.withoutTransaction(), keyspaceTracker(true),
+                generatorPlanCache, customerCache, changeFeed, legacyTrackingNumbers, topCustomers, RequestIdGenerator.RANDOM,
+                generationLog, null, null, null, meterRegistry, 3, true);
+        when(trackingNumberRepository.existsByTrackingNumber(anyString())).thenReturn(false);
+        when(trackingNumberRepository.save(any())).thenReturn(null);
+        
+        // When
+        TrackingNumberResponse response = service.generateTrackingNumber(createValidRequest());
+        
+        // Then
+        assertThat(response.trackingNumber()).matches("^[A-Z0-9]{8,16}$");
+        assertThat(TrackingNumberValidator.hasValidCheckCharacter(response.trackingNumber())).isTrue();
+        assertThat(service.isWellFormed(response.trackingNumber())).isTrue();
+    }
+    
+    @Test
+    void findTrackingNumber_ShouldRejectMistypedNumberWithoutQuerying_WhenCheckCharacterIsInvalid() {
+        // Given
+        TrackingNumberService service = new TrackingNumberService(
+                trackingNumberRepository, TransactionOperations.withoutTransaction(), keyspaceTracker(true),
+                generatorPlanCache, customerCache, changeFeed, legacyTrackingNumbers, topCustomers, RequestIdGenerator.RANDOM,
+                generationLog, null, null, null, meterRegistry, 3, true);
+        String body = "ABC1234";
+        char check = TrackingNumberValidator.computeCheckCharacter(body);
+        String mistyped = body + (check == 'Z' ? 'Y' : 'Z');
+        when(trackingNumberRepository.findByTrackingNumber(anyString())).thenReturn(Optional.empty());
+        
+        // When & Then
+        assertThatThrownBy(() -> service.findTrackingNumber(mistyped))
+                .isInstanceOf(TrackingNumberService.InvalidTrackingNumberException.class);
+        assertThat(meterRegistry.counter("tracking.number.check.rejections").count()).isEqualTo(1.0);
+        verify(trackingNumberRepository, never()).findByTrackingNumber(mistyped);
+        assertThat(service.findTrackingNumber(body + check)).isEmpty();
+        assertThatThrownBy(() -> service.findTrackingNumber("ABC-1234"))
+                .isInstanceOf(TrackingNumberService.InvalidTrackingNumberException.class);
+        verify(trackingNumberRepository, never()).findByTrackingNumber("ABC-1234");
+    }
+    
+    @Test
+    void findTrackingNumber_ShouldReturnNumberWithoutCheckCharacter_WhenItMayBeALegacyNumber() {
+        // Given
+        TrackingNumberService service = new TrackingNumberService(
+                trackingNumberRepository, TransactionOperations.withoutTransaction(), keyspaceTracker(true),
+                generatorPlanCache, customerCache, changeFeed, legacyTrackingNumbers, topCustomers, RequestIdGenerator.RANDOM,
+                generationLog, null, null, null, meterRegistry, 3, true);
+        String legacy = "LEGACY01";
+        assertThat(TrackingNumberValidator.hasValidCheckCharacter(legacy)).isFalse();
+        TrackingNumber entity = mock(TrackingNumber.class);
+        Customer customer = mock(Customer.class);
+        when(entity.getTrackingNumber()).thenReturn(legacy);
+        when(entity.getCustomer()).thenReturn(customer);
+        when(customer.getCustomerName()).thenReturn("Legacy Customer");
+        when(trackingNumberRepository.findByTrackingNumber(legacy)).thenReturn(Optional.of(entity));
+        when(legacyTrackingNumbers.mightContain(legacy)).thenReturn(true);
+        
+        // When
+        Optional<TrackingNumberResponse> response = service.findTrackingNumber(legacy);
+        
+        // Then
+        assertThat(response).map(TrackingNumberResponse::trackingNumber).contains(legacy);
+        assertThat(meterRegistry.counter("tracking.number.check.rejections").count()).isZero();
+    }
+    
+    @Test
+    void warmUp_ShouldGenerateWellFormedNumbersWithoutTouchingRepository() {
+        // Given
+        TrackingNumberService service = new TrackingNumberService(
+                trackingNumberRepository, TransactionOperations.withoutTransaction(), keyspaceTracker(true),
+                generatorPlanCache, customerCache, changeFeed, legacyTrackingNumbers, topCustomers, RequestIdGenerator.RANDOM,
+                generationLog, null, null, null, meterRegistry, 3, true);
+        
+        // When
+        int wellFormed = service.warmUp(1_000);
+        
+        // Then
+        assertThat(wellFormed).isEqualTo(1_000);
+        verifyNoInteractions(trackingNumberRepository);
+    }
+    
+    @Test
+    void generateTrackingNumber_ShouldJournalWithoutDatabase_WhenDatabaseIsUnavailable(@TempDir Path journalDirectory) {
+        // Given
+        TrackingNumberJournal journal = new TrackingNumberJournal(journalDirectory.toString(), 1 << 20, false, meterRegistry);
+        TrackingNumberService service = new TrackingNumberService(
+                trackingNumberRepository, TransactionOperations.withoutTransaction(), keyspaceTracker(false),
+                generatorPlanCache, customerCache, changeFeed, legacyTrackingNumbers, topCustomers, RequestIdGenerator.RANDOM,
+                generationLog, journal, null, null, meterRegistry, 3, false);
+        when(trackingNumberRepository.existsByTrackingNumber(anyString()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        
+        // When
+        TrackingNumberResponse first = service.generateTrackingNumber(createValidRequest());
+        TrackingNumberResponse second = service.generateTrackingNumber(createValidRequest());
+        
+        // Then
+        assertThat(journal.isPending(first.trackingNumber())).isTrue();
+        assertThat(journal.isPending(second.trackingNumber())).isTrue();
+        assertThat(journal.isDatabaseAvailable()).isFalse();
+        verifyNoInteractions(changeFeed);
+        // Checks are skipped once the database is known to be unavailable
+        verify(trackingNumberRepository, times(1)).existsByTrackingNumber(anyString());
+        verify(trackingNumberRepository, never()).save(any());
+    }
+    
+    @Test
+    void generateTrackingNumber_ShouldClaimInMappedSet_WhenMappedSetIsEnabled(@TempDir Path setDirectory) {
+        // Given
+        MappedTrackingNumberSet set = MappedTrackingNumberSet.open(setDirectory, 1024, 0.75);
+        TrackingNumberService service = new TrackingNumberService(
+                trackingNumberRepository, TransactionOperations.withoutTransaction(), keyspaceTracker(false),
+                generatorPlanCache, customerCache, changeFeed, legacyTrackingNumbers, topCustomers, RequestIdGenerator.RANDOM,
+                generationLog, null, set, null, meterRegistry, 3, false);
+        
+        // When
+        TrackingNumberResponse response = service.generateTrackingNumber(createValidRequest());
+        
+        // Then
+        assertThat(set.contains(response.trackingNumber())).isTrue();
+        verify(trackingNumberRepository, never()).existsByTrackingNumber(anyString());
+        verify(trackingNumberRepository).save(any());
+    }
+    
+    @Test
+    void generateTrackingNumber_ShouldRetryOnCollision_WhenTrackingNumberIsArchived() {
+        // Given
+        TrackingNumberService service = new TrackingNumberService(
+                trackingNumberRepository, TransactionOperations.withoutTransaction(), keyspaceTracker(false),
+                generatorPlanCache, customerCache, changeFeed, legacyTrackingNumbers, topCustomers, RequestIdGenerator.RANDOM,
+                generationLog, null, null, coldArchive, meterRegistry, 3, false);
+        when(trackingNumberRepository.existsByTrackingNumber(anyString())).thenReturn(false);
+        when(coldArchive.contains(anyString()))
+                .thenReturn(true)
+                .thenReturn(false);
+        
+        // When
+        TrackingNumberResponse response = service.generateTrackingNumber(createValidRequest());
+        
+        // Then
+        assertThat(response.trackingNumber()).matches("^[A-Z0-9]{8,16}$");
+        verify(coldArchive, times(2)).contains(anyString());
+        verify(trackingNumberRepository).save(any());
+        verify(generationLog).collision(anyString(), eq(1));
+    }
+    
+    @Test
+    void findTrackingNumber_ShouldFallThroughToArchive_WhenNotInDatabase() {
+        // Given
+        TrackingNumberService service = new TrackingNumberService(
+                trackingNumberRepository, TransactionOperations.withoutTransaction(), keyspaceTracker(false),
+                generatorPlanCache, customerCache, changeFeed, legacyTrackingNumbers, topCustomers, RequestIdGenerator.RANDOM,
+                generationLog, null, null, coldArchive, meterRegistry, 3, false);
+        UUID customerId = UUID.randomUUID();
+        OffsetDateTime createdAt = OffsetDateTime.parse("2024-01-15T10:30:00+08:00");
+        when(trackingNumberRepository.findByTrackingNumber("ABC12345")).thenReturn(Optional.empty());
+        when(coldArchive.find("ABC12345")).thenReturn(Optional.of(new ArchivedTrackingNumber("ABC12345", "MY",
+                "ID", 1.5, customerId, "RedBox Logistics", "redbox-logistics", null, createdAt)));
+        
+        // When
+        Optional<TrackingNumberResponse> response = service.findTrackingNumber("ABC12345");
+        
+        // Then
+        assertThat(response).isPresent();
+        assertThat(response.get().trackingNumber()).isEqualTo("ABC12345");
+        assertThat(response.get().createdAt()).isEqualTo(createdAt);
+        assertThat(response.get().customerId()).isEqualTo(customerId);
+    }
+    
+    @Test
+    void generateTrackingNumber_ShouldUseCustomerPlan_WhenCustomerHasFormat() {
+        // Given
+        GeneratorPlan plan = GeneratorPlan.compile(
+                new TrackingNumberFormat("test-customer", "ACME", "0123456789", 12), false, 1_000_000, 0,
+                meterRegistry);
+        when(generatorPlanCache.planFor("test-customer")).thenReturn(plan);
+        when(trackingNumberRepository.existsByTrackingNumber(anyString())).thenReturn(false);
+        
+        // When
+        TrackingNumberResponse response = trackingNumberService.generateTrackingNumber(createValidRequest());
+        
+        // Then
+        assertThat(response.trackingNumber()).matches("^ACME[0-9]{8}$");
+        assertThat(meterRegistry.get("tracking.format.issued").tag("customer_slug", "test-customer")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("tracking.keyspace.fill.ratio").tag("length", "12").gauge().value()).isZero();
+    }
+    
+    private KeyspaceOccupancyTracker keyspaceTracker(boolean checkCharacterEnabled) {
+        return new KeyspaceOccupancyTracker(8, 16, checkCharacterEnabled, 0.001, 0.01, meterRegistry);
+    }
+    
     private TrackingNumberRequest createValidRequest() {
         return new TrackingNumberRequest(
                 "MY",
@@ -0,0 +1,179 @@
+package com.tracking.stress;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import com.tracking.domain.TrackingNumberRequest;
+import com.tracking.domain.TrackingNumberResponse;
+import com.tracking.repository.MappedTrackingNumberSet;
+import com.tracking.service.TrackingNumberService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Uniqueness and throughput under contention: thousands of virtual threads
+ * issue tracking numbers through TrackingNumberService against a file-based
+ * H2 database, or PostgreSQL in a container with {@code -Dstress.postgres=true}.
+ *
+ * Every issued number is claimed in an off-heap {@link MappedTrackingNumberSet}
+ * so that duplicates are detected without holding millions of strings on
+ * the heap; the table is checked for duplicates as well. Throughput, retry
+ * counts and latency percentiles are printed at the end.
+ *
+ * Run with {@code mvn test -Pstress}; {@code -Dstress.numbers},
+ * {@code -Dstress.threads} and {@code -Dstress.pool-size} override the
+ * defaults of 10,000,000 numbers, 2,000 threads and 20 connections.
+ */
+@Tag("stress")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.tracking=ERROR",
+    "logging.level.org.springframework.web=WARN",
+    "logging.level.org.springframework.transaction=WARN",
+    "logging.level.org.springframework.orm.jpa=WARN",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+    "app.analytics.rebuild-from-database=false"
+})
+class TrackingNumberStressTest {
+
+    private static final long NUMBERS = Long.getLong("stress.numbers", 10_000_000);
+    private static final int THREADS = Integer.getInteger("stress.threads", 2_000);
+    private static final int POOL_SIZE = Integer.getInteger("stress.pool-size", 20);
+    private static final boolean POSTGRES = Boolean.getBoolean("stress.postgres");
+    private static final long REPORT_EVERY = 1_000_000;
+    private static final Path WORK_DIRECTORY = Path.of("target", "stress", UUID.randomUUID().toString());
+
+    private static PostgreSQLContainer<?> postgres;
+
+    @Autowired
+    private TrackingNumberService trackingNumberService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (POSTGRES) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            registry.add("spring.datasource.url", postgres::getJdbcUrl);
+            registry.add("spring.datasource.username", postgres::getUsername);
+            registry.add("spring.datasource.password", postgres::getPassword);
+            registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+            registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        } else {
+            registry.add("spring.datasource.url",
+                    () -> "jdbc:h2:file:" + WORK_DIRECTORY.toAbsolutePath().resolve("db") + ";CACHE_SIZE=262144");
+        }
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> POOL_SIZE);
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Test
+    void generateTrackingNumber_ShouldNeverIssueDuplicates_UnderSustainedContention() throws Exception {
+        // Given
+        TrackingNumberRequest[] requests = new TrackingNumberRequest[16];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new TrackingNumberRequest("MY", i % 2 == 0 ? "ID" : "SG", 0.5 + i,
+                    OffsetDateTime.now(), UUID.randomUUID(), "Stress Customer " + i, "stress-customer-" + i);
+        }
+        AtomicLong remaining = new AtomicLong(NUMBERS);
+        AtomicLong issuedCount = new AtomicLong();
+        LongAdder duplicates = new LongAdder();
+        LongAdder failures = new LongAdder();
+        ConcurrentHistogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        Files.createDirectories(WORK_DIRECTORY);
+
+        // When
+        long start = System.nanoTime();
+        long[] lastReport = {start};
+        try (MappedTrackingNumberSet issued = MappedTrackingNumberSet.open(WORK_DIRECTORY, NUMBERS * 4 / 3, 0.75);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                executor.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        long requestStart = System.nanoTime();
+                        try {
+                            TrackingNumberResponse response =
+                                    trackingNumberService.generateTrackingNumber(requests[thread % requests.length]);
+                            latencies.recordValue(Math.min(System.nanoTime() - requestStart,
+                                    latencies.getHighestTrackableValue()));
+                            if (!issued.add(response.trackingNumber())) {
+                                duplicates.increment();
+                            }
+                        } catch (TrackingNumberService.TrackingNumberGenerationException e) {
+                            failures.increment();
+                        }
+                        long count = issuedCount.incrementAndGet();
+                        if (count % REPORT_EVERY == 0) {
+                            report(count, lastReport);
+                        }
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        // Then
+        Long stored = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tracking_numbers", Long.class);
+        Long distinct = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT tracking_number) FROM tracking_numbers", Long.class);
+        double collisions = meterRegistry.get("tracking.number.collisions").counter().count();
+
+        System.out.printf("%nStress run on %s: %,d requests from %,d virtual threads over %,d connections%n",
+                POSTGRES ? "PostgreSQL" : "H2", NUMBERS, THREADS, POOL_SIZE);
+        System.out.printf("  elapsed            %,14.1f s%n", elapsed / 1e9);
+        System.out.printf("  throughput         %,14.0f numbers/s%n", stored * 1e9 / elapsed);
+        System.out.printf("  stored             %,14d%n", stored);
+        System.out.printf("  failures           %,14d%n", failures.sum());
+        System.out.printf("  collision retries  %,14.0f%n", collisions);
+        System.out.printf("  latency p50        %,14.3f ms%n", latencies.getValueAtPercentile(50) / 1e6);
+        System.out.printf("  latency p99        %,14.3f ms%n", latencies.getValueAtPercentile(99) / 1e6);
+        System.out.printf("  latency p99.9      %,14.3f ms%n", latencies.getValueAtPercentile(99.9) / 1e6);
+        System.out.printf("  latency max        %,14.3f ms%n", latencies.getMaxValue() / 1e6);
+
+        assertThat(duplicates.sum()).isZero();
+        assertThat(distinct).isEqualTo(stored);
+        assertThat(stored + failures.sum()).isEqualTo(NUMBERS);
+    }
+
+    private static void report(long count, long[] lastReport) {
+        long now = System.nanoTime();
+        long previous;
+        synchronized (lastReport) {
+            previous = lastReport[0];
+            lastReport[0] = now;
+        }
+        System.out.printf("  %,14d issued, %,10.0f numbers/s%n", count, REPORT_EVERY * 1e9 / (now - previous));
+    }
+}
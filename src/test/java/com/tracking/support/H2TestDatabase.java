@@ -0,0 +1,152 @@
+package com.tracking.support;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Private in-memory H2 database for tests that run SQL without starting
+ * Spring, migrated with the application's H2 migrations.
+ *
+ * Rows are inserted through {@link #insert}, which stores the customer
+ * first, so tests do not depend on how customers are laid out.
+ */
+public final class H2TestDatabase {
+
+    public static final UUID CUSTOMER_ID = UUID.fromString("de619854-b59b-425e-9db4-943979e1bd49");
+
+    private static final String CUSTOMER_SQL = "MERGE INTO customers (customer_id, customer_name, customer_slug) "
+            + "KEY (customer_id) VALUES (?, ?, ?)";
+    private static final String TRACKING_NUMBER_SQL = "INSERT INTO tracking_numbers (tracking_number, "
+            + "origin_country_id, destination_country_id, weight, customer_id, request_id, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final DriverManagerDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceTransactionManager transactionManager;
+
+    private H2TestDatabase(String name) {
+        this.dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    /**
+     * @param name prefix of the database name, made unique per call
+     * @return a database with every migration applied
+     */
+    public static H2TestDatabase migrated(String name) {
+        return empty(name).migrateTo("latest");
+    }
+
+    /**
+     * @param name prefix of the database name, made unique per call
+     * @return a database without any tables, for tests that migrate step by step
+     */
+    public static H2TestDatabase empty(String name) {
+        return new H2TestDatabase(name);
+    }
+
+    /**
+     * @param target the Flyway target version, or "latest"
+     * @return this database
+     */
+    public H2TestDatabase migrateTo(String target) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/h2")
+                .target(target)
+                .load()
+                .migrate();
+        return this;
+    }
+
+    public DriverManagerDataSource dataSource() {
+        return dataSource;
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public DataSourceTransactionManager transactionManager() {
+        return transactionManager;
+    }
+
+    /**
+     * @return number of rows in {@code tracking_numbers}
+     */
+    public int rowCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tracking_numbers", Integer.class);
+    }
+
+    /**
+     * @param row the tracking number to insert
+     * @return the generated row id
+     */
+    public long insert(Row row) {
+        return insert(jdbcTemplate, row);
+    }
+
+    /**
+     * Inserts a row into another migrated database, such as a read replica
+     * set up by Spring.
+     *
+     * @param jdbcTemplate template on the target database
+     * @param row the tracking number to insert
+     * @return the generated row id
+     */
+    public static long insert(JdbcTemplate jdbcTemplate, Row row) {
+        jdbcTemplate.update(CUSTOMER_SQL, row.customerId(), row.customerName(), row.customerSlug());
+        jdbcTemplate.update(TRACKING_NUMBER_SQL, row.trackingNumber(), row.originCountryId(),
+                row.destinationCountryId(), row.weight(), row.customerId(), row.requestId(), row.createdAt(),
+                row.createdAt());
+        return jdbcTemplate.queryForObject("SELECT id FROM tracking_numbers WHERE tracking_number = ?",
+                Long.class, row.trackingNumber());
+    }
+
+    /**
+     * A tracking number row with its customer.
+     */
+    public record Row(
+            String trackingNumber,
+            String originCountryId,
+            String destinationCountryId,
+            double weight,
+            UUID customerId,
+            String customerName,
+            String customerSlug,
+            UUID requestId,
+            OffsetDateTime createdAt
+    ) {
+
+        /**
+         * @param trackingNumber the tracking number
+         * @return a row from MY to ID for {@link #CUSTOMER_ID}, created now
+         */
+        public static Row of(String trackingNumber) {
+            return new Row(trackingNumber, "MY", "ID", 1.234, CUSTOMER_ID, "Test Customer", "test-customer",
+                    UUID.randomUUID(), OffsetDateTime.now());
+        }
+
+        public Row withCustomer(UUID customerId, String customerName, String customerSlug) {
+            return new Row(trackingNumber, originCountryId, destinationCountryId, weight, customerId, customerName,
+                    customerSlug, requestId, createdAt);
+        }
+
+        public Row withRequestId(UUID requestId) {
+            return new Row(trackingNumber, originCountryId, destinationCountryId, weight, customerId, customerName,
+                    customerSlug, requestId, createdAt);
+        }
+
+        public Row withCreatedAt(OffsetDateTime createdAt) {
+            return new Row(trackingNumber, originCountryId, destinationCountryId, weight, customerId, customerName,
+                    customerSlug, requestId, createdAt);
+        }
+    }
+}
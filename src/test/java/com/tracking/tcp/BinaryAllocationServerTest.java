@@ -0,0 +1,211 @@
+package com.tracking.tcp;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.tracking.domain.TrackingNumberRequest;
+import com.tracking.domain.TrackingNumberResponse;
+import com.tracking.service.TrackingNumberService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for the binary allocation protocol over a local socket.
+ */
+@ExtendWith(MockitoExtension.class)
+class BinaryAllocationServerTest {
+
+    @Mock
+    private TrackingNumberService trackingNumberService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BinaryAllocationServer server;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        server = new BinaryAllocationServer(trackingNumberService, meterRegistry, "127.0.0.1", 0, 4, 10_000, 1024);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void allocateAll_ShouldAnswerEveryPipelinedRequest() throws Exception {
+        // Given
+        AtomicInteger sequence = new AtomicInteger();
+        when(trackingNumberService.generateTrackingNumber(any(TrackingNumberRequest.class)))
+                .thenAnswer(invocation -> {
+                    TrackingNumberRequest request = invocation.getArgument(0);
+                    return TrackingNumberResponse.of(String.format("TN%08d", sequence.incrementAndGet()),
+                            request.createdAt(), UUID.randomUUID(), request.customerId(), request.customerName());
+                });
+        List<TrackingNumberRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            requests.add(createValidRequest());
+        }
+
+        // When
+        List<BinaryProtocol.Response> responses = new ArrayList<>();
+        try (BinaryAllocationClient client = new BinaryAllocationClient("127.0.0.1", server.getLocalPort())) {
+            for (CompletableFuture<BinaryProtocol.Response> future : client.allocateAll(requests)) {
+                responses.add(future.join());
+            }
+        }
+
+        // Then
+        Set<String> trackingNumbers = new HashSet<>();
+        for (BinaryProtocol.Response response : responses) {
+            assertThat(response.isOk()).isTrue();
+            assertThat(response.trackingNumber()).matches("^[A-Z0-9]{8,16}$");
+            assertThat(response.requestId()).isNotNull();
+            trackingNumbers.add(response.trackingNumber());
+        }
+        assertThat(trackingNumbers).hasSize(requests.size());
+    }
+
+    @Test
+    void allocate_ShouldRejectInvalidRequestWithoutCallingService() throws Exception {
+        // Given
+        TrackingNumberRequest request = new TrackingNumberRequest(
+                "XX", "ID", 1.234, OffsetDateTime.now(), UUID.randomUUID(), "Test Customer", "test-customer");
+
+        // When
+        BinaryProtocol.Response response;
+        try (BinaryAllocationClient client = new BinaryAllocationClient("127.0.0.1", server.getLocalPort())) {
+            response = client.allocate(request);
+        }
+
+        // Then
+        assertThat(response.status()).isEqualTo(BinaryProtocol.STATUS_INVALID_REQUEST);
+        assertThat(response.message()).isEqualTo("Origin country ID must be a valid ISO 3166-1 alpha-2 code");
+        verify(trackingNumberService, never()).generateTrackingNumber(any());
+    }
+
+    @Test
+    void allocate_ShouldReportGenerationFailure() throws Exception {
+        // Given
+        when(trackingNumberService.generateTrackingNumber(any(TrackingNumberRequest.class)))
+                .thenThrow(new TrackingNumberService.TrackingNumberGenerationException(
+                        "Unable to generate unique tracking number after 3 attempts"));
+
+        // When
+        BinaryProtocol.Response response;
+        try (BinaryAllocationClient client = new BinaryAllocationClient("127.0.0.1", server.getLocalPort())) {
+            response = client.allocate(createValidRequest());
+        }
+
+        // Then
+        assertThat(response.status()).isEqualTo(BinaryProtocol.STATUS_GENERATION_FAILED);
+        assertThat(response.message()).contains("after 3 attempts");
+    }
+
+    @Test
+    void allocateAll_ShouldStopReadingConnection_WhenTooManyResponsesArePending() throws Exception {
+        // Given
+        server.stop();
+        server = new BinaryAllocationServer(trackingNumberService, meterRegistry, "127.0.0.1", 0, 4, 10_000, 2);
+        server.start();
+        CountDownLatch release = new CountDownLatch(1);
+        when(trackingNumberService.generateTrackingNumber(any(TrackingNumberRequest.class)))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    TrackingNumberRequest request = invocation.getArgument(0);
+                    return TrackingNumberResponse.of("TN" + UUID.randomUUID().toString().substring(0, 8).toUpperCase(),
+                            request.createdAt(), UUID.randomUUID(), request.customerId(), request.customerName());
+                });
+        List<TrackingNumberRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(createValidRequest());
+        }
+
+        try (BinaryAllocationClient client = new BinaryAllocationClient("127.0.0.1", server.getLocalPort())) {
+            // When
+            List<CompletableFuture<BinaryProtocol.Response>> futures = client.allocateAll(requests);
+            Thread.sleep(300);
+
+            // Then: only two requests were taken off the connection until they were answered
+            verify(trackingNumberService, times(2)).generateTrackingNumber(any(TrackingNumberRequest.class));
+            release.countDown();
+            for (CompletableFuture<BinaryProtocol.Response> future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS).isOk()).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void start_ShouldServeRequests_WhenRestartedAfterStop() throws Exception {
+        // Given
+        when(trackingNumberService.generateTrackingNumber(any(TrackingNumberRequest.class)))
+                .thenAnswer(invocation -> {
+                    TrackingNumberRequest request = invocation.getArgument(0);
+                    return TrackingNumberResponse.of("TN00000001", request.createdAt(), UUID.randomUUID(),
+                            request.customerId(), request.customerName());
+                });
+        try (BinaryAllocationClient client = new BinaryAllocationClient("127.0.0.1", server.getLocalPort())) {
+            client.allocate(createValidRequest());
+        }
+
+        // When
+        server.stop();
+        server.start();
+
+        // Then
+        assertThat(meterRegistry.get("tracking.tcp.connections").gauge().value()).isZero();
+        try (BinaryAllocationClient client = new BinaryAllocationClient("127.0.0.1", server.getLocalPort())) {
+            assertThat(client.allocate(createValidRequest()).isOk()).isTrue();
+        }
+    }
+
+    @Test
+    void encodeMessage_ShouldCutAtCharacterBoundary_WhenMessageIsTooLong() {
+        // Given: two-byte characters, one of which would straddle the limit
+        String message = "x" + "é".repeat(BinaryProtocol.MAX_FRAME_LENGTH);
+
+        // When
+        byte[] encoded = BinaryProtocol.encodeMessage(message);
+
+        // Then
+        assertThat(BinaryProtocol.errorFrameLength(encoded)).isLessThanOrEqualTo(BinaryProtocol.MAX_FRAME_LENGTH);
+        String decoded = new String(encoded, StandardCharsets.UTF_8);
+        assertThat(decoded).doesNotContain("\uFFFD");
+        assertThat(message).startsWith(decoded);
+    }
+
+    private TrackingNumberRequest createValidRequest() {
+        return new TrackingNumberRequest(
+                "MY",
+                "ID",
+                1.234,
+                OffsetDateTime.now(),
+                UUID.randomUUID(),
+                "Test Customer",
+                "test-customer"
+        );
+    }
+}
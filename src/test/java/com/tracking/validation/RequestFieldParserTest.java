@@ -0,0 +1,83 @@
+package com.tracking.validation;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for RequestFieldParser.
+ */
+class RequestFieldParserTest {
+
+    private static final Pattern KEBAB_CASE = Pattern.compile("^[a-z0-9]+(?:-[a-z0-9]+)*$");
+
+    @Test
+    void isCountryCode_ShouldAcceptAssignedCodesOnly() {
+        assertThat(RequestFieldParser.isCountryCode("MY")).isTrue();
+        assertThat(RequestFieldParser.isCountryCode("ID")).isTrue();
+        assertThat(RequestFieldParser.isCountryCode("US")).isTrue();
+        assertThat(RequestFieldParser.isCountryCode("ZW")).isTrue();
+        assertThat(RequestFieldParser.isCountryCode("XX")).isFalse();
+        assertThat(RequestFieldParser.isCountryCode("my")).isFalse();
+        assertThat(RequestFieldParser.isCountryCode("INVALID")).isFalse();
+        assertThat(RequestFieldParser.isCountryCode("")).isFalse();
+        assertThat(RequestFieldParser.isCountryCode(null)).isFalse();
+    }
+
+    @Test
+    void isKebabCase_ShouldMatchRegexSemantics() {
+        List<String> samples = List.of("test-customer", "redbox-logistics", "a", "a1-b2-c3", "abc",
+                "-abc", "abc-", "a--b", "Invalid_Slug", "UPPER", "with space", "", "-", "9-9");
+
+        for (String sample : samples) {
+            assertThat(RequestFieldParser.isKebabCase(sample))
+                    .as(sample)
+                    .isEqualTo(KEBAB_CASE.matcher(sample).matches());
+        }
+    }
+
+    @Test
+    void parseTimestamp_ShouldMatchJdkParser() {
+        List<String> samples = List.of(
+                "2018-11-20T19:29:32Z",
+                "2018-11-20T19:29:32z",
+                "2018-11-20t19:29:32+08:00",
+                "2018-11-20T19:29:32.123456789-05:30",
+                "2018-11-20T19:29:32.1Z",
+                "2018-11-20T19:29Z",
+                "2024-02-29T00:00:00+00:00",
+                "2023-02-29T00:00:00Z",
+                "2018-13-20T19:29:32Z",
+                "2018-11-20T24:00:00Z",
+                "2018-11-20T19:29:32+19:00",
+                "2018-11-20T19:29:32.Z",
+                "2018-11-20T19:29:32.1234567891Z",
+                "2018-11-20T19:29:32",
+                "2018-11-20 19:29:32Z",
+                "2018-11-20T19:29:32+0800",
+                "2018-11-20T19:29:32+08:00:30",
+                "+12018-11-20T19:29:32Z",
+                "garbage");
+
+        for (String sample : samples) {
+            OffsetDateTime expected;
+            try {
+                expected = OffsetDateTime.parse(sample);
+            } catch (DateTimeParseException e) {
+                expected = null;
+            }
+            assertThat(RequestFieldParser.parseTimestamp(sample)).as(sample).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void isNotBlank_ShouldRejectWhitespaceOnly() {
+        assertThat(RequestFieldParser.isNotBlank(" \t ")).isFalse();
+        assertThat(RequestFieldParser.isNotBlank("")).isFalse();
+        assertThat(RequestFieldParser.isNotBlank(" a ")).isTrue();
+    }
+}
@@ -0,0 +1,74 @@
+package com.tracking.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for TrackingNumberValidator.
+ */
+class TrackingNumberValidatorTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    @Test
+    void hasValidCheckCharacter_ShouldAccept_WhenCheckCharacterIsAppended() {
+        String body = "MY1234567";
+        String trackingNumber = body + TrackingNumberValidator.computeCheckCharacter(body);
+
+        assertThat(TrackingNumberValidator.hasValidCheckCharacter(trackingNumber)).isTrue();
+        assertThat(TrackingNumberValidator.isWellFormed(trackingNumber, true)).isTrue();
+    }
+
+    @Test
+    void hasValidCheckCharacter_ShouldDetectAllSingleSubstitutions() {
+        String body = "ABCDEFG12345";
+        String trackingNumber = body + TrackingNumberValidator.computeCheckCharacter(body);
+
+        for (int i = 0; i < trackingNumber.length(); i++) {
+            for (char c : ALPHABET.toCharArray()) {
+                if (c == trackingNumber.charAt(i)) {
+                    continue;
+                }
+                char[] chars = trackingNumber.toCharArray();
+                chars[i] = c;
+                assertThat(TrackingNumberValidator.hasValidCheckCharacter(new String(chars)))
+                        .as("substitution at %d with %s", i, c)
+                        .isFalse();
+            }
+        }
+    }
+
+    @Test
+    void hasValidCheckCharacter_ShouldDetectAdjacentTranspositions() {
+        String body = "K7Q2ZP0X9";
+        String trackingNumber = body + TrackingNumberValidator.computeCheckCharacter(body);
+
+        for (int i = 0; i < trackingNumber.length() - 1; i++) {
+            char[] chars = trackingNumber.toCharArray();
+            if (chars[i] == chars[i + 1]) {
+                continue;
+            }
+            char tmp = chars[i];
+            chars[i] = chars[i + 1];
+            chars[i + 1] = tmp;
+            assertThat(TrackingNumberValidator.hasValidCheckCharacter(new String(chars))).isFalse();
+        }
+    }
+
+    @Test
+    void isWellFormed_ShouldRejectInvalidShapes() {
+        assertThat(TrackingNumberValidator.isWellFormed(null, false)).isFalse();
+        assertThat(TrackingNumberValidator.isWellFormed("ABC1234", false)).isFalse();
+        assertThat(TrackingNumberValidator.isWellFormed("ABCDEFGH12345678X", false)).isFalse();
+        assertThat(TrackingNumberValidator.isWellFormed("abc12345", false)).isFalse();
+        assertThat(TrackingNumberValidator.isWellFormed("ABC-2345", false)).isFalse();
+        assertThat(TrackingNumberValidator.isWellFormed("ABC12345", false)).isTrue();
+    }
+
+    @Test
+    void computeCheckCharacter_ShouldRejectCharactersOutsideAlphabet() {
+        assertThatThrownBy(() -> TrackingNumberValidator.computeCheckCharacter("abc"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,106 @@
+package com.tracking.web;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for StartupMetricsFilter.
+ */
+class StartupMetricsFilterTest {
+
+    private final AtomicLong uptimeMillis = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private StartupMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new StartupMetricsFilter(meterRegistry, uptimeMillis::get);
+    }
+
+    @Test
+    void record_ShouldReportTimeToFirstRequest() {
+        // Given
+        uptimeMillis.set(4_200);
+
+        // When
+        filter.record(5_000_000);
+
+        // Then
+        assertThat(filter.getTimeToFirstRequestMillis()).isEqualTo(4_200);
+        assertThat(meterRegistry.get("tracking.startup.time.to.first.request").gauge().value()).isEqualTo(4.2);
+        assertThat(meterRegistry.get("tracking.startup.time.to.steady.state").gauge().value()).isNaN();
+    }
+
+    @Test
+    void record_ShouldReachSteadyStateOnlyAfterLatencyStabilizes() {
+        // Given: latency halves per window while the JIT warms up, then levels off
+        recordWindow(8_000_000);
+        recordWindow(4_000_000);
+        recordWindow(2_000_000);
+        recordWindow(1_000_000);
+        assertThat(filter.getTimeToSteadyStateMillis()).isEqualTo(-1);
+
+        // When
+        uptimeMillis.set(30_000);
+        for (int window = 0; window < StartupMetricsFilter.STABLE_WINDOWS; window++) {
+            recordWindow(1_000_000);
+        }
+
+        // Then
+        assertThat(filter.getTimeToSteadyStateMillis()).isEqualTo(30_000);
+        assertThat(meterRegistry.get("tracking.startup.time.to.steady.state").gauge().value()).isEqualTo(30.0);
+    }
+
+    @Test
+    void doFilter_ShouldRecordRequest_WhenAsyncResponseIsWritten() throws Exception {
+        // Given
+        AsyncController controller = new AsyncController();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).addFilters(filter).build();
+        uptimeMillis.set(1_000);
+        MvcResult result = mockMvc.perform(get("/next-tracking-number"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(filter.getTimeToFirstRequestMillis()).isEqualTo(-1);
+
+        // When
+        uptimeMillis.set(1_250);
+        controller.response.complete("ABC12345");
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        // Then
+        assertThat(filter.getTimeToFirstRequestMillis()).isEqualTo(1_250);
+    }
+
+    private void recordWindow(long latencyNanos) {
+        for (int i = 0; i < StartupMetricsFilter.WINDOW_SIZE; i++) {
+            filter.record(latencyNanos);
+        }
+    }
+
+    @RestController
+    static class AsyncController {
+
+        private final CompletableFuture<String> response = new CompletableFuture<>();
+
+        @GetMapping("/next-tracking-number")
+        CompletableFuture<String> generate() {
+            return response;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.tracking.web;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.tracking.domain.TrackingNumberResponse;
+
+/**
+ * Throughput and allocation benchmark of TrackingNumberResponseMessageConverter
+ * against the default Jackson converter.
+ *
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class TrackingNumberResponseMessageConverterBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    @Test
+    void write_ShouldOutperformJacksonConverter() throws Exception {
+        TrackingNumberResponse response = TrackingNumberResponse.of("ABC12345XYZ", OffsetDateTime.now(),
+                UUID.randomUUID(), UUID.randomUUID(), "RedBox Logistics");
+        MappingJackson2HttpMessageConverter jackson =
+                new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build());
+        TrackingNumberResponseMessageConverter preEncoded = new TrackingNumberResponseMessageConverter();
+
+        Result jacksonResult = measure(jackson, response);
+        Result preEncodedResult = measure(preEncoded, response);
+
+        System.out.printf("%-28s %14s %14s%n", "converter", "ops/s", "bytes/op");
+        System.out.printf("%-28s %,14.0f %,14.1f%n", "MappingJackson2", jacksonResult.opsPerSecond(), jacksonResult.bytesPerOp());
+        System.out.printf("%-28s %,14.0f %,14.1f%n", "TrackingNumberResponse", preEncodedResult.opsPerSecond(), preEncodedResult.bytesPerOp());
+
+        assertThat(preEncodedResult.bytesPerOp()).isLessThan(jacksonResult.bytesPerOp());
+    }
+
+    private static Result measure(HttpMessageConverter<? super TrackingNumberResponse> converter,
+                                  TrackingNumberResponse response) throws Exception {
+        DiscardingOutputMessage message = new DiscardingOutputMessage();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            converter.write(response, MediaType.APPLICATION_JSON, message);
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            converter.write(response, MediaType.APPLICATION_JSON, message);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        return new Result(MEASURED_ITERATIONS * 1e9 / elapsed, (double) allocated / MEASURED_ITERATIONS);
+    }
+
+    private record Result(double opsPerSecond, double bytesPerOp) {}
+
+    private static final class DiscardingOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final OutputStream body = OutputStream.nullOutputStream();
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
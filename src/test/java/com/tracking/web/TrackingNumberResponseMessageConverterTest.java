@@ -0,0 +1,66 @@
+package com.tracking.web;
+
+import java.io.ByteArrayOutputStream;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.domain.TrackingNumberResponse;
+
+/**
+ * Unit tests for TrackingNumberResponseMessageConverter.
+ */
+class TrackingNumberResponseMessageConverterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final TrackingNumberResponseMessageConverter converter = new TrackingNumberResponseMessageConverter();
+
+    @Test
+    void write_ShouldMatchJackson_ForTypicalAndEdgeCaseResponses() throws Exception {
+        List<TrackingNumberResponse> responses = List.of(
+                TrackingNumberResponse.of("ABC12345", OffsetDateTime.parse("2018-11-20T19:29:32Z"),
+                        UUID.randomUUID(), UUID.randomUUID(), "RedBox Logistics"),
+                TrackingNumberResponse.of("ABC12345", OffsetDateTime.parse("2018-11-20T19:29:32.987654321+08:00")),
+                TrackingNumberResponse.of("ABC12345", OffsetDateTime.of(18, 1, 2, 3, 4, 5, 0, ZoneOffset.ofHoursMinutes(-5, -30))),
+                TrackingNumberResponse.of("ABC12345", OffsetDateTime.of(12018, 1, 2, 3, 4, 5, 0, ZoneOffset.UTC)),
+                TrackingNumberResponse.of("ABC12345", OffsetDateTime.of(2024, 1, 2, 3, 4, 5, 0, ZoneOffset.ofTotalSeconds(3615))),
+                new TrackingNumberResponse(null, null, null, null, null),
+                TrackingNumberResponse.error("Validation Failed", "Customer slug must be in kebab-case format",
+                        UUID.randomUUID()),
+                new TrackingNumberResponse("ABC12345", null, new UUID(0, 0), new UUID(-1, -1),
+                        "quote\" backslash\\ control\u0001\b\t\n\f\r\u001f del\u007f latiné euro€ emoji😀 lone\ud800"));
+
+        for (TrackingNumberResponse response : responses) {
+            assertThat(encode(response)).isEqualTo(objectMapper.writeValueAsBytes(response));
+        }
+    }
+
+    @Test
+    void write_ShouldMatchJackson_ForRandomCustomerNames() throws Exception {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2_000; i++) {
+            char[] name = new char[random.nextInt(64)];
+            for (int j = 0; j < name.length; j++) {
+                name[j] = (char) (random.nextBoolean() ? random.nextInt(0x100) : random.nextInt(0x10000));
+            }
+            TrackingNumberResponse response = TrackingNumberResponse.of("ABC12345", OffsetDateTime.now(),
+                    UUID.randomUUID(), UUID.randomUUID(), new String(name));
+
+            assertThat(encode(response)).isEqualTo(objectMapper.writeValueAsBytes(response));
+        }
+    }
+
+    private byte[] encode(TrackingNumberResponse response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter.write(response, out);
+        return out.toByteArray();
+    }
+}